@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import dagger.internal.Beta;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import javax.inject.Scope;
+
+/**
+ * A scope that indicates that the object returned by a binding may be reused until it is {@link
+ * #seconds()} old, after which it is recreated in the background.
+ *
+ * <p>Like {@link Reusable @Reusable}, there is no specific lifetime over which there must be only
+ * one instance. The first request for the binding creates the instance. Once it has expired, the
+ * next request triggers a refresh on a background thread and keeps returning the previous (stale)
+ * instance until the refresh completes, so requests never block on expiry. This is useful for
+ * values like configuration snapshots or routing tables that must be refreshed periodically.
+ *
+ * <p>If the refresh throws, the stale instance is kept and the refresh is attempted again on the
+ * next request.
+ */
+@Documented
+@Beta
+@Retention(RUNTIME)
+@Scope
+public @interface Expiring {
+  /** The number of seconds an instance may be reused before it is refreshed. Must be positive. */
+  long seconds();
+}
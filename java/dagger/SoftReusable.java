@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import dagger.internal.Beta;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import javax.inject.Scope;
+
+/**
+ * A scope that indicates that the object returned by a binding may be reused for as long as the
+ * garbage collector does not need to reclaim its memory.
+ *
+ * <p>Like {@link Reusable @Reusable}, there is no specific lifetime over which there must be only
+ * one instance. The instance is held through a {@link java.lang.ref.SoftReference}, so it is
+ * released when the VM is low on memory and recreated the next time it is requested. This is
+ * useful for large objects that are expensive to build but can be rebuilt on demand, like lookup
+ * tables or parsed configuration.
+ *
+ * <p>Users must not rely on the identity of the returned object: two requests for the same binding
+ * may return different instances if the first one was collected in between.
+ */
+@Documented
+@Beta
+@Retention(RUNTIME)
+@Scope
+public @interface SoftReusable {}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import dagger.internal.Beta;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Annotates a root {@link Component @Component} so that its scoped bindings that don't depend on
+ * any state of the component are held in static fields instead of in the component instance.
+ *
+ * <p>A scoped binding is held statically if it is an {@link javax.inject.Inject @Inject}
+ * constructor without injected members or a static {@link Provides @Provides} method, and each of
+ * its dependencies is either held statically itself or is an unscoped binding of the same kind.
+ * Its instance is created the first time it is requested, by the class loader's initialization of
+ * a nested holder class, so reading it afterwards needs neither a lock nor a volatile read.
+ *
+ * <p><em>Every instance of the component shares the same instance</em> of each such binding, for
+ * the lifetime of the class loader. Only use this annotation on a component that is created once
+ * per process, or whose scoped stateless bindings may be shared across its instances.
+ *
+ * <p><em>Creating a held instance is attempted only once.</em> If its constructor or {@link
+ * Provides @Provides} method throws, the first request for the binding throws {@link
+ * ExceptionInInitializerError} and every later request throws {@link NoClassDefFoundError}, for the
+ * lifetime of the class loader, as does every request for a statically held binding that depends
+ * on it. A scoped binding that is not held statically would instead retry the creation on its next
+ * request. Only use this annotation on a component whose scoped stateless bindings can't fail to
+ * be created.
+ */
+@Documented
+@Target(TYPE)
+@Retention(RUNTIME)
+@Beta
+public @interface StaticScopedBindings {}
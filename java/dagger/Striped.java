@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import dagger.internal.Beta;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import javax.inject.Scope;
+
+/**
+ * A scope that indicates that the object returned by a binding may be reused, but that requests
+ * from different threads should be spread over a fixed number of instances.
+ *
+ * <p>This is useful for thread-safe objects that are touched by many threads at once, like
+ * counters or pools, where a single shared instance would be a point of contention. Each instance
+ * is created the first time a thread that maps to its stripe requests it.
+ *
+ * <p>Users must not rely on the identity of the returned object: requests from different threads
+ * may or may not return the same instance.
+ */
+@Documented
+@Beta
+@Retention(RUNTIME)
+@Scope
+public @interface Striped {
+  /**
+   * The number of instances to spread requests over, rounded up to a power of two. If this is
+   * {@code 0} (the default), the number of available processors is used.
+   */
+  int stripes() default 0;
+}
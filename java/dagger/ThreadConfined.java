@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger;
+
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import dagger.internal.Beta;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import javax.inject.Scope;
+
+/**
+ * A scope that indicates that the object returned by a binding may be reused by the thread that
+ * requested it, but must never be shared with another thread.
+ *
+ * <p>This is useful for objects that are cheap to keep around but not thread-safe, like formatters
+ * or scratch buffers, that would otherwise need to be guarded by a lock.
+ *
+ * <p>Each component instance holds the instances of a binding with this scope in a {@link
+ * ThreadLocal} of that binding's own, not one shared by the component. An instance is released when
+ * its thread terminates; each virtual thread also gets its own instance, which is released when the
+ * virtual thread terminates. An instance is <em>not</em> released when the component is garbage
+ * collected while its thread keeps running: it stays reachable from the thread until the thread's
+ * thread-local map expunges the stale entry, which may never happen on long-lived threads such as
+ * those of a thread pool. Avoid this scope for large objects in components that are created
+ * repeatedly on pooled threads.
+ */
+@Documented
+@Beta
+@Retention(RUNTIME)
+@Scope
+public @interface ThreadConfined {}
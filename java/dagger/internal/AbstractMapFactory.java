@@ -16,9 +16,9 @@
 
 package dagger.internal;
 
+import static dagger.internal.DaggerCollections.compactCopyOf;
 import static dagger.internal.DaggerCollections.newLinkedHashMapWithExpectedSize;
 import static dagger.internal.Preconditions.checkNotNull;
-import static java.util.Collections.unmodifiableMap;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -35,7 +35,7 @@ abstract class AbstractMapFactory<K, V, V2> implements Factory<Map<K, V2>> {
   private final Map<K, Provider<V>> contributingMap;
 
   AbstractMapFactory(Map<K, Provider<V>> map) {
-    this.contributingMap = unmodifiableMap(map);
+    this.contributingMap = compactCopyOf(map);
   }
 
   /** The map of {@link Provider}s that contribute to this map binding. */
@@ -16,12 +16,19 @@
 
 package dagger.internal;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import javax.inject.Provider;
 
 /**
  * Collection utility methods in service of Dagger internal classes. <em>Do not use</em> in client
@@ -58,14 +65,6 @@ public final class DaggerCollections {
     return list.size() != asSet.size();
   }
 
-  /**
-   * Creates a {@link HashSet} instance, with a high enough "intial capcity" that it <em>should</em>
-   * hold {@code expectedSize} elements without growth.
-   */
-  static <T> HashSet<T> newHashSetWithExpectedSize(int expectedSize) {
-    return new HashSet<T>(calculateInitialCapacity(expectedSize));
-  }
-
   /**
    * Creates a {@link LinkedHashMap} instance, with a high enough "initial capacity" that it
    * <em>should</em> hold {@code expectedSize} elements without growth.
@@ -86,4 +85,422 @@ public final class DaggerCollections {
     }
     return Integer.MAX_VALUE; // any large value
   }
+
+  /**
+   * Returns a builder for an immutable {@link Set} that iterates in insertion order and
+   * <em>should</em> hold {@code expectedSize} elements without growth.
+   *
+   * <p>The set is backed by an array of its elements and an open-addressed hash table of indexes
+   * into that array, which is far more compact than a {@link HashSet} for the small sets that
+   * multibindings usually contribute.
+   */
+  static <T> CompactSetBuilder<T> compactSetBuilder(int expectedSize) {
+    return new CompactSetBuilder<T>(expectedSize);
+  }
+
+  /**
+   * Returns a builder for an immutable {@link Map} that iterates in insertion order and
+   * <em>should</em> hold {@code expectedSize} entries without growth.
+   *
+   * <p>The map is backed by an array of its keys and values and an open-addressed hash table of
+   * indexes into that array, which is far more compact than a {@link LinkedHashMap} for the small
+   * maps that multibindings usually contribute.
+   */
+  static <K, V> CompactMapBuilder<K, V> compactMapBuilder(int expectedSize) {
+    return new CompactMapBuilder<K, V>(expectedSize);
+  }
+
+  /** Returns an immutable copy of {@code map} with the same iteration order. */
+  static <K, V> Map<K, V> compactCopyOf(Map<K, V> map) {
+    CompactMapBuilder<K, V> builder = compactMapBuilder(map.size());
+    for (Map.Entry<K, V> entry : map.entrySet()) {
+      builder.put(entry.getKey(), entry.getValue());
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns an immutable map with the same keys as {@code providers}, in the same order, whose
+   * values are given by calling each provider in that order.
+   *
+   * <p>If {@code providers} was created by {@link #compactCopyOf(Map)}, the returned map shares its
+   * hash table, so the only allocations are the map and one array for its keys and values.
+   */
+  static <K, V> Map<K, V> provideValues(Map<K, Provider<V>> providers) {
+    if (providers.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    if (holdsValues(providers)) {
+      @SuppressWarnings("unchecked")
+      CompactImmutableMap<K, Provider<V>> compactProviders =
+          (CompactImmutableMap<K, Provider<V>>) providers;
+      Object[] keysAndValues =
+          Arrays.copyOf(compactProviders.keysAndValues, compactProviders.keysAndValues.length);
+      for (int i = 1; i < keysAndValues.length; i += 2) {
+        keysAndValues[i] = ((Provider<?>) keysAndValues[i]).get();
+      }
+      return new CompactImmutableMap<K, V>(keysAndValues, compactProviders.table);
+    }
+    CompactMapBuilder<K, V> builder = compactMapBuilder(providers.size());
+    for (Map.Entry<K, Provider<V>> entry : providers.entrySet()) {
+      builder.put(entry.getKey(), entry.getValue().get());
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns an immutable map with the same keys as {@code providers}, in the same order, whose
+   * values are given by calling each provider the first time its value is read, either by {@link
+   * Map#get(Object)} or by iterating over the map. Each value is then memoized for the lifetime of
+   * the returned map.
+   *
+   * <p>If {@code providers} was created by {@link #compactCopyOf(Map)}, the returned map shares its
+   * keys, providers and hash table, so the only allocations are the map, one array for its values
+   * and a holder for each value that is read.
+   */
+  static <K, V> Map<K, V> provideValuesLazily(Map<K, Provider<V>> providers) {
+    if (providers.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    if (!holdsValues(providers)) {
+      providers = compactCopyOf(providers);
+    }
+    @SuppressWarnings("unchecked")
+    CompactImmutableMap<K, Provider<V>> compactProviders =
+        (CompactImmutableMap<K, Provider<V>>) providers;
+    return new LazyValuesMap<K, V>(compactProviders.keysAndValues, compactProviders.table);
+  }
+
+  /** Returns {@code true} if {@code map} is a compact map whose array holds its values. */
+  private static boolean holdsValues(Map<?, ?> map) {
+    return map instanceof CompactImmutableMap && !(map instanceof LazyValuesMap);
+  }
+
+  /** A single-use builder of an immutable, insertion-ordered {@link Set}. */
+  static final class CompactSetBuilder<T> {
+    private Object[] elements;
+    private int[] table;
+    private int size;
+
+    private CompactSetBuilder(int expectedSize) {
+      elements = new Object[expectedSize];
+      table = new int[tableSize(expectedSize)];
+    }
+
+    /** Adds {@code element} unless the set already contains an equal element. */
+    CompactSetBuilder<T> add(T element) {
+      if (indexOf(elements, 1, table, element) >= 0) {
+        return this;
+      }
+      if (size == elements.length) {
+        elements = Arrays.copyOf(elements, Math.max(1, size * 2));
+        table = rehash(elements, 1, size, tableSize(elements.length));
+      }
+      elements[size] = element;
+      insert(table, element, size);
+      size++;
+      return this;
+    }
+
+    Set<T> build() {
+      if (size == 0) {
+        return Collections.emptySet();
+      }
+      return new CompactImmutableSet<T>(
+          size == elements.length ? elements : Arrays.copyOf(elements, size), table);
+    }
+  }
+
+  /** A single-use builder of an immutable, insertion-ordered {@link Map}. */
+  static final class CompactMapBuilder<K, V> {
+    private Object[] keysAndValues;
+    private int[] table;
+    private int size;
+
+    private CompactMapBuilder(int expectedSize) {
+      keysAndValues = new Object[expectedSize * 2];
+      table = new int[tableSize(expectedSize)];
+    }
+
+    /**
+     * Associates {@code key} with {@code value}. If the map already contains {@code key}, its value
+     * is replaced but its position is kept.
+     */
+    CompactMapBuilder<K, V> put(K key, V value) {
+      int index = indexOf(keysAndValues, 2, table, key);
+      if (index >= 0) {
+        keysAndValues[index * 2 + 1] = value;
+        return this;
+      }
+      if (size * 2 == keysAndValues.length) {
+        keysAndValues = Arrays.copyOf(keysAndValues, Math.max(2, size * 4));
+        table = rehash(keysAndValues, 2, size, tableSize(keysAndValues.length / 2));
+      }
+      keysAndValues[size * 2] = key;
+      keysAndValues[size * 2 + 1] = value;
+      insert(table, key, size);
+      size++;
+      return this;
+    }
+
+    Map<K, V> build() {
+      if (size == 0) {
+        return Collections.emptyMap();
+      }
+      return new CompactImmutableMap<K, V>(
+          size * 2 == keysAndValues.length
+              ? keysAndValues
+              : Arrays.copyOf(keysAndValues, size * 2),
+          table);
+    }
+  }
+
+  private static final class CompactImmutableSet<E> extends AbstractSet<E> {
+    private final Object[] elements;
+    private final int[] table;
+
+    CompactImmutableSet(Object[] elements, int[] table) {
+      this.elements = elements;
+      this.table = table;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return o != null && indexOf(elements, 1, table, o) >= 0;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+      return new ArrayIterator<E>(elements);
+    }
+
+    @Override
+    public int size() {
+      return elements.length;
+    }
+  }
+
+  private static class CompactImmutableMap<K, V> extends AbstractMap<K, V> {
+    final Object[] keysAndValues;
+    final int[] table;
+
+    CompactImmutableMap(Object[] keysAndValues, int[] table) {
+      this.keysAndValues = keysAndValues;
+      this.table = table;
+    }
+
+    /** Returns the value of the {@code index}th entry. */
+    @SuppressWarnings("unchecked")
+    V valueAt(int index) {
+      return (V) keysAndValues[index * 2 + 1];
+    }
+
+    @Override
+    public V get(Object key) {
+      int index = key == null ? -1 : indexOf(keysAndValues, 2, table, key);
+      return index < 0 ? null : valueAt(index);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key != null && indexOf(keysAndValues, 2, table, key) >= 0;
+    }
+
+    @Override
+    public int size() {
+      return keysAndValues.length / 2;
+    }
+
+    // Overridden so that iterating over the keys of a LazyValuesMap doesn't provide its values.
+    @Override
+    public Set<K> keySet() {
+      return new AbstractSet<K>() {
+        @Override
+        public boolean contains(Object o) {
+          return containsKey(o);
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+          return new ArrayIterator<K>(keysAndValues, 2);
+        }
+
+        @Override
+        public int size() {
+          return CompactImmutableMap.this.size();
+        }
+      };
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+      return new AbstractSet<Map.Entry<K, V>>() {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+          return new Iterator<Map.Entry<K, V>>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+              return index < keysAndValues.length;
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public Map.Entry<K, V> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              Map.Entry<K, V> entry =
+                  new AbstractMap.SimpleImmutableEntry<K, V>(
+                      (K) keysAndValues[index], valueAt(index / 2));
+              index += 2;
+              return entry;
+            }
+
+            @Override
+            public void remove() {
+              throw new UnsupportedOperationException();
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return CompactImmutableMap.this.size();
+        }
+      };
+    }
+  }
+
+  /**
+   * A {@link CompactImmutableMap} whose array holds a {@link Provider} for each value, which is
+   * called the first time the value is read.
+   *
+   * <p>No lock is held while a provider is called, so a slow value doesn't block reads of the other
+   * values. If several threads read the same value for the first time at once, each of them may
+   * call its provider, but only the first value to be stored is ever returned.
+   */
+  private static final class LazyValuesMap<K, V> extends CompactImmutableMap<K, V> {
+    // Each element is null or a ProvidedValue. Its final field makes it safe to read the element
+    // without holding a lock.
+    private final Object[] values;
+
+    LazyValuesMap(Object[] keysAndProviders, int[] table) {
+      super(keysAndProviders, table);
+      this.values = new Object[keysAndProviders.length / 2];
+    }
+
+    @SuppressWarnings("unchecked") // the value always comes from a Provider<V>
+    @Override
+    V valueAt(int index) {
+      ProvidedValue provided = (ProvidedValue) values[index];
+      if (provided == null) {
+        Object value = ((Provider<?>) keysAndValues[index * 2 + 1]).get();
+        // Only the store is locked, so that exactly one value is ever published for each index.
+        synchronized (values) {
+          provided = (ProvidedValue) values[index];
+          if (provided == null) {
+            provided = new ProvidedValue(value);
+            values[index] = provided;
+          }
+        }
+      }
+      return (V) provided.value;
+    }
+  }
+
+  /** A value of a {@link LazyValuesMap}, safely published by its final field. */
+  private static final class ProvidedValue {
+    final Object value;
+
+    ProvidedValue(Object value) {
+      this.value = value;
+    }
+  }
+
+  private static final class ArrayIterator<E> implements Iterator<E> {
+    private final Object[] array;
+    private final int stride;
+    private int index;
+
+    ArrayIterator(Object[] array) {
+      this(array, 1);
+    }
+
+    /** Iterates over every {@code stride}th element of {@code array}, starting at the first. */
+    ArrayIterator(Object[] array, int stride) {
+      this.array = array;
+      this.stride = stride;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return index < array.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      E element = (E) array[index];
+      index += stride;
+      return element;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * Returns the index of {@code key} in {@code array}, where keys are stored every {@code stride}
+   * elements and {@code table} holds each key's index plus one, or {@code -1} if it is absent.
+   */
+  private static int indexOf(Object[] array, int stride, int[] table, Object key) {
+    int mask = table.length - 1;
+    for (int i = smear(key.hashCode()) & mask; ; i = (i + 1) & mask) {
+      int entry = table[i];
+      if (entry == 0) {
+        return -1;
+      }
+      if (key.equals(array[(entry - 1) * stride])) {
+        return entry - 1;
+      }
+    }
+  }
+
+  private static void insert(int[] table, Object key, int index) {
+    int mask = table.length - 1;
+    int i = smear(key.hashCode()) & mask;
+    while (table[i] != 0) {
+      i = (i + 1) & mask;
+    }
+    table[i] = index + 1;
+  }
+
+  private static int[] rehash(Object[] array, int stride, int size, int tableSize) {
+    int[] table = new int[tableSize];
+    for (int i = 0; i < size; i++) {
+      insert(table, array[i * stride], i);
+    }
+    return table;
+  }
+
+  /** Returns the smallest power of two that keeps the table for {@code size} keys half empty. */
+  static int tableSize(int size) {
+    if (size >= MAX_POWER_OF_TWO / 2) {
+      return MAX_POWER_OF_TWO;
+    }
+    return size <= 1 ? 2 : Integer.highestOneBit(size * 2 - 1) << 1;
+  }
+
+  /** Spreads the bits of {@code hashCode}, since the table is indexed by its lowest bits. */
+  static int smear(int hashCode) {
+    int h = hashCode * 0xcc9e2d51;
+    return Integer.rotateLeft(h, 15) * 0x1b873593;
+  }
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.Preconditions.checkNotNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.inject.Provider;
+
+/**
+ * A {@link Provider} implementation that memoizes the result of another {@link Provider} for a
+ * fixed amount of time, and then refreshes it in the background.
+ *
+ * <p>The first call to {@link #get()} blocks until the delegate returns, using the same
+ * double-check idiom as {@link DoubleCheck}. Once the value has expired, the next call schedules a
+ * single refresh on an {@link Executor} and, like every other call until the refresh completes,
+ * returns the stale value without blocking.
+ *
+ * <p>If a refresh throws, the stale value is kept and the refresh is retried once it has been
+ * stale for another second, then two, four and so on, up to the time-to-live, so that a failing
+ * delegate isn't called again by every request.
+ */
+@GwtIncompatible
+public final class ExpiringCheck<T> implements Provider<T> {
+  private static final Object UNINITIALIZED = new Object();
+  private static final long INITIAL_RETRY_DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final Provider<T> provider;
+  private final long ttlNanos;
+  private final long initialRetryDelayNanos;
+  private final Executor executor;
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+  private volatile Object instance = UNINITIALIZED;
+  private volatile long expiresAtNanos;
+  /**
+   * The delay before retrying the last failed refresh, or 0 if the last refresh succeeded. Only
+   * accessed by the refresh task, which {@code refreshing} keeps from running concurrently.
+   */
+  private long retryDelayNanos;
+
+  private final Runnable refresh =
+      new Runnable() {
+        @Override
+        public void run() {
+          boolean refreshed = false;
+          try {
+            Object result = provider.get();
+            expiresAtNanos = System.nanoTime() + ttlNanos;
+            instance = result;
+            retryDelayNanos = 0;
+            refreshed = true;
+          } finally {
+            if (!refreshed) {
+              retryDelayNanos = nextRetryDelayNanos();
+              expiresAtNanos = System.nanoTime() + retryDelayNanos;
+            }
+            refreshing.set(false);
+          }
+        }
+      };
+
+  private ExpiringCheck(
+      Provider<T> provider, long ttlNanos, long initialRetryDelayNanos, Executor executor) {
+    assert provider != null;
+    assert executor != null;
+    this.provider = provider;
+    this.ttlNanos = ttlNanos;
+    this.initialRetryDelayNanos = initialRetryDelayNanos;
+    this.executor = executor;
+  }
+
+  /** Doubles the delay after each consecutive failed refresh, up to the time-to-live. */
+  private long nextRetryDelayNanos() {
+    long maxRetryDelayNanos = Math.max(ttlNanos, initialRetryDelayNanos);
+    if (retryDelayNanos == 0) {
+      return initialRetryDelayNanos;
+    }
+    return retryDelayNanos > maxRetryDelayNanos / 2 ? maxRetryDelayNanos : retryDelayNanos * 2;
+  }
+
+  @SuppressWarnings("unchecked") // cast only happens when result comes from the provider
+  @Override
+  public T get() {
+    Object result = instance;
+    if (result == UNINITIALIZED) {
+      synchronized (this) {
+        result = instance;
+        if (result == UNINITIALIZED) {
+          result = provider.get();
+          expiresAtNanos = System.nanoTime() + ttlNanos;
+          instance = result;
+        }
+      }
+    } else if (System.nanoTime() - expiresAtNanos >= 0 && refreshing.compareAndSet(false, true)) {
+      try {
+        executor.execute(refresh);
+      } catch (RuntimeException e) {
+        refreshing.set(false);
+        throw e;
+      }
+    }
+    return (T) result;
+  }
+
+  /**
+   * Returns a {@link Provider} that caches the value from the given delegate provider for {@code
+   * ttlSeconds} seconds, and then refreshes it on a shared pool of daemon threads.
+   */
+  // This method is declared this way instead of "<T> Provider<T> provider(Provider<T> delegate)"
+  // to work around an Eclipse type inference bug: https://github.com/google/dagger/issues/949.
+  public static <P extends Provider<T>, T> Provider<T> provider(P delegate, long ttlSeconds) {
+    return provider(
+        delegate,
+        TimeUnit.SECONDS.toNanos(ttlSeconds),
+        INITIAL_RETRY_DELAY_NANOS,
+        RefreshExecutorHolder.EXECUTOR);
+  }
+
+  /**
+   * Returns a {@link Provider} that caches the value from the given delegate provider for {@code
+   * ttlNanos} nanoseconds, and then refreshes it on {@code executor}, retrying a failed refresh
+   * after {@code initialRetryDelayNanos} nanoseconds.
+   */
+  static <P extends Provider<T>, T> Provider<T> provider(
+      P delegate, long ttlNanos, long initialRetryDelayNanos, Executor executor) {
+    checkNotNull(delegate);
+    checkNotNull(executor);
+    if (ttlNanos < 0) {
+      throw new IllegalArgumentException("ttl must not be negative: " + ttlNanos);
+    }
+    if (delegate instanceof ExpiringCheck
+        || delegate instanceof SingleCheck
+        || delegate instanceof DoubleCheck
+        || delegate instanceof LockingDoubleCheck) {
+      /* If a scoped @Binds delegates to a scoped binding, don't cache the value again. A refresh of
+       * a value that never changes would be a no-op anyway. */
+      return delegate;
+    }
+    return new ExpiringCheck<T>(delegate, ttlNanos, initialRetryDelayNanos, executor);
+  }
+
+  /** Lazily creates the executor so that components without expiring bindings start no threads. */
+  private static final class RefreshExecutorHolder {
+    static final ExecutorService EXECUTOR =
+        Executors.newCachedThreadPool(
+            new ThreadFactory() {
+              private final ThreadFactory delegate = Executors.defaultThreadFactory();
+
+              @Override
+              public Thread newThread(Runnable runnable) {
+                Thread thread = delegate.newThread(runnable);
+                thread.setName("dagger-expiring-refresh-" + thread.getName());
+                thread.setDaemon(true);
+                return thread;
+              }
+            });
+  }
+}
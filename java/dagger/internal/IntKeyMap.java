@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.DaggerCollections.smear;
+import static dagger.internal.DaggerCollections.tableSize;
+import static dagger.internal.Preconditions.checkNotNull;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.inject.Provider;
+
+/**
+ * An immutable, insertion-ordered {@code Map<Integer, V>} whose keys are stored as {@code int}s in
+ * an open-addressed hash table, so that neither building the map nor {@link #get(int)} boxes a key.
+ *
+ * <p>This is the map that is generated for {@code Map<Integer, V>} multibindings when {@code
+ * -Adagger.primitiveKeyMaps=enabled}.
+ */
+public final class IntKeyMap<V> extends AbstractMap<Integer, V> {
+  private final int[] keys;
+  private final Object[] values;
+  private final int[] table;
+
+  private IntKeyMap(int[] keys, Object[] values, int[] table) {
+    this.keys = keys;
+    this.values = values;
+    this.table = table;
+  }
+
+  /**
+   * Returns a builder for a map that <em>should</em> hold {@code expectedSize} entries without
+   * growth.
+   */
+  public static <V> Builder<V> builder(int expectedSize) {
+    return new Builder<V>(expectedSize);
+  }
+
+  /**
+   * Returns a map with the same keys as {@code providers}, in the same order, whose values are given
+   * by calling each provider in that order. The returned map shares the keys and hash table of
+   * {@code providers}.
+   */
+  static <V> IntKeyMap<V> provideValues(IntKeyMap<Provider<V>> providers) {
+    Object[] values = new Object[providers.values.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = ((Provider<?>) providers.values[i]).get();
+    }
+    return new IntKeyMap<V>(providers.keys, values, providers.table);
+  }
+
+  /** Returns the value for {@code key}, or {@code null} if the map doesn't contain {@code key}. */
+  @SuppressWarnings("unchecked")
+  public V get(int key) {
+    int index = indexOf(keys, table, key);
+    return index < 0 ? null : (V) values[index];
+  }
+
+  /** Returns {@code true} if the map contains {@code key}. */
+  public boolean containsKey(int key) {
+    return indexOf(keys, table, key) >= 0;
+  }
+
+  @Override
+  public V get(Object key) {
+    return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key instanceof Integer && containsKey(((Integer) key).intValue());
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public Set<Map.Entry<Integer, V>> entrySet() {
+    return new AbstractSet<Map.Entry<Integer, V>>() {
+      @Override
+      public Iterator<Map.Entry<Integer, V>> iterator() {
+        return new Iterator<Map.Entry<Integer, V>>() {
+          private int index;
+
+          @Override
+          public boolean hasNext() {
+            return index < keys.length;
+          }
+
+          @SuppressWarnings("unchecked")
+          @Override
+          public Map.Entry<Integer, V> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            Map.Entry<Integer, V> entry =
+                new AbstractMap.SimpleImmutableEntry<Integer, V>(keys[index], (V) values[index]);
+            index++;
+            return entry;
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return keys.length;
+      }
+    };
+  }
+
+  /**
+   * Returns the index of {@code key} in {@code keys}, where {@code table} holds each key's index
+   * plus one, or {@code -1} if it is absent.
+   */
+  private static int indexOf(int[] keys, int[] table, int key) {
+    int mask = table.length - 1;
+    for (int i = smear(key) & mask; ; i = (i + 1) & mask) {
+      int entry = table[i];
+      if (entry == 0) {
+        return -1;
+      }
+      if (keys[entry - 1] == key) {
+        return entry - 1;
+      }
+    }
+  }
+
+  private static void insert(int[] table, int key, int index) {
+    int mask = table.length - 1;
+    int i = smear(key) & mask;
+    while (table[i] != 0) {
+      i = (i + 1) & mask;
+    }
+    table[i] = index + 1;
+  }
+
+  /** A single-use builder of an {@link IntKeyMap}. */
+  public static final class Builder<V> {
+    private int[] keys;
+    private Object[] values;
+    private int[] table;
+    private int size;
+
+    private Builder(int expectedSize) {
+      keys = new int[expectedSize];
+      values = new Object[expectedSize];
+      table = new int[tableSize(expectedSize)];
+    }
+
+    /**
+     * Associates {@code key} with {@code value}. If the map already contains {@code key}, its value
+     * is replaced but its position is kept.
+     */
+    public Builder<V> put(int key, V value) {
+      checkNotNull(value, "value");
+      int index = indexOf(keys, table, key);
+      if (index >= 0) {
+        values[index] = value;
+        return this;
+      }
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, Math.max(1, size * 2));
+        values = Arrays.copyOf(values, keys.length);
+        table = new int[tableSize(keys.length)];
+        for (int i = 0; i < size; i++) {
+          insert(table, keys[i], i);
+        }
+      }
+      keys[size] = key;
+      values[size] = value;
+      insert(table, key, size);
+      size++;
+      return this;
+    }
+
+    /** Returns a new {@link IntKeyMap}. */
+    public IntKeyMap<V> build() {
+      return size == keys.length
+          ? new IntKeyMap<V>(keys, values, table)
+          : new IntKeyMap<V>(Arrays.copyOf(keys, size), Arrays.copyOf(values, size), table);
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal;
+
+import static dagger.internal.DaggerCollections.provideValuesLazily;
+
+import java.util.Map;
+import javax.inject.Provider;
+
+/**
+ * A {@link Factory} implementation used to implement {@link Map} bindings declared with {@link
+ * dagger.multibindings.LazyValues @LazyValues}. This factory returns a {@code Map<K, V>} when
+ * calling {@link #get} (as specified by {@link Factory}), but doesn't call a contributing provider
+ * until its value is read.
+ */
+public final class LazyValuesMapFactory<K, V> extends AbstractMapFactory<K, V, V> {
+  /** Returns a new {@link Builder} */
+  public static <K, V> Builder<K, V> builder(int size) {
+    return new Builder<>(size);
+  }
+
+  private LazyValuesMapFactory(Map<K, Provider<V>> map) {
+    super(map);
+  }
+
+  /**
+   * Returns a {@code Map<K, V>} whose iteration order is that of the elements given by each of the
+   * providers. Each provider is invoked the first time its value is read from the returned map,
+   * either by {@link Map#get(Object)} or by iteration, and its value is reused after that.
+   */
+  @Override
+  public Map<K, V> get() {
+    return provideValuesLazily(contributingMap());
+  }
+
+  /** A builder for {@link LazyValuesMapFactory}. */
+  public static final class Builder<K, V> extends AbstractMapFactory.Builder<K, V, V> {
+    private Builder(int size) {
+      super(size);
+    }
+
+    @Override
+    public Builder<K, V> put(K key, Provider<V> providerOfValue) {
+      super.put(key, providerOfValue);
+      return this;
+    }
+
+    @Override
+    public Builder<K, V> putAll(Provider<Map<K, V>> mapFactory) {
+      super.putAll(mapFactory);
+      return this;
+    }
+
+    /** Returns a new {@link LazyValuesMapFactory}. */
+    public LazyValuesMapFactory<K, V> build() {
+      return new LazyValuesMapFactory<>(map);
+    }
+  }
+}
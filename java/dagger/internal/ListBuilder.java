@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import static dagger.internal.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A fluent builder class that returns a {@link List}. Used in component implementations where a
+ * list must be created in one fluent statement for inlined request fulfillments.
+ */
+public final class ListBuilder<T> {
+  private static final String LIST_CONTRIBUTIONS_CANNOT_BE_NULL =
+      "List contributions cannot be null";
+  private final ArrayList<T> contributions;
+
+  private ListBuilder(int estimatedSize) {
+    contributions = new ArrayList<>(estimatedSize);
+  }
+
+  /**
+   * {@code estimatedSize} is the number of bindings which contribute to the list. They may each
+   * provide {@code [0..n)} instances to the list.
+   */
+  public static <T> ListBuilder<T> newListBuilder(int estimatedSize) {
+    return new ListBuilder<T>(estimatedSize);
+  }
+
+  public ListBuilder<T> add(T t) {
+    contributions.add(checkNotNull(t, LIST_CONTRIBUTIONS_CANNOT_BE_NULL));
+    return this;
+  }
+
+  public ListBuilder<T> addAll(Collection<? extends T> collection) {
+    for (T item : collection) {
+      checkNotNull(item, LIST_CONTRIBUTIONS_CANNOT_BE_NULL);
+    }
+    contributions.addAll(collection);
+    return this;
+  }
+
+  public List<T> build() {
+    switch (contributions.size()) {
+      case 0:
+        return Collections.emptyList();
+      case 1:
+        return Collections.singletonList(contributions.get(0));
+      default:
+        return Collections.unmodifiableList(contributions);
+    }
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import static dagger.internal.DaggerCollections.presizedList;
+import static dagger.internal.Preconditions.checkNotNull;
+import static java.util.Collections.emptyList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import javax.inject.Provider;
+
+/**
+ * A {@link Factory} implementation used to implement {@link List} bindings. This factory always
+ * returns a new {@link List} instance for each call to {@link #get} (as required by {@link
+ * Factory}) whose elements are populated by subsequent calls to their {@link Provider#get} methods.
+ *
+ * <p>Unlike {@link SetFactory}, the elements are neither hashed nor deduplicated. They are copied,
+ * in the order that their providers were added, into a list that is presized from the sizes of the
+ * provided collections, and that still grows if a collection holds more elements than its {@link
+ * Collection#size()} reported.
+ */
+public final class ListFactory<T> implements Factory<List<T>> {
+  private static final String LIST_CONTRIBUTIONS_CANNOT_BE_NULL =
+      "List contributions cannot be null";
+  private static final Factory<List<Object>> EMPTY_FACTORY = InstanceFactory.create(emptyList());
+
+  @SuppressWarnings({"unchecked", "rawtypes"}) // safe covariant cast
+  public static <T> Factory<List<T>> empty() {
+    return (Factory) EMPTY_FACTORY;
+  }
+
+  /**
+   * Constructs a new {@link Builder} for a {@link ListFactory} with {@code providerSize} {@code
+   * Provider<T>} and {@code Provider<Collection<T>>} instances.
+   */
+  public static <T> Builder<T> builder(int providerSize) {
+    return new Builder<T>(providerSize);
+  }
+
+  /**
+   * A builder to accumulate {@code Provider<T>} and {@code Provider<Collection<T>>} instances, in
+   * order. These are only intended to be single-use and from within generated code. Do
+   * <em>NOT</em> add providers after calling {@link #build()}.
+   */
+  public static final class Builder<T> {
+    private final List<Provider<?>> providers;
+    private final List<Boolean> isCollection;
+
+    private Builder(int providerSize) {
+      providers = presizedList(providerSize);
+      isCollection = presizedList(providerSize);
+    }
+
+    public Builder<T> addProvider(Provider<? extends T> individualProvider) {
+      assert individualProvider != null : "Codegen error? Null provider";
+      providers.add(individualProvider);
+      isCollection.add(false);
+      return this;
+    }
+
+    public Builder<T> addCollectionProvider(
+        Provider<? extends Collection<? extends T>> collectionProvider) {
+      assert collectionProvider != null : "Codegen error? Null provider";
+      providers.add(collectionProvider);
+      isCollection.add(true);
+      return this;
+    }
+
+    public ListFactory<T> build() {
+      Provider<?>[] providerArray = providers.toArray(new Provider<?>[providers.size()]);
+      boolean[] isCollectionArray = new boolean[providerArray.length];
+      boolean hasCollections = false;
+      for (int i = 0; i < isCollectionArray.length; i++) {
+        isCollectionArray[i] = isCollection.get(i);
+        hasCollections |= isCollectionArray[i];
+      }
+      return new ListFactory<T>(providerArray, hasCollections ? isCollectionArray : null);
+    }
+  }
+
+  private final Provider<?>[] providers;
+  /** Whether each provider provides a collection, or {@code null} if none of them do. */
+  private final boolean[] isCollection;
+
+  private ListFactory(Provider<?>[] providers, boolean[] isCollection) {
+    this.providers = providers;
+    this.isCollection = isCollection;
+  }
+
+  /**
+   * Returns a {@link List} that contains the elements given by each of the providers, in order.
+   *
+   * @throws NullPointerException if any of the delegate {@link Collection} instances or elements
+   *     therein are {@code null}
+   */
+  @Override
+  public List<T> get() {
+    if (isCollection == null) {
+      Object[] elements = new Object[providers.length];
+      for (int i = 0; i < elements.length; i++) {
+        elements[i] = checkNotNull(providers[i].get(), LIST_CONTRIBUTIONS_CANNOT_BE_NULL);
+      }
+      return immutableList(elements);
+    }
+
+    // Call the providers in order, and count the elements to presize the list.
+    Object[] provided = new Object[providers.length];
+    int size = 0;
+    for (int i = 0; i < provided.length; i++) {
+      Object value = checkNotNull(providers[i].get(), LIST_CONTRIBUTIONS_CANNOT_BE_NULL);
+      size += isCollection[i] ? ((Collection<?>) value).size() : 1;
+      provided[i] = value;
+    }
+
+    // size() is only a hint: a concurrently modified collection may hold more or fewer elements.
+    List<Object> elements = new ArrayList<Object>(size);
+    for (int i = 0; i < provided.length; i++) {
+      if (isCollection[i]) {
+        for (Object element : (Collection<?>) provided[i]) {
+          elements.add(checkNotNull(element, LIST_CONTRIBUTIONS_CANNOT_BE_NULL));
+        }
+      } else {
+        elements.add(provided[i]);
+      }
+    }
+    return immutableList(elements);
+  }
+
+  private static <T> List<T> immutableList(Object[] elements) {
+    return immutableList(Arrays.asList(elements));
+  }
+
+  @SuppressWarnings("unchecked") // elements only holds Ts
+  private static <T> List<T> immutableList(List<Object> elements) {
+    return Collections.unmodifiableList((List<T>) elements);
+  }
+}
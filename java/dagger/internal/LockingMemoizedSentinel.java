@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A sentinel used to memoize a scoped binding in a component that also serves as the lock held
+ * while the binding is initialized. This is used instead of {@link MemoizedSentinel} when a
+ * component is generated with {@code -Adagger.scopedLockStrategy=reentrant}.
+ */
+@GwtIncompatible
+public final class LockingMemoizedSentinel extends ReentrantLock {
+  private static final long serialVersionUID = 0L;
+}
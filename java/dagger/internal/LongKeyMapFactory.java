@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.Preconditions.checkNotNull;
+
+import java.util.Map;
+import javax.inject.Provider;
+
+/**
+ * A {@link Factory} implementation used to implement {@code Map<Long, V>} bindings when {@code
+ * -Adagger.primitiveKeyMaps=enabled}. This factory returns an {@link LongKeyMap} when calling {@link
+ * #get} (as specified by {@link Factory}).
+ */
+public final class LongKeyMapFactory<V> implements Factory<Map<Long, V>> {
+  private final LongKeyMap<Provider<V>> contributingMap;
+
+  /** Returns a new {@link Builder} */
+  public static <V> Builder<V> builder(int size) {
+    return new Builder<>(size);
+  }
+
+  private LongKeyMapFactory(LongKeyMap<Provider<V>> contributingMap) {
+    this.contributingMap = contributingMap;
+  }
+
+  /**
+   * Returns an {@link LongKeyMap} whose iteration order is that of the elements given by each of the
+   * providers, which are invoked in the order given at creation.
+   */
+  @Override
+  public LongKeyMap<V> get() {
+    return LongKeyMap.provideValues(contributingMap);
+  }
+
+  /** A builder for {@link LongKeyMapFactory}. */
+  public static final class Builder<V> {
+    private final LongKeyMap.Builder<Provider<V>> map;
+
+    private Builder(int size) {
+      this.map = LongKeyMap.builder(size);
+    }
+
+    /** Associates {@code key} with {@code providerOfValue}. */
+    public Builder<V> put(long key, Provider<V> providerOfValue) {
+      map.put(key, checkNotNull(providerOfValue, "provider"));
+      return this;
+    }
+
+    /** Returns a new {@link LongKeyMapFactory}. */
+    public LongKeyMapFactory<V> build() {
+      return new LongKeyMapFactory<>(map.build());
+    }
+  }
+}
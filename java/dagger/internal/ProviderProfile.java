@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Counts the calls to the {@code Provider}s of components that are compiled with {@code
+ * -Adagger.recordProviderProfile=enabled}.
+ *
+ * <p>If the system property {@code dagger.providerProfile} names a file, the counts are written to
+ * it when the JVM exits. That file can be passed back to the processor with {@code
+ * -Adagger.hotProviderProfile=<file>}, so that in fastInit mode the most-called bindings get their
+ * own {@code Provider} classes instead of sharing a {@code SwitchingProvider}. If the file can't be
+ * written, a warning is logged to this class's {@link Logger}.
+ */
+@GwtIncompatible
+public final class ProviderProfile {
+  /** The system property that names the file to write the profile to. */
+  public static final String OUTPUT_FILE_PROPERTY = "dagger.providerProfile";
+
+  private static final ConcurrentMap<String, AtomicLong> CALL_COUNTS =
+      new ConcurrentHashMap<String, AtomicLong>();
+
+  static {
+    final String outputFile = System.getProperty(OUTPUT_FILE_PROPERTY);
+    if (outputFile != null) {
+      Runtime.getRuntime()
+          .addShutdownHook(
+              new Thread("dagger-provider-profile") {
+                @Override
+                public void run() {
+                  try {
+                    Writer writer =
+                        new OutputStreamWriter(new FileOutputStream(outputFile), "UTF-8");
+                    try {
+                      writeTo(writer);
+                    } finally {
+                      writer.close();
+                    }
+                  } catch (IOException e) {
+                    Logger.getLogger(ProviderProfile.class.getName())
+                        .log(Level.WARNING, "Could not write " + outputFile, e);
+                  }
+                }
+              });
+    }
+  }
+
+  /** Counts a call to the provider of the binding for {@code key}. */
+  public static void record(String key) {
+    AtomicLong callCount = CALL_COUNTS.get(key);
+    if (callCount == null) {
+      AtomicLong newCallCount = new AtomicLong();
+      callCount = CALL_COUNTS.putIfAbsent(key, newCallCount);
+      if (callCount == null) {
+        callCount = newCallCount;
+      }
+    }
+    callCount.incrementAndGet();
+  }
+
+  /**
+   * Writes the call counts that have been recorded so far to {@code writer}, one line per key with
+   * the count and the key separated by a tab, from the most-called key to the least.
+   */
+  public static void writeTo(Writer writer) throws IOException {
+    List<Map.Entry<String, Long>> entries = new ArrayList<Map.Entry<String, Long>>();
+    for (Map.Entry<String, AtomicLong> entry : CALL_COUNTS.entrySet()) {
+      entries.add(
+          new AbstractMap.SimpleImmutableEntry<String, Long>(
+              entry.getKey(), entry.getValue().get()));
+    }
+    Collections.sort(
+        entries,
+        new Comparator<Map.Entry<String, Long>>() {
+          @Override
+          public int compare(Map.Entry<String, Long> a, Map.Entry<String, Long> b) {
+            int byCount = b.getValue().compareTo(a.getValue());
+            return byCount != 0 ? byCount : a.getKey().compareTo(b.getKey());
+          }
+        });
+    for (Map.Entry<String, Long> entry : entries) {
+      writer.write(entry.getValue() + "\t" + entry.getKey() + "\n");
+    }
+    writer.flush();
+  }
+
+  private ProviderProfile() {}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The scoped instances of a component, packed into a single array, that are generated when
+ * {@code -Adagger.packedScopedInstances=enabled}.
+ *
+ * <p>Without the option, a component in {@code fastInit} mode caches each scoped instance in its
+ * own {@code volatile} field, which starts out holding a new {@link MemoizedSentinel}. Instead, a
+ * component with packed scoped instances assigns each scoped binding an index into one {@code
+ * ScopedInstances}, where {@code null} marks an instance that hasn't been created yet, so creating
+ * the component allocates no sentinels. Generated code reads an index with {@link #get(int)}, and
+ * creates the instance while holding the lock returned by {@link #lock(int)} for that index:
+ *
+ * <pre><code>
+ *   Object local = scopedInstances.get(3);
+ *   if (local == null) {
+ *     synchronized (scopedInstances.lock(3)) {
+ *       local = scopedInstances.get(3);
+ *       if (local == null) {
+ *         local = scopedInstances.put(3, new Foo(...));
+ *       }
+ *     }
+ *   }
+ *   return (Foo) local;</code></pre>
+ *
+ * <p>The lock of an index is only allocated when its instance is first created, and is stored in
+ * the index itself until the instance replaces it, so creating one instance never waits for the
+ * creation of another.
+ *
+ * <p>When the component is also generated with {@code -Adagger.scopedLockStrategy=reentrant}, it
+ * holds the same lock through {@link #reentrantLock(int)} instead, with {@code lock()} and {@code
+ * unlock()} in place of the {@code synchronized} block.
+ */
+@GwtIncompatible
+public final class ScopedInstances {
+  /**
+   * Holds {@code null} instances of {@code @Nullable} bindings, which would otherwise be
+   * indistinguishable from an instance that hasn't been created yet.
+   */
+  public static final Object NULL = new Object();
+
+  private final AtomicReferenceArray<Object> instances;
+
+  /** Creates storage for {@code size} scoped instances, none of which have been created. */
+  public ScopedInstances(int size) {
+    this.instances = new AtomicReferenceArray<Object>(size);
+  }
+
+  /**
+   * Returns the instance at {@code index}, {@link #NULL} if that instance is {@code null}, or
+   * {@code null} if it hasn't been created yet.
+   */
+  public Object get(int index) {
+    Object current = instances.get(index);
+    return current instanceof CreationLock ? null : current;
+  }
+
+  /**
+   * Returns the lock to hold while creating the instance at {@code index}. Every call for the same
+   * index returns the same lock until the instance has been {@linkplain #put stored}.
+   */
+  public Object lock(int index) {
+    while (true) {
+      Object current = instances.get(index);
+      if (current == null) {
+        CreationLock lock = new CreationLock();
+        if (instances.compareAndSet(index, null, lock)) {
+          return lock;
+        }
+      } else if (current instanceof CreationLock) {
+        return current;
+      } else {
+        // The instance has been stored, so callers will find it once they hold any lock.
+        return this;
+      }
+    }
+  }
+
+  /**
+   * Returns the lock returned by {@link #lock(int)} as a {@link ReentrantLock}, for components
+   * generated with {@code -Adagger.scopedLockStrategy=reentrant}.
+   */
+  public ReentrantLock reentrantLock(int index) {
+    Object lock = lock(index);
+    // Once the instance has been stored, callers will find it while holding any lock.
+    return lock instanceof CreationLock ? (CreationLock) lock : new ReentrantLock();
+  }
+
+  /**
+   * Stores {@code instance} at {@code index} and returns what {@link #get(int)} will return for it
+   * from now on. Must be called while holding the lock returned by {@link #lock(int)} or {@link
+   * #reentrantLock(int)}.
+   *
+   * @throws IllegalStateException if creating {@code instance} recursively stored a different
+   *     instance at {@code index}, which is likely due to a circular dependency
+   */
+  public Object put(int index, Object instance) {
+    Object stored = instance == null ? NULL : instance;
+    Object current = get(index);
+    if (current != null && current != stored) {
+      throw new IllegalStateException("Scoped provider was invoked recursively returning "
+          + "different results: " + current + " & " + stored + ". This is likely "
+          + "due to a circular dependency.");
+    }
+    instances.set(index, stored);
+    return stored;
+  }
+
+  /** Returns the number of scoped instances. */
+  public int size() {
+    return instances.length();
+  }
+
+  /**
+   * The lock stored at an index while its instance is being created. It is either synchronized on
+   * or locked, depending on the component's lock strategy.
+   */
+  private static final class CreationLock extends ReentrantLock {
+    private static final long serialVersionUID = 0L;
+  }
+}
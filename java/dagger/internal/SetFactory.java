@@ -16,13 +16,13 @@
 
 package dagger.internal;
 
+import static dagger.internal.DaggerCollections.compactSetBuilder;
 import static dagger.internal.DaggerCollections.hasDuplicates;
-import static dagger.internal.DaggerCollections.newHashSetWithExpectedSize;
 import static dagger.internal.DaggerCollections.presizedList;
 import static dagger.internal.Preconditions.checkNotNull;
 import static java.util.Collections.emptySet;
-import static java.util.Collections.unmodifiableSet;
 
+import dagger.internal.DaggerCollections.CompactSetBuilder;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -121,7 +121,7 @@ public final class SetFactory<T> implements Factory<Set<T>> {
       providedCollections.add(providedCollection);
     }
 
-    Set<T> providedValues = newHashSetWithExpectedSize(size);
+    CompactSetBuilder<T> providedValues = compactSetBuilder(size);
     for (int i = 0, c = individualProviders.size(); i < c; i++) {
       providedValues.add(checkNotNull(individualProviders.get(i).get()));
     }
@@ -131,6 +131,6 @@ public final class SetFactory<T> implements Factory<Set<T>> {
       }
     }
 
-    return unmodifiableSet(providedValues);
+    return providedValues.build();
   }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.Preconditions.checkNotNull;
+
+import java.lang.ref.SoftReference;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.inject.Provider;
+
+/**
+ * A {@link Provider} implementation that memoizes the result of another {@link Provider} through a
+ * {@link SoftReference}, and calls the delegate again once the garbage collector has cleared it.
+ *
+ * <p>Like {@link SingleCheck}, this uses simple lazy initialization rather than double-checked
+ * locking, so the delegate may be called more than once if several threads race to initialize it.
+ */
+@GwtIncompatible
+public final class SoftReferenceCheck<T> implements Provider<T> {
+  /** Holds {@code null} values, which would otherwise be indistinguishable from a cleared value. */
+  private static final Object NULL = new Object();
+
+  private static final AtomicLong totalRecomputations = new AtomicLong();
+
+  private final Provider<T> provider;
+  private final AtomicLong recomputations = new AtomicLong();
+  private volatile SoftReference<Object> reference;
+
+  private SoftReferenceCheck(Provider<T> provider) {
+    assert provider != null;
+    this.provider = provider;
+  }
+
+  @SuppressWarnings("unchecked") // cast only happens when result comes from the delegate provider
+  @Override
+  public T get() {
+    SoftReference<Object> localReference = reference;
+    Object local = localReference == null ? null : localReference.get();
+    if (local == null) {
+      local = provider.get();
+      if (local == null) {
+        local = NULL;
+      }
+      if (localReference != null) {
+        // The previous value was cleared by the garbage collector.
+        recomputations.incrementAndGet();
+        totalRecomputations.incrementAndGet();
+      }
+      reference = new SoftReference<Object>(local);
+    }
+    return local == NULL ? null : (T) local;
+  }
+
+  /**
+   * Returns the number of times this provider had to call its delegate again because the
+   * previously memoized value had been garbage collected.
+   */
+  public long recomputations() {
+    return recomputations.get();
+  }
+
+  /**
+   * Returns the number of times any {@link SoftReferenceCheck} had to call its delegate again
+   * because the previously memoized value had been garbage collected.
+   */
+  public static long totalRecomputations() {
+    return totalRecomputations.get();
+  }
+
+  /** Returns a {@link Provider} that softly caches the value from the given delegate provider. */
+  // This method is declared this way instead of "<T> Provider<T> provider(Provider<T> provider)"
+  // to work around an Eclipse type inference bug: https://github.com/google/dagger/issues/949.
+  public static <P extends Provider<T>, T> Provider<T> provider(P provider) {
+    // If a scoped @Binds delegates to a scoped binding, don't cache the value again.
+    if (provider instanceof SoftReferenceCheck
+        || provider instanceof SingleCheck
+        || provider instanceof DoubleCheck
+        || provider instanceof LockingDoubleCheck) {
+      return provider;
+    }
+    return new SoftReferenceCheck<T>(checkNotNull(provider));
+  }
+}
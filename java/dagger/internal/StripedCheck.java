@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.Preconditions.checkNotNull;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.inject.Provider;
+
+/**
+ * A {@link Provider} implementation that lazily creates a fixed number of instances from another
+ * {@link Provider} and spreads calls to {@link #get()} over them by a hash of the calling thread.
+ *
+ * <p>Like {@link SingleCheck}, each stripe uses simple lazy initialization rather than
+ * double-checked locking, so the delegate may be called more than once for a stripe if several
+ * threads race to initialize it. Only one of the results is kept.
+ */
+@GwtIncompatible
+public final class StripedCheck<T> implements Provider<T> {
+  private static final int MAX_STRIPES = 1 << 16;
+
+  /** Holds {@code null} values, which would otherwise be indistinguishable from an unset stripe. */
+  private static final Object NULL = new Object();
+
+  private final Provider<T> provider;
+  private final AtomicReferenceArray<Object> stripes;
+  private final int mask;
+
+  private StripedCheck(Provider<T> provider, int stripeCount) {
+    assert provider != null;
+    this.provider = provider;
+    this.stripes = new AtomicReferenceArray<Object>(stripeCount);
+    this.mask = stripeCount - 1;
+  }
+
+  @SuppressWarnings("unchecked") // cast only happens when result comes from the delegate provider
+  @Override
+  public T get() {
+    int stripe = stripe(Thread.currentThread()) & mask;
+    Object local = stripes.get(stripe);
+    if (local == null) {
+      local = provider.get();
+      if (local == null) {
+        local = NULL;
+      }
+      if (!stripes.compareAndSet(stripe, null, local)) {
+        local = stripes.get(stripe);
+      }
+    }
+    return local == NULL ? null : (T) local;
+  }
+
+  /** Returns the number of stripes, which is always a power of two. */
+  int stripeCount() {
+    return mask + 1;
+  }
+
+  /** Spreads thread ids, which are usually sequential, over the stripes. */
+  private static int stripe(Thread thread) {
+    long id = thread.getId();
+    int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Returns a {@link Provider} that spreads calls over {@code stripes} instances from the given
+   * delegate provider. {@code stripes} is rounded up to a power of two; if it is {@code 0}, the
+   * number of available processors is used.
+   */
+  // This method is declared this way instead of "<T> Provider<T> provider(Provider<T> provider)"
+  // to work around an Eclipse type inference bug: https://github.com/google/dagger/issues/949.
+  public static <P extends Provider<T>, T> Provider<T> provider(P provider, int stripes) {
+    checkNotNull(provider);
+    if (stripes < 0) {
+      throw new IllegalArgumentException("stripes must not be negative: " + stripes);
+    }
+    // If a scoped @Binds delegates to a scoped binding, don't cache the value again.
+    if (provider instanceof StripedCheck
+        || provider instanceof SingleCheck
+        || provider instanceof DoubleCheck
+        || provider instanceof LockingDoubleCheck) {
+      return provider;
+    }
+    int requested = stripes == 0 ? Runtime.getRuntime().availableProcessors() : stripes;
+    return new StripedCheck<T>(provider, stripeCount(requested));
+  }
+
+  /** Rounds {@code requested} up to a power of two no greater than {@link #MAX_STRIPES}. */
+  private static int stripeCount(int requested) {
+    if (requested >= MAX_STRIPES) {
+      return MAX_STRIPES;
+    }
+    return requested <= 1 ? 1 : Integer.highestOneBit(requested - 1) << 1;
+  }
+}
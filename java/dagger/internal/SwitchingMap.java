@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The supertype of the immutable {@code Map<String, Provider<V>>} and {@code Map<Class<?>,
+ * Provider<V>>} multibindings that are generated when {@code -Adagger.switchingMaps=enabled}.
+ *
+ * <p>Nothing is hashed when the map is created. Instead, the generated subclass looks a key up by
+ * switching on its name, which is the key itself for a {@link String} key or {@link
+ * Class#getName()} for a {@link Class} key, and creates each value when it is read. This makes
+ * creating the map cheap, but a look-up costs more than in a {@link java.util.HashMap}, since both
+ * the switch and the check of the found key compare it with {@code equals()}.
+ *
+ * @param <K> the key type of the map
+ * @param <V> the value type of the map
+ */
+public abstract class SwitchingMap<K, V> extends AbstractMap<K, V> {
+  private final Object[] keys;
+
+  /** Creates a map whose keys, in iteration order, are {@code keys}. */
+  protected SwitchingMap(Object[] keys) {
+    this.keys = keys;
+  }
+
+  /**
+   * Returns the index into the array passed to the constructor of the key named {@code name}, or
+   * {@code -1} if no key has that name.
+   */
+  protected abstract int indexOf(String name);
+
+  /** Returns the value for the key at {@code index}. */
+  protected abstract V valueAt(int index);
+
+  private int find(Object key) {
+    String name;
+    if (key instanceof String) {
+      name = (String) key;
+    } else if (key instanceof Class) {
+      name = ((Class<?>) key).getName();
+    } else {
+      return -1;
+    }
+    int index = indexOf(name);
+    // A name only identifies a class within its class loader, so always compare the keys.
+    return index >= 0 && keys[index].equals(key) ? index : -1;
+  }
+
+  @Override
+  public V get(Object key) {
+    int index = find(key);
+    return index < 0 ? null : valueAt(index);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return find(key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<Map.Entry<K, V>>() {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return new Iterator<Map.Entry<K, V>>() {
+          private int index;
+
+          @Override
+          public boolean hasNext() {
+            return index < keys.length;
+          }
+
+          @SuppressWarnings("unchecked")
+          @Override
+          public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            Map.Entry<K, V> entry =
+                new AbstractMap.SimpleImmutableEntry<K, V>((K) keys[index], valueAt(index));
+            index++;
+            return entry;
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return keys.length;
+      }
+    };
+  }
+}
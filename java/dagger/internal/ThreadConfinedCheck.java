@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.Preconditions.checkNotNull;
+
+import javax.inject.Provider;
+
+/**
+ * A {@link Provider} implementation that memoizes the result of another {@link Provider} once per
+ * thread.
+ *
+ * <p>Values are stored in a {@link ThreadLocal} owned by this provider, so each thread's value is
+ * held by that thread's thread-local map. It is released when the thread terminates, which for a
+ * virtual thread is usually soon. If this provider is garbage collected first, the value is
+ * <em>not</em> released right away: its entry in the map of a thread that is still running only
+ * becomes stale, and the value stays strongly reachable until the map happens to expunge stale
+ * entries while that thread uses other thread locals. On long-lived threads, such as those of a
+ * thread pool, a value may therefore outlive this provider for as long as the thread runs.
+ */
+@GwtIncompatible
+public final class ThreadConfinedCheck<T> implements Provider<T> {
+  /** Holds {@code null} values, which would otherwise be indistinguishable from an unset value. */
+  private static final Object NULL = new Object();
+
+  private final Provider<T> provider;
+  private final ThreadLocal<Object> instance = new ThreadLocal<Object>();
+
+  private ThreadConfinedCheck(Provider<T> provider) {
+    assert provider != null;
+    this.provider = provider;
+  }
+
+  @SuppressWarnings("unchecked") // cast only happens when result comes from the delegate provider
+  @Override
+  public T get() {
+    Object local = instance.get();
+    if (local == null) {
+      local = provider.get();
+      instance.set(local == null ? NULL : local);
+    }
+    return local == NULL ? null : (T) local;
+  }
+
+  /** Returns a {@link Provider} that caches the value from the given delegate once per thread. */
+  // This method is declared this way instead of "<T> Provider<T> provider(Provider<T> provider)"
+  // to work around an Eclipse type inference bug: https://github.com/google/dagger/issues/949.
+  public static <P extends Provider<T>, T> Provider<T> provider(P provider) {
+    // If a scoped @Binds delegates to a scoped binding, don't cache the value again.
+    if (provider instanceof ThreadConfinedCheck
+        || provider instanceof SingleCheck
+        || provider instanceof DoubleCheck
+        || provider instanceof LockingDoubleCheck) {
+      return provider;
+    }
+    return new ThreadConfinedCheck<T>(checkNotNull(provider));
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static dagger.internal.Preconditions.checkNotNull;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.inject.Provider;
+
+/**
+ * A {@link Future} that completes once every provider in a sequence of waves has been called.
+ *
+ * <p>This is what the {@code warmUp(Executor)} method that is generated for a root component when
+ * {@code -Adagger.warmUp=enabled} returns. Each wave holds the providers of scoped bindings that
+ * depend only on scoped bindings in earlier waves. The providers in a wave are called concurrently
+ * on the executor, and the next wave is started once all of them have returned.
+ *
+ * <p>The providers are the component's own providers for those bindings, so a binding that is
+ * requested by another thread while it is warmed up is still only created once.
+ *
+ * <p>If any provider throws, no later waves are started, and {@link #get()} throws an {@link
+ * ExecutionException} once the current wave has finished. Cancelling the future also stops later
+ * waves from being started, but doesn't interrupt providers that are running.
+ */
+@GwtIncompatible
+public final class WarmUpFuture implements Future<Void> {
+  private final Executor executor;
+  private final Provider<?>[][] waves;
+
+  private int wave;
+  private int remaining;
+  private Throwable failure;
+  private boolean done;
+  private boolean cancelled;
+
+  private WarmUpFuture(Executor executor, Provider<?>[][] waves) {
+    this.executor = executor;
+    this.waves = waves;
+  }
+
+  /**
+   * Starts calling the providers in {@code waves} on {@code executor}, one wave after another, and
+   * returns a future that completes when they have all returned.
+   */
+  public static Future<Void> start(Executor executor, Provider<?>[]... waves) {
+    WarmUpFuture future = new WarmUpFuture(checkNotNull(executor, "executor"), waves);
+    future.startWave(0);
+    return future;
+  }
+
+  private void startWave(int index) {
+    while (index < waves.length && waves[index].length == 0) {
+      index++;
+    }
+    synchronized (this) {
+      if (done) {
+        return;
+      }
+      if (index == waves.length) {
+        complete();
+        return;
+      }
+      wave = index;
+      remaining = waves[index].length;
+    }
+    // The providers are called outside of the lock, since a direct executor calls them on this
+    // thread.
+    for (final Provider<?> provider : waves[index]) {
+      try {
+        executor.execute(
+            new Runnable() {
+              @Override
+              public void run() {
+                Throwable thrown = null;
+                try {
+                  provider.get();
+                } catch (Throwable t) {
+                  thrown = t;
+                }
+                providerReturned(thrown);
+              }
+            });
+      } catch (RuntimeException e) {
+        providerReturned(e);
+      }
+    }
+  }
+
+  private void providerReturned(Throwable thrown) {
+    int nextWave;
+    synchronized (this) {
+      if (thrown != null && failure == null) {
+        failure = thrown;
+      }
+      if (--remaining > 0) {
+        return;
+      }
+      if (failure != null) {
+        complete();
+        return;
+      }
+      nextWave = wave + 1;
+    }
+    startWave(nextWave);
+  }
+
+  private synchronized void complete() {
+    done = true;
+    notifyAll();
+  }
+
+  @Override
+  public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+    if (done) {
+      return false;
+    }
+    cancelled = true;
+    complete();
+    return true;
+  }
+
+  @Override
+  public synchronized boolean isCancelled() {
+    return cancelled;
+  }
+
+  @Override
+  public synchronized boolean isDone() {
+    return done;
+  }
+
+  @Override
+  public synchronized Void get() throws InterruptedException, ExecutionException {
+    while (!done) {
+      wait();
+    }
+    return result();
+  }
+
+  @Override
+  public synchronized Void get(long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    long remainingNanos = unit.toNanos(timeout);
+    long deadline = System.nanoTime() + remainingNanos;
+    while (!done) {
+      if (remainingNanos <= 0) {
+        throw new TimeoutException();
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+      remainingNanos = deadline - System.nanoTime();
+    }
+    return result();
+  }
+
+  private Void result() throws ExecutionException {
+    if (cancelled) {
+      throw new CancellationException();
+    }
+    if (failure != null) {
+      throw new ExecutionException(failure);
+    }
+    return null;
+  }
+}
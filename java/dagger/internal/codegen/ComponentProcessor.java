@@ -80,6 +80,7 @@ public class ComponentProcessor extends BasicAnnotationProcessor {
   @Inject BindingGraphPlugins bindingGraphPlugins;
   @Inject DaggerStatisticsCollector statisticsCollector;
   @Inject Set<ClearableCache> clearableCaches;
+  @Inject ParallelFormattingFiler parallelFormattingFiler;
 
   public ComponentProcessor() {
     this.testingPlugins = Optional.empty();
@@ -128,7 +129,9 @@ public class ComponentProcessor extends BasicAnnotationProcessor {
     bindingGraphPlugins.initializePlugins();
     return Iterables.transform(
         processingSteps,
-        step -> new DaggerStatisticsCollectingProcessingStep(step, statisticsCollector));
+        step ->
+            parallelFormattingFiler.flushingAfter(
+                new DaggerStatisticsCollectingProcessingStep(step, statisticsCollector)));
   }
 
   @Singleton
@@ -192,15 +195,21 @@ public class ComponentProcessor extends BasicAnnotationProcessor {
   @Override
   protected void postRound(RoundEnvironment roundEnv) {
     statisticsCollector.roundFinished();
-    if (roundEnv.processingOver()) {
-      statisticsCollector.processingStopped();
-    } else {
-      try {
-        injectBindingRegistry.generateSourcesForRequiredBindings(
-            factoryGenerator, membersInjectorGenerator);
-      } catch (SourceFileGenerationException e) {
-        e.printMessageTo(processingEnv.getMessager());
+    try {
+      if (roundEnv.processingOver()) {
+        statisticsCollector.processingStopped();
+      } else {
+        try {
+          injectBindingRegistry.generateSourcesForRequiredBindings(
+              factoryGenerator, membersInjectorGenerator);
+        } catch (SourceFileGenerationException e) {
+          e.printMessageTo(processingEnv.getMessager());
+        }
       }
+    } finally {
+      // Write the sources generated this round before javac starts the next one, even if
+      // generating another source failed, so that none of them is left empty.
+      parallelFormattingFiler.flush();
     }
     clearableCaches.forEach(ClearableCache::clearCache);
   }
@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.auto.common.MoreElements.getPackage;
+import static javax.tools.Diagnostic.Kind.ERROR;
+import static javax.tools.StandardLocation.CLASS_OUTPUT;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.math.LongMath;
+import dagger.model.Binding;
+import dagger.model.BindingGraph;
+import dagger.model.BindingGraph.ComponentNode;
+import dagger.model.BindingGraph.DependencyEdge;
+import dagger.model.BindingGraph.Node;
+import dagger.model.BindingKind;
+import dagger.model.RequestKind;
+import dagger.spi.BindingGraphPlugin;
+import dagger.spi.DiagnosticReporter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.Filer;
+import javax.inject.Inject;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Reports how much each entry point of a component constructs when it is called, when {@code
+ * -Adagger.entryPointCostReport=enabled}.
+ *
+ * <p>For each root component, writes a file in the same package whose name is the name of the
+ * component type (with enclosing type names, joined by underscores, preceding it) with an {@code
+ * .entrypointcosts.tsv} extension. After a header line that starts with {@code #}, each line holds
+ * the following for one entry point, separated by tabs, sorted so that the most expensive entry
+ * points come first:
+ *
+ * <ol>
+ *   <li>the number of unscoped objects that each call constructs once all scoped objects have been
+ *       initialized
+ *   <li>the number of scoped objects that the first call initializes
+ *   <li>the length of the longest chain of objects whose construction the first call nests
+ *   <li>the component path and the entry point method
+ * </ol>
+ *
+ * <p>Only instances that are requested directly are followed: a {@code Provider}, {@code Lazy} or
+ * {@code Producer} dependency constructs nothing until it is used.
+ */
+final class EntryPointCostReporter implements BindingGraphPlugin {
+  /** Request kinds that create their instance as part of the request. */
+  private static final ImmutableSet<RequestKind> EAGER_REQUEST_KINDS =
+      ImmutableSet.of(
+          RequestKind.INSTANCE,
+          RequestKind.MEMBERS_INJECTION,
+          RequestKind.PRODUCED,
+          RequestKind.FUTURE);
+
+  /** Binding kinds that return an object without constructing it. */
+  private static final ImmutableSet<BindingKind> NON_CONSTRUCTING_KINDS =
+      ImmutableSet.of(
+          BindingKind.COMPONENT,
+          BindingKind.COMPONENT_DEPENDENCY,
+          BindingKind.COMPONENT_PROVISION,
+          BindingKind.COMPONENT_PRODUCTION,
+          BindingKind.BOUND_INSTANCE,
+          BindingKind.DELEGATE,
+          BindingKind.MEMBERS_INJECTION);
+
+  private Filer filer;
+
+  @Inject
+  EntryPointCostReporter() {}
+
+  @Override
+  public String pluginName() {
+    return "Dagger/EntryPointCostReport";
+  }
+
+  @Override
+  public void initFiler(Filer filer) {
+    this.filer = filer;
+  }
+
+  @Override
+  public void visitGraph(BindingGraph bindingGraph, DiagnosticReporter diagnosticReporter) {
+    if (bindingGraph.isFullBindingGraph()) {
+      return;
+    }
+    CostModel costModel = new CostModel(bindingGraph);
+    List<EntryPointCost> costs = new ArrayList<>();
+    for (DependencyEdge entryPoint : bindingGraph.entryPointEdges()) {
+      costs.add(costModel.entryPointCost(entryPoint));
+    }
+    costs.sort(
+        Comparator.comparingLong(EntryPointCost::unscopedPerCall)
+            .thenComparingInt(EntryPointCost::scopedFirstInitialized)
+            .thenComparingInt(EntryPointCost::depth)
+            .reversed()
+            .thenComparing(EntryPointCost::entryPoint));
+
+    TypeElement component = bindingGraph.rootComponentNode().componentPath().currentComponent();
+    try (Writer writer =
+        filer
+            .createResource(
+                CLASS_OUTPUT,
+                getPackage(component).getQualifiedName(),
+                fileName(component),
+                component)
+            .openWriter()) {
+      writer.write("# unscoped\tscoped\tdepth\tentry point\n");
+      for (EntryPointCost cost : costs) {
+        writer.write(
+            String.format(
+                "%d\t%d\t%d\t%s\n",
+                cost.unscopedPerCall(),
+                cost.scopedFirstInitialized(),
+                cost.depth(),
+                cost.entryPoint()));
+      }
+    } catch (IOException e) {
+      diagnosticReporter.reportComponent(
+          ERROR,
+          bindingGraph.rootComponentNode(),
+          "Could not write the entry point cost report: %s",
+          e);
+    }
+  }
+
+  private static String fileName(TypeElement component) {
+    List<String> simpleNames = new ArrayList<>();
+    for (Element element = component;
+        element.getKind().isClass() || element.getKind().isInterface();
+        element = element.getEnclosingElement()) {
+      simpleNames.add(element.getSimpleName().toString());
+    }
+    return Joiner.on('_').join(Lists.reverse(simpleNames)) + ".entrypointcosts.tsv";
+  }
+
+  /** The cost of calling an entry point. */
+  private static final class EntryPointCost {
+    private final String entryPoint;
+    private final long unscopedPerCall;
+    private final int scopedFirstInitialized;
+    private final int depth;
+
+    EntryPointCost(String entryPoint, long unscopedPerCall, int scopedFirstInitialized, int depth) {
+      this.entryPoint = entryPoint;
+      this.unscopedPerCall = unscopedPerCall;
+      this.scopedFirstInitialized = scopedFirstInitialized;
+      this.depth = depth;
+    }
+
+    String entryPoint() {
+      return entryPoint;
+    }
+
+    long unscopedPerCall() {
+      return unscopedPerCall;
+    }
+
+    int scopedFirstInitialized() {
+      return scopedFirstInitialized;
+    }
+
+    int depth() {
+      return depth;
+    }
+  }
+
+  /** Computes the costs of the entry points of a binding graph, sharing work between them. */
+  private static final class CostModel {
+    private final BindingGraph graph;
+    private final Map<Binding, Long> unscopedPerCall = new HashMap<>();
+    private final Map<Binding, Integer> depths = new HashMap<>();
+
+    CostModel(BindingGraph graph) {
+      this.graph = graph;
+    }
+
+    EntryPointCost entryPointCost(DependencyEdge entryPoint) {
+      // The source of each entry point edge is the node of the component that declares it.
+      ComponentNode component = (ComponentNode) graph.network().incidentNodes(entryPoint).source();
+      String name =
+          component.componentPath()
+              + "#"
+              + entryPoint
+                  .dependencyRequest()
+                  .requestElement()
+                  .map(Object::toString)
+                  .orElseGet(() -> entryPoint.dependencyRequest().key().toString());
+      Node target = graph.network().incidentNodes(entryPoint).target();
+      if (!EAGER_REQUEST_KINDS.contains(entryPoint.dependencyRequest().kind())
+          || !(target instanceof Binding)) {
+        return new EntryPointCost(name, 0, 0, 0);
+      }
+      Binding binding = (Binding) target;
+      return new EntryPointCost(
+          name, unscopedPerCall(binding), scopedFirstInitialized(binding), depth(binding));
+    }
+
+    /**
+     * Returns the number of unscoped objects that requesting {@code binding} constructs once all
+     * scoped objects have been initialized.
+     */
+    private long unscopedPerCall(Binding binding) {
+      if (binding.scope().isPresent()) {
+        return 0;
+      }
+      Long cached = unscopedPerCall.get(binding);
+      if (cached != null) {
+        return cached;
+      }
+      // Valid graphs have no cycles of eager requests; this only guards against looping forever.
+      unscopedPerCall.put(binding, 0L);
+      long count = constructs(binding) ? 1 : 0;
+      for (Binding dependency : eagerDependencies(binding)) {
+        count = LongMath.saturatedAdd(count, unscopedPerCall(dependency));
+      }
+      unscopedPerCall.put(binding, count);
+      return count;
+    }
+
+    /** Returns the number of scoped objects that the first request for {@code binding} creates. */
+    private int scopedFirstInitialized(Binding binding) {
+      Set<Binding> visited = new HashSet<>();
+      Deque<Binding> queue = new ArrayDeque<>();
+      visited.add(binding);
+      queue.add(binding);
+      int count = 0;
+      while (!queue.isEmpty()) {
+        Binding current = queue.remove();
+        if (current.scope().isPresent()) {
+          count++;
+        }
+        for (Binding dependency : eagerDependencies(current)) {
+          if (visited.add(dependency)) {
+            queue.add(dependency);
+          }
+        }
+      }
+      return count;
+    }
+
+    /**
+     * Returns the length of the longest chain of objects whose construction the first request for
+     * {@code binding} nests.
+     */
+    private int depth(Binding binding) {
+      Integer cached = depths.get(binding);
+      if (cached != null) {
+        return cached;
+      }
+      depths.put(binding, 0);
+      int depth = 0;
+      for (Binding dependency : eagerDependencies(binding)) {
+        depth = Math.max(depth, depth(dependency));
+      }
+      if (constructs(binding)) {
+        depth++;
+      }
+      depths.put(binding, depth);
+      return depth;
+    }
+
+    /** Returns the bindings for the dependencies of {@code binding} that it requests eagerly. */
+    private List<Binding> eagerDependencies(Binding binding) {
+      List<Binding> dependencies = new ArrayList<>();
+      for (DependencyEdge edge : graph.dependencyEdges(binding).values()) {
+        Node target = graph.network().incidentNodes(edge).target();
+        if (EAGER_REQUEST_KINDS.contains(edge.dependencyRequest().kind())
+            && target instanceof Binding) {
+          dependencies.add((Binding) target);
+        }
+      }
+      return dependencies;
+    }
+
+    private static boolean constructs(Binding binding) {
+      return !NON_CONSTRUCTING_KINDS.contains(binding.kind());
+    }
+  }
+}
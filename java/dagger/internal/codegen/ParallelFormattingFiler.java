@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
+import static javax.tools.Diagnostic.Kind.ERROR;
+
+import com.google.auto.common.BasicAnnotationProcessor.ProcessingStep;
+import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.googlejavaformat.java.Formatter;
+import com.google.googlejavaformat.java.FormatterException;
+import com.google.googlejavaformat.java.filer.FormattingFiler;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.lang.model.element.Element;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileObject;
+import javax.tools.JavaFileManager.Location;
+import javax.tools.JavaFileObject;
+
+/**
+ * A {@link Filer} that formats the Java source written to it with google-java-format, like {@link
+ * FormattingFiler}, but on a pool of worker threads. It is used instead of {@link FormattingFiler}
+ * when {@code -Adagger.parallelSourceFormatting=enabled}.
+ *
+ * <p>Source files are still created on the processor's thread, as soon as they are requested. Once
+ * a source file's writer is closed, its contents are formatted in the background, and {@link
+ * #flush()} writes them to the source file. The processor calls {@link #flush()} after each
+ * processing step and at the end of each round, even if the step or the round fails, so that no
+ * source file that has been created is left empty. All writes to the underlying {@link Filer} and
+ * all diagnostics happen on the processor's thread, in the order in which the source files were
+ * written.
+ *
+ * <p>Only formatting runs in parallel. Binding graph resolution and code generation stay on the
+ * processor's thread, because they read javac's {@link javax.lang.model.util.Elements} and {@link
+ * javax.lang.model.util.Types}, which aren't thread-safe.
+ */
+@Singleton
+final class ParallelFormattingFiler implements Filer {
+  private final Filer delegate;
+  private final Messager messager;
+  private final List<PendingSource> pendingSources = new ArrayList<>();
+  private ExecutorService executor;
+
+  @Inject
+  ParallelFormattingFiler(ProcessingEnvironment processingEnvironment) {
+    this.delegate = processingEnvironment.getFiler();
+    this.messager = processingEnvironment.getMessager();
+  }
+
+  @Override
+  public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements)
+      throws IOException {
+    JavaFileObject sourceFile = delegate.createSourceFile(name, originatingElements);
+    return new ForwardingJavaFileObject<JavaFileObject>(sourceFile) {
+      @Override
+      public Writer openWriter() {
+        return new StringWriter() {
+          private boolean closed;
+
+          @Override
+          public void close() {
+            if (!closed) {
+              closed = true;
+              format(sourceFile, toString());
+            }
+          }
+        };
+      }
+    };
+  }
+
+  private void format(JavaFileObject sourceFile, String source) {
+    if (executor == null) {
+      executor =
+          Executors.newFixedThreadPool(
+              Runtime.getRuntime().availableProcessors(),
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("dagger-source-formatter-%d")
+                  .build());
+    }
+    pendingSources.add(
+        new PendingSource(
+            sourceFile, source, executor.submit(() -> new Formatter().formatSource(source))));
+  }
+
+  /**
+   * Returns a processing step that runs {@code step} and then {@linkplain #flush() writes} the
+   * sources it generated, whether or not it completes normally.
+   */
+  ProcessingStep flushingAfter(ProcessingStep step) {
+    return new ProcessingStep() {
+      @Override
+      public Set<? extends Class<? extends Annotation>> annotations() {
+        return step.annotations();
+      }
+
+      @Override
+      public Set<? extends Element> process(
+          SetMultimap<Class<? extends Annotation>, Element> elementsByAnnotation) {
+        try {
+          return step.process(elementsByAnnotation);
+        } finally {
+          flush();
+        }
+      }
+    };
+  }
+
+  /**
+   * Writes the formatted contents of each source file whose writer has been closed since the last
+   * call, in the order in which they were closed, and stops the worker threads.
+   */
+  void flush() {
+    try {
+      for (PendingSource pendingSource : pendingSources) {
+        pendingSource.write();
+      }
+    } finally {
+      pendingSources.clear();
+      if (executor != null) {
+        executor.shutdown();
+        executor = null;
+      }
+    }
+  }
+
+  @Override
+  public JavaFileObject createClassFile(CharSequence name, Element... originatingElements)
+      throws IOException {
+    return delegate.createClassFile(name, originatingElements);
+  }
+
+  @Override
+  public FileObject createResource(
+      Location location,
+      CharSequence moduleAndPkg,
+      CharSequence relativeName,
+      Element... originatingElements)
+      throws IOException {
+    return delegate.createResource(location, moduleAndPkg, relativeName, originatingElements);
+  }
+
+  @Override
+  public FileObject getResource(
+      Location location, CharSequence moduleAndPkg, CharSequence relativeName)
+      throws IOException {
+    return delegate.getResource(location, moduleAndPkg, relativeName);
+  }
+
+  /** A source file whose contents are being formatted. */
+  private final class PendingSource {
+    private final JavaFileObject sourceFile;
+    private final String source;
+    private final Future<String> formattedSource;
+
+    PendingSource(JavaFileObject sourceFile, String source, Future<String> formattedSource) {
+      this.sourceFile = sourceFile;
+      this.source = source;
+      this.formattedSource = formattedSource;
+    }
+
+    void write() {
+      String contents;
+      try {
+        contents = getUninterruptibly(formattedSource);
+      } catch (ExecutionException e) {
+        if (!(e.getCause() instanceof FormatterException)) {
+          messager.printMessage(
+              ERROR, String.format("Could not format %s: %s", sourceFile.getName(), e.getCause()));
+        }
+        // Like FormattingFiler, write source that can't be formatted as it is.
+        contents = source;
+      }
+      try (Writer writer = sourceFile.openWriter()) {
+        writer.write(contents);
+      } catch (IOException e) {
+        messager.printMessage(
+            ERROR, String.format("Could not write %s: %s", sourceFile.getName(), e));
+      }
+    }
+  }
+}
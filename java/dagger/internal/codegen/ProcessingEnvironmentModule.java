@@ -23,6 +23,7 @@ import dagger.Module;
 import dagger.Provides;
 import dagger.Reusable;
 import dagger.internal.codegen.SpiModule.ProcessorClassLoader;
+import dagger.internal.codegen.binding.GeneratedReferences;
 import dagger.internal.codegen.compileroption.CompilerOptions;
 import dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions;
 import dagger.internal.codegen.compileroption.ProcessingOptions;
@@ -34,6 +35,7 @@ import java.util.Optional;
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
+import javax.inject.Provider;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.util.Types;
 
@@ -57,12 +59,18 @@ interface ProcessingEnvironmentModule {
   }
 
   @Provides
-  static Filer filer(CompilerOptions compilerOptions, ProcessingEnvironment processingEnvironment) {
-    if (compilerOptions.headerCompilation() || !compilerOptions.formatGeneratedSource()) {
-      return processingEnvironment.getFiler();
-    } else {
-      return new FormattingFiler(processingEnvironment.getFiler());
-    }
+  static Filer filer(
+      CompilerOptions compilerOptions,
+      ProcessingEnvironment processingEnvironment,
+      GeneratedReferences generatedReferences,
+      Provider<ParallelFormattingFiler> parallelFormattingFiler) {
+    Filer filer =
+        compilerOptions.headerCompilation() || !compilerOptions.formatGeneratedSource()
+            ? processingEnvironment.getFiler()
+            : compilerOptions.parallelSourceFormatting()
+                ? parallelFormattingFiler.get()
+                : new FormattingFiler(processingEnvironment.getFiler());
+    return compilerOptions.wholeProgram() ? generatedReferences.recordingFiler(filer) : filer;
   }
 
   @Provides
@@ -24,16 +24,21 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 import com.google.common.collect.ImmutableSet;
 import dagger.Module;
 import dagger.Provides;
+import dagger.internal.codegen.compileroption.CompilerOptions;
 import dagger.internal.codegen.validation.BindingGraphValidator;
 import dagger.spi.BindingGraphPlugin;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 import java.util.Optional;
 import java.util.ServiceLoader;
+import javax.inject.Provider;
 import javax.inject.Qualifier;
 import javax.inject.Singleton;
 
-/** Contains the bindings for {@link BindingGraphValidator} from external SPI providers. */
+/**
+ * Contains the bindings for {@link BindingGraphValidator} from external SPI providers, as well as
+ * the {@link EntryPointCostReporter} that ships with Dagger.
+ */
 @Module
 abstract class SpiModule {
   private SpiModule() {}
@@ -42,11 +47,22 @@ abstract class SpiModule {
   @Singleton
   static ImmutableSet<BindingGraphPlugin> externalPlugins(
       @TestingPlugins Optional<ImmutableSet<BindingGraphPlugin>> testingPlugins,
-      @ProcessorClassLoader ClassLoader processorClassLoader) {
-    return testingPlugins.orElseGet(
-        () ->
-            ImmutableSet.copyOf(
-                ServiceLoader.load(BindingGraphPlugin.class, processorClassLoader)));
+      @ProcessorClassLoader ClassLoader processorClassLoader,
+      CompilerOptions compilerOptions,
+      Provider<EntryPointCostReporter> entryPointCostReporter) {
+    ImmutableSet<BindingGraphPlugin> plugins =
+        testingPlugins.orElseGet(
+            () ->
+                ImmutableSet.copyOf(
+                    ServiceLoader.load(BindingGraphPlugin.class, processorClassLoader)));
+    if (!compilerOptions.entryPointCostReport()) {
+      return plugins;
+    }
+    // Like external plugins, the report is only written for graphs that have no errors.
+    return ImmutableSet.<BindingGraphPlugin>builder()
+        .addAll(plugins)
+        .add(entryPointCostReporter.get())
+        .build();
   }
 
   @Qualifier
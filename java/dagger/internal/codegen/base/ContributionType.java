@@ -18,12 +18,17 @@ package dagger.internal.codegen.base;
 
 import static com.google.auto.common.MoreElements.isAnnotationPresent;
 
+import dagger.multibindings.ElementsIntoList;
 import dagger.multibindings.ElementsIntoSet;
+import dagger.multibindings.IntoList;
 import dagger.multibindings.IntoMap;
 import dagger.multibindings.IntoSet;
 import javax.lang.model.element.Element;
 
-/** Whether a binding or declaration is for a unique contribution or a map or set multibinding. */
+/**
+ * Whether a binding or declaration is for a unique contribution or a map, set, or list
+ * multibinding.
+ */
 public enum ContributionType {
   /** Represents map bindings. */
   MAP,
@@ -31,6 +36,10 @@ public enum ContributionType {
   SET,
   /** Represents set values bindings. */
   SET_VALUES,
+  /** Represents list bindings. */
+  LIST,
+  /** Represents list values bindings. */
+  LIST_VALUES,
   /** Represents a valid non-collection binding. */
   UNIQUE,
   ;
@@ -49,7 +58,8 @@ public enum ContributionType {
 
   /**
    * The contribution type from a binding element's annotations. Presumes a well-formed binding
-   * element (at most one of @IntoSet, @IntoMap, @ElementsIntoSet and @Provides.type). {@link
+   * element (at most one of @IntoSet, @IntoMap, @ElementsIntoSet, @IntoList, @ElementsIntoList and
+   * @Provides.type). {@link
    * dagger.internal.codegen.validation.BindingMethodValidator} and {@link
    * dagger.internal.codegen.validation.BindsInstanceProcessingStep} validate correctness on their
    * own.
@@ -62,6 +72,10 @@ public enum ContributionType {
       return ContributionType.SET;
     } else if (isAnnotationPresent(element, ElementsIntoSet.class)) {
       return ContributionType.SET_VALUES;
+    } else if (isAnnotationPresent(element, IntoList.class)) {
+      return ContributionType.LIST;
+    } else if (isAnnotationPresent(element, ElementsIntoList.class)) {
+      return ContributionType.LIST_VALUES;
     }
     return ContributionType.UNIQUE;
   }
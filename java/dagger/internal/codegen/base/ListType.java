@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal.codegen.base;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.auto.common.MoreTypes;
+import com.google.auto.value.AutoValue;
+import com.google.common.base.Equivalence;
+import dagger.model.Key;
+import java.util.List;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Information about a {@link List} {@link TypeMirror}.
+ */
+@AutoValue
+public abstract class ListType {
+  /**
+   * The list type itself, wrapped using {@link MoreTypes#equivalence()}. Use
+   * {@link #declaredListType()} instead.
+   */
+  protected abstract Equivalence.Wrapper<DeclaredType> wrappedDeclaredListType();
+
+  /**
+   * The list type itself.
+   */
+  private DeclaredType declaredListType() {
+    return wrappedDeclaredListType().get();
+  }
+
+  /**
+   * {@code true} if the list type is the raw {@link List} type.
+   */
+  public boolean isRawType() {
+    return declaredListType().getTypeArguments().isEmpty();
+  }
+
+  /**
+   * The element type.
+   */
+  public TypeMirror elementType() {
+    return declaredListType().getTypeArguments().get(0);
+  }
+
+  /**
+   * {@code true} if {@code type} is a {@link List} type.
+   */
+  public static boolean isList(TypeMirror type) {
+    return MoreTypes.isType(type) && MoreTypes.isTypeOf(List.class, type);
+  }
+
+  /**
+   * {@code true} if {@code key.type()} is a {@link List} type.
+   */
+  public static boolean isList(Key key) {
+    return isList(key.type());
+  }
+
+  /**
+   * Returns a {@link ListType} for {@code type}.
+   *
+   * @throws IllegalArgumentException if {@code type} is not a {@link List} type
+   */
+  public static ListType from(TypeMirror type) {
+    checkArgument(isList(type), "%s must be a List", type);
+    return new AutoValue_ListType(MoreTypes.equivalence().wrap(MoreTypes.asDeclared(type)));
+  }
+
+  /**
+   * Returns a {@link ListType} for {@code key}'s {@link Key#type() type}.
+   *
+   * @throws IllegalArgumentException if {@code key.type()} is not a {@link List} type
+   */
+  public static ListType from(Key key) {
+    return from(key.type());
+  }
+}
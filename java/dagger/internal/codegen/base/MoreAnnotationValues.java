@@ -81,6 +81,11 @@ public final class MoreAnnotationValues {
     return (int) getAnnotationValue(annotation, valueName).getValue();
   }
 
+  /** Returns the long value of an annotation */
+  public static long getLongValue(AnnotationMirror annotation, String valueName) {
+    return (long) getAnnotationValue(annotation, valueName).getValue();
+  }
+
   /** Returns an optional int value of an annotation if the value name is present */
   public static Optional<Integer> getOptionalIntValue(
       AnnotationMirror annotation, String valueName) {
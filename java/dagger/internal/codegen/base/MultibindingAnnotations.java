@@ -19,18 +19,26 @@ package dagger.internal.codegen.base;
 import static dagger.internal.codegen.langmodel.DaggerElements.getAllAnnotations;
 
 import com.google.common.collect.ImmutableSet;
+import dagger.multibindings.ElementsIntoList;
 import dagger.multibindings.ElementsIntoSet;
+import dagger.multibindings.IntoList;
 import dagger.multibindings.IntoMap;
 import dagger.multibindings.IntoSet;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 
 /**
- * Utility methods related to processing {@link IntoSet}, {@link ElementsIntoSet}, and {@link
- * IntoMap}.
+ * Utility methods related to processing {@link IntoSet}, {@link ElementsIntoSet}, {@link IntoMap},
+ * {@link IntoList}, and {@link ElementsIntoList}.
  */
 public final class MultibindingAnnotations {
   public static ImmutableSet<AnnotationMirror> forElement(Element method) {
-    return getAllAnnotations(method, IntoSet.class, ElementsIntoSet.class, IntoMap.class);
+    return getAllAnnotations(
+        method,
+        IntoSet.class,
+        ElementsIntoSet.class,
+        IntoMap.class,
+        IntoList.class,
+        ElementsIntoList.class);
   }
 }
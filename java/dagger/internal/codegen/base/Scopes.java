@@ -16,12 +16,20 @@
 
 package dagger.internal.codegen.base;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static dagger.internal.codegen.base.DiagnosticFormatting.stripCommonTypePrefixes;
+import static dagger.internal.codegen.base.MoreAnnotationValues.getIntValue;
+import static dagger.internal.codegen.base.MoreAnnotationValues.getLongValue;
 import static dagger.internal.codegen.extension.DaggerStreams.toImmutableSet;
 
 import com.google.auto.common.AnnotationMirrors;
 import com.google.common.collect.ImmutableSet;
+import dagger.Expiring;
+import dagger.Reusable;
+import dagger.SoftReusable;
+import dagger.Striped;
+import dagger.ThreadConfined;
 import dagger.internal.codegen.langmodel.DaggerElements;
 import dagger.model.Scope;
 import dagger.producers.ProductionScope;
@@ -43,6 +51,46 @@ public final class Scopes {
     return scope(elements, Singleton.class);
   }
 
+  /**
+   * Returns {@code true} if the scope only limits the number of provisions of a binding instead of
+   * tying its instance to the lifetime of a component, i.e. {@link Reusable @Reusable}, {@link
+   * SoftReusable @SoftReusable}, {@link Expiring @Expiring}, {@link ThreadConfined
+   * @ThreadConfined} and {@link Striped @Striped}.
+   */
+  public static boolean isReusableScope(Scope scope) {
+    return scope.isReusable()
+        || scope.isSoftReusable()
+        || scope.isExpiring()
+        || scope.isThreadConfined()
+        || scope.isStriped();
+  }
+
+  /** Returns the {@link Expiring#seconds()} of an {@link Expiring @Expiring} scope. */
+  public static long expiringSeconds(Scope scope) {
+    checkArgument(scope.isExpiring(), "%s is not @Expiring", scope);
+    return getLongValue(scope.scopeAnnotation(), "seconds");
+  }
+
+  /** Returns the {@link Striped#stripes()} of a {@link Striped @Striped} scope. */
+  public static int stripes(Scope scope) {
+    checkArgument(scope.isStriped(), "%s is not @Striped", scope);
+    return getIntValue(scope.scopeAnnotation(), "stripes");
+  }
+
+  /**
+   * Returns an error message if the values of the scope annotation are invalid, e.g. a
+   * non-positive {@link Expiring#seconds()}.
+   */
+  public static Optional<String> invalidScopeValues(Scope scope) {
+    if (scope.isExpiring() && expiringSeconds(scope) <= 0) {
+      return Optional.of("@Expiring.seconds must be positive");
+    }
+    if (scope.isStriped() && stripes(scope) < 0) {
+      return Optional.of("@Striped.stripes must not be negative");
+    }
+    return Optional.empty();
+  }
+
   /**
    * Creates a {@link Scope} object from the {@link javax.inject.Scope}-annotated annotation type.
    */
@@ -30,6 +30,8 @@ import com.squareup.javapoet.TypeSpec;
 import dagger.internal.codegen.javapoet.AnnotationSpecs;
 import dagger.internal.codegen.javapoet.AnnotationSpecs.Suppression;
 import dagger.internal.codegen.langmodel.DaggerElements;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Optional;
 import javax.annotation.processing.Filer;
 import javax.annotation.processing.Messager;
@@ -79,7 +81,7 @@ public abstract class SourceFileGenerator<T> {
       return;
     }
     try {
-      buildJavaFile(input, type.get()).writeTo(filer);
+      writeJavaFile(input, buildJavaFile(input, type.get()));
     } catch (Exception e) {
       // if the code above threw a SFGE, use that
       Throwables.propagateIfPossible(e, SourceFileGenerationException.class);
@@ -88,6 +90,25 @@ public abstract class SourceFileGenerator<T> {
     }
   }
 
+  /** Writes {@code javaFile}, which was generated for {@code input}, to the {@link Filer}. */
+  protected void writeJavaFile(T input, JavaFile javaFile) throws IOException {
+    javaFile.writeTo(filer);
+  }
+
+  /**
+   * Writes {@code source} as the source file for {@code input}, such as source that was generated
+   * for the same input by an earlier compilation.
+   */
+  protected final void writeSource(T input, String source) throws SourceFileGenerationException {
+    ClassName name = nameGeneratedType(input);
+    try (Writer writer =
+        filer.createSourceFile(name.canonicalName(), originatingElement(input)).openWriter()) {
+      writer.write(source);
+    } catch (IOException e) {
+      throw new SourceFileGenerationException(Optional.of(name), e, originatingElement(input));
+    }
+  }
+
   private JavaFile buildJavaFile(T input, TypeSpec.Builder typeSpecBuilder) {
     typeSpecBuilder.addOriginatingElement(originatingElement(input));
     Optional<AnnotationSpec> generatedAnnotation =
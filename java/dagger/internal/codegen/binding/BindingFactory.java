@@ -231,9 +231,9 @@ public final class BindingFactory {
   }
 
   /**
-   * Returns a {@link dagger.model.BindingKind#MULTIBOUND_MAP} or {@link
-   * dagger.model.BindingKind#MULTIBOUND_SET} binding given a set of multibinding contribution
-   * bindings.
+   * Returns a {@link dagger.model.BindingKind#MULTIBOUND_MAP}, {@link
+   * dagger.model.BindingKind#MULTIBOUND_SET}, or {@link dagger.model.BindingKind#MULTIBOUND_LIST}
+   * binding given a set of multibinding contribution bindings.
    *
    * @param key a key that may be satisfied by a multibinding
    */
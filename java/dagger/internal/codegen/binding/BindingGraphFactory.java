@@ -22,6 +22,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.isEmpty;
 import static dagger.internal.codegen.base.RequestKinds.getRequestKind;
+import static dagger.internal.codegen.base.Scopes.isReusableScope;
 import static dagger.internal.codegen.base.Util.reentrantComputeIfAbsent;
 import static dagger.internal.codegen.binding.ComponentDescriptor.isComponentContributionMethod;
 import static dagger.internal.codegen.binding.SourceFiles.generatedMonitoringModuleName;
@@ -59,6 +60,7 @@ import dagger.producers.Producer;
 import dagger.producers.internal.ProductionExecutorModule;
 import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -86,6 +88,10 @@ public final class BindingGraphFactory implements ClearableCache {
   private final ModuleDescriptor.Factory moduleDescriptorFactory;
   private final BindingGraphConverter bindingGraphConverter;
   private final Map<Key, ImmutableSet<Key>> keysMatchingRequestCache = new HashMap<>();
+  // The binding look-ups of root components, shared by the root components that install the same
+  // modules if sharedBindingResolution is enabled.
+  private final Map<ImmutableSet<TypeElement>, Map<Key, BindingLookUp>> sharedLookUpsByModules =
+      new HashMap<>();
   private final CompilerOptions compilerOptions;
 
   @Inject
@@ -188,7 +194,8 @@ public final class BindingGraphFactory implements ClearableCache {
     ImmutableSet.Builder<SubcomponentDeclaration> subcomponentDeclarations = ImmutableSet.builder();
 
     // Collect transitive module bindings and multibinding declarations.
-    for (ModuleDescriptor moduleDescriptor : modules(componentDescriptor, parentResolver)) {
+    ImmutableSet<ModuleDescriptor> modules = modules(componentDescriptor, parentResolver);
+    for (ModuleDescriptor moduleDescriptor : modules) {
       explicitBindingsBuilder.addAll(moduleDescriptor.bindings());
       multibindingDeclarations.addAll(moduleDescriptor.multibindingDeclarations());
       subcomponentDeclarations.addAll(moduleDescriptor.subcomponentDeclarations());
@@ -200,6 +207,7 @@ public final class BindingGraphFactory implements ClearableCache {
         new Resolver(
             parentResolver,
             componentDescriptor,
+            sharedLookUps(parentResolver, componentDescriptor, modules),
             indexBindingDeclarationsByKey(explicitBindingsBuilder.build()),
             indexBindingDeclarationsByKey(multibindingDeclarations.build()),
             indexBindingDeclarationsByKey(subcomponentDeclarations.build()),
@@ -220,7 +228,7 @@ public final class BindingGraphFactory implements ClearableCache {
     if (createFullBindingGraph) {
       // Resolve the keys for all bindings in all modules, stripping any multibinding contribution
       // identifier so that the multibinding itself is resolved.
-      modules(componentDescriptor, parentResolver).stream()
+      modules.stream()
           .flatMap(module -> module.allBindingKeys().stream())
           .map(key -> key.toBuilder().multibindingContributionIdentifier(Optional.empty()).build())
           .forEach(requestResolver::resolve);
@@ -252,6 +260,29 @@ public final class BindingGraphFactory implements ClearableCache {
         createFullBindingGraph);
   }
 
+  /**
+   * Returns the binding look-ups shared by the root components that install the same {@code
+   * modules}, or empty if {@code componentDescriptor} doesn't share them.
+   *
+   * <p>Only root components share look-ups, since a subcomponent's look-ups depend on the bindings
+   * of its ancestors and on where those bindings were resolved.
+   */
+  private Optional<Map<Key, BindingLookUp>> sharedLookUps(
+      Optional<Resolver> parentResolver,
+      ComponentDescriptor componentDescriptor,
+      ImmutableSet<ModuleDescriptor> modules) {
+    if (!compilerOptions.sharedBindingResolution()
+        || parentResolver.isPresent()
+        || componentDescriptor.isSubcomponent()
+        || !componentDescriptor.isRealComponent()) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        sharedLookUpsByModules.computeIfAbsent(
+            modules.stream().map(ModuleDescriptor::moduleElement).collect(toImmutableSet()),
+            moduleElements -> new HashMap<>()));
+  }
+
   /**
    * Returns all the modules that should be installed in the component. For production components
    * and production subcomponents that have a parent that is not a production component or
@@ -305,11 +336,59 @@ public final class BindingGraphFactory implements ClearableCache {
   @Override
   public void clearCache() {
     keysMatchingRequestCache.clear();
+    sharedLookUpsByModules.clear();
+  }
+
+  /**
+   * The bindings and declarations that {@link Resolver#lookUpBindings(Key)} finds for a key, before
+   * they are indexed by their owning component.
+   */
+  private static final class BindingLookUp {
+    final ImmutableSet<ContributionBinding> bindings;
+    final ImmutableSet<MultibindingDeclaration> multibindingDeclarations;
+    final ImmutableSet<SubcomponentDeclaration> subcomponentDeclarations;
+    final ImmutableSet<OptionalBindingDeclaration> optionalBindingDeclarations;
+
+    /** The keys whose explicit bindings the look-up read. */
+    final ImmutableSet<Key> explicitBindingKeys;
+
+    /**
+     * The delegate keys that the look-up checked for on the cycle stack, none of which were on it.
+     */
+    final ImmutableSet<Key> delegateKeys;
+
+    BindingLookUp(
+        ImmutableSet<ContributionBinding> bindings,
+        ImmutableSet<MultibindingDeclaration> multibindingDeclarations,
+        ImmutableSet<SubcomponentDeclaration> subcomponentDeclarations,
+        ImmutableSet<OptionalBindingDeclaration> optionalBindingDeclarations,
+        ImmutableSet<Key> explicitBindingKeys,
+        ImmutableSet<Key> delegateKeys) {
+      this.bindings = bindings;
+      this.multibindingDeclarations = multibindingDeclarations;
+      this.subcomponentDeclarations = subcomponentDeclarations;
+      this.optionalBindingDeclarations = optionalBindingDeclarations;
+      this.explicitBindingKeys = explicitBindingKeys;
+      this.delegateKeys = delegateKeys;
+    }
+  }
+
+  /** What a {@link BindingLookUp} in progress has depended on so far. */
+  private static final class LookUpDependencies {
+    final Set<Key> explicitBindingKeys = new LinkedHashSet<>();
+    final Set<Key> delegateKeys = new LinkedHashSet<>();
+    boolean shareable = true;
+
+    void addAll(BindingLookUp lookUp) {
+      explicitBindingKeys.addAll(lookUp.explicitBindingKeys);
+      delegateKeys.addAll(lookUp.delegateKeys);
+    }
   }
 
   private final class Resolver {
     final Optional<Resolver> parentResolver;
     final ComponentDescriptor componentDescriptor;
+    final Optional<Map<Key, BindingLookUp>> sharedLookUps;
     final ImmutableSetMultimap<Key, ContributionBinding> explicitBindings;
     final ImmutableSet<ContributionBinding> explicitBindingsSet;
     final ImmutableSetMultimap<Key, ContributionBinding> explicitMultibindings;
@@ -324,10 +403,16 @@ public final class BindingGraphFactory implements ClearableCache {
     final Map<Key, Boolean> keyDependsOnLocalBindingsCache = new HashMap<>();
     final Map<Binding, Boolean> bindingDependsOnLocalBindingsCache = new HashMap<>();
     final Queue<ComponentDescriptor> subcomponentsToResolve = new ArrayDeque<>();
+    // The keys of this component's explicit bindings that aren't from its modules, such as the
+    // binding for the component itself and for its dependencies and bound instances.
+    final ImmutableSet<Key> componentBindingKeys;
+    // The dependencies of the look-ups in progress, innermost last.
+    final Deque<LookUpDependencies> lookUpsInProgress = new ArrayDeque<>();
 
     Resolver(
         Optional<Resolver> parentResolver,
         ComponentDescriptor componentDescriptor,
+        Optional<Map<Key, BindingLookUp>> sharedLookUps,
         ImmutableSetMultimap<Key, ContributionBinding> explicitBindings,
         ImmutableSetMultimap<Key, MultibindingDeclaration> multibindingDeclarations,
         ImmutableSetMultimap<Key, SubcomponentDeclaration> subcomponentDeclarations,
@@ -335,8 +420,14 @@ public final class BindingGraphFactory implements ClearableCache {
         ImmutableSetMultimap<Key, OptionalBindingDeclaration> optionalBindingDeclarations) {
       this.parentResolver = parentResolver;
       this.componentDescriptor = checkNotNull(componentDescriptor);
+      this.sharedLookUps = checkNotNull(sharedLookUps);
       this.explicitBindings = checkNotNull(explicitBindings);
       this.explicitBindingsSet = ImmutableSet.copyOf(explicitBindings.values());
+      this.componentBindingKeys =
+          explicitBindingsSet.stream()
+              .filter(binding -> !binding.contributingModule().isPresent())
+              .map(ContributionBinding::key)
+              .collect(toImmutableSet());
       this.multibindingDeclarations = checkNotNull(multibindingDeclarations);
       this.subcomponentDeclarations = checkNotNull(subcomponentDeclarations);
       this.delegateDeclarations = checkNotNull(delegateDeclarations);
@@ -375,6 +466,68 @@ public final class BindingGraphFactory implements ClearableCache {
      * </ul>
      */
     ResolvedBindings lookUpBindings(Key requestKey) {
+      BindingLookUp lookUp =
+          sharedLookUps.isPresent() ? sharedLookUp(requestKey) : lookUpUnshared(requestKey);
+      return ResolvedBindings.forContributionBindings(
+          requestKey,
+          indexBindingsByOwningComponent(requestKey, lookUp.bindings),
+          lookUp.multibindingDeclarations,
+          lookUp.subcomponentDeclarations,
+          lookUp.optionalBindingDeclarations);
+    }
+
+    /**
+     * Returns the look-up for {@code requestKey} that another root component with the same modules
+     * made, if it is valid for this component, or else looks the key up and shares the result.
+     *
+     * <p>A look-up depends only on the modules, except where it reads this component's own explicit
+     * bindings or checks the cycle stack of this resolution, so those are recorded while it runs.
+     * A look-up that finds a subcomponent declaration is never shared, since finding one schedules
+     * the subcomponent to be resolved.
+     */
+    private BindingLookUp sharedLookUp(Key requestKey) {
+      BindingLookUp lookUp = sharedLookUps.get().get(requestKey);
+      if (lookUp != null && isValid(lookUp)) {
+        lookUpsInProgress.forEach(dependencies -> dependencies.addAll(lookUp));
+        return lookUp;
+      }
+      LookUpDependencies dependencies = new LookUpDependencies();
+      BindingLookUp newLookUp;
+      lookUpsInProgress.addLast(dependencies);
+      try {
+        newLookUp = lookUpUnshared(requestKey);
+      } finally {
+        lookUpsInProgress.removeLast();
+      }
+      BindingLookUp recordedLookUp =
+          new BindingLookUp(
+              newLookUp.bindings,
+              newLookUp.multibindingDeclarations,
+              newLookUp.subcomponentDeclarations,
+              newLookUp.optionalBindingDeclarations,
+              ImmutableSet.copyOf(dependencies.explicitBindingKeys),
+              ImmutableSet.copyOf(dependencies.delegateKeys));
+      // The enclosing look-ups have already recorded the same dependencies as they were read.
+      boolean shareable = dependencies.shareable && newLookUp.subcomponentDeclarations.isEmpty();
+      if (!shareable) {
+        lookUpsInProgress.forEach(outer -> outer.shareable = false);
+      } else if (isValid(recordedLookUp)) {
+        sharedLookUps.get().put(requestKey, recordedLookUp);
+      }
+      return recordedLookUp;
+    }
+
+    /**
+     * Returns {@code true} if {@code lookUp} would find the same bindings if it were repeated in
+     * this component now.
+     */
+    private boolean isValid(BindingLookUp lookUp) {
+      return lookUp.subcomponentDeclarations.isEmpty()
+          && Collections.disjoint(lookUp.explicitBindingKeys, componentBindingKeys)
+          && lookUp.delegateKeys.stream().noneMatch(cycleStack::contains);
+    }
+
+    private BindingLookUp lookUpUnshared(Key requestKey) {
       Set<ContributionBinding> bindings = new LinkedHashSet<>();
       bindings.addAll(getExplicitBindings(requestKey));
 
@@ -412,12 +565,13 @@ public final class BindingGraphFactory implements ClearableCache {
             .ifPresent(bindings::add);
       }
 
-      return ResolvedBindings.forContributionBindings(
-          requestKey,
-          indexBindingsByOwningComponent(requestKey, ImmutableSet.copyOf(bindings)),
+      return new BindingLookUp(
+          ImmutableSet.copyOf(bindings),
           multibindingDeclarations,
           subcomponentDeclarations,
-          optionalBindingDeclarations);
+          optionalBindingDeclarations,
+          ImmutableSet.of(),
+          ImmutableSet.of());
     }
 
     /**
@@ -433,7 +587,7 @@ public final class BindingGraphFactory implements ClearableCache {
       ComponentDescriptor owningComponent = owningResolver.componentDescriptor;
       return rootComponent().isSubcomponent()
           && binding.scope().isPresent()
-          && !binding.scope().get().isReusable()
+          && !isReusableScope(binding.scope().get())
           && !owningComponent.scopes().contains(binding.scope().get());
     }
 
@@ -567,7 +721,9 @@ public final class BindingGraphFactory implements ClearableCache {
      */
     private ContributionBinding createDelegateBinding(DelegateDeclaration delegateDeclaration) {
       Key delegateKey = delegateDeclaration.delegateRequest().key();
+      lookUpsInProgress.forEach(dependencies -> dependencies.delegateKeys.add(delegateKey));
       if (cycleStack.contains(delegateKey)) {
+        lookUpsInProgress.forEach(dependencies -> dependencies.shareable = false);
         return bindingFactory.unresolvedDelegateBinding(delegateDeclaration);
       }
 
@@ -666,7 +822,7 @@ public final class BindingGraphFactory implements ClearableCache {
         }
       }
 
-      if (binding.scope().isPresent() && binding.scope().get().isReusable()) {
+      if (binding.scope().isPresent() && isReusableScope(binding.scope().get())) {
         for (Resolver requestResolver : getResolverLineage().reverse()) {
           // If a @Reusable binding was resolved in an ancestor, use that component.
           ResolvedBindings resolvedBindings =
@@ -768,6 +924,7 @@ public final class BindingGraphFactory implements ClearableCache {
      * resolver.
      */
     private ImmutableSet<ContributionBinding> getLocalExplicitBindings(Key key) {
+      lookUpsInProgress.forEach(dependencies -> dependencies.explicitBindingKeys.add(key));
       return new ImmutableSet.Builder<ContributionBinding>()
           .addAll(explicitBindings.get(key))
           // @Binds @IntoMap declarations have key Map<K, V>, unlike @Provides @IntoMap or @Produces
@@ -1030,7 +1187,7 @@ public final class BindingGraphFactory implements ClearableCache {
       }
 
       private boolean dependsOnLocalBindingsUncached(Binding binding) {
-        if ((!binding.scope().isPresent() || binding.scope().get().isReusable())
+        if ((!binding.scope().isPresent() || isReusableScope(binding.scope().get()))
             // TODO(beder): Figure out what happens with production subcomponents.
             && !binding.bindingType().equals(BindingType.PRODUCTION)) {
           for (DependencyRequest dependency : binding.dependencies()) {
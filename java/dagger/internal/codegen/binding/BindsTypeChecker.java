@@ -22,8 +22,10 @@ import com.google.auto.common.MoreElements;
 import com.google.auto.common.MoreTypes;
 import com.google.common.collect.ImmutableList;
 import dagger.internal.codegen.base.ContributionType;
+import dagger.internal.codegen.base.ListType;
 import dagger.internal.codegen.langmodel.DaggerElements;
 import dagger.internal.codegen.langmodel.DaggerTypes;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 import javax.inject.Inject;
@@ -69,6 +71,19 @@ public final class BindsTypeChecker {
         return methodParameterType(parameterizedSetType, "add");
       case SET_VALUES:
         return methodParameterType(MoreTypes.asDeclared(leftHandSide), "addAll");
+      // List also declares add(int, E) and addAll(int, Collection), so use Collection's methods.
+      case LIST:
+        DeclaredType parameterizedCollectionType =
+            types.getDeclaredType(collectionElement(), leftHandSide);
+        return methodParameterType(parameterizedCollectionType, "add");
+      case LIST_VALUES:
+        if (!ListType.isList(leftHandSide) || ListType.from(leftHandSide).isRawType()) {
+          return leftHandSide;
+        }
+        return methodParameterType(
+            types.getDeclaredType(
+                collectionElement(), ListType.from(leftHandSide).elementType()),
+            "addAll");
       case MAP:
         DeclaredType parameterizedMapType =
             types.getDeclaredType(mapElement(), unboundedWildcard(), leftHandSide);
@@ -102,6 +117,10 @@ public final class BindsTypeChecker {
     return elements.getTypeElement(Set.class);
   }
 
+  private TypeElement collectionElement() {
+    return elements.getTypeElement(Collection.class);
+  }
+
   private TypeElement mapElement() {
     return elements.getTypeElement(Map.class);
   }
@@ -29,6 +29,7 @@ import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.google.errorprone.annotations.CheckReturnValue;
 import dagger.internal.codegen.base.ContributionType;
 import dagger.internal.codegen.base.ContributionType.HasContributionType;
+import dagger.internal.codegen.base.ListType;
 import dagger.internal.codegen.base.MapType;
 import dagger.internal.codegen.base.SetType;
 import dagger.model.BindingKind;
@@ -112,6 +113,7 @@ public abstract class ContributionBinding extends Binding implements HasContribu
       case INJECTION:
       case MULTIBOUND_SET:
       case MULTIBOUND_MAP:
+      case MULTIBOUND_LIST:
         return dependencies().isEmpty() ? SINGLETON_INSTANCE : CLASS_CONSTRUCTOR;
       default:
         return CLASS_CONSTRUCTOR;
@@ -121,7 +123,8 @@ public abstract class ContributionBinding extends Binding implements HasContribu
   /**
    * The {@link TypeMirror type} for the {@code Factory<T>} or {@code Producer<T>} which is created
    * for this binding. Uses the binding's key, V in the case of {@code Map<K, FrameworkClass<V>>>},
-   * and E {@code Set<E>} for {@link dagger.multibindings.IntoSet @IntoSet} methods.
+   * E {@code Set<E>} for {@link dagger.multibindings.IntoSet @IntoSet} methods, and E {@code
+   * List<E>} for {@link dagger.multibindings.IntoList @IntoList} methods.
    */
   public final TypeMirror contributedType() {
     switch (contributionType()) {
@@ -129,7 +132,10 @@ public abstract class ContributionBinding extends Binding implements HasContribu
         return MapType.from(key()).unwrappedFrameworkValueType();
       case SET:
         return SetType.from(key()).elementType();
+      case LIST:
+        return ListType.from(key()).elementType();
       case SET_VALUES:
+      case LIST_VALUES:
       case UNIQUE:
         return key().type();
     }
@@ -137,18 +143,21 @@ public abstract class ContributionBinding extends Binding implements HasContribu
   }
 
   /**
-   * Returns {@link BindingKind#MULTIBOUND_SET} or {@link
-   * BindingKind#MULTIBOUND_MAP} if the key is a set or map.
+   * Returns {@link BindingKind#MULTIBOUND_SET}, {@link BindingKind#MULTIBOUND_MAP}, or {@link
+   * BindingKind#MULTIBOUND_LIST} if the key is a set, map, or list.
    *
-   * @throws IllegalArgumentException if {@code key} is neither a set nor a map
+   * @throws IllegalArgumentException if {@code key} is not a set, map, or list
    */
   static BindingKind bindingKindForMultibindingKey(Key key) {
     if (SetType.isSet(key)) {
       return BindingKind.MULTIBOUND_SET;
     } else if (MapType.isMap(key)) {
       return BindingKind.MULTIBOUND_MAP;
+    } else if (ListType.isList(key)) {
+      return BindingKind.MULTIBOUND_LIST;
     } else {
-      throw new IllegalArgumentException(String.format("key is not for a set or map: %s", key));
+      throw new IllegalArgumentException(
+          String.format("key is not for a set, map, or list: %s", key));
     }
   }
 
@@ -121,6 +121,8 @@ public final class DependencyRequestFactory {
         // fall through
       case SET:
       case SET_VALUES:
+      case LIST:
+      case LIST_VALUES:
         return INSTANCE;
       case UNIQUE:
         throw new IllegalArgumentException(
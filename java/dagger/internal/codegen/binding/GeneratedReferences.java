@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal.codegen.binding;
+
+import com.google.common.collect.Sets;
+import com.squareup.javapoet.ClassName;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.processing.Filer;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.lang.model.element.Element;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileObject;
+import javax.tools.JavaFileManager.Location;
+import javax.tools.JavaFileObject;
+
+/**
+ * Records the {@code _Factory} and {@code _MembersInjector} classes that are referenced by the
+ * sources that Dagger generates, so that whole-program mode only generates the ones that are used.
+ *
+ * <p>References are found in the text of each generated source file. A simple name is recorded as
+ * a class in the same package as the file, so the set of referenced names may contain names of
+ * classes that don't exist, but never misses a class that is used.
+ */
+@Singleton
+public final class GeneratedReferences {
+  private static final Pattern PACKAGE = Pattern.compile("^package ([\\w.]+);", Pattern.MULTILINE);
+  private static final Pattern REFERENCE =
+      Pattern.compile(
+          "\\b((?:[a-z_$][\\w$]*\\.)*)([A-Za-z$][\\w$]*_(?:Factory|MembersInjector))\\b");
+
+  private final Set<String> referencedNames = Sets.newHashSet();
+
+  @Inject
+  GeneratedReferences() {}
+
+  /** Returns {@code true} if a generated source file has referenced {@code className}. */
+  public boolean isReferenced(ClassName className) {
+    return referencedNames.contains(className.canonicalName());
+  }
+
+  /** Returns a {@link Filer} that records the references in each source file written to it. */
+  public Filer recordingFiler(Filer delegate) {
+    return new RecordingFiler(delegate);
+  }
+
+  private void recordReferences(String source) {
+    Matcher packageMatcher = PACKAGE.matcher(source);
+    String packagePrefix = packageMatcher.find() ? packageMatcher.group(1) + "." : "";
+    Matcher matcher = REFERENCE.matcher(source);
+    while (matcher.find()) {
+      referencedNames.add(
+          matcher.group(1).isEmpty()
+              ? packagePrefix + matcher.group(2)
+              : matcher.group(1) + matcher.group(2));
+    }
+  }
+
+  private final class RecordingFiler implements Filer {
+    private final Filer delegate;
+
+    RecordingFiler(Filer delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements)
+        throws IOException {
+      return new ForwardingJavaFileObject<JavaFileObject>(
+          delegate.createSourceFile(name, originatingElements)) {
+        @Override
+        public Writer openWriter() throws IOException {
+          Writer writer = super.openWriter();
+          return new StringWriter() {
+            @Override
+            public void close() throws IOException {
+              String source = toString();
+              recordReferences(source);
+              writer.write(source);
+              writer.close();
+            }
+          };
+        }
+      };
+    }
+
+    @Override
+    public JavaFileObject createClassFile(CharSequence name, Element... originatingElements)
+        throws IOException {
+      return delegate.createClassFile(name, originatingElements);
+    }
+
+    @Override
+    public FileObject createResource(
+        Location location,
+        CharSequence moduleAndPkg,
+        CharSequence relativeName,
+        Element... originatingElements)
+        throws IOException {
+      return delegate.createResource(location, moduleAndPkg, relativeName, originatingElements);
+    }
+
+    @Override
+    public FileObject getResource(
+        Location location, CharSequence moduleAndPkg, CharSequence relativeName)
+        throws IOException {
+      return delegate.getResource(location, moduleAndPkg, relativeName);
+    }
+  }
+}
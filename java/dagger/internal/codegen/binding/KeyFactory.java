@@ -38,6 +38,7 @@ import dagger.Binds;
 import dagger.BindsOptionalOf;
 import dagger.internal.codegen.base.ContributionType;
 import dagger.internal.codegen.base.FrameworkTypes;
+import dagger.internal.codegen.base.ListType;
 import dagger.internal.codegen.base.MapType;
 import dagger.internal.codegen.base.OptionalType;
 import dagger.internal.codegen.base.RequestKinds;
@@ -54,6 +55,7 @@ import dagger.producers.Producer;
 import dagger.producers.Production;
 import dagger.producers.internal.ProductionImplementation;
 import dagger.producers.monitoring.ProductionComponentMonitor;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -91,6 +93,10 @@ public final class KeyFactory {
     return types.getDeclaredType(elements.getTypeElement(Set.class), boxPrimitives(elementType));
   }
 
+  private DeclaredType listOf(TypeMirror elementType) {
+    return types.getDeclaredType(elements.getTypeElement(List.class), boxPrimitives(elementType));
+  }
+
   private DeclaredType mapOf(TypeMirror keyType, TypeMirror valueType) {
     return types.getDeclaredType(
         elements.getTypeElement(Map.class), boxPrimitives(keyType), boxPrimitives(valueType));
@@ -189,8 +195,8 @@ public final class KeyFactory {
   /**
    * Returns the key for a {@link Multibinds @Multibinds} method.
    *
-   * <p>The key's type is either {@code Set<T>} or {@code Map<K, Provider<V>>}. The latter works
-   * even for maps used by {@code Producer}s.
+   * <p>The key's type is either {@code Set<T>}, {@code List<T>}, or {@code Map<K, Provider<V>>}.
+   * The latter works even for maps used by {@code Producer}s.
    */
   Key forMultibindsMethod(ExecutableType executableType, ExecutableElement method) {
     checkArgument(method.getKind().equals(METHOD), "%s must be a method", method);
@@ -224,6 +230,11 @@ public final class KeyFactory {
         // TODO(gak): do we want to allow people to use "covariant return" here?
         checkArgument(SetType.isSet(returnType));
         return returnType;
+      case LIST:
+        return listOf(returnType);
+      case LIST_VALUES:
+        checkArgument(ListType.isList(returnType));
+        return returnType;
     }
     throw new AssertionError();
   }
@@ -49,6 +49,7 @@ import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.SimpleTypeVisitor6;
 
@@ -170,9 +171,7 @@ public final class MapKeys {
     Optional<? extends AnnotationValue> unwrappedValue = unwrapValue(mapKey);
     AnnotationExpression annotationExpression = new AnnotationExpression(mapKey);
 
-    if (MoreTypes.asTypeElement(mapKey.getAnnotationType())
-        .getQualifiedName()
-        .contentEquals("dagger.android.AndroidInjectionKey")) {
+    if (isAndroidInjectionKey(mapKey)) {
       TypeElement unwrappedType =
           elements.checkTypePresent((String) unwrappedValue.get().getValue());
       return CodeBlock.of(
@@ -190,6 +189,39 @@ public final class MapKeys {
     }
   }
 
+  private static boolean isAndroidInjectionKey(AnnotationMirror mapKey) {
+    return MoreTypes.asTypeElement(mapKey.getAnnotationType())
+        .getQualifiedName()
+        .contentEquals("dagger.android.AndroidInjectionKey");
+  }
+
+  /**
+   * Returns the name that a generated {@link dagger.internal.SwitchingMap} switches on to find
+   * {@code binding}'s map key: the key itself for a {@code String} key, or the binary name of the
+   * class for a {@code Class} key. Returns empty for any other key, and for an {@code
+   * AndroidInjectionKey}, whose value may be rewritten when the app is obfuscated.
+   *
+   * @throws IllegalStateException if {@code binding} is not a {@link dagger.multibindings.IntoMap
+   *     map} contribution.
+   */
+  public static Optional<String> switchingMapKeyName(
+      ContributionBinding binding, DaggerElements elements) {
+    AnnotationMirror mapKey = binding.mapKeyAnnotation().get();
+    Optional<? extends AnnotationValue> unwrappedValue = unwrapValue(mapKey);
+    if (!unwrappedValue.isPresent() || isAndroidInjectionKey(mapKey)) {
+      return Optional.empty();
+    }
+    Object value = unwrappedValue.get().getValue();
+    if (value instanceof String) {
+      return Optional.of((String) value);
+    }
+    if (value instanceof TypeMirror && ((TypeMirror) value).getKind().equals(TypeKind.DECLARED)) {
+      return Optional.of(
+          elements.getBinaryName(MoreTypes.asTypeElement((TypeMirror) value)).toString());
+    }
+    return Optional.empty();
+  }
+
   /**
    * Returns the {@link ClassName} in which {@link #mapKeyFactoryMethod(ContributionBinding,
    * DaggerTypes, DaggerElements)} is generated.
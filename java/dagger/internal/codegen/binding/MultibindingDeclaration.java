@@ -24,11 +24,13 @@ import com.google.auto.value.AutoValue;
 import com.google.auto.value.extension.memoized.Memoized;
 import dagger.internal.codegen.base.ContributionType;
 import dagger.internal.codegen.base.ContributionType.HasContributionType;
+import dagger.internal.codegen.base.ListType;
 import dagger.internal.codegen.base.MapType;
 import dagger.internal.codegen.base.SetType;
 import dagger.internal.codegen.langmodel.DaggerTypes;
 import dagger.model.Key;
 import dagger.multibindings.Multibinds;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -41,23 +43,24 @@ import javax.lang.model.type.TypeMirror;
 
 /**
  * A declaration that a multibinding with a certain key is available to be injected in a component
- * even if the component has no multibindings for that key. Identified by a map- or set-returning
- * method annotated with {@link Multibinds @Multibinds}.
+ * even if the component has no multibindings for that key. Identified by a map-, set-, or
+ * list-returning method annotated with {@link Multibinds @Multibinds}.
  */
 @AutoValue
 public abstract class MultibindingDeclaration extends BindingDeclaration
     implements HasContributionType {
 
   /**
-   * The map or set key whose availability is declared. For maps, this will be {@code Map<K,
-   * Provider<V>>}. For sets, this will be {@code Set<T>}.
+   * The map, set, or list key whose availability is declared. For maps, this will be {@code Map<K,
+   * Provider<V>>}. For sets, this will be {@code Set<T>}. For lists, this will be {@code List<T>}.
    */
   @Override
   public abstract Key key();
 
   /**
-   * {@link ContributionType#SET} if the declared type is a {@link Set}, or
-   * {@link ContributionType#MAP} if it is a {@link Map}.
+   * {@link ContributionType#SET} if the declared type is a {@link Set}, {@link
+   * ContributionType#MAP} if it is a {@link Map}, or {@link ContributionType#LIST} if it is a
+   * {@link List}.
    */
   @Override
   public abstract ContributionType contributionType();
@@ -97,8 +100,8 @@ public abstract class MultibindingDeclaration extends BindingDeclaration
         TypeElement contributingType) {
       TypeMirror returnType = methodType.getReturnType();
       checkArgument(
-          SetType.isSet(returnType) || MapType.isMap(returnType),
-          "%s must return a set or map",
+          SetType.isSet(returnType) || MapType.isMap(returnType) || ListType.isList(returnType),
+          "%s must return a set, map, or list",
           method);
       return new AutoValue_MultibindingDeclaration(
           Optional.<Element>of(method),
@@ -112,8 +115,10 @@ public abstract class MultibindingDeclaration extends BindingDeclaration
         return ContributionType.MAP;
       } else if (SetType.isSet(returnType)) {
         return ContributionType.SET;
+      } else if (ListType.isList(returnType)) {
+        return ContributionType.LIST;
       } else {
-        throw new IllegalArgumentException("Must be Map or Set: " + returnType);
+        throw new IllegalArgumentException("Must be Map, Set, or List: " + returnType);
       }
     }
   }
@@ -23,6 +23,8 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static dagger.internal.codegen.extension.DaggerStreams.toImmutableList;
 import static dagger.internal.codegen.javapoet.TypeNames.DOUBLE_CHECK;
+import static dagger.internal.codegen.javapoet.TypeNames.LIST_FACTORY;
+import static dagger.internal.codegen.javapoet.TypeNames.LIST_PRODUCER;
 import static dagger.internal.codegen.javapoet.TypeNames.MAP_FACTORY;
 import static dagger.internal.codegen.javapoet.TypeNames.MAP_OF_PRODUCED_PRODUCER;
 import static dagger.internal.codegen.javapoet.TypeNames.MAP_OF_PRODUCER_PRODUCER;
@@ -33,6 +35,7 @@ import static dagger.internal.codegen.javapoet.TypeNames.SET_FACTORY;
 import static dagger.internal.codegen.javapoet.TypeNames.SET_OF_PRODUCED_PRODUCER;
 import static dagger.internal.codegen.javapoet.TypeNames.SET_PRODUCER;
 import static dagger.model.BindingKind.INJECTION;
+import static dagger.model.BindingKind.MULTIBOUND_LIST;
 import static dagger.model.BindingKind.MULTIBOUND_MAP;
 import static dagger.model.BindingKind.MULTIBOUND_SET;
 import static javax.lang.model.SourceVersion.isName;
@@ -227,6 +230,16 @@ public class SourceFiles {
     }
   }
 
+  /**
+   * The {@link java.util.List} factory class name appropriate for list bindings: {@link
+   * dagger.internal.ListFactory} for provision bindings, or {@link
+   * dagger.producers.internal.ListProducer} for production bindings.
+   */
+  public static ClassName listFactoryClassName(ContributionBinding binding) {
+    checkArgument(binding.kind().equals(MULTIBOUND_LIST));
+    return binding.bindingType().equals(BindingType.PROVISION) ? LIST_FACTORY : LIST_PRODUCER;
+  }
+
   /** The {@link java.util.Map} factory class name appropriate for map bindings. */
   public static ClassName mapFactoryClassName(ContributionBinding binding) {
     checkState(binding.kind().equals(MULTIBOUND_MAP), binding.kind());
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen.binding;
+
+import static com.google.auto.common.MoreElements.getPackage;
+import static javax.tools.StandardLocation.CLASS_PATH;
+
+import com.google.common.io.ByteStreams;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+import dagger.internal.codegen.langmodel.DaggerElements;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+
+/**
+ * Finds the file that declares a type: a source file for a type that is compiled from source in
+ * this compilation, or a class file on the class path.
+ */
+@Singleton
+public final class TypeFiles {
+  private final ProcessingEnvironment processingEnvironment;
+  private final DaggerElements elements;
+  private final Optional<Trees> trees;
+
+  @Inject
+  TypeFiles(ProcessingEnvironment processingEnvironment, DaggerElements elements) {
+    this.processingEnvironment = processingEnvironment;
+    this.elements = elements;
+    this.trees = trees(processingEnvironment);
+  }
+
+  private static Optional<Trees> trees(ProcessingEnvironment processingEnvironment) {
+    try {
+      return Optional.of(Trees.instance(processingEnvironment));
+    } catch (IllegalArgumentException e) {
+      // Not javac, so there's no way to tell which types are compiled from source.
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Returns {@code true} if {@code type} is compiled from source in this compilation, or if that
+   * can't be determined.
+   */
+  public boolean isFromSource(TypeElement type) {
+    return !trees.isPresent() || trees.get().getPath(type) != null;
+  }
+
+  /**
+   * Returns the source file that declares {@code type} if it is compiled from source in this
+   * compilation.
+   */
+  public Optional<JavaFileObject> sourceFile(TypeElement type) {
+    if (!trees.isPresent()) {
+      return Optional.empty();
+    }
+    TreePath path = trees.get().getPath(type);
+    return path == null
+        ? Optional.empty()
+        : Optional.of(path.getCompilationUnit().getSourceFile());
+  }
+
+  /**
+   * Returns the contents of the class file of {@code type} on the class path, or empty if it isn't
+   * there, as for types compiled from source or found only on the boot class path.
+   */
+  public Optional<byte[]> classFile(TypeElement type) {
+    String packageName = getPackage(type).getQualifiedName().toString();
+    String binaryName = elements.getBinaryName(type).toString();
+    String relativeName =
+        (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+            + ".class";
+    try (InputStream classFile =
+        processingEnvironment
+            .getFiler()
+            .getResource(CLASS_PATH, packageName, relativeName)
+            .openInputStream()) {
+      return Optional.of(ByteStreams.toByteArray(classFile));
+    } catch (IOException | IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+}
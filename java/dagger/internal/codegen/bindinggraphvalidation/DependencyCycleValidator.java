@@ -20,10 +20,10 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Iterables.getLast;
 import static com.google.common.collect.Iterables.limit;
 import static com.google.common.collect.Iterables.skip;
-import static com.google.common.collect.Sets.newHashSetWithExpectedSize;
 import static dagger.internal.codegen.base.RequestKinds.extractKeyType;
 import static dagger.internal.codegen.base.RequestKinds.getRequestKind;
 import static dagger.internal.codegen.extension.DaggerGraphs.shortestPath;
+import static dagger.internal.codegen.extension.DaggerGraphs.stronglyConnectedComponents;
 import static dagger.internal.codegen.extension.DaggerStreams.instancesOf;
 import static dagger.internal.codegen.extension.DaggerStreams.toImmutableList;
 import static dagger.internal.codegen.extension.DaggerStreams.toImmutableSet;
@@ -33,6 +33,7 @@ import com.google.auto.value.AutoValue;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
 import com.google.common.graph.EndpointPair;
 import com.google.common.graph.Graphs;
 import com.google.common.graph.ImmutableNetwork;
@@ -50,8 +51,9 @@ import dagger.model.DependencyRequest;
 import dagger.model.RequestKind;
 import dagger.spi.BindingGraphPlugin;
 import dagger.spi.DiagnosticReporter;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
 import javax.inject.Inject;
@@ -81,34 +83,47 @@ final class DependencyCycleValidator implements BindingGraphPlugin {
     if (!Graphs.hasCycle(dependencyGraph)) {
       return;
     }
-    // Check each endpoint pair only once, no matter how many parallel edges connect them.
-    Set<EndpointPair<Node>> dependencyEndpointPairs = dependencyGraph.asGraph().edges();
-    Set<EndpointPair<Node>> visited = newHashSetWithExpectedSize(dependencyEndpointPairs.size());
-    for (EndpointPair<Node> endpointPair : dependencyEndpointPairs) {
-      cycleContainingEndpointPair(endpointPair, dependencyGraph, visited)
-          .ifPresent(cycle -> reportCycle(cycle, bindingGraph, diagnosticReporter));
+    // An edge is part of a cycle if and only if both of its endpoints are in the same strongly
+    // connected component. Report one cycle for each such component, through its first edge.
+    Map<Node, ImmutableSet<Node>> stronglyConnectedComponentOfNode = new HashMap<>();
+    for (ImmutableSet<Node> stronglyConnectedNodes :
+        stronglyConnectedComponents(dependencyGraph.nodes(), dependencyGraph)) {
+      for (Node node : stronglyConnectedNodes) {
+        stronglyConnectedComponentOfNode.put(node, stronglyConnectedNodes);
+      }
+    }
+    Set<ImmutableSet<Node>> reportedComponents = Sets.newIdentityHashSet();
+    for (EndpointPair<Node> endpointPair : dependencyGraph.asGraph().edges()) {
+      ImmutableSet<Node> stronglyConnectedNodes =
+          stronglyConnectedComponentOfNode.get(endpointPair.source());
+      if (stronglyConnectedNodes.contains(endpointPair.target())
+          && reportedComponents.add(stronglyConnectedNodes)) {
+        reportCycle(
+            cycleContainingEndpointPair(endpointPair, stronglyConnectedNodes, dependencyGraph),
+            bindingGraph,
+            diagnosticReporter);
+      }
     }
   }
 
-  private Optional<Cycle<Node>> cycleContainingEndpointPair(
+  /**
+   * Returns the shortest cycle that contains the edge between {@code endpoints}, which are both in
+   * {@code stronglyConnectedComponent}.
+   */
+  private Cycle<Node> cycleContainingEndpointPair(
       EndpointPair<Node> endpoints,
-      ImmutableNetwork<Node, DependencyEdge> dependencyGraph,
-      Set<EndpointPair<Node>> visited) {
-    if (!visited.add(endpoints)) {
-      // don't recheck endpoints we already know are part of a cycle
-      return Optional.empty();
-    }
-
-    // If there's a path from the target back to the source, there's a cycle.
+      ImmutableSet<Node> stronglyConnectedComponent,
+      ImmutableNetwork<Node, DependencyEdge> dependencyGraph) {
+    // Every path from the target back to the source stays within their strongly connected
+    // component, so don't search beyond it.
     ImmutableList<Node> cycleNodes =
-        shortestPath(dependencyGraph, endpoints.target(), endpoints.source());
-    if (cycleNodes.isEmpty()) {
-      return Optional.empty();
-    }
-
-    Cycle<Node> cycle = Cycle.fromPath(cycleNodes);
-    visited.addAll(cycle.endpointPairs()); // no need to check any edge in this cycle again
-    return Optional.of(cycle);
+        shortestPath(
+            node ->
+                Iterables.filter(
+                    dependencyGraph.successors(node), stronglyConnectedComponent::contains),
+            endpoints.target(),
+            endpoints.source());
+    return Cycle.fromPath(cycleNodes);
   }
 
   /**
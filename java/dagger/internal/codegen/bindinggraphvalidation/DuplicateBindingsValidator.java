@@ -305,6 +305,8 @@ final class DuplicateBindingsValidator implements BindingGraphPlugin {
         return "Map";
       case MULTIBOUND_SET:
         return "Set";
+      case MULTIBOUND_LIST:
+        return "List";
       default:
         throw new AssertionError(multibinding);
     }
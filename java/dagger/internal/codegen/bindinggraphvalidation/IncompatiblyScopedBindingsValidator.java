@@ -18,6 +18,7 @@ package dagger.internal.codegen.bindinggraphvalidation;
 
 import static dagger.internal.codegen.base.Formatter.INDENT;
 import static dagger.internal.codegen.base.Scopes.getReadableSource;
+import static dagger.internal.codegen.base.Scopes.isReusableScope;
 import static dagger.internal.codegen.langmodel.DaggerElements.closestEnclosingTypeElement;
 import static dagger.model.BindingKind.INJECTION;
 import static java.util.stream.Collectors.joining;
@@ -67,7 +68,7 @@ final class IncompatiblyScopedBindingsValidator implements BindingGraphPlugin {
     for (dagger.model.Binding binding : bindingGraph.bindings()) {
       binding
           .scope()
-          .filter(scope -> !scope.isReusable())
+          .filter(scope -> !isReusableScope(scope))
           .ifPresent(
               scope -> {
                 ComponentNode componentNode =
@@ -16,11 +16,29 @@
 
 package dagger.internal.codegen.compileroption;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.nio.file.Path;
+import java.util.Optional;
 import javax.lang.model.element.TypeElement;
 import javax.tools.Diagnostic;
 
 /** A collection of options that dictate how the compiler will run. */
 public abstract class CompilerOptions {
+  /**
+   * The names of the counts that {@link #componentCodeBudget()} may limit, in the order in which
+   * they are reported.
+   */
+  public static final ImmutableSet<String> COMPONENT_CODE_COUNTS =
+      ImmutableSet.of(
+          "classes",
+          "fields",
+          "methods",
+          "bytecodeSize",
+          "providerFields",
+          "switchingProviderCases",
+          "shards");
+
   public abstract boolean usesProducers();
 
   /**
@@ -35,6 +53,123 @@ public abstract class CompilerOptions {
 
   public abstract boolean formatGeneratedSource();
 
+  /**
+   * Returns the kind of lock that generated code uses to guard the initialization of scoped
+   * bindings, {@code scopedLockStrategy}. This applies whether scoped instances are stored in
+   * fields of their own or {@linkplain #packedScopedInstances() packed}.
+   */
+  public abstract ScopedLockStrategy scopedLockStrategy();
+
+  /**
+   * Returns true if {@code Map<String, Provider<V>>} and {@code Map<Class<?>, Provider<V>>}
+   * multibindings are generated as {@link dagger.internal.SwitchingMap} subclasses that look up
+   * keys with a {@code switch}, {@code switchingMaps}, rather than as maps that are built when the
+   * component is initialized.
+   */
+  public abstract boolean switchingMaps();
+
+  /**
+   * Returns true if {@code Map<Integer, V>} and {@code Map<Long, V>} multibindings are generated as
+   * {@link dagger.internal.IntKeyMap}s and {@link dagger.internal.LongKeyMap}s, which store their
+   * keys as primitives, {@code primitiveKeyMaps}.
+   */
+  public abstract boolean primitiveKeyMaps();
+
+  /**
+   * Returns true if root components have a {@code warmUp(Executor)} method that creates their
+   * scoped bindings ahead of time, {@code warmUp}.
+   */
+  public abstract boolean warmUp();
+
+  /**
+   * Returns true if generated {@code Provider}s count each of their calls with {@link
+   * dagger.internal.ProviderProfile}, {@code recordProviderProfile}.
+   */
+  public abstract boolean recordProviderProfile();
+
+  /**
+   * Returns true if this compilation is the last one to see its {@code @Inject} types, so {@code
+   * _Factory} and {@code _MembersInjector} classes are only generated for them if some other
+   * generated code references them, {@code wholeProgram}. Whole-program mode implies {@linkplain
+   * #fastInit fastInit} mode.
+   */
+  public abstract boolean wholeProgram();
+
+  /**
+   * Returns true if the {@code Provider} fields of subcomponents are created the first time they
+   * are used rather than when the subcomponent is created, {@code lazySubcomponentFields}.
+   */
+  public abstract boolean lazySubcomponentFields();
+
+  /**
+   * Returns true if the scoped instances that a component caches in {@linkplain #fastInit fastInit}
+   * mode are stored in one array per component class rather than in one field each, {@code
+   * packedScopedInstances}.
+   *
+   * <p>This combines with {@link #scopedLockStrategy()}: each packed instance is created while
+   * holding a lock of the {@linkplain ScopedLockStrategy kind} that it selects.
+   */
+  public abstract boolean packedScopedInstances();
+
+  /**
+   * Returns the keys, as given by {@link dagger.model.Key#toString()}, of the most-called bindings
+   * in the profile named by {@code hotProviderProfile}, at most {@code hotProviderLimit} of them.
+   * In fastInit mode, each of these bindings gets its own {@code Provider} class instead of a case
+   * in a {@code SwitchingProvider}.
+   *
+   * <p>The profile is read directly from the file system rather than through the {@code Filer}, so
+   * incremental build tools such as Gradle and Bazel don't know that the generated components
+   * depend on it. A build that changes only the profile must declare the file as an input of the
+   * compilation, or rebuild cleanly, for the components to be regenerated.
+   */
+  public abstract ImmutableSet<String> hotProviderKeys();
+
+  /**
+   * Returns the most code that each generated component may have, keyed by the name of a count
+   * such as {@code methods} or {@code providerFields}, as given by {@code componentCodeBudget}.
+   * Every key is one of {@link #COMPONENT_CODE_COUNTS}.
+   */
+  public abstract ImmutableMap<String, Integer> componentCodeBudget();
+
+  /**
+   * Returns the kind of diagnostic to report when a generated component exceeds its {@linkplain
+   * #componentCodeBudget() budget}, as given by {@code componentCodeBudgetValidation}.
+   */
+  public abstract Diagnostic.Kind componentCodeBudgetDiagnosticKind();
+
+  /**
+   * Returns true if a report of the amount of code generated for each component is written next to
+   * its class files, {@code componentCodeReport}.
+   */
+  public abstract boolean componentCodeReport();
+
+  /**
+   * Returns true if a report of the objects that each entry point of a component constructs is
+   * written next to the component's class files, {@code entryPointCostReport}.
+   */
+  public abstract boolean entryPointCostReport();
+
+  /**
+   * Returns true if generated source is formatted on worker threads and written after each
+   * processing step, {@code parallelSourceFormatting}. Only formatting runs in parallel: binding
+   * graph resolution and code generation always run on the processor's thread.
+   */
+  public abstract boolean parallelSourceFormatting();
+
+  /**
+   * Returns true if the bindings found for a key in one root component are reused by the other
+   * root components in the same round that install the same modules, {@code
+   * sharedBindingResolution}.
+   */
+  public abstract boolean sharedBindingResolution();
+
+  /**
+   * Returns the directory in which generated component sources are cached between compilations,
+   * keyed by a fingerprint of their binding graphs, {@code componentSourceCacheDirectory}, or empty
+   * if they aren't cached.
+   */
+  public abstract Optional<Path> componentSourceCacheDirectory();
+
   public abstract boolean writeProducerNameInToken();
 
   public abstract Diagnostic.Kind nullableValidationKind();
@@ -19,6 +19,10 @@ package dagger.internal.codegen.compileroption;
 import static dagger.internal.codegen.compileroption.ValidationType.NONE;
 import static javax.tools.Diagnostic.Kind.NOTE;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.nio.file.Path;
+import java.util.Optional;
 import javax.inject.Inject;
 import javax.lang.model.element.TypeElement;
 import javax.tools.Diagnostic;
@@ -44,6 +48,86 @@ public final class JavacPluginCompilerOptions extends CompilerOptions {
     return false;
   }
 
+  @Override
+  public ScopedLockStrategy scopedLockStrategy() {
+    return ScopedLockStrategy.SYNCHRONIZED;
+  }
+
+  @Override
+  public boolean switchingMaps() {
+    return false;
+  }
+
+  @Override
+  public boolean primitiveKeyMaps() {
+    return false;
+  }
+
+  @Override
+  public boolean warmUp() {
+    return false;
+  }
+
+  @Override
+  public boolean recordProviderProfile() {
+    return false;
+  }
+
+  @Override
+  public boolean wholeProgram() {
+    return false;
+  }
+
+  @Override
+  public boolean lazySubcomponentFields() {
+    return false;
+  }
+
+  @Override
+  public boolean packedScopedInstances() {
+    return false;
+  }
+
+  @Override
+  public ImmutableSet<String> hotProviderKeys() {
+    return ImmutableSet.of();
+  }
+
+  @Override
+  public ImmutableMap<String, Integer> componentCodeBudget() {
+    return ImmutableMap.of();
+  }
+
+  @Override
+  public Diagnostic.Kind componentCodeBudgetDiagnosticKind() {
+    return NOTE;
+  }
+
+  @Override
+  public boolean componentCodeReport() {
+    return false;
+  }
+
+  @Override
+  public boolean entryPointCostReport() {
+    return false;
+  }
+
+  @Override
+  public boolean parallelSourceFormatting() {
+    return false;
+  }
+
+  @Override
+  public boolean sharedBindingResolution() {
+    return false;
+  }
+
+  @Override
+  public Optional<Path> componentSourceCacheDirectory() {
+    return Optional.empty();
+  }
+
   @Override
   public boolean writeProducerNameInToken() {
     return true;
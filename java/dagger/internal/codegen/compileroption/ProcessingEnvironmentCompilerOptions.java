@@ -22,6 +22,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Sets.immutableEnumSet;
 import static dagger.internal.codegen.compileroption.FeatureStatus.DISABLED;
 import static dagger.internal.codegen.compileroption.FeatureStatus.ENABLED;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.COMPONENT_CODE_REPORT;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.ENTRY_POINT_COST_REPORT;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.EXPERIMENTAL_AHEAD_OF_TIME_SUBCOMPONENTS;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.EXPERIMENTAL_ANDROID_MODE;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.EXPERIMENTAL_DAGGER_ERROR_MESSAGES;
@@ -29,13 +31,24 @@ import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompil
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.FLOATING_BINDS_METHODS;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.FORMAT_GENERATED_SOURCE;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.IGNORE_PRIVATE_AND_STATIC_INJECTION_FOR_COMPONENT;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.LAZY_SUBCOMPONENT_FIELDS;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.PACKED_SCOPED_INSTANCES;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.PARALLEL_SOURCE_FORMATTING;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.PLUGINS_VISIT_FULL_BINDING_GRAPHS;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.PRIMITIVE_KEY_MAPS;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.RECORD_PROVIDER_PROFILE;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.SHARED_BINDING_RESOLUTION;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.STRICT_MULTIBINDING_VALIDATION;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.SWITCHING_MAPS;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.VALIDATE_TRANSITIVE_COMPONENT_DEPENDENCIES;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.WARM_UP;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.WARN_IF_INJECTION_FACTORY_NOT_GENERATED_UPSTREAM;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.WHOLE_PROGRAM;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Feature.WRITE_PRODUCER_NAME_IN_TOKEN;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.KeyOnlyOption.HEADER_COMPILATION;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.KeyOnlyOption.USE_GRADLE_INCREMENTAL_PROCESSING;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.LockStrategy.SCOPED_LOCK_STRATEGY;
+import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Validation.COMPONENT_CODE_BUDGET_VALIDATION;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Validation.DISABLE_INTER_COMPONENT_SCOPE_VALIDATION;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Validation.EXPLICIT_BINDING_CONFLICTS_WITH_INJECT;
 import static dagger.internal.codegen.compileroption.ProcessingEnvironmentCompilerOptions.Validation.FULL_BINDING_GRAPH_VALIDATION;
@@ -47,20 +60,27 @@ import static dagger.internal.codegen.compileroption.ValidationType.ERROR;
 import static dagger.internal.codegen.compileroption.ValidationType.NONE;
 import static dagger.internal.codegen.compileroption.ValidationType.WARNING;
 import static dagger.internal.codegen.extension.DaggerStreams.toImmutableSet;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Stream.concat;
 
 import com.google.auto.common.MoreElements;
 import com.google.common.base.Ascii;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import dagger.internal.codegen.langmodel.DaggerElements;
 import dagger.producers.Produces;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -75,11 +95,25 @@ public final class ProcessingEnvironmentCompilerOptions extends CompilerOptions
   // EnumOption<T> doesn't support integer inputs so just doing this as a 1-off for now.
   private static final String KEYS_PER_COMPONENT_SHARD = "dagger.keysPerComponentShard";
 
+  // The profile is a file path and the limit is an integer, so neither fits an EnumOption either.
+  private static final String HOT_PROVIDER_PROFILE = "dagger.hotProviderProfile";
+  private static final String HOT_PROVIDER_LIMIT = "dagger.hotProviderLimit";
+  private static final int DEFAULT_HOT_PROVIDER_LIMIT = 50;
+
+  // The budget is a list of limits, which doesn't fit an EnumOption either.
+  private static final String COMPONENT_CODE_BUDGET = "dagger.componentCodeBudget";
+
+  // The cache is a directory path, which doesn't fit an EnumOption either.
+  private static final String COMPONENT_SOURCE_CACHE_DIRECTORY =
+      "dagger.componentSourceCacheDirectory";
+
   private final ProcessingEnvironment processingEnvironment;
   private final DaggerElements daggerElements;
   private final Map<EnumOption<?>, Object> enumOptions = new HashMap<>();
   private final Map<EnumOption<?>, ImmutableMap<String, ? extends Enum<?>>> allCommandLineOptions =
       new HashMap<>();
+  private ImmutableSet<String> hotProviderKeys;
+  private ImmutableMap<String, Integer> componentCodeBudget;
 
   @Inject
   ProcessingEnvironmentCompilerOptions(
@@ -102,7 +136,7 @@ public final class ProcessingEnvironmentCompilerOptions extends CompilerOptions
 
   @Override
   public boolean fastInit(TypeElement component) {
-    return isEnabled(FAST_INIT);
+    return isEnabled(FAST_INIT) || isEnabled(WHOLE_PROGRAM);
   }
 
   @Override
@@ -110,6 +144,201 @@ public final class ProcessingEnvironmentCompilerOptions extends CompilerOptions
     return isEnabled(FORMAT_GENERATED_SOURCE);
   }
 
+  @Override
+  public ScopedLockStrategy scopedLockStrategy() {
+    return parseOption(SCOPED_LOCK_STRATEGY);
+  }
+
+  @Override
+  public boolean switchingMaps() {
+    return isEnabled(SWITCHING_MAPS);
+  }
+
+  @Override
+  public boolean primitiveKeyMaps() {
+    return isEnabled(PRIMITIVE_KEY_MAPS);
+  }
+
+  @Override
+  public boolean warmUp() {
+    return isEnabled(WARM_UP);
+  }
+
+  @Override
+  public boolean recordProviderProfile() {
+    return isEnabled(RECORD_PROVIDER_PROFILE);
+  }
+
+  @Override
+  public boolean wholeProgram() {
+    return isEnabled(WHOLE_PROGRAM);
+  }
+
+  @Override
+  public boolean lazySubcomponentFields() {
+    return isEnabled(LAZY_SUBCOMPONENT_FIELDS);
+  }
+
+  @Override
+  public boolean packedScopedInstances() {
+    return isEnabled(PACKED_SCOPED_INSTANCES);
+  }
+
+  @Override
+  public ImmutableSet<String> hotProviderKeys() {
+    if (hotProviderKeys == null) {
+      hotProviderKeys = readHotProviderKeys();
+    }
+    return hotProviderKeys;
+  }
+
+  /**
+   * Reads the keys of the most-called bindings from the profile named by {@code
+   * -Adagger.hotProviderProfile}. Each line of the profile is a call count and a key, separated by
+   * a tab, as written by {@link dagger.internal.ProviderProfile}. Blank lines and lines that start
+   * with {@code #} are ignored.
+   */
+  private ImmutableSet<String> readHotProviderKeys() {
+    Map<String, String> options = processingEnvironment.getOptions();
+    if (!options.containsKey(HOT_PROVIDER_PROFILE)) {
+      return ImmutableSet.of();
+    }
+    int limit = DEFAULT_HOT_PROVIDER_LIMIT;
+    if (options.containsKey(HOT_PROVIDER_LIMIT)) {
+      try {
+        limit = Integer.parseInt(options.get(HOT_PROVIDER_LIMIT));
+      } catch (NumberFormatException e) {
+        limit = -1;
+      }
+      if (limit < 0) {
+        processingEnvironment
+            .getMessager()
+            .printMessage(
+                Diagnostic.Kind.ERROR,
+                String.format(
+                    "%s must be a non-negative integer, but was: %s",
+                    HOT_PROVIDER_LIMIT, options.get(HOT_PROVIDER_LIMIT)));
+        return ImmutableSet.of();
+      }
+    }
+    Map<String, Long> callCounts = new HashMap<>();
+    try {
+      for (String line : Files.readAllLines(Paths.get(options.get(HOT_PROVIDER_PROFILE)), UTF_8)) {
+        if (line.trim().isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        int tab = line.indexOf('\t');
+        if (tab < 0) {
+          throw new NumberFormatException("missing tab");
+        }
+        callCounts.merge(
+            line.substring(tab + 1), Long.parseLong(line.substring(0, tab).trim()), Long::sum);
+      }
+    } catch (IOException | NumberFormatException e) {
+      processingEnvironment
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.ERROR,
+              String.format(
+                  "Could not read %s=%s: %s",
+                  HOT_PROVIDER_PROFILE, options.get(HOT_PROVIDER_PROFILE), e));
+      return ImmutableSet.of();
+    }
+    return callCounts.entrySet().stream()
+        .sorted(
+            Map.Entry.<String, Long>comparingByValue()
+                .reversed()
+                .thenComparing(Map.Entry.comparingByKey()))
+        .limit(limit)
+        .map(Map.Entry::getKey)
+        .collect(toImmutableSet());
+  }
+
+  @Override
+  public ImmutableMap<String, Integer> componentCodeBudget() {
+    if (componentCodeBudget == null) {
+      componentCodeBudget = parseComponentCodeBudget();
+    }
+    return componentCodeBudget;
+  }
+
+  /**
+   * Parses the limits in {@code -Adagger.componentCodeBudget}, a comma-separated list such as
+   * {@code methods=60000,providerFields=5000}.
+   */
+  private ImmutableMap<String, Integer> parseComponentCodeBudget() {
+    String budget = processingEnvironment.getOptions().get(COMPONENT_CODE_BUDGET);
+    if (budget == null) {
+      return ImmutableMap.of();
+    }
+    Map<String, Integer> limits = new LinkedHashMap<>();
+    try {
+      for (String limit : Splitter.on(',').trimResults().omitEmptyStrings().split(budget)) {
+        int equals = limit.indexOf('=');
+        if (equals < 0) {
+          throw new NumberFormatException("missing '=' in " + limit);
+        }
+        int value = Integer.parseInt(limit.substring(equals + 1).trim());
+        if (value < 0) {
+          throw new NumberFormatException("negative limit in " + limit);
+        }
+        limits.put(limit.substring(0, equals).trim(), value);
+      }
+    } catch (NumberFormatException e) {
+      processingEnvironment
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.ERROR,
+              String.format("Could not parse %s=%s: %s", COMPONENT_CODE_BUDGET, budget, e));
+      return ImmutableMap.of();
+    }
+    for (String count : limits.keySet()) {
+      if (!COMPONENT_CODE_COUNTS.contains(count)) {
+        processingEnvironment
+            .getMessager()
+            .printMessage(
+                Diagnostic.Kind.ERROR,
+                String.format(
+                    "Unknown count in -A%s: %s. Valid counts are %s.",
+                    COMPONENT_CODE_BUDGET, count, COMPONENT_CODE_COUNTS));
+      }
+    }
+    limits.keySet().retainAll(COMPONENT_CODE_COUNTS);
+    return ImmutableMap.copyOf(limits);
+  }
+
+  @Override
+  public Diagnostic.Kind componentCodeBudgetDiagnosticKind() {
+    return diagnosticKind(COMPONENT_CODE_BUDGET_VALIDATION);
+  }
+
+  @Override
+  public boolean componentCodeReport() {
+    return isEnabled(COMPONENT_CODE_REPORT);
+  }
+
+  @Override
+  public boolean entryPointCostReport() {
+    return isEnabled(ENTRY_POINT_COST_REPORT);
+  }
+
+  @Override
+  public boolean parallelSourceFormatting() {
+    return isEnabled(PARALLEL_SOURCE_FORMATTING);
+  }
+
+  @Override
+  public boolean sharedBindingResolution() {
+    return isEnabled(SHARED_BINDING_RESOLUTION);
+  }
+
+  @Override
+  public Optional<Path> componentSourceCacheDirectory() {
+    return Optional.ofNullable(
+            processingEnvironment.getOptions().get(COMPONENT_SOURCE_CACHE_DIRECTORY))
+        .map(Paths::get);
+  }
+
   @Override
   public boolean writeProducerNameInToken() {
     return isEnabled(WRITE_PRODUCER_NAME_IN_TOKEN);
@@ -216,6 +445,10 @@ public final class ProcessingEnvironmentCompilerOptions extends CompilerOptions
     for (Validation validation : Validation.values()) {
       parseOption(validation);
     }
+    for (LockStrategy lockStrategy : LockStrategy.values()) {
+      parseOption(lockStrategy);
+    }
+    componentCodeBudget();
     noLongerRecognized(EXPERIMENTAL_ANDROID_MODE);
     noLongerRecognized(FLOATING_BINDS_METHODS);
     noLongerRecognized(EXPERIMENTAL_AHEAD_OF_TIME_SUBCOMPONENTS);
@@ -307,6 +540,28 @@ public final class ProcessingEnvironmentCompilerOptions extends CompilerOptions
 
     STRICT_MULTIBINDING_VALIDATION,
 
+    SWITCHING_MAPS,
+
+    PRIMITIVE_KEY_MAPS,
+
+    WARM_UP,
+
+    RECORD_PROVIDER_PROFILE,
+
+    WHOLE_PROGRAM,
+
+    LAZY_SUBCOMPONENT_FIELDS,
+
+    PACKED_SCOPED_INSTANCES,
+
+    COMPONENT_CODE_REPORT,
+
+    ENTRY_POINT_COST_REPORT,
+
+    PARALLEL_SOURCE_FORMATTING,
+
+    SHARED_BINDING_RESOLUTION,
+
     VALIDATE_TRANSITIVE_COMPONENT_DEPENDENCIES(ENABLED)
     ;
 
@@ -365,6 +620,9 @@ public final class ProcessingEnvironmentCompilerOptions extends CompilerOptions
      * constructor used in an ancestor component.
      */
     EXPLICIT_BINDING_CONFLICTS_WITH_INJECT(WARNING, ERROR, NONE),
+
+    /** How to report that a generated component exceeds {@code -Adagger.componentCodeBudget}. */
+    COMPONENT_CODE_BUDGET_VALIDATION(ERROR, WARNING),
     ;
 
     final ValidationType defaultType;
@@ -395,6 +653,27 @@ public final class ProcessingEnvironmentCompilerOptions extends CompilerOptions
     }
   }
 
+  /** The kind of lock used to guard the initialization of scoped bindings. */
+  enum LockStrategy implements EnumOption<ScopedLockStrategy> {
+    SCOPED_LOCK_STRATEGY,
+    ;
+
+    @Override
+    public ScopedLockStrategy defaultValue() {
+      return ScopedLockStrategy.SYNCHRONIZED;
+    }
+
+    @Override
+    public Set<ScopedLockStrategy> validValues() {
+      return EnumSet.allOf(ScopedLockStrategy.class);
+    }
+
+    @Override
+    public String toString() {
+      return optionName(this);
+    }
+  }
+
   private static String optionName(Enum<? extends EnumOption<?>> option) {
     return "dagger." + UPPER_UNDERSCORE.to(LOWER_CAMEL, option.name());
   }
@@ -405,11 +684,18 @@ public final class ProcessingEnvironmentCompilerOptions extends CompilerOptions
     return ImmutableSet.<String>builder()
         .addAll(
             Stream.<CommandLineOption[]>of(
-                KeyOnlyOption.values(), Feature.values(), Validation.values())
+                KeyOnlyOption.values(),
+                Feature.values(),
+                Validation.values(),
+                LockStrategy.values())
             .flatMap(Arrays::stream)
             .flatMap(CommandLineOption::allNames)
             .collect(toImmutableSet()))
         .add(KEYS_PER_COMPONENT_SHARD)
+        .add(HOT_PROVIDER_PROFILE)
+        .add(HOT_PROVIDER_LIMIT)
+        .add(COMPONENT_CODE_BUDGET)
+        .add(COMPONENT_SOURCE_CACHE_DIRECTORY)
         .build();
   }
 
@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen.compileroption;
+
+/** Allows options to control how scoped bindings are locked while they are initialized. */
+public enum ScopedLockStrategy {
+  /** Scoped bindings are guarded by object monitors ({@code synchronized}). */
+  SYNCHRONIZED,
+
+  /**
+   * Scoped bindings are guarded by {@link java.util.concurrent.locks.ReentrantLock}s, which do not
+   * pin the carrier thread when a virtual thread blocks on them.
+   */
+  REENTRANT;
+}
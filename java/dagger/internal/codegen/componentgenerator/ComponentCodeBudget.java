@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen.componentgenerator;
+
+import static dagger.internal.codegen.javapoet.TypeNames.PROVIDER;
+import static java.util.stream.Collectors.joining;
+import static javax.tools.StandardLocation.CLASS_OUTPUT;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableMap;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import dagger.internal.codegen.compileroption.CompilerOptions;
+import dagger.internal.codegen.javapoet.BytecodeSizeEstimator;
+import dagger.internal.codegen.statistics.DaggerStatistics.ComponentCodeSize;
+import dagger.internal.codegen.statistics.DaggerStatisticsCollector;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.inject.Inject;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+
+/**
+ * Measures the amount of code generated for each component, records it and the size of each of its
+ * methods in the {@link DaggerStatisticsCollector statistics}, reports components that exceed
+ * {@code -Adagger.componentCodeBudget}, and writes a report of it when {@code
+ * -Adagger.componentCodeReport=enabled}.
+ *
+ * <p>The report for {@code test.DaggerFoo} is written to {@code
+ * test/DaggerFoo.codesize.properties} in the class output. It holds one {@code name=count} line for
+ * each of {@link ComponentCodeSize#counts()}.
+ */
+final class ComponentCodeBudget {
+  private static final Pattern SHARD_NAME = Pattern.compile("Shard\\d+");
+  private static final Pattern SWITCH_CASE = Pattern.compile("(?m)^\\s*case \\d+:");
+
+  private final Filer filer;
+  private final Messager messager;
+  private final CompilerOptions compilerOptions;
+  private final DaggerStatisticsCollector statisticsCollector;
+
+  @Inject
+  ComponentCodeBudget(
+      Filer filer,
+      Messager messager,
+      CompilerOptions compilerOptions,
+      DaggerStatisticsCollector statisticsCollector) {
+    this.filer = filer;
+    this.messager = messager;
+    this.compilerOptions = compilerOptions;
+    this.statisticsCollector = statisticsCollector;
+  }
+
+  /**
+   * Returns true if generated components are measured, because statistics, a budget, or a report
+   * was requested.
+   */
+  boolean isMeasuring() {
+    return statisticsCollector.isRecording()
+        || !compilerOptions.componentCodeBudget().isEmpty()
+        || compilerOptions.componentCodeReport();
+  }
+
+  /**
+   * Measures {@code component}, the generated component named {@code componentName}, or returns
+   * empty if components aren't {@linkplain #isMeasuring() measured}.
+   */
+  Optional<Measurement> measure(ClassName componentName, TypeSpec component) {
+    if (!isMeasuring()) {
+      return Optional.empty();
+    }
+    Counter counter = new Counter();
+    counter.count("", component);
+    return Optional.of(
+        Measurement.create(
+            ComponentCodeSize.builder()
+                .setComponent(componentName.toString())
+                .setClasses(counter.classes)
+                .setFields(counter.fields)
+                .setMethods(counter.methods)
+                .setBytecodeSize(counter.bytecodeSize)
+                .setProviderFields(counter.providerFields)
+                .setSwitchingProviderCases(counter.switchingProviderCases)
+                .setShards(counter.shards)
+                .build(),
+            ImmutableMap.copyOf(counter.methodSizes)));
+  }
+
+  /**
+   * Records {@code measurement} of {@code componentName}, the generated implementation of {@code
+   * componentElement}, and reports it.
+   */
+  void report(TypeElement componentElement, ClassName componentName, Measurement measurement) {
+    ComponentCodeSize codeSize = measurement.codeSize();
+    statisticsCollector.recordComponentMethodSizes(codeSize.component(), measurement.methodSizes());
+    statisticsCollector.recordComponentCodeSize(codeSize);
+    checkBudget(componentElement, codeSize);
+    if (compilerOptions.componentCodeReport()) {
+      writeReport(componentElement, componentName, codeSize);
+    }
+  }
+
+  private void checkBudget(TypeElement componentElement, ComponentCodeSize codeSize) {
+    ImmutableMap<String, Integer> counts = codeSize.counts();
+    for (Map.Entry<String, Integer> limit : compilerOptions.componentCodeBudget().entrySet()) {
+      int count = counts.get(limit.getKey());
+      if (count > limit.getValue()) {
+        messager.printMessage(
+            compilerOptions.componentCodeBudgetDiagnosticKind(),
+            String.format(
+                "%s exceeds its code budget: %s is %d, but the budget is %d.",
+                codeSize.component(), limit.getKey(), count, limit.getValue()),
+            componentElement);
+      }
+    }
+  }
+
+  private void writeReport(
+      TypeElement componentElement, ClassName componentName, ComponentCodeSize codeSize) {
+    try (Writer writer =
+        filer
+            .createResource(
+                CLASS_OUTPUT,
+                componentName.packageName(),
+                componentName.simpleName() + ".codesize.properties",
+                componentElement)
+            .openWriter()) {
+      for (Map.Entry<String, Integer> count : codeSize.counts().entrySet()) {
+        writer.write(count.getKey() + "=" + count.getValue() + "\n");
+      }
+    } catch (IOException e) {
+      messager.printMessage(
+          Diagnostic.Kind.ERROR,
+          String.format("Could not write the code size report for %s: %s", componentName, e),
+          componentElement);
+    }
+  }
+
+  /** The amount of code generated for a component, and the size of each of its methods. */
+  @AutoValue
+  abstract static class Measurement {
+    static Measurement create(
+        ComponentCodeSize codeSize, ImmutableMap<String, Integer> methodSizes) {
+      return new AutoValue_ComponentCodeBudget_Measurement(codeSize, methodSizes);
+    }
+
+    abstract ComponentCodeSize codeSize();
+
+    /**
+     * The estimated bytecode size of each method, keyed by its signature prefixed by the names of
+     * the nested classes that declare it, such as {@code Shard1.binding10()}.
+     */
+    abstract ImmutableMap<String, Integer> methodSizes();
+  }
+
+  /**
+   * Counts the code in a generated component and its nested classes, estimating the bytecode size
+   * of each method once.
+   */
+  private static final class Counter {
+    /**
+     * The estimated bytecode size of each method, keyed by its signature prefixed by the names of
+     * the nested classes that declare it.
+     */
+    final Map<String, Integer> methodSizes = new LinkedHashMap<>();
+
+    int classes;
+    int fields;
+    int methods;
+    int bytecodeSize;
+    int providerFields;
+    int switchingProviderCases;
+    int shards;
+
+    void count(String prefix, TypeSpec type) {
+      classes++;
+      if (SHARD_NAME.matcher(type.name).matches()) {
+        shards++;
+      }
+      for (FieldSpec field : type.fieldSpecs) {
+        fields++;
+        if (isProvider(field.type)) {
+          providerFields++;
+        }
+      }
+      boolean isSwitchingProvider = type.name.startsWith("SwitchingProvider");
+      for (MethodSpec method : type.methodSpecs) {
+        methods++;
+        int size = BytecodeSizeEstimator.estimate(method);
+        methodSizes.put(
+            prefix
+                + method.name
+                + method.parameters.stream()
+                    .map(parameter -> parameter.type.toString())
+                    .collect(joining(", ", "(", ")")),
+            size);
+        bytecodeSize += size;
+        if (isSwitchingProvider) {
+          Matcher matcher = SWITCH_CASE.matcher(method.code.toString());
+          while (matcher.find()) {
+            switchingProviderCases++;
+          }
+        }
+      }
+      for (TypeSpec nestedType : type.typeSpecs) {
+        count(prefix + nestedType.name + ".", nestedType);
+      }
+    }
+
+    private static boolean isProvider(TypeName type) {
+      return type.equals(PROVIDER)
+          || (type instanceof ParameterizedTypeName
+              && ((ParameterizedTypeName) type).rawType.equals(PROVIDER));
+    }
+  }
+}
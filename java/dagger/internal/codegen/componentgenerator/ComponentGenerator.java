@@ -20,12 +20,16 @@ import static com.google.common.base.Verify.verify;
 import static dagger.internal.codegen.binding.SourceFiles.classFileName;
 
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.TypeSpec;
 import dagger.Component;
+import dagger.internal.codegen.base.SourceFileGenerationException;
 import dagger.internal.codegen.base.SourceFileGenerator;
 import dagger.internal.codegen.binding.BindingGraph;
 import dagger.internal.codegen.langmodel.DaggerElements;
+import dagger.internal.codegen.statistics.DaggerStatisticsCollector;
 import dagger.internal.codegen.writing.ComponentImplementation;
+import java.io.IOException;
 import java.util.Optional;
 import javax.annotation.processing.Filer;
 import javax.inject.Inject;
@@ -36,15 +40,24 @@ import javax.lang.model.element.TypeElement;
 /** Generates the implementation of the abstract types annotated with {@link Component}. */
 final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
   private final ComponentImplementationFactory componentImplementationFactory;
+  private final DaggerStatisticsCollector statisticsCollector;
+  private final ComponentCodeBudget componentCodeBudget;
+  private final ComponentSourceCache componentSourceCache;
 
   @Inject
   ComponentGenerator(
       Filer filer,
       DaggerElements elements,
       SourceVersion sourceVersion,
-      ComponentImplementationFactory componentImplementationFactory) {
+      ComponentImplementationFactory componentImplementationFactory,
+      DaggerStatisticsCollector statisticsCollector,
+      ComponentCodeBudget componentCodeBudget,
+      ComponentSourceCache componentSourceCache) {
     super(filer, elements, sourceVersion);
     this.componentImplementationFactory = componentImplementationFactory;
+    this.statisticsCollector = statisticsCollector;
+    this.componentCodeBudget = componentCodeBudget;
+    this.componentSourceCache = componentSourceCache;
   }
 
   @Override
@@ -62,11 +75,52 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
     return input.componentTypeElement();
   }
 
+  @Override
+  public void generate(BindingGraph bindingGraph) throws SourceFileGenerationException {
+    Optional<ComponentSourceCache.Entry> cachedEntry =
+        componentSourceCache.cachedEntry(bindingGraph, nameGeneratedType(bindingGraph));
+    if (cachedEntry.isPresent()) {
+      writeSource(bindingGraph, cachedEntry.get().source());
+      recordStatistics(bindingGraph, cachedEntry.get().statistics());
+    } else {
+      super.generate(bindingGraph);
+    }
+  }
+
+  @Override
+  protected void writeJavaFile(BindingGraph bindingGraph, JavaFile javaFile) throws IOException {
+    super.writeJavaFile(bindingGraph, javaFile);
+    componentSourceCache.record(bindingGraph, nameGeneratedType(bindingGraph), javaFile.toString());
+  }
+
   @Override
   public Optional<TypeSpec.Builder> write(BindingGraph bindingGraph) {
     ComponentImplementation componentImplementation =
         componentImplementationFactory.createComponentImplementation(bindingGraph);
     verify(componentImplementation.name().equals(nameGeneratedType(bindingGraph)));
-    return Optional.of(componentImplementation.generate());
+    TypeSpec.Builder component = componentImplementation.generate();
+    ComponentStatistics componentStatistics =
+        ComponentStatistics.create(
+            componentImplementation.shardCountIncludingChildren(),
+            componentImplementation.crossShardDependenciesIncludingChildren(),
+            componentCodeBudget.measure(componentImplementation.name(), component.build()));
+    recordStatistics(bindingGraph, componentStatistics);
+    componentSourceCache.recordStatistics(bindingGraph, componentStatistics);
+    return Optional.of(component);
+  }
+
+  /** Records the statistics of a component, whether it was generated or replayed from the cache. */
+  private void recordStatistics(
+      BindingGraph bindingGraph, ComponentStatistics componentStatistics) {
+    statisticsCollector.recordComponentShards(
+        componentStatistics.shards(), componentStatistics.crossShardDependencies());
+    componentStatistics
+        .measurement()
+        .ifPresent(
+            measurement ->
+                componentCodeBudget.report(
+                    bindingGraph.componentTypeElement(),
+                    nameGeneratedType(bindingGraph),
+                    measurement));
   }
 }
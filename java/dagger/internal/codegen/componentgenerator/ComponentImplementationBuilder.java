@@ -25,12 +25,18 @@ import static dagger.internal.codegen.binding.BindingRequest.bindingRequest;
 import static dagger.internal.codegen.binding.ComponentCreatorKind.BUILDER;
 import static dagger.internal.codegen.extension.DaggerStreams.toImmutableList;
 import static dagger.internal.codegen.javapoet.AnnotationSpecs.Suppression.UNCHECKED;
+import static dagger.internal.codegen.javapoet.BytecodeSizeEstimator.HUGE_METHOD_LIMIT;
+import static dagger.internal.codegen.javapoet.CodeBlocks.makeParametersCodeBlock;
 import static dagger.internal.codegen.javapoet.CodeBlocks.parameterNames;
+import static dagger.internal.codegen.javapoet.CodeBlocks.toParametersCodeBlock;
+import static dagger.internal.codegen.javapoet.TypeNames.PROVIDER;
+import static dagger.internal.codegen.javapoet.TypeNames.WARM_UP_FUTURE;
 import static dagger.internal.codegen.writing.ComponentImplementation.MethodSpecKind.BUILDER_METHOD;
 import static dagger.internal.codegen.writing.ComponentImplementation.MethodSpecKind.CANCELLATION_LISTENER_METHOD;
 import static dagger.internal.codegen.writing.ComponentImplementation.MethodSpecKind.COMPONENT_METHOD;
 import static dagger.internal.codegen.writing.ComponentImplementation.MethodSpecKind.CONSTRUCTOR;
 import static dagger.internal.codegen.writing.ComponentImplementation.MethodSpecKind.INITIALIZE_METHOD;
+import static dagger.internal.codegen.writing.ComponentImplementation.MethodSpecKind.WARM_UP_METHOD;
 import static dagger.internal.codegen.writing.ComponentImplementation.TypeSpecKind.COMPONENT_CREATOR;
 import static dagger.internal.codegen.writing.ComponentImplementation.TypeSpecKind.SUBCOMPONENT;
 import static dagger.producers.CancellationPolicy.Propagation.PROPAGATE;
@@ -44,13 +50,13 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimaps;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeSpec;
 import dagger.internal.Preconditions;
 import dagger.internal.codegen.binding.BindingGraph;
@@ -59,7 +65,9 @@ import dagger.internal.codegen.binding.ComponentCreatorKind;
 import dagger.internal.codegen.binding.ComponentDescriptor.ComponentMethodDescriptor;
 import dagger.internal.codegen.binding.ComponentRequirement;
 import dagger.internal.codegen.binding.FrameworkType;
+import dagger.internal.codegen.compileroption.CompilerOptions;
 import dagger.internal.codegen.javapoet.AnnotationSpecs;
+import dagger.internal.codegen.javapoet.BytecodeSizeEstimator;
 import dagger.internal.codegen.javapoet.CodeBlocks;
 import dagger.internal.codegen.kotlin.KotlinMetadataUtil;
 import dagger.internal.codegen.langmodel.DaggerElements;
@@ -70,12 +78,15 @@ import dagger.internal.codegen.writing.ComponentImplementation;
 import dagger.internal.codegen.writing.ComponentRequirementExpressions;
 import dagger.internal.codegen.writing.ParentComponent;
 import dagger.model.Key;
+import dagger.model.RequestKind;
 import dagger.producers.internal.CancellationListener;
 import dagger.producers.internal.Producers;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import javax.inject.Inject;
 import javax.lang.model.element.ExecutableElement;
@@ -87,13 +98,17 @@ public final class ComponentImplementationBuilder {
   private static final String MAY_INTERRUPT_IF_RUNNING = "mayInterruptIfRunning";
 
   /**
-   * How many statements per {@code initialize()} or {@code onProducerFutureCancelled()} method
-   * before they get partitioned.
+   * The estimated bytecode size of an {@code initialize()} or {@code onProducerFutureCancelled()}
+   * method above which its statements get partitioned. These methods run once, so they don't need
+   * to be small enough to inline, only small enough for the JIT to compile, with room for the
+   * estimate to be off.
    */
-  private static final int STATEMENTS_PER_METHOD = 100;
+  private static final int COLD_METHOD_BYTECODE_TARGET = HUGE_METHOD_LIMIT / 2;
 
   private static final String CANCELLATION_LISTENER_METHOD_NAME = "onProducerFutureCancelled";
 
+  private static final String WARM_UP_METHOD_NAME = "warmUp";
+
   private final Optional<ComponentImplementationBuilder> parent;
   private final BindingGraph graph;
   private final ComponentBindingExpressions bindingExpressions;
@@ -101,6 +116,7 @@ public final class ComponentImplementationBuilder {
   private final ComponentImplementation componentImplementation;
   private final ComponentCreatorImplementationFactory componentCreatorImplementationFactory;
   private final TopLevelImplementationComponent topLevelImplementationComponent;
+  private final CompilerOptions compilerOptions;
   private final DaggerTypes types;
   private final DaggerElements elements;
   private final KotlinMetadataUtil metadataUtil;
@@ -115,6 +131,7 @@ public final class ComponentImplementationBuilder {
       ComponentImplementation componentImplementation,
       ComponentCreatorImplementationFactory componentCreatorImplementationFactory,
       TopLevelImplementationComponent topLevelImplementationComponent,
+      CompilerOptions compilerOptions,
       DaggerTypes types,
       DaggerElements elements,
       KotlinMetadataUtil metadataUtil) {
@@ -127,6 +144,7 @@ public final class ComponentImplementationBuilder {
     this.types = types;
     this.elements = elements;
     this.topLevelImplementationComponent = topLevelImplementationComponent;
+    this.compilerOptions = compilerOptions;
     this.metadataUtil = metadataUtil;
   }
 
@@ -153,6 +171,10 @@ public final class ComponentImplementationBuilder {
     addInterfaceMethods();
     addChildComponents();
 
+    if (shouldAddWarmUpMethod()) {
+      addWarmUpMethod();
+    }
+
     addConstructorAndInitializationMethods();
 
     if (graph.componentDescriptor().isProduction()) {
@@ -214,7 +236,8 @@ public final class ComponentImplementationBuilder {
 
     ImmutableList<CodeBlock> cancellationStatements = cancellationStatements();
 
-    if (cancellationStatements.size() < STATEMENTS_PER_METHOD) {
+    if (BytecodeSizeEstimator.estimate(CodeBlocks.concat(cancellationStatements))
+        <= COLD_METHOD_BYTECODE_TARGET) {
       methodBuilder.addCode(CodeBlocks.concat(cancellationStatements)).build();
     } else {
       ImmutableList<MethodSpec> cancelProducersMethods =
@@ -288,6 +311,57 @@ public final class ComponentImplementationBuilder {
             .orElse(false);
   }
 
+  /**
+   * Returns {@code true} if this is a root provision component compiled with {@code
+   * -Adagger.warmUp=enabled} that doesn't already declare a method named {@code warmUp}.
+   */
+  private boolean shouldAddWarmUpMethod() {
+    return compilerOptions.warmUp()
+        && !parent.isPresent()
+        && !graph.componentDescriptor().isProduction()
+        && getLocalAndInheritedMethods(graph.componentTypeElement(), types, elements).stream()
+            .noneMatch(method -> method.getSimpleName().contentEquals(WARM_UP_METHOD_NAME));
+  }
+
+  /**
+   * Adds a public {@code warmUp(Executor)} method that creates the component's scoped bindings on
+   * the executor, one {@linkplain WarmUpWaves wave} at a time, and returns a {@link Future} that
+   * completes once they have all been created.
+   *
+   * <p>Each binding is created through its {@code Provider}, so a binding that is requested from
+   * another thread while it is warmed up is guarded by the same lock as any other request.
+   */
+  private void addWarmUpMethod() {
+    componentImplementation.claimMethodName(WARM_UP_METHOD_NAME);
+    ImmutableList.Builder<CodeBlock> arguments = ImmutableList.builder();
+    arguments.add(CodeBlock.of("executor"));
+    WarmUpWaves.waves(graph)
+        .forEach(
+            wave ->
+                arguments.add(
+                    CodeBlock.of(
+                        "new $T<?>[] {$L}",
+                        PROVIDER,
+                        wave.stream()
+                            .map(
+                                binding ->
+                                    bindingExpressions
+                                        .getDependencyExpression(
+                                            bindingRequest(binding.key(), RequestKind.PROVIDER),
+                                            componentImplementation.name())
+                                        .codeBlock())
+                            .collect(toParametersCodeBlock()))));
+    componentImplementation.addMethod(
+        WARM_UP_METHOD,
+        methodBuilder(WARM_UP_METHOD_NAME)
+            .addModifiers(PUBLIC)
+            .returns(ParameterizedTypeName.get(Future.class, Void.class))
+            .addParameter(Executor.class, "executor")
+            .addStatement(
+                "return $T.start($L)", WARM_UP_FUTURE, makeParametersCodeBlock(arguments.build()))
+            .build());
+  }
+
   private MethodSignature getMethodSignature(ComponentMethodDescriptor method) {
     return MethodSignature.forComponentMethod(
         method, MoreTypes.asDeclared(graph.componentTypeElement().asType()), types);
@@ -373,16 +447,16 @@ public final class ComponentImplementationBuilder {
 
   /**
    * Creates one or more methods, all taking the given {@code parameters}, which partition the given
-   * list of {@code statements} among themselves such that no method has more than {@code
-   * STATEMENTS_PER_METHOD} statements in it and such that the returned methods, if called in order,
-   * will execute the {@code statements} in the given order.
+   * list of {@code statements} among themselves such that no method's estimated bytecode size is
+   * more than {@code COLD_METHOD_BYTECODE_TARGET} and such that the returned methods, if called in
+   * order, will execute the {@code statements} in the given order.
    */
   private ImmutableList<MethodSpec> createPartitionedMethods(
       String methodName,
       Iterable<ParameterSpec> parameters,
       List<CodeBlock> statements,
       Function<String, MethodSpec.Builder> methodBuilderCreator) {
-    return Lists.partition(statements, STATEMENTS_PER_METHOD).stream()
+    return BytecodeSizeEstimator.partition(statements, COLD_METHOD_BYTECODE_TARGET).stream()
         .map(
             partition ->
                 methodBuilderCreator
@@ -0,0 +1,560 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen.componentgenerator;
+
+import static com.google.auto.common.GeneratedAnnotations.generatedAnnotation;
+import static com.google.auto.common.MoreElements.isType;
+import static com.google.auto.common.MoreTypes.asTypeElement;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static javax.lang.model.type.TypeKind.DECLARED;
+import static javax.tools.Diagnostic.Kind.NOTE;
+
+import com.google.auto.common.MoreElements;
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.BaseEncoding;
+import com.squareup.javapoet.ClassName;
+import dagger.internal.codegen.binding.BindingGraph;
+import dagger.internal.codegen.binding.BindingNode;
+import dagger.internal.codegen.binding.ComponentDescriptor;
+import dagger.internal.codegen.binding.ComponentNodeImpl;
+import dagger.internal.codegen.binding.ComponentRequirement;
+import dagger.internal.codegen.binding.MembersInjectionBinding;
+import dagger.internal.codegen.binding.MembersInjectionBinding.InjectionSite;
+import dagger.internal.codegen.binding.ModuleDescriptor;
+import dagger.internal.codegen.binding.TypeFiles;
+import dagger.internal.codegen.compileroption.CompilerOptions;
+import dagger.internal.codegen.componentgenerator.ComponentCodeBudget.Measurement;
+import dagger.internal.codegen.langmodel.DaggerElements;
+import dagger.internal.codegen.statistics.DaggerStatistics.ComponentCodeSize;
+import dagger.internal.codegen.statistics.DaggerStatisticsCollector;
+import dagger.model.Binding;
+import dagger.model.BindingGraph.ChildFactoryMethodEdge;
+import dagger.model.BindingGraph.DependencyEdge;
+import dagger.model.BindingGraph.Edge;
+import dagger.model.BindingGraph.Node;
+import dagger.model.BindingGraph.SubcomponentCreatorBindingEdge;
+import dagger.model.DependencyRequest;
+import dagger.model.Key;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.SimpleTypeVisitor8;
+import javax.tools.JavaFileObject;
+
+/**
+ * A cache, kept on disk between compilations, of the source generated for each component. It is
+ * used when {@code -Adagger.componentSourceCacheDirectory} is set.
+ *
+ * <p>Each entry is keyed by a fingerprint of everything the generated source depends on: the
+ * nodes and edges of the component's binding graph, the processing options and the contents of
+ * the {@code -Adagger.hotProviderProfile} file, the Dagger processor itself, and the contents of
+ * every file that declares a type that the graph refers to, such as the component, its modules and
+ * dependencies, the types of its keys and the types that declare its bindings. When the fingerprint
+ * of a graph matches its entry, the source in the entry is written instead of building and
+ * rendering a {@link dagger.internal.codegen.writing.ComponentImplementation}. Types that are
+ * found on neither the source path nor the class path, such as those of the JDK, are identified
+ * only by name.
+ *
+ * <p>Each entry also holds the {@link ComponentStatistics} of the component, which are reported
+ * again when its source is replayed, so that statistics, {@code -Adagger.componentCodeBudget} and
+ * {@code -Adagger.componentCodeReport} see a replayed component as if it had been generated. An
+ * entry that was written while components weren't {@linkplain ComponentCodeBudget#isMeasuring()
+ * measured} isn't used when they are.
+ */
+@Singleton
+final class ComponentSourceCache {
+  private static final String HOT_PROVIDER_PROFILE = "dagger.hotProviderProfile";
+
+  private final ProcessingEnvironment processingEnvironment;
+  private final DaggerElements elements;
+  private final TypeFiles typeFiles;
+  private final DaggerStatisticsCollector statisticsCollector;
+  private final ComponentCodeBudget componentCodeBudget;
+  private final Optional<Path> directory;
+  private final Map<TypeElement, String> fingerprints = new HashMap<>();
+  private final Map<TypeElement, ComponentStatistics> statistics = new HashMap<>();
+  private Optional<String> processorFingerprint;
+
+  @Inject
+  ComponentSourceCache(
+      ProcessingEnvironment processingEnvironment,
+      DaggerElements elements,
+      TypeFiles typeFiles,
+      DaggerStatisticsCollector statisticsCollector,
+      ComponentCodeBudget componentCodeBudget,
+      CompilerOptions compilerOptions) {
+    this.processingEnvironment = processingEnvironment;
+    this.elements = elements;
+    this.typeFiles = typeFiles;
+    this.statisticsCollector = statisticsCollector;
+    this.componentCodeBudget = componentCodeBudget;
+    this.directory = compilerOptions.componentSourceCacheDirectory();
+  }
+
+  /**
+   * Returns the source and statistics that an earlier compilation generated for {@code
+   * bindingGraph}'s component, if the fingerprint of the graph hasn't changed since.
+   */
+  Optional<Entry> cachedEntry(BindingGraph bindingGraph, ClassName componentName) {
+    if (!directory.isPresent()) {
+      return Optional.empty();
+    }
+    Optional<String> fingerprint = fingerprint(bindingGraph);
+    if (!fingerprint.isPresent()) {
+      return Optional.empty();
+    }
+    Optional<Entry> entry =
+        read(componentName, fingerprint.get())
+            .filter(
+                cached ->
+                    cached.statistics().measurement().isPresent()
+                        || !componentCodeBudget.isMeasuring());
+    if (entry.isPresent()) {
+      statisticsCollector.recordComponentSourceCacheHit();
+    } else {
+      statisticsCollector.recordComponentSourceCacheMiss();
+      fingerprints.put(bindingGraph.componentTypeElement(), fingerprint.get());
+    }
+    return entry;
+  }
+
+  /**
+   * Records {@code componentStatistics} as the statistics of {@code bindingGraph}'s component, to
+   * be written along with its source by {@link #record(BindingGraph, ClassName, String)}.
+   */
+  void recordStatistics(BindingGraph bindingGraph, ComponentStatistics componentStatistics) {
+    if (fingerprints.containsKey(bindingGraph.componentTypeElement())) {
+      statistics.put(bindingGraph.componentTypeElement(), componentStatistics);
+    }
+  }
+
+  /**
+   * Records {@code source} as the source generated for {@code bindingGraph}'s component, if {@link
+   * #cachedEntry(BindingGraph, ClassName)} didn't find it.
+   */
+  void record(BindingGraph bindingGraph, ClassName componentName, String source) {
+    String fingerprint = fingerprints.remove(bindingGraph.componentTypeElement());
+    ComponentStatistics componentStatistics =
+        statistics.remove(bindingGraph.componentTypeElement());
+    if (fingerprint == null || componentStatistics == null) {
+      return;
+    }
+    try {
+      Files.createDirectories(directory.get());
+      // Write to a temporary file first so that a concurrent build never reads a partial entry.
+      Path temporaryFile =
+          Files.createTempFile(directory.get(), componentName.canonicalName(), ".tmp");
+      Files.write(
+          temporaryFile,
+          (fingerprint + "\n" + format(componentStatistics) + source).getBytes(UTF_8));
+      Files.move(temporaryFile, entry(componentName), ATOMIC_MOVE, REPLACE_EXISTING);
+    } catch (IOException e) {
+      printNote(String.format("Could not write to component source cache: %s", e));
+    }
+  }
+
+  private Optional<Entry> read(ClassName componentName, String fingerprint) {
+    String entry;
+    try {
+      entry = new String(Files.readAllBytes(entry(componentName)), UTF_8);
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    } catch (IOException e) {
+      printNote(String.format("Could not read from component source cache: %s", e));
+      return Optional.empty();
+    }
+    // The fingerprint, the three lines written by format(ComponentStatistics), then the source.
+    String[] lines = entry.split("\n", 5);
+    if (lines.length < 5 || !lines[0].equals(fingerprint)) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(
+          Entry.create(lines[4], parseStatistics(componentName, lines[1], lines[2], lines[3])));
+    } catch (IllegalArgumentException e) {
+      // A malformed entry is treated as a miss, and overwritten.
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Formats {@code componentStatistics} as three lines: the shard counts, the {@linkplain
+   * ComponentCodeSize#counts() code size counts} or {@code -} if the component wasn't measured, and
+   * the size of each method.
+   */
+  private static String format(ComponentStatistics componentStatistics) {
+    Optional<Measurement> measurement = componentStatistics.measurement();
+    return componentStatistics.shards()
+        + "\t"
+        + componentStatistics.crossShardDependencies()
+        + "\n"
+        + measurement
+            .map(
+                measured ->
+                    measured.codeSize().counts().values().stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining("\t")))
+            .orElse("-")
+        + "\n"
+        + measurement
+            .map(
+                measured ->
+                    measured.methodSizes().entrySet().stream()
+                        .map(methodSize -> methodSize.getKey() + "=" + methodSize.getValue())
+                        .collect(Collectors.joining("\t")))
+            .orElse("")
+        + "\n";
+  }
+
+  /** Parses the lines written by {@link #format(ComponentStatistics)}. */
+  private static ComponentStatistics parseStatistics(
+      ClassName componentName, String shardsLine, String countsLine, String methodSizesLine) {
+    List<Integer> shards = parseCounts(shardsLine);
+    checkArgument(shards.size() == 2, "Malformed shard counts: %s", shardsLine);
+    if (countsLine.equals("-")) {
+      return ComponentStatistics.create(shards.get(0), shards.get(1), Optional.empty());
+    }
+    List<Integer> counts = parseCounts(countsLine);
+    checkArgument(counts.size() == 7, "Malformed code size counts: %s", countsLine);
+    ComponentCodeSize codeSize =
+        ComponentCodeSize.builder()
+            .setComponent(componentName.toString())
+            .setClasses(counts.get(0))
+            .setFields(counts.get(1))
+            .setMethods(counts.get(2))
+            .setBytecodeSize(counts.get(3))
+            .setProviderFields(counts.get(4))
+            .setSwitchingProviderCases(counts.get(5))
+            .setShards(counts.get(6))
+            .build();
+    ImmutableMap.Builder<String, Integer> methodSizes = ImmutableMap.builder();
+    if (!methodSizesLine.isEmpty()) {
+      for (String methodSize : methodSizesLine.split("\t")) {
+        int equals = methodSize.lastIndexOf('=');
+        checkArgument(equals > 0, "Malformed method size: %s", methodSize);
+        methodSizes.put(
+            methodSize.substring(0, equals), Integer.parseInt(methodSize.substring(equals + 1)));
+      }
+    }
+    return ComponentStatistics.create(
+        shards.get(0),
+        shards.get(1),
+        Optional.of(Measurement.create(codeSize, methodSizes.build())));
+  }
+
+  private static List<Integer> parseCounts(String line) {
+    return Stream.of(line.split("\t")).map(Integer::valueOf).collect(Collectors.toList());
+  }
+
+  private Path entry(ClassName componentName) {
+    return directory.get().resolve(componentName.canonicalName() + ".source");
+  }
+
+  private void printNote(String message) {
+    processingEnvironment.getMessager().printMessage(NOTE, message);
+  }
+
+  /**
+   * Returns the fingerprint of {@code bindingGraph}, or empty if one of the files it depends on
+   * can't be read.
+   */
+  private Optional<String> fingerprint(BindingGraph bindingGraph) {
+    Optional<String> processorFingerprint = processorFingerprint();
+    if (!processorFingerprint.isPresent()) {
+      return Optional.empty();
+    }
+    Fingerprint fingerprint = new Fingerprint();
+    fingerprint.add(processorFingerprint.get());
+    fingerprint.add(new TreeMap<>(processingEnvironment.getOptions()).toString());
+    // The profile's path is among the options, but which bindings are hot depends on its contents.
+    String hotProviderProfile = processingEnvironment.getOptions().get(HOT_PROVIDER_PROFILE);
+    if (hotProviderProfile != null) {
+      try {
+        fingerprint.add(Files.readAllBytes(Paths.get(hotProviderProfile)));
+      } catch (IOException | RuntimeException e) {
+        return Optional.empty();
+      }
+    }
+    fingerprint.add(
+        generatedAnnotation(elements, processingEnvironment.getSourceVersion())
+            .map(annotation -> annotation.getQualifiedName().toString())
+            .orElse("no @Generated"));
+    Set<TypeElement> types = new LinkedHashSet<>();
+    addGraph(bindingGraph.topLevelBindingGraph(), fingerprint, types);
+    Set<JavaFileObject> sourceFiles = new LinkedHashSet<>();
+    for (TypeElement type : types) {
+      fingerprint.add(elements.getBinaryName(type).toString());
+      if (typeFiles.isFromSource(type)) {
+        Optional<JavaFileObject> sourceFile = typeFiles.sourceFile(type);
+        if (!sourceFile.isPresent()) {
+          return Optional.empty();
+        }
+        sourceFiles.add(sourceFile.get());
+      } else {
+        typeFiles.classFile(type).ifPresent(fingerprint::add);
+      }
+    }
+    for (JavaFileObject sourceFile : sourceFiles) {
+      try {
+        fingerprint.add(sourceFile.getCharContent(true).toString());
+      } catch (IOException e) {
+        return Optional.empty();
+      }
+    }
+    return Optional.of(fingerprint.value());
+  }
+
+  private void addGraph(
+      dagger.model.BindingGraph graph, Fingerprint fingerprint, Set<TypeElement> types) {
+    for (Node node : graph.network().nodes()) {
+      fingerprint.add(node.toString());
+      if (node instanceof ComponentNodeImpl) {
+        addComponent(((ComponentNodeImpl) node).componentDescriptor(), types);
+      } else if (node instanceof Binding) {
+        addBinding((Binding) node, fingerprint, types);
+      }
+    }
+    for (Edge edge : graph.network().edges()) {
+      fingerprint.add(graph.network().incidentNodes(edge).toString());
+      if (edge instanceof DependencyEdge) {
+        DependencyEdge dependencyEdge = (DependencyEdge) edge;
+        fingerprint.add(String.valueOf(dependencyEdge.isEntryPoint()));
+        addDependencyRequest(dependencyEdge.dependencyRequest(), fingerprint, types);
+      } else if (edge instanceof ChildFactoryMethodEdge) {
+        ChildFactoryMethodEdge childFactoryMethodEdge = (ChildFactoryMethodEdge) edge;
+        fingerprint.add(childFactoryMethodEdge.factoryMethod().toString());
+        addElement(childFactoryMethodEdge.factoryMethod(), types);
+      } else if (edge instanceof SubcomponentCreatorBindingEdge) {
+        ((SubcomponentCreatorBindingEdge) edge)
+            .declaringModules()
+            .forEach(module -> addType(module, types));
+      }
+    }
+  }
+
+  private void addComponent(ComponentDescriptor component, Set<TypeElement> types) {
+    addType(component.typeElement(), types);
+    component.creatorDescriptor().ifPresent(creator -> addType(creator.typeElement(), types));
+    for (ComponentRequirement dependency : component.dependencies()) {
+      addType(dependency.typeElement(), types);
+    }
+    for (ModuleDescriptor module : component.modules()) {
+      addType(module.moduleElement(), types);
+    }
+  }
+
+  private void addBinding(Binding binding, Fingerprint fingerprint, Set<TypeElement> types) {
+    fingerprint.add(
+        Stream.of(
+                binding.componentPath(),
+                binding.key(),
+                binding.kind(),
+                binding.scope(),
+                binding.isNullable(),
+                binding.requiresModuleInstance(),
+                binding.bindingElement(),
+                binding.contributingModule())
+            .map(String::valueOf)
+            .collect(Collectors.joining("\t")));
+    addKey(binding.key(), types);
+    binding.bindingElement().ifPresent(element -> addElement(element, types));
+    binding.contributingModule().ifPresent(module -> addType(module, types));
+    for (DependencyRequest dependency : binding.dependencies()) {
+      addDependencyRequest(dependency, fingerprint, types);
+    }
+    if (binding instanceof BindingNode
+        && ((BindingNode) binding).delegate() instanceof MembersInjectionBinding) {
+      for (InjectionSite injectionSite :
+          ((MembersInjectionBinding) ((BindingNode) binding).delegate()).injectionSites()) {
+        fingerprint.add(injectionSite.element().toString());
+        addElement(injectionSite.element(), types);
+      }
+    }
+  }
+
+  private void addDependencyRequest(
+      DependencyRequest dependency, Fingerprint fingerprint, Set<TypeElement> types) {
+    fingerprint.add(
+        dependency.kind() + "\t" + dependency.key() + "\t" + dependency.isNullable());
+    addKey(dependency.key(), types);
+    dependency.requestElement().ifPresent(element -> addElement(element, types));
+  }
+
+  private void addKey(Key key, Set<TypeElement> types) {
+    addTypeMirror(key.type(), types);
+    key.qualifier().ifPresent(qualifier -> addTypeMirror(qualifier.getAnnotationType(), types));
+  }
+
+  /** Adds the types that declare {@code element}, if it isn't a type itself. */
+  private void addElement(Element element, Set<TypeElement> types) {
+    if (isType(element)) {
+      addType(MoreElements.asType(element), types);
+    } else if (element.getEnclosingElement() != null) {
+      addElement(element.getEnclosingElement(), types);
+    }
+  }
+
+  private void addTypeMirror(TypeMirror type, Set<TypeElement> types) {
+    type.accept(
+        new SimpleTypeVisitor8<Void, Void>() {
+          @Override
+          public Void visitDeclared(DeclaredType declaredType, Void unused) {
+            addType(asTypeElement(declaredType), types);
+            declaredType.getTypeArguments().forEach(argument -> argument.accept(this, null));
+            return null;
+          }
+
+          @Override
+          public Void visitArray(ArrayType arrayType, Void unused) {
+            return arrayType.getComponentType().accept(this, null);
+          }
+
+          @Override
+          public Void visitWildcard(WildcardType wildcardType, Void unused) {
+            if (wildcardType.getExtendsBound() != null) {
+              wildcardType.getExtendsBound().accept(this, null);
+            }
+            if (wildcardType.getSuperBound() != null) {
+              wildcardType.getSuperBound().accept(this, null);
+            }
+            return null;
+          }
+        },
+        null);
+  }
+
+  /** Adds {@code type}, its supertypes, and the types that enclose them. */
+  private static void addType(TypeElement type, Set<TypeElement> types) {
+    if (!types.add(type)) {
+      return;
+    }
+    if (type.getSuperclass().getKind().equals(DECLARED)) {
+      addType(asTypeElement(type.getSuperclass()), types);
+    }
+    for (TypeMirror superinterface : type.getInterfaces()) {
+      addType(asTypeElement(superinterface), types);
+    }
+    if (isType(type.getEnclosingElement())) {
+      addType(MoreElements.asType(type.getEnclosingElement()), types);
+    }
+  }
+
+  /**
+   * Returns a hash of the jar or directory that the Dagger processor was loaded from, so that
+   * entries written by another version of Dagger aren't used.
+   */
+  private Optional<String> processorFingerprint() {
+    if (processorFingerprint == null) {
+      processorFingerprint = computeProcessorFingerprint();
+    }
+    return processorFingerprint;
+  }
+
+  private static Optional<String> computeProcessorFingerprint() {
+    try {
+      CodeSource codeSource = ComponentSourceCache.class.getProtectionDomain().getCodeSource();
+      if (codeSource == null) {
+        return Optional.empty();
+      }
+      Path location = Paths.get(codeSource.getLocation().toURI());
+      Fingerprint fingerprint = new Fingerprint();
+      if (Files.isDirectory(location)) {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(location)) {
+          files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+          fingerprint.add(location.relativize(file).toString());
+          fingerprint.add(Files.readAllBytes(file));
+        }
+      } else {
+        fingerprint.add(Files.readAllBytes(location));
+      }
+      return Optional.of(fingerprint.value());
+    } catch (IOException | URISyntaxException | RuntimeException e) {
+      return Optional.empty();
+    }
+  }
+
+  /** The source and statistics of a component that an earlier compilation generated. */
+  @AutoValue
+  abstract static class Entry {
+    static Entry create(String source, ComponentStatistics statistics) {
+      return new AutoValue_ComponentSourceCache_Entry(source, statistics);
+    }
+
+    abstract String source();
+
+    abstract ComponentStatistics statistics();
+  }
+
+  /** A SHA-256 hash of a sequence of strings and byte arrays. */
+  private static final class Fingerprint {
+    private final MessageDigest digest;
+
+    Fingerprint() {
+      try {
+        digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new AssertionError(e);
+      }
+    }
+
+    void add(String value) {
+      add(value.getBytes(UTF_8));
+    }
+
+    void add(byte[] value) {
+      // Prefix each value with its length so that different sequences never hash the same bytes.
+      digest.update(Integer.toString(value.length).getBytes(UTF_8));
+      digest.update((byte) ':');
+      digest.update(value);
+    }
+
+    String value() {
+      return BaseEncoding.base16().lowerCase().encode(digest.digest());
+    }
+  }
+}
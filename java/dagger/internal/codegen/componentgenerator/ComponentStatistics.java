@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal.codegen.componentgenerator;
+
+import com.google.auto.value.AutoValue;
+import dagger.internal.codegen.componentgenerator.ComponentCodeBudget.Measurement;
+import java.util.Optional;
+
+/**
+ * The statistics of a generated component, which are recorded along with its source in the {@link
+ * ComponentSourceCache} so that they can be reported again when the source is replayed.
+ */
+@AutoValue
+abstract class ComponentStatistics {
+  static ComponentStatistics create(
+      int shards, int crossShardDependencies, Optional<Measurement> measurement) {
+    return new AutoValue_ComponentStatistics(shards, crossShardDependencies, measurement);
+  }
+
+  /** The number of shard classes of the component and its subcomponents. */
+  abstract int shards();
+
+  /** The number of dependencies between bindings in different shards. */
+  abstract int crossShardDependencies();
+
+  /**
+   * The amount of code generated for the component, or empty if it wasn't {@linkplain
+   * ComponentCodeBudget#isMeasuring() measured}.
+   */
+  abstract Optional<Measurement> measurement();
+}
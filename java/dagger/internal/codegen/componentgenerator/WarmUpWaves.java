@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen.componentgenerator;
+
+import static dagger.internal.codegen.extension.DaggerStreams.instancesOf;
+import static dagger.internal.codegen.extension.DaggerStreams.toImmutableList;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.graph.ImmutableNetwork;
+import dagger.internal.codegen.binding.BindingGraph;
+import dagger.internal.codegen.binding.BindingNode;
+import dagger.internal.codegen.binding.BindingType;
+import dagger.internal.codegen.writing.ComponentBindingExpressions;
+import dagger.model.BindingGraph.DependencyEdge;
+import dagger.model.BindingGraph.Edge;
+import dagger.model.BindingGraph.Node;
+import dagger.model.RequestKind;
+import dagger.model.Scope;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Orders the scoped bindings that a root component's {@code warmUp(Executor)} method creates into
+ * waves.
+ *
+ * <p>A binding is warmed up if it is a provision binding owned by the component whose instance is
+ * cached by the component for its whole lifetime, e.g. a {@link javax.inject.Singleton @Singleton}
+ * binding. Each binding is placed in the wave after the last warmed-up binding that it depends on
+ * directly or through unscoped bindings, so the bindings in one wave can be created concurrently
+ * once the earlier waves have been created. Only {@linkplain RequestKind#INSTANCE instance}
+ * requests are followed, since a binding that requests a {@code Provider} or {@code Lazy} doesn't
+ * need its dependency to create itself.
+ */
+final class WarmUpWaves {
+  private final BindingGraph graph;
+  private final ImmutableNetwork<Node, Edge> network;
+  private final Map<BindingNode, Integer> depths = new HashMap<>();
+
+  private WarmUpWaves(BindingGraph graph) {
+    this.graph = graph;
+    this.network = graph.network();
+  }
+
+  /** Returns the waves of bindings to warm up in {@code graph}, in the order to create them. */
+  static ImmutableList<ImmutableList<BindingNode>> waves(BindingGraph graph) {
+    return new WarmUpWaves(graph).waves();
+  }
+
+  private ImmutableList<ImmutableList<BindingNode>> waves() {
+    List<ImmutableList.Builder<BindingNode>> waves = new ArrayList<>();
+    for (BindingNode bindingNode : graph.bindingNodes()) {
+      if (isWarmedUp(bindingNode)) {
+        int depth = depth(bindingNode);
+        while (waves.size() <= depth) {
+          waves.add(ImmutableList.builder());
+        }
+        waves.get(depth).add(bindingNode);
+      }
+    }
+    return waves.stream().map(ImmutableList.Builder::build).collect(toImmutableList());
+  }
+
+  /**
+   * Returns the number of warmed-up bindings on the longest path of instance requests from {@code
+   * bindingNode}, not counting {@code bindingNode} itself.
+   */
+  private int depth(BindingNode bindingNode) {
+    Integer cached = depths.get(bindingNode);
+    if (cached != null) {
+      return cached;
+    }
+    // Guard against a cycle, which a valid graph only has through requests that aren't followed.
+    depths.put(bindingNode, 0);
+    int depth = 0;
+    for (DependencyEdge edge :
+        network.outEdges(bindingNode).stream()
+            .flatMap(instancesOf(DependencyEdge.class))
+            .filter(edge -> edge.dependencyRequest().kind().equals(RequestKind.INSTANCE))
+            .collect(toImmutableList())) {
+      Node target = network.incidentNodes(edge).target();
+      if (target instanceof BindingNode) {
+        BindingNode dependency = (BindingNode) target;
+        depth = Math.max(depth, depth(dependency) + (isWarmedUp(dependency) ? 1 : 0));
+      }
+    }
+    depths.put(bindingNode, depth);
+    return depth;
+  }
+
+  private boolean isWarmedUp(BindingNode bindingNode) {
+    if (!bindingNode.componentPath().equals(graph.componentPath())
+        || !bindingNode.delegate().bindingType().equals(BindingType.PROVISION)
+        || !bindingNode.scope().isPresent()) {
+      return false;
+    }
+    Scope scope = bindingNode.scope().get();
+    return !scope.isReusable() && !ComponentBindingExpressions.isCachedByProvider(scope);
+  }
+}
@@ -24,7 +24,12 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.graph.Graph;
 import com.google.common.graph.SuccessorsFunction;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
@@ -89,6 +94,70 @@ public final class DaggerGraphs {
     return ImmutableList.of();
   }
 
+  /**
+   * Returns the strongly connected components of the graph of {@code nodes} and their {@code
+   * successors}, each one after all of the components it has edges to. Every node that is reachable
+   * from {@code nodes} is in exactly one component.
+   *
+   * <p>This is Tarjan's algorithm, with an explicit stack so that long paths can't overflow the
+   * call stack. It takes time linear in the number of nodes and edges.
+   */
+  public static <N> ImmutableList<ImmutableSet<N>> stronglyConnectedComponents(
+      Iterable<N> nodes, SuccessorsFunction<N> successors) {
+    Map<N, Integer> indices = new HashMap<>();
+    Map<N, Integer> lowLinks = new HashMap<>();
+    Map<N, Iterator<? extends N>> unvisitedSuccessors = new HashMap<>();
+    Deque<N> path = new ArrayDeque<>();
+    Deque<N> stack = new ArrayDeque<>();
+    Set<N> onStack = new HashSet<>();
+    List<ImmutableSet<N>> components = new ArrayList<>();
+
+    for (N root : nodes) {
+      if (indices.containsKey(root)) {
+        continue;
+      }
+      path.push(root);
+      while (!path.isEmpty()) {
+        N node = path.peek();
+        if (!indices.containsKey(node)) {
+          indices.put(node, indices.size());
+          lowLinks.put(node, indices.get(node));
+          unvisitedSuccessors.put(node, successors.successors(node).iterator());
+          stack.push(node);
+          onStack.add(node);
+        }
+        Iterator<? extends N> nodeSuccessors = unvisitedSuccessors.get(node);
+        if (nodeSuccessors.hasNext()) {
+          N successor = nodeSuccessors.next();
+          if (!indices.containsKey(successor)) {
+            path.push(successor);
+          } else if (onStack.contains(successor)) {
+            lowLinks.put(node, Math.min(lowLinks.get(node), indices.get(successor)));
+          }
+          continue;
+        }
+
+        path.pop();
+        unvisitedSuccessors.remove(node);
+        if (!path.isEmpty()) {
+          N predecessor = path.peek();
+          lowLinks.put(predecessor, Math.min(lowLinks.get(predecessor), lowLinks.get(node)));
+        }
+        if (lowLinks.get(node).equals(indices.get(node))) {
+          ImmutableSet.Builder<N> component = ImmutableSet.builder();
+          N member;
+          do {
+            member = stack.pop();
+            onStack.remove(member);
+            component.add(member);
+          } while (!member.equals(node));
+          components.add(component.build());
+        }
+      }
+    }
+    return ImmutableList.copyOf(components);
+  }
+
   /** Returns the nodes in a graph that are not reachable from a node. */
   public static <N> ImmutableSet<N> unreachableNodes(Graph<N> graph, N node) {
     return ImmutableSet.copyOf(difference(graph.nodes(), reachableNodes(graph, node)));
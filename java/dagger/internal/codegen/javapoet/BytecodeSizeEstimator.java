@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen.javapoet;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Estimates the number of bytes of bytecode that javac generates for Java source.
+ *
+ * <p>The estimate is made from the source alone, without types: each call costs an invoke
+ * instruction, each {@code new} a {@code new} and a {@code dup}, each reference to a field or local
+ * variable a load or store, each literal a constant load, and so on. Package names and the names of
+ * types cost nothing. It is close enough to keep generated methods well within the JIT's limits
+ * without compiling them.
+ */
+public final class BytecodeSizeEstimator {
+  /**
+   * HotSpot's default {@code -XX:HugeMethodLimit}. Methods with more bytecode than this are never
+   * compiled by the JIT.
+   */
+  public static final int HUGE_METHOD_LIMIT = 8000;
+
+  /**
+   * HotSpot's default {@code -XX:FreqInlineSize}. Methods with more bytecode than this are never
+   * inlined, even into a hot caller.
+   */
+  public static final int FREQ_INLINE_SIZE = 325;
+
+  private static final ImmutableMap<String, Integer> KEYWORD_SIZES =
+      ImmutableMap.<String, Integer>builder()
+          .put("new", 4) // new, dup; the constructor call is counted separately
+          .put("this", 1) // aload_0
+          .put("super", 1)
+          .put("null", 1) // aconst_null
+          .put("true", 1)
+          .put("false", 1)
+          .put("return", 1)
+          .put("throw", 1)
+          .put("if", 3) // a conditional branch
+          .put("else", 3) // goto
+          .put("while", 6)
+          .put("for", 6)
+          .put("instanceof", 3)
+          .put("switch", 12)
+          .put("case", 8) // one entry in a lookupswitch
+          .put("default", 4)
+          .put("try", 3)
+          .put("catch", 4)
+          .put("finally", 8)
+          .put("synchronized", 14) // monitorenter, two monitorexits and an exception handler
+          .build();
+
+  private static final Pattern CAST =
+      Pattern.compile("\\(\\s*[A-Za-z_$][\\w$.]*\\s*(<[^()]*>)?\\s*(\\[\\])*\\s*\\)\\s*[\\w$(]");
+
+  /** Returns the estimated size of the bytecode for {@code codeBlock}. */
+  public static int estimate(CodeBlock codeBlock) {
+    return estimate(codeBlock.toString());
+  }
+
+  /** Returns the estimated size of the bytecode for the body of {@code method}. */
+  public static int estimate(MethodSpec method) {
+    // Count the implicit return of a void method.
+    return estimate(method.code) + 1;
+  }
+
+  /**
+   * Partitions {@code statements}, in order, into lists whose estimated size is at most {@code
+   * maxSize}. A statement that is larger than {@code maxSize} on its own gets a list to itself.
+   */
+  public static ImmutableList<ImmutableList<CodeBlock>> partition(
+      List<CodeBlock> statements, int maxSize) {
+    ImmutableList.Builder<ImmutableList<CodeBlock>> partitions = ImmutableList.builder();
+    ImmutableList.Builder<CodeBlock> partition = ImmutableList.builder();
+    int partitionSize = 0;
+    for (CodeBlock statement : statements) {
+      int statementSize = estimate(statement);
+      if (partitionSize > 0 && partitionSize + statementSize > maxSize) {
+        partitions.add(partition.build());
+        partition = ImmutableList.builder();
+        partitionSize = 0;
+      }
+      partition.add(statement);
+      partitionSize += Math.max(statementSize, 1);
+    }
+    if (partitionSize > 0) {
+      partitions.add(partition.build());
+    }
+    return partitions.build();
+  }
+
+  static int estimate(String code) {
+    int size = 0;
+    int length = code.length();
+    int i = 0;
+    while (i < length) {
+      char c = code.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (code.startsWith("//", i)) {
+        i = indexOrEnd(code, code.indexOf('\n', i));
+      } else if (code.startsWith("/*", i)) {
+        int end = code.indexOf("*/", i + 2);
+        i = end < 0 ? length : end + 2;
+      } else if (c == '"' || c == '\'') {
+        i = skipLiteral(code, i);
+        size += c == '"' ? 3 : 2; // ldc_w or bipush
+      } else if (Character.isDigit(c)) {
+        while (i < length
+            && (Character.isLetterOrDigit(code.charAt(i)) || code.charAt(i) == '.')) {
+          i++;
+        }
+        size += 2; // bipush or ldc
+      } else if (Character.isJavaIdentifierStart(c)) {
+        int packageEnd = packageEnd(code, i);
+        if (packageEnd > i) {
+          i = packageEnd;
+          continue;
+        }
+        int start = i;
+        while (i < length && Character.isJavaIdentifierPart(code.charAt(i))) {
+          i++;
+        }
+        size += identifierSize(code.substring(start, i), code, i);
+      } else if (c == '(') {
+        Matcher cast = CAST.matcher(code).region(i, length);
+        if (cast.lookingAt() && isTypeName(code, i + 1)) {
+          size += 3; // checkcast
+          i = code.indexOf(')', i) + 1;
+        } else {
+          i++;
+        }
+      } else if (c == '=' || c == '!' || c == '<' || c == '>') {
+        if (i + 1 < length && code.charAt(i + 1) == '=') {
+          size += 3; // a comparison and branch
+          i += 2;
+        } else {
+          size += c == '=' ? 2 : 0; // a store; generic type arguments cost nothing
+          i++;
+        }
+      } else if (c == '?') {
+        size += 6; // a branch and a goto
+        i++;
+      } else if (c == '+' || c == '-' || c == '*' || c == '/' || c == '%') {
+        size += 1;
+        i++;
+      } else {
+        i++;
+      }
+    }
+    return size;
+  }
+
+  private static int identifierSize(String identifier, String code, int end) {
+    Integer keywordSize = KEYWORD_SIZES.get(identifier);
+    if (keywordSize != null) {
+      return keywordSize;
+    }
+    int nextIndex = nextNonWhitespace(code, end);
+    char next = nextIndex < code.length() ? code.charAt(nextIndex) : 0;
+    if (next == '(') {
+      return 3; // an invoke instruction
+    }
+    if (Character.isUpperCase(identifier.charAt(0))) {
+      // A constant, which is a getstatic, or else a type name, which is free.
+      return identifier.length() > 1 && identifier.equals(identifier.toUpperCase()) ? 3 : 0;
+    }
+    // A field or local variable, unless it's a declared type, like "int", followed by a name.
+    return Character.isJavaIdentifierStart(next)
+            && !KEYWORD_SIZES.containsKey(identifierAt(code, nextIndex))
+        ? 0
+        : 2;
+  }
+
+  private static String identifierAt(String code, int start) {
+    int end = start;
+    while (end < code.length() && Character.isJavaIdentifierPart(code.charAt(end))) {
+      end++;
+    }
+    return code.substring(start, end);
+  }
+
+  /**
+   * If the identifier at {@code start} begins a qualified type name, like {@code java.util.List},
+   * returns the index of the type's simple name. Otherwise returns {@code start}.
+   */
+  private static int packageEnd(String code, int start) {
+    int i = start;
+    while (Character.isLowerCase(code.charAt(i))) {
+      int end = i + identifierAt(code, i).length();
+      if (end >= code.length() || code.charAt(end) != '.' || end + 1 >= code.length()) {
+        return start;
+      }
+      i = end + 1;
+      if (!Character.isJavaIdentifierStart(code.charAt(i))) {
+        return start;
+      }
+    }
+    return Character.isUpperCase(code.charAt(i)) ? i : start;
+  }
+
+  private static boolean isTypeName(String code, int afterParenthesis) {
+    int i = nextNonWhitespace(code, afterParenthesis);
+    return Character.isUpperCase(code.charAt(packageEnd(code, i)));
+  }
+
+  private static int skipLiteral(String code, int start) {
+    char quote = code.charAt(start);
+    int i = start + 1;
+    while (i < code.length() && code.charAt(i) != quote) {
+      i += code.charAt(i) == '\\' ? 2 : 1;
+    }
+    return Math.min(i + 1, code.length());
+  }
+
+  private static int nextNonWhitespace(String code, int start) {
+    int i = start;
+    while (i < code.length() && Character.isWhitespace(code.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  private static int indexOrEnd(String code, int index) {
+    return index < 0 ? code.length() : index;
+  }
+
+  private BytecodeSizeEstimator() {}
+}
@@ -24,20 +24,37 @@ import com.squareup.javapoet.TypeName;
 import dagger.Lazy;
 import dagger.MembersInjector;
 import dagger.internal.DoubleCheck;
+import dagger.internal.ExpiringCheck;
 import dagger.internal.Factory;
 import dagger.internal.InjectedFieldSignature;
 import dagger.internal.InstanceFactory;
+import dagger.internal.IntKeyMap;
+import dagger.internal.IntKeyMapFactory;
+import dagger.internal.LazyValuesMapFactory;
+import dagger.internal.ListBuilder;
+import dagger.internal.ListFactory;
+import dagger.internal.LockingDoubleCheck;
+import dagger.internal.LongKeyMap;
+import dagger.internal.LongKeyMapFactory;
 import dagger.internal.MapFactory;
 import dagger.internal.MapProviderFactory;
 import dagger.internal.MembersInjectors;
 import dagger.internal.ProviderOfLazy;
+import dagger.internal.ProviderProfile;
+import dagger.internal.ScopedInstances;
 import dagger.internal.SetFactory;
 import dagger.internal.SingleCheck;
+import dagger.internal.SoftReferenceCheck;
+import dagger.internal.StripedCheck;
+import dagger.internal.SwitchingMap;
+import dagger.internal.ThreadConfinedCheck;
+import dagger.internal.WarmUpFuture;
 import dagger.producers.Produced;
 import dagger.producers.Producer;
 import dagger.producers.ProducerModule;
 import dagger.producers.internal.AbstractProducer;
 import dagger.producers.internal.DependencyMethodProducer;
+import dagger.producers.internal.ListProducer;
 import dagger.producers.internal.MapOfProducedProducer;
 import dagger.producers.internal.MapOfProducerProducer;
 import dagger.producers.internal.MapProducer;
@@ -57,14 +74,25 @@ public final class TypeNames {
   public static final ClassName DEPENDENCY_METHOD_PRODUCER =
       ClassName.get(DependencyMethodProducer.class);
   public static final ClassName DOUBLE_CHECK = ClassName.get(DoubleCheck.class);
+  public static final ClassName EXPIRING_CHECK = ClassName.get(ExpiringCheck.class);
   public static final ClassName FACTORY = ClassName.get(Factory.class);
   public static final ClassName FUTURES = ClassName.get(Futures.class);
   public static final ClassName INJECTED_FIELD_SIGNATURE =
       ClassName.get(InjectedFieldSignature.class);
   public static final ClassName INSTANCE_FACTORY = ClassName.get(InstanceFactory.class);
+  public static final ClassName INT_KEY_MAP = ClassName.get(IntKeyMap.class);
+  public static final ClassName INT_KEY_MAP_FACTORY = ClassName.get(IntKeyMapFactory.class);
   public static final ClassName LAZY = ClassName.get(Lazy.class);
+  public static final ClassName LAZY_VALUES_MAP_FACTORY =
+      ClassName.get(LazyValuesMapFactory.class);
   public static final ClassName LIST = ClassName.get(List.class);
+  public static final ClassName LIST_BUILDER = ClassName.get(ListBuilder.class);
+  public static final ClassName LIST_FACTORY = ClassName.get(ListFactory.class);
+  public static final ClassName LIST_PRODUCER = ClassName.get(ListProducer.class);
   public static final ClassName LISTENABLE_FUTURE = ClassName.get(ListenableFuture.class);
+  public static final ClassName LOCKING_DOUBLE_CHECK = ClassName.get(LockingDoubleCheck.class);
+  public static final ClassName LONG_KEY_MAP = ClassName.get(LongKeyMap.class);
+  public static final ClassName LONG_KEY_MAP_FACTORY = ClassName.get(LongKeyMapFactory.class);
   public static final ClassName MAP_FACTORY = ClassName.get(MapFactory.class);
   public static final ClassName MAP_OF_PRODUCED_PRODUCER =
       ClassName.get(MapOfProducedProducer.class);
@@ -83,12 +111,19 @@ public final class TypeNames {
       ClassName.get(ProductionComponentMonitor.Factory.class);
   public static final ClassName PROVIDER = ClassName.get(Provider.class);
   public static final ClassName PROVIDER_OF_LAZY = ClassName.get(ProviderOfLazy.class);
+  public static final ClassName PROVIDER_PROFILE = ClassName.get(ProviderProfile.class);
+  public static final ClassName SCOPED_INSTANCES = ClassName.get(ScopedInstances.class);
   public static final ClassName SET = ClassName.get(Set.class);
   public static final ClassName SET_FACTORY = ClassName.get(SetFactory.class);
   public static final ClassName SET_OF_PRODUCED_PRODUCER =
       ClassName.get(SetOfProducedProducer.class);
   public static final ClassName SET_PRODUCER = ClassName.get(SetProducer.class);
   public static final ClassName SINGLE_CHECK = ClassName.get(SingleCheck.class);
+  public static final ClassName SOFT_REFERENCE_CHECK = ClassName.get(SoftReferenceCheck.class);
+  public static final ClassName STRIPED_CHECK = ClassName.get(StripedCheck.class);
+  public static final ClassName SWITCHING_MAP = ClassName.get(SwitchingMap.class);
+  public static final ClassName THREAD_CONFINED_CHECK = ClassName.get(ThreadConfinedCheck.class);
+  public static final ClassName WARM_UP_FUTURE = ClassName.get(WarmUpFuture.class);
 
   /**
    * {@link TypeName#VOID} is lowercase-v {@code void} whereas this represents the class, {@link
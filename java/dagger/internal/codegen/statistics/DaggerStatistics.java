@@ -49,6 +49,39 @@ public abstract class DaggerStatistics {
   /** Records the number of {@link dagger.MembersInjector}s generated in this compilation. */
   public abstract int membersInjectorsGenerated();
 
+  /**
+   * Records the number of {@code @Inject} constructor factories that were not generated in
+   * whole-program mode because no generated code references them.
+   */
+  public abstract int injectFactoriesSkipped();
+
+  /**
+   * Records the number of {@link dagger.MembersInjector}s that were not generated in whole-program
+   * mode because no generated code references them.
+   */
+  public abstract int membersInjectorsSkipped();
+
+  /** Records the number of component shard classes generated in this compilation. */
+  public abstract int componentShardsGenerated();
+
+  /**
+   * Records the number of dependencies between bindings held by different shards of the same
+   * component in this compilation.
+   */
+  public abstract int crossShardDependencies();
+
+  /** Records the number of components whose source was replayed from the component source cache. */
+  public abstract int componentSourceCacheHits();
+
+  /** Records the number of components whose source was not found in the component source cache. */
+  public abstract int componentSourceCacheMisses();
+
+  /** Records the estimated bytecode sizes of the methods of each component generated. */
+  public abstract ImmutableList<ComponentMethodSizes> componentMethodSizes();
+
+  /** Records the amount of code generated for each component. */
+  public abstract ImmutableList<ComponentCodeSize> componentCodeSizes();
+
   /** Builder for {@link DaggerStatistics}. */
   @AutoValue.Builder
   @CanIgnoreReturnValue
@@ -72,11 +105,147 @@ public abstract class DaggerStatistics {
     /** Sets the number of {@link dagger.MembersInjector}s generated in this compilation. */
     abstract Builder setMembersInjectorsGenerated(int count);
 
+    /** Sets the number of {@code @Inject} constructor factories skipped in whole-program mode. */
+    abstract Builder setInjectFactoriesSkipped(int count);
+
+    /** Sets the number of {@link dagger.MembersInjector}s skipped in whole-program mode. */
+    abstract Builder setMembersInjectorsSkipped(int count);
+
+    /** Sets the number of component shard classes generated in this compilation. */
+    abstract Builder setComponentShardsGenerated(int count);
+
+    /** Sets the number of dependencies between bindings held by different component shards. */
+    abstract Builder setCrossShardDependencies(int count);
+
+    /** Sets the number of components whose source was replayed from the component source cache. */
+    abstract Builder setComponentSourceCacheHits(int count);
+
+    /** Sets the number of components whose source was not in the component source cache. */
+    abstract Builder setComponentSourceCacheMisses(int count);
+
+    /** Returns a builder for adding the method sizes of generated components. */
+    @CheckReturnValue
+    abstract ImmutableList.Builder<ComponentMethodSizes> componentMethodSizesBuilder();
+
+    /** Adds the given {@code componentMethodSizes}. */
+    final Builder addComponentMethodSizes(ComponentMethodSizes componentMethodSizes) {
+      componentMethodSizesBuilder().add(componentMethodSizes);
+      return this;
+    }
+
+    /** Returns a builder for adding the code sizes of generated components. */
+    @CheckReturnValue
+    abstract ImmutableList.Builder<ComponentCodeSize> componentCodeSizesBuilder();
+
+    /** Adds the given {@code componentCodeSize}. */
+    final Builder addComponentCodeSize(ComponentCodeSize componentCodeSize) {
+      componentCodeSizesBuilder().add(componentCodeSize);
+      return this;
+    }
+
     /** Creates a new {@link DaggerStatistics} instance. */
     @CheckReturnValue
     abstract DaggerStatistics build();
   }
 
+  /** The estimated bytecode sizes of the methods of a generated component. */
+  @AutoValue
+  public abstract static class ComponentMethodSizes {
+    static ComponentMethodSizes create(
+        String component, ImmutableMap<String, Integer> methodSizes) {
+      return new AutoValue_DaggerStatistics_ComponentMethodSizes(component, methodSizes);
+    }
+
+    /** The qualified name of the generated component. */
+    public abstract String component();
+
+    /**
+     * Map of each method of the component and its nested classes, such as {@code
+     * Shard1.binding10()}, to its estimated bytecode size in bytes.
+     */
+    public abstract ImmutableMap<String, Integer> methodSizes();
+
+    /** Returns the number of methods whose estimated bytecode size is more than {@code bytes}. */
+    public final long methodsLargerThan(int bytes) {
+      return methodSizes().values().stream().filter(size -> size > bytes).count();
+    }
+  }
+
+  /**
+   * The amount of code generated for a component, including its subcomponents, shards and other
+   * nested classes.
+   */
+  @AutoValue
+  public abstract static class ComponentCodeSize {
+    /** Returns a new {@link Builder}. */
+    public static Builder builder() {
+      return new AutoValue_DaggerStatistics_ComponentCodeSize.Builder();
+    }
+
+    /** The qualified name of the generated component. */
+    public abstract String component();
+
+    /** The number of classes: the component itself and all of its nested classes. */
+    public abstract int classes();
+
+    /** The number of fields of all classes. */
+    public abstract int fields();
+
+    /** The number of methods, including constructors, of all classes. */
+    public abstract int methods();
+
+    /** The sum of the estimated bytecode sizes of all methods, in bytes. */
+    public abstract int bytecodeSize();
+
+    /** The number of fields whose type is {@link javax.inject.Provider}. */
+    public abstract int providerFields();
+
+    /** The number of cases in all {@code SwitchingProvider} classes. */
+    public abstract int switchingProviderCases();
+
+    /** The number of component shard classes. */
+    public abstract int shards();
+
+    /**
+     * Returns each count by the name of its property, such as {@code methods}, in the order in
+     * which they are declared.
+     */
+    public final ImmutableMap<String, Integer> counts() {
+      return ImmutableMap.<String, Integer>builder()
+          .put("classes", classes())
+          .put("fields", fields())
+          .put("methods", methods())
+          .put("bytecodeSize", bytecodeSize())
+          .put("providerFields", providerFields())
+          .put("switchingProviderCases", switchingProviderCases())
+          .put("shards", shards())
+          .build();
+    }
+
+    /** Builder for {@link ComponentCodeSize}. */
+    @AutoValue.Builder
+    public abstract static class Builder {
+      public abstract Builder setComponent(String component);
+
+      public abstract Builder setClasses(int classes);
+
+      public abstract Builder setFields(int fields);
+
+      public abstract Builder setMethods(int methods);
+
+      public abstract Builder setBytecodeSize(int bytecodeSize);
+
+      public abstract Builder setProviderFields(int providerFields);
+
+      public abstract Builder setSwitchingProviderCases(int switchingProviderCases);
+
+      public abstract Builder setShards(int shards);
+
+      /** Creates a new {@link ComponentCodeSize} instance. */
+      public abstract ComponentCodeSize build();
+    }
+  }
+
   /** Statistics for each processing step in a single processing round. */
   @AutoValue
   public abstract static class RoundStatistics {
@@ -22,6 +22,7 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import com.google.auto.common.BasicAnnotationProcessor.ProcessingStep;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableMap;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
@@ -43,6 +44,12 @@ public final class DaggerStatisticsCollector {
   private final Optional<DaggerStatisticsRecorder> statisticsRecorder;
   private int injectFactoriesGenerated;
   private int membersInjectorsGenerated;
+  private int injectFactoriesSkipped;
+  private int membersInjectorsSkipped;
+  private int componentShardsGenerated;
+  private int crossShardDependencies;
+  private int componentSourceCacheHits;
+  private int componentSourceCacheMisses;
 
   @Inject
   DaggerStatisticsCollector(Ticker ticker, Optional<DaggerStatisticsRecorder> statisticsRecorder) {
@@ -84,12 +91,26 @@ public final class DaggerStatisticsCollector {
     statisticsBuilder
         .setTotalProcessingTime(elapsedTime(totalRuntimeStopwatch))
         .setInjectFactoriesGenerated(injectFactoriesGenerated)
-        .setMembersInjectorsGenerated(membersInjectorsGenerated);
+        .setMembersInjectorsGenerated(membersInjectorsGenerated)
+        .setInjectFactoriesSkipped(injectFactoriesSkipped)
+        .setMembersInjectorsSkipped(membersInjectorsSkipped)
+        .setComponentShardsGenerated(componentShardsGenerated)
+        .setCrossShardDependencies(crossShardDependencies)
+        .setComponentSourceCacheHits(componentSourceCacheHits)
+        .setComponentSourceCacheMisses(componentSourceCacheMisses);
 
     statisticsRecorder.ifPresent(
         recorder -> recorder.recordStatistics(statisticsBuilder.build()));
   }
 
+  /**
+   * Returns true if the statistics will be recorded, so that callers can skip measuring things
+   * that nothing would read.
+   */
+  public boolean isRecording() {
+    return statisticsRecorder.isPresent();
+  }
+
   public void recordInjectFactoryGenerated() {
     injectFactoriesGenerated++;
   }
@@ -98,6 +119,48 @@ public final class DaggerStatisticsCollector {
     membersInjectorsGenerated++;
   }
 
+  /**
+   * Records the number of {@code @Inject} constructor factories and {@link dagger.MembersInjector}s
+   * that whole-program mode has not generated so far because nothing references them.
+   */
+  public void recordUnreferencedInjectBindings(int injectFactories, int membersInjectors) {
+    injectFactoriesSkipped = injectFactories;
+    membersInjectorsSkipped = membersInjectors;
+  }
+
+  /**
+   * Records the estimated bytecode size of each method of the generated {@code component}, keyed
+   * by the method's signature within the component.
+   */
+  public void recordComponentMethodSizes(String component, Map<String, Integer> methodSizes) {
+    statisticsBuilder.addComponentMethodSizes(
+        DaggerStatistics.ComponentMethodSizes.create(component, ImmutableMap.copyOf(methodSizes)));
+  }
+
+  /** Records the amount of code generated for a component. */
+  public void recordComponentCodeSize(DaggerStatistics.ComponentCodeSize componentCodeSize) {
+    statisticsBuilder.addComponentCodeSize(componentCodeSize);
+  }
+
+  /**
+   * Records that a component was generated with {@code shards} shard classes and {@code
+   * crossShardDependencies} dependencies between bindings in different shards.
+   */
+  public void recordComponentShards(int shards, int crossShardDependencies) {
+    componentShardsGenerated += shards;
+    this.crossShardDependencies += crossShardDependencies;
+  }
+
+  /** Records that the source of a component was replayed from the component source cache. */
+  public void recordComponentSourceCacheHit() {
+    componentSourceCacheHits++;
+  }
+
+  /** Records that the source of a component was not in the component source cache. */
+  public void recordComponentSourceCacheMiss() {
+    componentSourceCacheMisses++;
+  }
+
   @SuppressWarnings({"GoodTime", "StopwatchNanosToDuration"}) // intentional
   private Duration elapsedTime(Stopwatch stopwatch) {
     // Using the java 7 method here as opposed to the Duration-returning version to avoid issues
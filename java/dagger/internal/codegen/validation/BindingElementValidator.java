@@ -17,6 +17,7 @@
 package dagger.internal.codegen.validation;
 
 import static com.google.common.base.Verify.verifyNotNull;
+import static dagger.internal.codegen.base.Scopes.invalidScopeValues;
 import static dagger.internal.codegen.base.Scopes.scopesOf;
 import static dagger.internal.codegen.base.Util.reentrantComputeIfAbsent;
 import static dagger.internal.codegen.binding.MapKeys.getMapKeys;
@@ -33,11 +34,13 @@ import dagger.MapKey;
 import dagger.Provides;
 import dagger.internal.codegen.base.ContributionType;
 import dagger.internal.codegen.base.FrameworkTypes;
+import dagger.internal.codegen.base.ListType;
 import dagger.internal.codegen.base.MultibindingAnnotations;
 import dagger.internal.codegen.base.SetType;
 import dagger.internal.codegen.binding.InjectionAnnotations;
 import dagger.model.Key;
 import dagger.model.Scope;
+import dagger.multibindings.ElementsIntoList;
 import dagger.multibindings.ElementsIntoSet;
 import dagger.multibindings.IntoMap;
 import dagger.producers.Produces;
@@ -130,6 +133,24 @@ public abstract class BindingElementValidator<E extends Element> {
         "annotated with @ElementsIntoSet cannot %s a raw Set", bindingElementTypeVerb());
   }
 
+  /**
+   * The error message when a the type for a binding element with {@link
+   * ElementsIntoList @ElementsIntoList} is not a list type.
+   */
+  protected String elementsIntoListNotAListMessage() {
+    return bindingElements(
+        "annotated with @ElementsIntoList must %s a List", bindingElementTypeVerb());
+  }
+
+  /**
+   * The error message when a the type for a binding element with {@link
+   * ElementsIntoList @ElementsIntoList} is a raw list.
+   */
+  protected String elementsIntoListRawListMessage() {
+    return bindingElements(
+        "annotated with @ElementsIntoList cannot %s a raw List", bindingElementTypeVerb());
+  }
+
   /*** Returns an {@link ElementValidator} for validating the given {@code element}. */
   protected abstract ElementValidator elementValidator(E element);
 
@@ -175,7 +196,8 @@ public abstract class BindingElementValidator<E extends Element> {
      * framework type.
      *
      * <p>If the element has {@link ElementsIntoSet @ElementsIntoSet} or {@code SET_VALUES}, adds an
-     * error if the type is not a {@code Set<T>} for some {@code T}
+     * error if the type is not a {@code Set<T>} for some {@code T}. If it has {@link
+     * ElementsIntoList @ElementsIntoList}, adds an error if the type is not a {@code List<T>}.
      */
     protected void checkType() {
       switch (ContributionType.fromBindingElement(element)) {
@@ -188,11 +210,16 @@ public abstract class BindingElementValidator<E extends Element> {
 
         case SET:
         case MAP:
+        case LIST:
           bindingElementType().ifPresent(type -> checkKeyType(type));
           break;
 
         case SET_VALUES:
           checkSetValuesType();
+          break;
+
+        case LIST_VALUES:
+          checkListValuesType();
       }
     }
 
@@ -234,6 +261,28 @@ public abstract class BindingElementValidator<E extends Element> {
       }
     }
 
+    /**
+     * Adds an error if the type for an element with {@link ElementsIntoList @ElementsIntoList} is
+     * not a {@code List<T>} for a reasonable {@code T}.
+     */
+    protected void checkListValuesType() {
+      bindingElementType().ifPresent(keyType -> checkListValuesType(keyType));
+    }
+
+    /** Adds an error if {@code type} is not a {@code List<T>} for a reasonable {@code T}. */
+    protected final void checkListValuesType(TypeMirror type) {
+      if (!ListType.isList(type)) {
+        report.addError(elementsIntoListNotAListMessage());
+      } else {
+        ListType listType = ListType.from(type);
+        if (listType.isRawType()) {
+          report.addError(elementsIntoListRawListMessage());
+        } else {
+          checkKeyType(listType.elementType());
+        }
+      }
+    }
+
     /**
      * Adds an error if the element has more than one {@linkplain Qualifier qualifier} annotation.
      */
@@ -333,6 +382,10 @@ public abstract class BindingElementValidator<E extends Element> {
      */
     private void checkScopes() {
       ImmutableSet<Scope> scopes = scopesOf(element);
+      for (Scope scope : scopes) {
+        invalidScopeValues(scope)
+            .ifPresent(error -> report.addError(error, element, scope.scopeAnnotation()));
+      }
       String error = null;
       switch (allowsScoping) {
         case ALLOWS_SCOPING:
@@ -27,6 +27,7 @@ import com.google.common.collect.ImmutableSet;
 import dagger.Binds;
 import dagger.Module;
 import dagger.internal.codegen.base.ContributionType;
+import dagger.internal.codegen.base.ListType;
 import dagger.internal.codegen.base.SetType;
 import dagger.internal.codegen.binding.BindsTypeChecker;
 import dagger.internal.codegen.binding.InjectionAnnotations;
@@ -99,6 +100,11 @@ final class BindsMethodValidator extends BindingMethodValidator {
         report.addError(
             "@Binds @ElementsIntoSet methods must return a Set and take a Set parameter");
       }
+      if (contributionType.equals(ContributionType.LIST_VALUES)
+          && !ListType.isList(leftHandSide)) {
+        report.addError(
+            "@Binds @ElementsIntoList methods must return a List and take a List parameter");
+      }
 
       if (!bindsTypeChecker.isAssignable(rightHandSide, leftHandSide, contributionType)) {
         // Validate the type hierarchy of both sides to make sure they're both valid.
@@ -21,6 +21,7 @@ import static com.google.common.base.Predicates.and;
 import static com.google.common.base.Predicates.in;
 import static com.google.common.base.Predicates.not;
 import static dagger.internal.codegen.base.Scopes.getReadableSource;
+import static dagger.internal.codegen.base.Scopes.isReusableScope;
 import static dagger.internal.codegen.base.Scopes.uniqueScopeOf;
 import static dagger.internal.codegen.extension.DaggerStreams.toImmutableSet;
 
@@ -266,7 +267,7 @@ final class ComponentHierarchyValidator {
   private ImmutableSet<Scope> moduleScopes(ModuleDescriptor module) {
     return FluentIterable.concat(module.allBindingDeclarations())
         .transform(declaration -> uniqueScopeOf(declaration.bindingElement().get()))
-        .filter(scope -> scope.isPresent() && !scope.get().isReusable())
+        .filter(scope -> scope.isPresent() && !isReusableScope(scope.get()))
         .transform(scope -> scope.get())
         .toSet();
   }
@@ -28,6 +28,8 @@ import static com.google.common.collect.Multimaps.asMap;
 import static com.google.common.collect.Sets.intersection;
 import static dagger.internal.codegen.base.ComponentAnnotation.anyComponentAnnotation;
 import static dagger.internal.codegen.base.ModuleAnnotation.moduleAnnotation;
+import static dagger.internal.codegen.base.Scopes.isReusableScope;
+import static dagger.internal.codegen.base.Scopes.scopesOf;
 import static dagger.internal.codegen.base.Util.reentrantComputeIfAbsent;
 import static dagger.internal.codegen.binding.ComponentCreatorAnnotation.creatorAnnotationsFor;
 import static dagger.internal.codegen.binding.ComponentCreatorAnnotation.productionCreatorAnnotations;
@@ -57,7 +59,6 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import dagger.Component;
-import dagger.Reusable;
 import dagger.internal.codegen.base.ClearableCache;
 import dagger.internal.codegen.base.ComponentAnnotation;
 import dagger.internal.codegen.binding.ComponentKind;
@@ -69,6 +70,7 @@ import dagger.internal.codegen.langmodel.DaggerElements;
 import dagger.internal.codegen.langmodel.DaggerTypes;
 import dagger.model.DependencyRequest;
 import dagger.model.Key;
+import dagger.model.Scope;
 import dagger.producers.CancellationPolicy;
 import dagger.producers.ProductionComponent;
 import java.lang.annotation.Annotation;
@@ -232,13 +234,15 @@ public final class ComponentValidator implements ClearableCache {
     }
 
     private void validateNoReusableAnnotation() {
-      Optional<AnnotationMirror> reusableAnnotation =
-          getAnnotationMirror(component, Reusable.class);
-      if (reusableAnnotation.isPresent()) {
-        report.addError(
-            "@Reusable cannot be applied to components or subcomponents",
-            component,
-            reusableAnnotation.get());
+      for (Scope scope : scopesOf(component)) {
+        if (isReusableScope(scope)) {
+          report.addError(
+              String.format(
+                  "@%s cannot be applied to components or subcomponents",
+                  scope.scopeAnnotationElement().getSimpleName()),
+              component,
+              scope.scopeAnnotation());
+        }
       }
     }
 
@@ -31,6 +31,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.squareup.javapoet.ClassName;
 import dagger.Component;
 import dagger.MembersInjector;
 import dagger.Provides;
@@ -38,6 +39,7 @@ import dagger.internal.codegen.base.SourceFileGenerationException;
 import dagger.internal.codegen.base.SourceFileGenerator;
 import dagger.internal.codegen.binding.Binding;
 import dagger.internal.codegen.binding.BindingFactory;
+import dagger.internal.codegen.binding.GeneratedReferences;
 import dagger.internal.codegen.binding.InjectBindingRegistry;
 import dagger.internal.codegen.binding.KeyFactory;
 import dagger.internal.codegen.binding.MembersInjectionBinding;
@@ -45,9 +47,11 @@ import dagger.internal.codegen.binding.ProvisionBinding;
 import dagger.internal.codegen.compileroption.CompilerOptions;
 import dagger.internal.codegen.langmodel.DaggerElements;
 import dagger.internal.codegen.langmodel.DaggerTypes;
+import dagger.internal.codegen.statistics.DaggerStatisticsCollector;
 import dagger.model.Key;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -77,30 +81,64 @@ final class InjectBindingRegistryImpl implements InjectBindingRegistry {
   private final KeyFactory keyFactory;
   private final BindingFactory bindingFactory;
   private final CompilerOptions compilerOptions;
+  private final GeneratedReferences generatedReferences;
+  private final DaggerStatisticsCollector statisticsCollector;
 
   final class BindingsCollection<B extends Binding> {
     private final Class<?> factoryClass;
     private final Map<Key, B> bindingsByKey = Maps.newLinkedHashMap();
     private final Deque<B> bindingsRequiringGeneration = new ArrayDeque<>();
     private final Set<Key> materializedBindingKeys = Sets.newLinkedHashSet();
+    private final Map<ClassName, B> unreferencedBindings = Maps.newLinkedHashMap();
 
     BindingsCollection(Class<?> factoryClass) {
       this.factoryClass = factoryClass;
     }
 
-    void generateBindings(SourceFileGenerator<B> generator) throws SourceFileGenerationException {
+    /**
+     * Generates the bindings that require generation, and returns {@code true} if any source file
+     * was generated.
+     *
+     * <p>In whole-program mode, a binding whose generated class hasn't been referenced by any
+     * generated source is set aside instead, and generated by a later call once it is referenced.
+     */
+    boolean generateBindings(SourceFileGenerator<B> generator)
+        throws SourceFileGenerationException {
+      for (Iterator<Map.Entry<ClassName, B>> unreferenced =
+              unreferencedBindings.entrySet().iterator();
+          unreferenced.hasNext(); ) {
+        Map.Entry<ClassName, B> entry = unreferenced.next();
+        if (generatedReferences.isReferenced(entry.getKey())) {
+          bindingsRequiringGeneration.offer(entry.getValue());
+          unreferenced.remove();
+        }
+      }
+      boolean generated = false;
       for (B binding = bindingsRequiringGeneration.poll();
           binding != null;
           binding = bindingsRequiringGeneration.poll()) {
         checkState(!binding.unresolved().isPresent());
+        ClassName generatedClassName = generatedClassNameForBinding(binding);
+        if (compilerOptions.wholeProgram()
+            && !generatedReferences.isReferenced(generatedClassName)) {
+          unreferencedBindings.put(generatedClassName, binding);
+          continue;
+        }
         if (injectValidatorWhenGeneratingCode.isValidType(binding.key().type())) {
           generator.generate(binding);
+          generated = true;
         }
         materializedBindingKeys.add(binding.key());
       }
       // Because Elements instantiated across processing rounds are not guaranteed to be equals() to
       // the logically same element, clear the cache after generating
       bindingsByKey.clear();
+      return generated;
+    }
+
+    /** Returns the number of bindings whose generated class is not referenced. */
+    int unreferencedBindingCount() {
+      return unreferencedBindings.size();
     }
 
     /** Returns a previously cached binding. */
@@ -170,7 +208,9 @@ final class InjectBindingRegistryImpl implements InjectBindingRegistry {
       InjectValidator injectValidator,
       KeyFactory keyFactory,
       BindingFactory bindingFactory,
-      CompilerOptions compilerOptions) {
+      CompilerOptions compilerOptions,
+      GeneratedReferences generatedReferences,
+      DaggerStatisticsCollector statisticsCollector) {
     this.elements = elements;
     this.types = types;
     this.messager = messager;
@@ -179,6 +219,8 @@ final class InjectBindingRegistryImpl implements InjectBindingRegistry {
     this.keyFactory = keyFactory;
     this.bindingFactory = bindingFactory;
     this.compilerOptions = compilerOptions;
+    this.generatedReferences = generatedReferences;
+    this.statisticsCollector = statisticsCollector;
   }
 
 
@@ -188,8 +230,17 @@ final class InjectBindingRegistryImpl implements InjectBindingRegistry {
       SourceFileGenerator<ProvisionBinding> factoryGenerator,
       SourceFileGenerator<MembersInjectionBinding> membersInjectorGenerator)
       throws SourceFileGenerationException {
-    provisionBindings.generateBindings(factoryGenerator);
-    membersInjectionBindings.generateBindings(membersInjectorGenerator);
+    boolean generated;
+    do {
+      generated = provisionBindings.generateBindings(factoryGenerator);
+      generated |= membersInjectionBindings.generateBindings(membersInjectorGenerator);
+      // In whole-program mode, the sources just generated may reference bindings that were skipped.
+    } while (generated && compilerOptions.wholeProgram());
+    if (compilerOptions.wholeProgram()) {
+      statisticsCollector.recordUnreferencedInjectBindings(
+          provisionBindings.unreferencedBindingCount(),
+          membersInjectionBindings.unreferencedBindingCount());
+    }
   }
 
   /**
@@ -17,6 +17,7 @@
 package dagger.internal.codegen.validation;
 
 import static com.google.auto.common.MoreElements.isAnnotationPresent;
+import static dagger.internal.codegen.base.Scopes.invalidScopeValues;
 import static dagger.internal.codegen.base.Scopes.scopesOf;
 import static dagger.internal.codegen.binding.InjectionAnnotations.injectedConstructors;
 import static javax.lang.model.element.Modifier.ABSTRACT;
@@ -176,6 +177,10 @@ public final class InjectValidator {
     }
 
     ImmutableSet<Scope> scopes = scopesOf(enclosingElement);
+    for (Scope scope : scopes) {
+      invalidScopeValues(scope)
+          .ifPresent(error -> builder.addError(error, enclosingElement, scope.scopeAnnotation()));
+    }
     if (scopes.size() > 1) {
       for (Scope scope : scopes) {
         builder.addError(
@@ -21,7 +21,9 @@ import static javax.tools.Diagnostic.Kind.ERROR;
 
 import com.google.auto.common.MoreElements;
 import com.google.common.collect.ImmutableSet;
+import dagger.multibindings.ElementsIntoList;
 import dagger.multibindings.ElementsIntoSet;
+import dagger.multibindings.IntoList;
 import dagger.multibindings.IntoMap;
 import dagger.multibindings.IntoSet;
 import java.lang.annotation.Annotation;
@@ -31,8 +33,8 @@ import javax.inject.Inject;
 import javax.lang.model.element.ExecutableElement;
 
 /**
- * Processing step that verifies that {@link IntoSet}, {@link ElementsIntoSet} and {@link IntoMap}
- * are not present on non-binding methods.
+ * Processing step that verifies that {@link IntoSet}, {@link ElementsIntoSet}, {@link IntoMap},
+ * {@link IntoList} and {@link ElementsIntoList} are not present on non-binding methods.
  */
 public final class MultibindingAnnotationsProcessingStep
     extends TypeCheckingProcessingStep<ExecutableElement> {
@@ -49,7 +51,12 @@ public final class MultibindingAnnotationsProcessingStep
 
   @Override
   public Set<? extends Class<? extends Annotation>> annotations() {
-    return ImmutableSet.of(IntoSet.class, ElementsIntoSet.class, IntoMap.class);
+    return ImmutableSet.of(
+        IntoSet.class,
+        ElementsIntoSet.class,
+        IntoMap.class,
+        IntoList.class,
+        ElementsIntoList.class);
   }
 
   @Override
@@ -16,6 +16,8 @@
 
 package dagger.internal.codegen.validation;
 
+import static com.google.auto.common.MoreElements.getAnnotationMirror;
+import static com.google.auto.common.MoreElements.isAnnotationPresent;
 import static dagger.internal.codegen.base.FrameworkTypes.isFrameworkType;
 import static dagger.internal.codegen.validation.BindingElementValidator.AllowsMultibindings.NO_MULTIBINDINGS;
 import static dagger.internal.codegen.validation.BindingElementValidator.AllowsScoping.NO_SCOPING;
@@ -25,12 +27,14 @@ import static dagger.internal.codegen.validation.BindingMethodValidator.Exceptio
 import com.google.auto.common.MoreTypes;
 import com.google.common.collect.ImmutableSet;
 import dagger.Module;
+import dagger.internal.codegen.base.ListType;
 import dagger.internal.codegen.base.MapType;
 import dagger.internal.codegen.base.SetType;
 import dagger.internal.codegen.binding.InjectionAnnotations;
 import dagger.internal.codegen.kotlin.KotlinMetadataUtil;
 import dagger.internal.codegen.langmodel.DaggerElements;
 import dagger.internal.codegen.langmodel.DaggerTypes;
+import dagger.multibindings.LazyValues;
 import dagger.multibindings.Multibinds;
 import dagger.producers.ProducerModule;
 import javax.inject.Inject;
@@ -79,12 +83,23 @@ class MultibindsMethodValidator extends BindingMethodValidator {
       }
     }
 
-    /** Adds an error unless the method returns a {@code Map<K, V>} or {@code Set<T>}. */
+    /**
+     * Adds an error unless the method returns a {@code Map<K, V>}, {@code Set<T>}, or {@code
+     * List<T>}, or if it is annotated with {@link LazyValues @LazyValues} and doesn't return a
+     * {@code Map<K, V>}.
+     */
     @Override
     protected void checkType() {
       if (!isPlainMap(element.getReturnType())
-          && !isPlainSet(element.getReturnType())) {
-        report.addError(bindingMethods("must return Map<K, V> or Set<T>"));
+          && !isPlainSet(element.getReturnType())
+          && !isPlainList(element.getReturnType())) {
+        report.addError(bindingMethods("must return Map<K, V>, Set<T>, or List<T>"));
+      } else if (isAnnotationPresent(element, LazyValues.class)
+          && !isPlainMap(element.getReturnType())) {
+        report.addError(
+            bindingMethods("annotated with @LazyValues must return Map<K, V>"),
+            element,
+            getAnnotationMirror(element, LazyValues.class).get());
       }
     }
 
@@ -107,5 +122,15 @@ class MultibindsMethodValidator extends BindingMethodValidator {
           && MoreTypes.isType(setType.elementType()) // No wildcards.
           && !isFrameworkType(setType.elementType());
     }
+
+    private boolean isPlainList(TypeMirror returnType) {
+      if (!ListType.isList(returnType)) {
+        return false;
+      }
+      ListType listType = ListType.from(returnType);
+      return !listType.isRawType()
+          && MoreTypes.isType(listType.elementType()) // No wildcards.
+          && !isFrameworkType(listType.elementType());
+    }
   }
 }
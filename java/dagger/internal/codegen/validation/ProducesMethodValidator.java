@@ -29,9 +29,11 @@ import dagger.internal.codegen.binding.InjectionAnnotations;
 import dagger.internal.codegen.kotlin.KotlinMetadataUtil;
 import dagger.internal.codegen.langmodel.DaggerElements;
 import dagger.internal.codegen.langmodel.DaggerTypes;
+import dagger.multibindings.ElementsIntoList;
 import dagger.multibindings.ElementsIntoSet;
 import dagger.producers.ProducerModule;
 import dagger.producers.Produces;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import javax.inject.Inject;
@@ -68,6 +70,11 @@ final class ProducesMethodValidator extends BindingMethodValidator {
     return "@Produces methods of type set values must return a Set or ListenableFuture of Set";
   }
 
+  @Override
+  protected String elementsIntoListNotAListMessage() {
+    return "@Produces methods of type list values must return a List or ListenableFuture of List";
+  }
+
   @Override
   protected String badTypeMessage() {
     return "@Produces methods can return only a primitive, an array, a type variable, "
@@ -124,6 +131,20 @@ final class ProducesMethodValidator extends BindingMethodValidator {
       }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Allows an {@link ElementsIntoList @ElementsIntoList} method to return a {@link
+     * ListenableFuture} of a {@link List} as well.
+     */
+    @Override
+    protected void checkListValuesType() {
+      Optional<TypeMirror> typeToCheck = unwrapListenableFuture(element.getReturnType());
+      if (typeToCheck.isPresent()) {
+        checkListValuesType(typeToCheck.get());
+      }
+    }
+
     private Optional<TypeMirror> unwrapListenableFuture(TypeMirror type) {
       if (MoreTypes.isType(type) && MoreTypes.isTypeOf(ListenableFuture.class, type)) {
         DeclaredType declaredType = MoreTypes.asDeclared(type);
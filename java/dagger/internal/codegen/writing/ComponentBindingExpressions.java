@@ -19,21 +19,31 @@ package dagger.internal.codegen.writing;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.Iterables.getOnlyElement;
+import static dagger.internal.codegen.base.Scopes.expiringSeconds;
+import static dagger.internal.codegen.base.Scopes.stripes;
 import static dagger.internal.codegen.binding.BindingRequest.bindingRequest;
 import static dagger.internal.codegen.extension.DaggerCollectors.toOptional;
 import static dagger.internal.codegen.javapoet.CodeBlocks.makeParametersCodeBlock;
 import static dagger.internal.codegen.javapoet.TypeNames.DOUBLE_CHECK;
+import static dagger.internal.codegen.javapoet.TypeNames.EXPIRING_CHECK;
+import static dagger.internal.codegen.javapoet.TypeNames.LOCKING_DOUBLE_CHECK;
 import static dagger.internal.codegen.javapoet.TypeNames.SINGLE_CHECK;
+import static dagger.internal.codegen.javapoet.TypeNames.SOFT_REFERENCE_CHECK;
+import static dagger.internal.codegen.javapoet.TypeNames.STRIPED_CHECK;
+import static dagger.internal.codegen.javapoet.TypeNames.THREAD_CONFINED_CHECK;
 import static dagger.internal.codegen.langmodel.Accessibility.isRawTypeAccessible;
 import static dagger.internal.codegen.langmodel.Accessibility.isTypeAccessibleFrom;
 import static dagger.internal.codegen.writing.DelegateBindingExpression.isBindsScopeStrongerThanDependencyScope;
 import static dagger.internal.codegen.writing.MemberSelect.staticFactoryCreation;
 import static dagger.model.BindingKind.DELEGATE;
+import static dagger.model.BindingKind.MULTIBOUND_LIST;
 import static dagger.model.BindingKind.MULTIBOUND_MAP;
 import static dagger.model.BindingKind.MULTIBOUND_SET;
 
 import com.google.auto.common.MoreTypes;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.MethodSpec;
@@ -50,6 +60,7 @@ import dagger.internal.codegen.binding.FrameworkTypeMapper;
 import dagger.internal.codegen.binding.MembersInjectionBinding;
 import dagger.internal.codegen.binding.ProvisionBinding;
 import dagger.internal.codegen.compileroption.CompilerOptions;
+import dagger.internal.codegen.compileroption.ScopedLockStrategy;
 import dagger.internal.codegen.javapoet.Expression;
 import dagger.internal.codegen.kotlin.KotlinMetadataUtil;
 import dagger.internal.codegen.langmodel.DaggerElements;
@@ -59,6 +70,7 @@ import dagger.internal.codegen.writing.MethodBindingExpression.MethodImplementat
 import dagger.model.DependencyRequest;
 import dagger.model.Key;
 import dagger.model.RequestKind;
+import dagger.model.Scope;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -86,6 +98,9 @@ public final class ComponentBindingExpressions {
   private final CompilerOptions compilerOptions;
   private final MembersInjectionMethods membersInjectionMethods;
   private final InnerSwitchingProviders innerSwitchingProviders;
+  private final HotProviders hotProviders;
+  private final StaticHolders staticHolders;
+  private final SwitchingMaps switchingMaps;
   private final Map<BindingRequest, BindingExpression> expressions = new HashMap<>();
   private final KotlinMetadataUtil metadataUtil;
 
@@ -114,9 +129,15 @@ public final class ComponentBindingExpressions {
     this.compilerOptions = checkNotNull(compilerOptions);
     this.membersInjectionMethods =
         new MembersInjectionMethods(
-            componentImplementation, this, graph, elements, types, metadataUtil);
+            componentImplementation, this, graph, elements, types, metadataUtil, compilerOptions);
     this.innerSwitchingProviders =
-        new InnerSwitchingProviders(componentImplementation, this, types);
+        new InnerSwitchingProviders(componentImplementation, this, compilerOptions, types);
+    this.hotProviders = new HotProviders(componentImplementation, this, compilerOptions, types);
+    this.staticHolders =
+        new StaticHolders(
+            componentImplementation, graph, compilerOptions, elements, types, metadataUtil);
+    this.switchingMaps =
+        new SwitchingMaps(componentImplementation, this, graph, compilerOptions, elements);
     this.metadataUtil = metadataUtil;
   }
 
@@ -288,7 +309,9 @@ public final class ComponentBindingExpressions {
     FrameworkInstanceCreationExpression frameworkInstanceCreationExpression =
         binding.scope().isPresent()
             ? scope(binding, frameworkInstanceCreationExpression(binding))
-            : frameworkInstanceCreationExpression(binding);
+            : isStableMultibinding(binding)
+                ? snapshot(frameworkInstanceCreationExpression(binding))
+                : frameworkInstanceCreationExpression(binding);
     FrameworkInstanceSupplier frameworkInstanceSupplier =
         staticMethod.isPresent()
             ? staticMethod::get
@@ -309,13 +332,81 @@ public final class ComponentBindingExpressions {
 
   private FrameworkInstanceCreationExpression scope(
       ContributionBinding binding, FrameworkInstanceCreationExpression unscoped) {
+    Scope scope = binding.scope().get();
+    if (isCachedByProvider(scope)) {
+      return () -> cachingProvider(scope, unscoped.creationExpression());
+    }
     return () ->
         CodeBlock.of(
             "$T.provider($L)",
-            binding.scope().get().isReusable() ? SINGLE_CHECK : DOUBLE_CHECK,
+            scope.isReusable()
+                ? SINGLE_CHECK
+                : usesReentrantLocks() ? LOCKING_DOUBLE_CHECK : DOUBLE_CHECK,
             unscoped.creationExpression());
   }
 
+  /**
+   * Returns a creation expression that caches the collection built by a {@linkplain
+   * #isStableMultibinding(ContributionBinding) stable multibinding}. Every build of such a
+   * multibinding returns an equal collection, so racing threads don't need to be excluded.
+   */
+  private static FrameworkInstanceCreationExpression snapshot(
+      FrameworkInstanceCreationExpression unscoped) {
+    return () -> CodeBlock.of("$T.provider($L)", SINGLE_CHECK, unscoped.creationExpression());
+  }
+
+  /**
+   * Returns a binding expression that wraps the {@link javax.inject.Provider} returned by {@code
+   * unscoped} in the {@linkplain #cachingProvider(Scope, CodeBlock) caching provider} for {@code
+   * scope}.
+   */
+  private BindingExpression cachingProviderScope(Scope scope, BindingExpression unscoped) {
+    return new BindingExpression() {
+      @Override
+      Expression getDependencyExpression(ClassName requestingClass) {
+        Expression providerExpression = unscoped.getDependencyExpression(requestingClass);
+        return Expression.create(
+            providerExpression.type(), cachingProvider(scope, providerExpression.codeBlock()));
+      }
+    };
+  }
+
+  /**
+   * Returns {@code true} if instances of bindings with {@code scope} can only be cached by a
+   * runtime provider, e.g. because they may be released or refreshed or there may be more than
+   * one, rather than by a field in the component.
+   */
+  public static boolean isCachedByProvider(Scope scope) {
+    return scope.isSoftReusable()
+        || scope.isExpiring()
+        || scope.isThreadConfined()
+        || scope.isStriped();
+  }
+
+  /**
+   * Returns an expression that wraps {@code provider} in the runtime provider that caches instances
+   * for a scope that is {@linkplain #isCachedByProvider(Scope) cached by a provider}.
+   */
+  private static CodeBlock cachingProvider(Scope scope, CodeBlock provider) {
+    if (scope.isExpiring()) {
+      return CodeBlock.of("$T.provider($L, $LL)", EXPIRING_CHECK, provider, expiringSeconds(scope));
+    } else if (scope.isThreadConfined()) {
+      return CodeBlock.of("$T.provider($L)", THREAD_CONFINED_CHECK, provider);
+    } else if (scope.isStriped()) {
+      return CodeBlock.of("$T.provider($L, $L)", STRIPED_CHECK, provider, stripes(scope));
+    }
+    checkArgument(scope.isSoftReusable(), "%s is not cached by a provider", scope);
+    return CodeBlock.of("$T.provider($L)", SOFT_REFERENCE_CHECK, provider);
+  }
+
+  /**
+   * Returns {@code true} if scoped bindings should be guarded by {@link
+   * java.util.concurrent.locks.ReentrantLock}s rather than {@code synchronized} blocks.
+   */
+  private boolean usesReentrantLocks() {
+    return compilerOptions.scopedLockStrategy().equals(ScopedLockStrategy.REENTRANT);
+  }
+
   /**
    * Returns a creation expression for a {@link javax.inject.Provider} for provision bindings or a
    * {@link dagger.producers.Producer} for production bindings.
@@ -362,9 +453,18 @@ public final class ComponentBindingExpressions {
       case MULTIBOUND_SET:
         return new SetFactoryCreationExpression(binding, componentImplementation, this, graph);
 
+      case MULTIBOUND_LIST:
+        return new ListFactoryCreationExpression(binding, componentImplementation, this, graph);
+
       case MULTIBOUND_MAP:
         return new MapFactoryCreationExpression(
-            binding, componentImplementation, this, graph, elements);
+            binding,
+            componentImplementation,
+            this,
+            switchingMaps,
+            compilerOptions,
+            graph,
+            elements);
 
       case DELEGATE:
         return new DelegatingFrameworkInstanceCreationExpression(
@@ -405,10 +505,13 @@ public final class ComponentBindingExpressions {
     Key key = request.key();
     switch (requestKind) {
       case INSTANCE:
-        return instanceBindingExpression(binding);
-
       case PROVIDER:
-        return providerBindingExpression(binding);
+        if (staticHolders.isHeld(binding)) {
+          return staticHolders.bindingExpression(binding, requestKind);
+        }
+        return requestKind.equals(RequestKind.INSTANCE)
+            ? instanceBindingExpression(binding)
+            : providerBindingExpression(binding);
 
       case LAZY:
       case PRODUCED:
@@ -450,13 +553,27 @@ public final class ComponentBindingExpressions {
    *
    * <p>In fastInit mode, use an {@link InnerSwitchingProviders inner switching provider} unless
    * that provider's case statement will simply call {@code get()} on another {@link Provider} (in
-   * which case, just use that Provider directly).
+   * which case, just use that Provider directly). Bindings whose scope is {@linkplain
+   * #isCachedByProvider(Scope) cached by a provider} wrap an inner switching provider that creates
+   * a new instance on each call. Bindings that are {@linkplain HotProviders#isHot hot} in the
+   * provider profile use their own provider class instead of an inner switching provider.
    *
    * <p>Otherwise, return a {@link FrameworkInstanceBindingExpression}.
    */
   private BindingExpression providerBindingExpression(ContributionBinding binding) {
     if (binding.kind().equals(DELEGATE) && !needsCaching(binding)) {
       return new DelegateBindingExpression(binding, RequestKind.PROVIDER, this, types, elements);
+    } else if (usesCachingSwitchingProvider(binding)) {
+      return wrapInMethod(
+          binding,
+          bindingRequest(binding.key(), RequestKind.PROVIDER),
+          cachingProviderScope(
+              binding.scope().get(),
+              hotProviders.isHot(binding)
+                  ? hotProviders.newBindingExpression(
+                      binding, unscopedDirectInstanceExpression(binding).get())
+                  : innerSwitchingProviders.newBindingExpression(
+                      binding, unscopedDirectInstanceExpression(binding).get())));
     } else if (compilerOptions.fastInit(
             topLevelComponentImplementation.componentDescriptor().typeElement())
         && frameworkInstanceCreationExpression(binding).useInnerSwitchingProvider()
@@ -465,11 +582,28 @@ public final class ComponentBindingExpressions {
       return wrapInMethod(
           binding,
           bindingRequest(binding.key(), RequestKind.PROVIDER),
-          innerSwitchingProviders.newBindingExpression(binding));
+          hotProviders.isHot(binding)
+              ? hotProviders.newBindingExpression(binding)
+              : innerSwitchingProviders.newBindingExpression(binding));
     }
     return frameworkInstanceBindingExpression(binding);
   }
 
+  /**
+   * Returns {@code true} if the binding's scope is {@linkplain #isCachedByProvider(Scope) cached by
+   * a provider} and, in fastInit mode, can be created by an {@link InnerSwitchingProviders inner
+   * switching provider}.
+   */
+  private boolean usesCachingSwitchingProvider(ContributionBinding binding) {
+    return needsCaching(binding)
+        && binding.scope().isPresent()
+        && isCachedByProvider(binding.scope().get())
+        && compilerOptions.fastInit(
+            topLevelComponentImplementation.componentDescriptor().typeElement())
+        && frameworkInstanceCreationExpression(binding).useInnerSwitchingProvider()
+        && unscopedDirectInstanceExpression(binding).isPresent();
+  }
+
   /**
    * Returns a binding expression that uses a {@link dagger.producers.Producer} field for a
    * provision binding.
@@ -552,9 +686,19 @@ public final class ComponentBindingExpressions {
         return Optional.of(
             new SetBindingExpression((ProvisionBinding) binding, graph, this, types, elements));
 
+      case MULTIBOUND_LIST:
+        return Optional.of(new ListBindingExpression((ProvisionBinding) binding, graph, this));
+
       case MULTIBOUND_MAP:
         return Optional.of(
-            new MapBindingExpression((ProvisionBinding) binding, graph, this, types, elements));
+            new MapBindingExpression(
+                (ProvisionBinding) binding,
+                graph,
+                this,
+                switchingMaps,
+                compilerOptions,
+                types,
+                elements));
 
       case OPTIONAL:
         return Optional.of(
@@ -598,13 +742,14 @@ public final class ComponentBindingExpressions {
    * <p>In default mode, we always use the static factory creation strategy. In fastInit mode, we
    * prefer to use a SwitchingProvider instead of static factories in order to reduce class loading;
    * however, we allow static factories that can reused across multiple bindings, e.g. {@code
-   * MapFactory} or {@code SetFactory}.
+   * MapFactory}, {@code SetFactory}, or {@code ListFactory}.
    */
   private boolean useStaticFactoryCreation(ContributionBinding binding) {
     return !compilerOptions.fastInit(
             topLevelComponentImplementation.componentDescriptor().typeElement())
         || binding.kind().equals(MULTIBOUND_MAP)
-        || binding.kind().equals(MULTIBOUND_SET);
+        || binding.kind().equals(MULTIBOUND_SET)
+        || binding.kind().equals(MULTIBOUND_LIST);
   }
 
   /**
@@ -613,12 +758,14 @@ public final class ComponentBindingExpressions {
    * cached}, we can.
    *
    * <p>In fastInit mode, we can use a direct expression even if the binding {@linkplain
-   * #needsCaching(ContributionBinding) needs to be cached}.
+   * #needsCaching(ContributionBinding) needs to be cached}, unless its scope is {@linkplain
+   * #isCachedByProvider(Scope) cached by a provider}.
    */
   private boolean canUseDirectInstanceExpression(ContributionBinding binding) {
     return !needsCaching(binding)
-        || compilerOptions.fastInit(
-            topLevelComponentImplementation.componentDescriptor().typeElement());
+        || (compilerOptions.fastInit(
+                topLevelComponentImplementation.componentDescriptor().typeElement())
+            && !(binding.scope().isPresent() && isCachedByProvider(binding.scope().get())));
   }
 
   /**
@@ -686,8 +833,16 @@ public final class ComponentBindingExpressions {
       if (request.isRequestKind(RequestKind.PROVIDER)) {
         return MethodImplementationStrategy.SINGLE_CHECK;
       } else if (request.isRequestKind(RequestKind.INSTANCE) && needsCaching(binding)) {
-        return binding.scope().get().isReusable()
-            ? MethodImplementationStrategy.SINGLE_CHECK
+        if (!binding.scope().isPresent() || binding.scope().get().isReusable()) {
+          return MethodImplementationStrategy.SINGLE_CHECK;
+        }
+        if (compilerOptions.packedScopedInstances()) {
+          return usesReentrantLocks()
+              ? MethodImplementationStrategy.PACKED_LOCKING_DOUBLE_CHECK
+              : MethodImplementationStrategy.PACKED_DOUBLE_CHECK;
+        }
+        return usesReentrantLocks()
+            ? MethodImplementationStrategy.LOCKING_DOUBLE_CHECK
             : MethodImplementationStrategy.DOUBLE_CHECK;
       }
     }
@@ -698,15 +853,69 @@ public final class ComponentBindingExpressions {
    * Returns {@code true} if the component needs to make sure the provided value is cached.
    *
    * <p>The component needs to cache the value for scoped bindings except for {@code @Binds}
-   * bindings whose scope is no stronger than their delegate's.
+   * bindings whose scope is no stronger than their delegate's, and for {@linkplain
+   * #isStableMultibinding(ContributionBinding) stable multibindings}.
    */
   private boolean needsCaching(ContributionBinding binding) {
     if (!binding.scope().isPresent()) {
-      return false;
+      return isStableMultibinding(binding);
     }
     if (binding.kind().equals(DELEGATE)) {
       return isBindsScopeStrongerThanDependencyScope(binding, graph);
     }
     return true;
   }
+
+  /**
+   * Returns {@code true} if {@code binding} is a {@code Set}, {@code Map}, or {@code List}
+   * multibinding whose contributions are all {@linkplain #isStable(ContributionBinding) stable}.
+   * Such a multibinding always builds an equal collection, so it can be built once and cached like
+   * a {@link dagger.Reusable @Reusable} binding.
+   */
+  private boolean isStableMultibinding(ContributionBinding binding) {
+    return binding.bindingType().equals(BindingType.PROVISION)
+        && binding.kind().isMultibinding()
+        && !binding.dependencies().isEmpty()
+        && binding.dependencies().stream()
+            .allMatch(
+                dependency ->
+                    dependency.kind().equals(RequestKind.INSTANCE)
+                        && isStable(dependency.key()));
+  }
+
+  /**
+   * Returns {@code true} if every binding for {@code key} in the graph is {@linkplain
+   * #isStable(ContributionBinding) stable}. A key may be resolved in more than one component.
+   */
+  private boolean isStable(Key key) {
+    ImmutableSet<BindingNode> bindingNodes = graph.bindingNodes(key);
+    return !bindingNodes.isEmpty()
+        && bindingNodes.stream()
+            .map(BindingNode::delegate)
+            .allMatch(
+                binding ->
+                    binding instanceof ContributionBinding
+                        && isStable((ContributionBinding) binding));
+  }
+
+  /**
+   * Returns {@code true} if every instance of {@code binding} requested from the component is the
+   * same: it is a component, a component dependency, a bound instance, a binding whose scope is
+   * cached by a field in the component, or a {@code @Binds} binding for one of those.
+   */
+  private boolean isStable(ContributionBinding binding) {
+    switch (binding.kind()) {
+      case COMPONENT:
+      case COMPONENT_DEPENDENCY:
+      case BOUND_INSTANCE:
+        return true;
+      default:
+        break;
+    }
+    if (binding.scope().isPresent()) {
+      return !isCachedByProvider(binding.scope().get());
+    }
+    return binding.kind().equals(DELEGATE)
+        && isStable(getOnlyElement(binding.dependencies()).key());
+  }
 }
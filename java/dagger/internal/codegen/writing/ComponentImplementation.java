@@ -21,14 +21,18 @@ import static com.google.common.base.CaseFormat.UPPER_CAMEL;
 import static com.google.common.base.CaseFormat.UPPER_UNDERSCORE;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
 import static com.squareup.javapoet.TypeSpec.classBuilder;
 import static dagger.internal.codegen.binding.ComponentCreatorKind.BUILDER;
+import static dagger.internal.codegen.javapoet.TypeNames.SCOPED_INSTANCES;
 import static dagger.internal.codegen.langmodel.Accessibility.isTypeAccessibleFrom;
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.VOLATILE;
 
 import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ListMultimap;
@@ -48,6 +52,7 @@ import dagger.internal.codegen.binding.ComponentDescriptor;
 import dagger.internal.codegen.binding.ComponentRequirement;
 import dagger.internal.codegen.binding.KeyVariableNamer;
 import dagger.internal.codegen.compileroption.CompilerOptions;
+import dagger.internal.codegen.compileroption.ScopedLockStrategy;
 import dagger.internal.codegen.javapoet.TypeSpecs;
 import dagger.model.Key;
 import dagger.model.RequestKind;
@@ -58,6 +63,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.TypeMirror;
@@ -98,6 +104,12 @@ public final class ComponentImplementation {
     /** A private method that wraps dependency expressions. */
     PRIVATE_METHOD,
 
+    /** A private method that creates a component shard on its first call. */
+    COMPONENT_SHARD_METHOD,
+
+    /** A private method that creates a framework field on its first call. */
+    FRAMEWORK_FIELD_METHOD,
+
     /** An initialization method that initializes component requirements and framework types. */
     INITIALIZE_METHOD,
 
@@ -115,6 +127,9 @@ public final class ComponentImplementation {
      * method for a production component.
      */
     CANCELLATION_LISTENER_METHOD,
+
+    /** The {@code warmUp(Executor)} method of a root component. */
+    WARM_UP_METHOD,
     ;
   }
 
@@ -130,12 +145,22 @@ public final class ComponentImplementation {
     COMPONENT_PROVISION_FACTORY,
 
     /** A class for the subcomponent or subcomponent builder. */
-    SUBCOMPONENT
+    SUBCOMPONENT,
+
+    /** A {@link dagger.internal.SwitchingMap} subclass for a map multibinding. */
+    SWITCHING_MAP,
+
+    /** A {@code Provider} class for a single binding that is hot in the provider profile. */
+    HOT_PROVIDER,
+
+    /** A static holder class, or its {@code Provider}, for a binding held statically. */
+    STATIC_HOLDER
   }
 
-  private ComponentImplementation currentShard = this;
-  private final Map<Key, ComponentImplementation> shardsByKey = new HashMap<>();
+  private final Map<Integer, ComponentImplementation> shardsByIndex = new HashMap<>();
+  private final List<ComponentImplementation> childImplementations = new ArrayList<>();
   private final Optional<ComponentImplementation> shardOwner;
+  private final Supplier<ComponentShards> shards;
   private final BindingGraph graph;
   private final ClassName name;
   private final TypeSpec.Builder component;
@@ -156,6 +181,9 @@ public final class ComponentImplementation {
   private final ListMultimap<TypeSpecKind, TypeSpec> typeSpecsMap =
       MultimapBuilder.enumKeys(TypeSpecKind.class).arrayListValues().build();
   private final List<Supplier<TypeSpec>> typeSuppliers = new ArrayList<>();
+  private String scopedInstancesFieldName;
+  private int scopedInstanceCount;
+  private String lazyInitializationLockFieldName;
 
   private ComponentImplementation(
       BindingGraph graph,
@@ -169,6 +197,11 @@ public final class ComponentImplementation {
     this.shardOwner = Optional.empty();
     this.externalReferenceBlock = CodeBlock.of("$T.this", name);
     this.compilerOptions = compilerOptions;
+    this.shards =
+        Suppliers.memoize(
+            () ->
+                ComponentShards.create(
+                    graph, compilerOptions.keysPerComponentShard(graph.componentTypeElement())));
   }
 
   private ComponentImplementation(ComponentImplementation shardOwner, ClassName shardName) {
@@ -178,14 +211,35 @@ public final class ComponentImplementation {
     this.subcomponentNames = shardOwner.subcomponentNames;
     this.compilerOptions = shardOwner.compilerOptions;
     this.shardOwner = Optional.of(shardOwner);
+    this.shards = shardOwner.shards;
     String fieldName = UPPER_CAMEL.to(LOWER_CAMEL, name.simpleName());
     String uniqueFieldName = shardOwner.getUniqueFieldName(fieldName);
-    this.externalReferenceBlock = CodeBlock.of("$T.this.$N", shardOwner.name, uniqueFieldName);
+    String uniqueMethodName = shardOwner.getUniqueMethodName(fieldName);
+    this.externalReferenceBlock = CodeBlock.of("$T.this.$N()", shardOwner.name, uniqueMethodName);
     shardOwner.addTypeSupplier(() -> generate().build());
+    // The shard is created on first use, so that a shard whose bindings are never requested is
+    // never loaded. Its scoped bindings are cached in its fields, so it must only be created once.
     shardOwner.addField(
         FieldSpecKind.COMPONENT_SHARD,
-        FieldSpec.builder(name, uniqueFieldName, PRIVATE, FINAL)
-            .initializer("new $T()", name)
+        FieldSpec.builder(name, uniqueFieldName, PRIVATE, VOLATILE).build());
+    shardOwner.addMethod(
+        MethodSpecKind.COMPONENT_SHARD_METHOD,
+        methodBuilder(uniqueMethodName)
+            .addModifiers(PRIVATE)
+            .returns(name)
+            .addStatement("$T local = $N", name, uniqueFieldName)
+            .beginControlFlow("if (local == null)")
+            .addCode(
+                shardOwner.holdingLazyInitializationLock(
+                    CodeBlock.builder()
+                        .addStatement("local = $N", uniqueFieldName)
+                        .beginControlFlow("if (local == null)")
+                        .addStatement("local = new $T()", name)
+                        .addStatement("$N = local", uniqueFieldName)
+                        .endControlFlow()
+                        .build()))
+            .endControlFlow()
+            .addStatement("return local")
             .build());
   }
 
@@ -202,21 +256,123 @@ public final class ComponentImplementation {
   public ComponentImplementation childComponentImplementation(BindingGraph graph) {
     checkState(!shardOwner.isPresent(), "Shards cannot create child components.");
     ClassName childName = getSubcomponentName(graph.componentDescriptor());
-    return new ComponentImplementation(graph, childName, subcomponentNames, compilerOptions);
+    ComponentImplementation child =
+        new ComponentImplementation(graph, childName, subcomponentNames, compilerOptions);
+    childImplementations.add(child);
+    return child;
   }
 
-  /** Returns a component implementation that is a shard of the current implementation. */
+  /**
+   * Returns the component implementation that holds the binding for {@code key}: either this
+   * implementation or one of its shards.
+   *
+   * <p>Bindings are assigned to shards by {@link ComponentShards}. Shards are numbered in the order
+   * they are first requested.
+   */
   public ComponentImplementation shardImplementation(Key key) {
     checkState(!shardOwner.isPresent(), "Shards cannot create other shards.");
-    if (!shardsByKey.containsKey(key)) {
-      int keysPerShard = compilerOptions.keysPerComponentShard(graph.componentTypeElement());
-      if (!shardsByKey.isEmpty() && shardsByKey.size() % keysPerShard == 0) {
-        ClassName shardName = name.nestedClass("Shard" + shardsByKey.size() / keysPerShard);
-        currentShard = new ComponentImplementation(this, shardName);
-      }
-      shardsByKey.put(key, currentShard);
+    int shardIndex = shards.get().shardIndex(key);
+    if (shardIndex == 0) {
+      return this;
     }
-    return shardsByKey.get(key);
+    return shardsByIndex.computeIfAbsent(
+        shardIndex,
+        unused ->
+            new ComponentImplementation(
+                this, name.nestedClass("Shard" + (shardsByIndex.size() + 1))));
+  }
+
+  /** Returns the number of shard classes that have been generated for this component. */
+  public int shardCount() {
+    return shardsByIndex.size();
+  }
+
+  /**
+   * Returns the number of dependencies between bindings of this component that are held by
+   * different shards.
+   */
+  public int crossShardDependencies() {
+    return shardsByIndex.isEmpty() ? 0 : shards.get().crossShardDependencies();
+  }
+
+  /**
+   * Returns the number of shard classes that have been generated for this component and the child
+   * components nested in it.
+   */
+  public int shardCountIncludingChildren() {
+    return shardCount()
+        + childImplementations.stream()
+            .mapToInt(ComponentImplementation::shardCountIncludingChildren)
+            .sum();
+  }
+
+  /**
+   * Returns the number of {@linkplain #crossShardDependencies() cross-shard dependencies} of this
+   * component and the child components nested in it.
+   */
+  public int crossShardDependenciesIncludingChildren() {
+    return crossShardDependencies()
+        + childImplementations.stream()
+            .mapToInt(ComponentImplementation::crossShardDependenciesIncludingChildren)
+            .sum();
+  }
+
+  /**
+   * Returns {@code true} if the {@code Provider} fields of this component are created on their
+   * first use rather than by its constructor.
+   */
+  boolean createsFrameworkFieldsLazily() {
+    return compilerOptions.lazySubcomponentFields() && componentDescriptor().isSubcomponent();
+  }
+
+  /**
+   * Returns {@code criticalSection} guarded by the lock that this component holds while it creates
+   * a field on first use. That is {@code synchronized (this)}, or a {@link ReentrantLock} field if
+   * {@code -Adagger.scopedLockStrategy=reentrant}, so that a virtual thread waiting for it doesn't
+   * pin its carrier.
+   */
+  CodeBlock holdingLazyInitializationLock(CodeBlock criticalSection) {
+    if (!compilerOptions.scopedLockStrategy().equals(ScopedLockStrategy.REENTRANT)) {
+      return CodeBlock.builder()
+          .beginControlFlow("synchronized (this)")
+          .add(criticalSection)
+          .endControlFlow()
+          .build();
+    }
+    if (lazyInitializationLockFieldName == null) {
+      lazyInitializationLockFieldName = getUniqueFieldName("lazyInitializationLock");
+      addField(
+          FieldSpecKind.PRIVATE_METHOD_SCOPED_FIELD,
+          FieldSpec.builder(ReentrantLock.class, lazyInitializationLockFieldName, PRIVATE, FINAL)
+              .initializer("new $T()", ReentrantLock.class)
+              .build());
+    }
+    return CodeBlock.builder()
+        .addStatement("$N.lock()", lazyInitializationLockFieldName)
+        .beginControlFlow("try")
+        .add(criticalSection)
+        .nextControlFlow("finally")
+        .addStatement("$N.unlock()", lazyInitializationLockFieldName)
+        .endControlFlow()
+        .build();
+  }
+
+  /**
+   * Returns the index of a new scoped instance in the {@link dagger.internal.ScopedInstances} field
+   * of this component, which is added the first time this is called. That field holds the cached
+   * instances of scoped bindings when {@code -Adagger.packedScopedInstances=enabled}.
+   */
+  int addScopedInstance() {
+    if (scopedInstancesFieldName == null) {
+      scopedInstancesFieldName = getUniqueFieldName("scopedInstances");
+    }
+    return scopedInstanceCount++;
+  }
+
+  /** Returns the name of the field that was added by {@link #addScopedInstance()}. */
+  String scopedInstancesFieldName() {
+    checkState(scopedInstancesFieldName != null, "No scoped instances in %s", name);
+    return scopedInstancesFieldName;
   }
 
   /** Returns a reference to this compenent when called from a class nested in this component. */
@@ -413,6 +569,15 @@ public final class ComponentImplementation {
   /** Generates the component and returns the resulting {@link TypeSpec.Builder}. */
   public TypeSpec.Builder generate() {
     modifiers().forEach(component::addModifiers);
+    if (scopedInstanceCount > 0) {
+      // The number of scoped instances is only known once all of the component's methods have been
+      // added.
+      addField(
+          FieldSpecKind.PRIVATE_METHOD_SCOPED_FIELD,
+          FieldSpec.builder(SCOPED_INSTANCES, scopedInstancesFieldName, PRIVATE, FINAL)
+              .initializer("new $T($L)", SCOPED_INSTANCES, scopedInstanceCount)
+              .build());
+    }
     fieldSpecsMap.asMap().values().forEach(component::addFields);
     methodSpecsMap.asMap().values().forEach(component::addMethods);
     typeSpecsMap.asMap().values().forEach(component::addTypes);
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen.writing;
+
+import static dagger.internal.codegen.extension.DaggerGraphs.stronglyConnectedComponents;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.graph.ImmutableNetwork;
+import dagger.internal.codegen.binding.BindingGraph;
+import dagger.internal.codegen.binding.BindingNode;
+import dagger.model.BindingGraph.DependencyEdge;
+import dagger.model.BindingGraph.Edge;
+import dagger.model.BindingGraph.Node;
+import dagger.model.Key;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assigns the bindings owned by a component to the component's shards.
+ *
+ * <p>The bindings are first grouped into strongly connected components of their dependency graph,
+ * which are never split across shards. The groups are then visited in depth-first post-order, so
+ * that a binding's dependencies are visited just before it, and packed into shards of at most
+ * {@link dagger.internal.codegen.compileroption.CompilerOptions#keysPerComponentShard keysPerShard}
+ * keys in that order. This keeps bindings that depend on each other in the same shard, so fewer
+ * calls cross from one shard to another.
+ *
+ * <p>Shard {@code 0} is the component itself.
+ */
+final class ComponentShards {
+  private final ImmutableMap<Key, Integer> shardIndices;
+  private final int crossShardDependencies;
+
+  private ComponentShards(ImmutableMap<Key, Integer> shardIndices, int crossShardDependencies) {
+    this.shardIndices = shardIndices;
+    this.crossShardDependencies = crossShardDependencies;
+  }
+
+  /** Returns the shards of the bindings owned by {@code graph}'s component. */
+  static ComponentShards create(BindingGraph graph, int keysPerShard) {
+    ImmutableNetwork<Node, Edge> network = graph.network();
+    Set<Key> keys = new LinkedHashSet<>();
+    SetMultimap<Key, Key> dependencies = LinkedHashMultimap.create();
+    for (BindingNode bindingNode : graph.bindingNodes()) {
+      if (!bindingNode.componentPath().equals(graph.componentPath())) {
+        continue;
+      }
+      keys.add(bindingNode.key());
+      for (Edge edge : network.outEdges(bindingNode)) {
+        Node target = network.incidentNodes(edge).target();
+        if (edge instanceof DependencyEdge
+            && target instanceof BindingNode
+            && target.componentPath().equals(graph.componentPath())) {
+          dependencies.put(bindingNode.key(), ((BindingNode) target).key());
+        }
+      }
+    }
+
+    Map<Key, Integer> shardIndices = new HashMap<>();
+    int shardIndex = 0;
+    int shardSize = 0;
+    for (ImmutableSet<Key> stronglyConnectedKeys :
+        stronglyConnectedComponents(keys, dependencies::get)) {
+      if (shardSize > 0 && shardSize + stronglyConnectedKeys.size() > keysPerShard) {
+        shardIndex++;
+        shardSize = 0;
+      }
+      for (Key key : stronglyConnectedKeys) {
+        shardIndices.put(key, shardIndex);
+      }
+      shardSize += stronglyConnectedKeys.size();
+    }
+
+    int crossShardDependencies = 0;
+    for (Map.Entry<Key, Key> dependency : dependencies.entries()) {
+      if (!shardIndices.get(dependency.getKey()).equals(shardIndices.get(dependency.getValue()))) {
+        crossShardDependencies++;
+      }
+    }
+    return new ComponentShards(ImmutableMap.copyOf(shardIndices), crossShardDependencies);
+  }
+
+  /**
+   * Returns the index of the shard that {@code key} is assigned to, or {@code 0} if the key isn't
+   * owned by the component.
+   */
+  int shardIndex(Key key) {
+    return shardIndices.getOrDefault(key, 0);
+  }
+
+  /** Returns the number of dependencies between bindings in different shards. */
+  int crossShardDependencies() {
+    return crossShardDependencies;
+  }
+}
@@ -33,6 +33,7 @@ import dagger.internal.codegen.javapoet.Expression;
 import dagger.internal.codegen.langmodel.DaggerElements;
 import dagger.internal.codegen.langmodel.DaggerTypes;
 import dagger.model.RequestKind;
+import dagger.model.Scope;
 import javax.lang.model.type.TypeMirror;
 
 /** A {@link dagger.internal.codegen.writing.BindingExpression} for {@code @Binds} methods. */
@@ -115,15 +116,31 @@ final class DelegateBindingExpression extends BindingExpression {
 
   private enum ScopeKind {
     UNSCOPED,
+    THREAD_CONFINED,
+    STRIPED,
+    SOFT_REFERENCE,
+    EXPIRING,
     SINGLE_CHECK,
     DOUBLE_CHECK,
     ;
 
     static ScopeKind get(Binding binding) {
-      return binding
-          .scope()
-          .map(scope -> scope.isReusable() ? SINGLE_CHECK : DOUBLE_CHECK)
-          .orElse(UNSCOPED);
+      return binding.scope().map(ScopeKind::get).orElse(UNSCOPED);
+    }
+
+    private static ScopeKind get(Scope scope) {
+      if (scope.isThreadConfined()) {
+        return THREAD_CONFINED;
+      } else if (scope.isStriped()) {
+        return STRIPED;
+      } else if (scope.isSoftReusable()) {
+        return SOFT_REFERENCE;
+      } else if (scope.isExpiring()) {
+        return EXPIRING;
+      } else if (scope.isReusable()) {
+        return SINGLE_CHECK;
+      }
+      return DOUBLE_CHECK;
     }
 
     boolean isStrongerScopeThan(ScopeKind other) {
@@ -17,13 +17,17 @@
 package dagger.internal.codegen.writing;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
 import static dagger.internal.codegen.javapoet.AnnotationSpecs.Suppression.RAWTYPES;
 import static dagger.internal.codegen.writing.ComponentImplementation.FieldSpecKind.FRAMEWORK_FIELD;
+import static dagger.internal.codegen.writing.ComponentImplementation.MethodSpecKind.FRAMEWORK_FIELD_METHOD;
 import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.VOLATILE;
 
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.TypeName;
 import dagger.internal.DelegateFactory;
 import dagger.internal.codegen.binding.BindingType;
@@ -73,6 +77,7 @@ class FrameworkFieldInitializer implements FrameworkInstanceSupplier {
   private final ContributionBinding binding;
   private final FrameworkInstanceCreationExpression frameworkInstanceCreationExpression;
   private FieldSpec fieldSpec;
+  private MethodSpec lazyFieldMethod;
   private InitializationState fieldInitializationState = InitializationState.UNINITIALIZED;
 
   FrameworkFieldInitializer(
@@ -91,7 +96,9 @@ class FrameworkFieldInitializer implements FrameworkInstanceSupplier {
   @Override
   public final MemberSelect memberSelect() {
     initializeField();
-    return MemberSelect.localField(componentImplementation.name(), checkNotNull(fieldSpec).name);
+    return lazyFieldMethod != null
+        ? MemberSelect.localMethod(componentImplementation.name(), lazyFieldMethod.name)
+        : MemberSelect.localField(componentImplementation.name(), checkNotNull(fieldSpec).name);
   }
 
   /** Adds the field and its initialization code to the component. */
@@ -107,10 +114,15 @@ class FrameworkFieldInitializer implements FrameworkInstanceSupplier {
         if (fieldInitializationState == InitializationState.DELEGATED) {
           codeBuilder.add(
               "$T.setDelegate($N, $L);", delegateType(), fieldSpec, fieldInitialization);
+          componentImplementation.addInitialization(codeBuilder.build());
+        } else if (isLazy()) {
+          // A field in a dependency cycle is delegated above and stays eager, since creating its
+          // dependencies on first use would come back to it before it is set.
+          addLazyFieldMethod(fieldInitialization);
         } else {
           codeBuilder.add(initCode);
+          componentImplementation.addInitialization(codeBuilder.build());
         }
-        componentImplementation.addInitialization(codeBuilder.build());
 
         fieldInitializationState = InitializationState.INITIALIZED;
         break;
@@ -148,6 +160,9 @@ class FrameworkFieldInitializer implements FrameworkInstanceSupplier {
         FieldSpec.builder(
             fieldType, componentImplementation.getUniqueFieldName(contributionBindingField.name()));
     contributionField.addModifiers(PRIVATE);
+    if (isLazy()) {
+      contributionField.addModifiers(VOLATILE);
+    }
     if (useRawType) {
       contributionField.addAnnotation(AnnotationSpecs.suppressWarnings(RAWTYPES));
     }
@@ -158,6 +173,40 @@ class FrameworkFieldInitializer implements FrameworkInstanceSupplier {
     return fieldSpec;
   }
 
+  /**
+   * Adds a method that creates the field with {@code fieldInitialization} on its first call and
+   * returns it, so that the field is never created if it is never used.
+   */
+  private void addLazyFieldMethod(CodeBlock fieldInitialization) {
+    lazyFieldMethod =
+        methodBuilder(componentImplementation.getUniqueMethodName(fieldSpec.name))
+            .addModifiers(PRIVATE)
+            .returns(fieldSpec.type)
+            .addStatement("$T local = $N", fieldSpec.type, fieldSpec)
+            .beginControlFlow("if (local == null)")
+            .addCode(
+                componentImplementation.holdingLazyInitializationLock(
+                    CodeBlock.builder()
+                        .addStatement("local = $N", fieldSpec)
+                        .beginControlFlow("if (local == null)")
+                        .addStatement("local = $L", fieldInitialization)
+                        .addStatement("$N = local", fieldSpec)
+                        .endControlFlow()
+                        .build()))
+            .endControlFlow()
+            .addStatement("return local")
+            .build();
+    componentImplementation.addMethod(FRAMEWORK_FIELD_METHOD, lazyFieldMethod);
+  }
+
+  /**
+   * Returns {@code true} if the field is a {@code Provider} that is created on first use rather
+   * than when the component is constructed.
+   */
+  private boolean isLazy() {
+    return componentImplementation.createsFrameworkFieldsLazily() && isProvider();
+  }
+
   private Class<?> delegateType() {
     return isProvider() ? DelegateFactory.class : DelegateProducer.class;
   }
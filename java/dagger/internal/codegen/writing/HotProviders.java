@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen.writing;
+
+import static com.google.common.base.CaseFormat.LOWER_CAMEL;
+import static com.google.common.base.CaseFormat.UPPER_CAMEL;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static com.squareup.javapoet.TypeSpec.classBuilder;
+import static dagger.internal.codegen.binding.BindingRequest.bindingRequest;
+import static dagger.internal.codegen.javapoet.TypeNames.PROVIDER_PROFILE;
+import static dagger.internal.codegen.javapoet.TypeNames.providerOf;
+import static dagger.model.RequestKind.INSTANCE;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+
+import com.google.auto.common.MoreTypes;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeName;
+import dagger.internal.codegen.base.UniqueNameSet;
+import dagger.internal.codegen.binding.ContributionBinding;
+import dagger.internal.codegen.binding.KeyVariableNamer;
+import dagger.internal.codegen.compileroption.CompilerOptions;
+import dagger.internal.codegen.javapoet.Expression;
+import dagger.internal.codegen.langmodel.DaggerTypes;
+import dagger.internal.codegen.writing.ComponentImplementation.TypeSpecKind;
+import dagger.model.Key;
+import java.util.HashMap;
+import java.util.Map;
+import javax.inject.Provider;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Generates {@linkplain BindingExpression binding expressions} for bindings whose keys are
+ * listed in {@link CompilerOptions#hotProviderKeys()}.
+ *
+ * <p>In fastInit mode, each such binding is provided by its own inner {@code Provider} class rather
+ * than by a case in a shared {@code SwitchingProvider}. Calls to its {@code get()} method then
+ * don't switch on an id, and call sites that only ever see that class stay monomorphic.
+ */
+final class HotProviders {
+  private final Map<Key, ClassName> providerNames = new HashMap<>();
+  private final UniqueNameSet providerSimpleNames = new UniqueNameSet();
+  private final ComponentImplementation componentImplementation;
+  private final ComponentBindingExpressions componentBindingExpressions;
+  private final CompilerOptions compilerOptions;
+  private final DaggerTypes types;
+
+  HotProviders(
+      ComponentImplementation componentImplementation,
+      ComponentBindingExpressions componentBindingExpressions,
+      CompilerOptions compilerOptions,
+      DaggerTypes types) {
+    this.componentImplementation = checkNotNull(componentImplementation);
+    this.componentBindingExpressions = checkNotNull(componentBindingExpressions);
+    this.compilerOptions = checkNotNull(compilerOptions);
+    this.types = checkNotNull(types);
+  }
+
+  /** Returns {@code true} if {@code binding} is listed as hot in the provider profile. */
+  boolean isHot(ContributionBinding binding) {
+    return compilerOptions.hotProviderKeys().contains(binding.key().toString());
+  }
+
+  /**
+   * Returns the binding expression for a hot binding whose {@code Provider} returns the binding's
+   * {@link dagger.model.RequestKind#INSTANCE instance} expression.
+   */
+  BindingExpression newBindingExpression(ContributionBinding binding) {
+    return newBindingExpression(
+        binding,
+        new BindingExpression() {
+          @Override
+          Expression getDependencyExpression(ClassName requestingClass) {
+            return componentBindingExpressions.getDependencyExpression(
+                bindingRequest(binding.key(), INSTANCE), requestingClass);
+          }
+        });
+  }
+
+  /**
+   * Returns the binding expression for a hot binding whose {@code Provider} returns {@code
+   * instanceExpression}.
+   *
+   * <p>This is used for bindings whose instances are cached by a wrapping provider rather than by
+   * the component, in which case the provider must create a new instance each time it is called.
+   */
+  BindingExpression newBindingExpression(
+      ContributionBinding binding, BindingExpression instanceExpression) {
+    return new BindingExpression() {
+      @Override
+      Expression getDependencyExpression(ClassName requestingClass) {
+        ClassName providerName = providerNames.get(binding.key());
+        if (providerName == null) {
+          providerName = createProvider(binding, instanceExpression);
+        }
+        return Expression.create(
+            types.wrapType(providedType(binding, requestingClass), Provider.class),
+            CodeBlock.of("new $T()", providerName));
+      }
+    };
+  }
+
+  private ClassName createProvider(
+      ContributionBinding binding, BindingExpression instanceExpression) {
+    ClassName providerName =
+        componentImplementation
+            .name()
+            .nestedClass(
+                providerSimpleNames.getUniqueName(
+                    LOWER_CAMEL.to(UPPER_CAMEL, KeyVariableNamer.name(binding.key()))
+                        + "Provider"));
+    // Claim the name before generating the class, since generating its instance expression may
+    // request this provider again.
+    providerNames.put(binding.key(), providerName);
+
+    TypeMirror providedType = providedType(binding, componentImplementation.name());
+    Expression instance = instanceExpression.getDependencyExpression(providerName).box(types);
+    if (!types.isAssignable(instance.type(), providedType)) {
+      instance = instance.castTo(providedType);
+    }
+    MethodSpec.Builder get =
+        methodBuilder("get")
+            .addModifiers(PUBLIC)
+            .addAnnotation(Override.class)
+            .returns(TypeName.get(providedType));
+    if (compilerOptions.recordProviderProfile()) {
+      get.addStatement("$T.record($S)", PROVIDER_PROFILE, binding.key().toString());
+    }
+    get.addStatement("return $L", instance.codeBlock());
+
+    componentImplementation.addType(
+        TypeSpecKind.HOT_PROVIDER,
+        classBuilder(providerName)
+            .addModifiers(PRIVATE, FINAL)
+            .addSuperinterface(providerOf(TypeName.get(providedType)))
+            .addMethod(get.build())
+            .build());
+    return providerName;
+  }
+
+  /** Returns the boxed type, accessible from {@code requestingClass}, that is provided. */
+  private TypeMirror providedType(ContributionBinding binding, ClassName requestingClass) {
+    TypeMirror type = types.accessibleType(binding.contributedType(), requestingClass);
+    return type.getKind().isPrimitive()
+        ? types.boxedClass(MoreTypes.asPrimitiveType(type)).asType()
+        : type;
+  }
+}
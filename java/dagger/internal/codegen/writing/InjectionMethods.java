@@ -191,7 +191,8 @@ final class InjectionMethods {
         String callingPackage,
         DaggerTypes types) {
       ExecutableElement method = MoreElements.asExecutable(binding.bindingElement().get());
-      return !binding.injectionSites().isEmpty()
+      // In whole-program mode, the component injects members into the instance it constructs.
+      return (!binding.injectionSites().isEmpty() && !compilerOptions.wholeProgram())
           || binding.shouldCheckForNull(compilerOptions)
           || !isElementAccessibleFrom(method, callingPackage)
           || !areParametersAssignable(method, arguments, types)
@@ -27,6 +27,7 @@ import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import dagger.internal.codegen.binding.ContributionBinding;
+import dagger.internal.codegen.compileroption.CompilerOptions;
 import dagger.internal.codegen.javapoet.Expression;
 import dagger.internal.codegen.langmodel.DaggerTypes;
 import dagger.model.Key;
@@ -44,8 +45,9 @@ final class InnerSwitchingProviders extends SwitchingProviders {
   InnerSwitchingProviders(
       ComponentImplementation componentImplementation,
       ComponentBindingExpressions componentBindingExpressions,
+      CompilerOptions compilerOptions,
       DaggerTypes types) {
-    super(componentImplementation, types);
+    super(componentImplementation, compilerOptions, types);
     this.componentBindingExpressions = componentBindingExpressions;
     this.types = types;
   }
@@ -55,10 +57,32 @@ final class InnerSwitchingProviders extends SwitchingProviders {
    * inner {@code SwitchingProvider} class.
    */
   BindingExpression newBindingExpression(ContributionBinding binding) {
+    return newBindingExpression(
+        binding,
+        new BindingExpression() {
+          @Override
+          Expression getDependencyExpression(ClassName requestingClass) {
+            return componentBindingExpressions.getDependencyExpression(
+                bindingRequest(binding.key(), INSTANCE), requestingClass);
+          }
+        });
+  }
+
+  /**
+   * Returns the binding expression for a binding that satisfies a {@link Provider} requests with a
+   * inner {@code SwitchingProvider} class whose case returns {@code instanceExpression}.
+   *
+   * <p>This is used for bindings whose instances are cached by a wrapping provider rather than by
+   * the component, in which case the switch case must create a new instance each time it is
+   * called.
+   */
+  BindingExpression newBindingExpression(
+      ContributionBinding binding, BindingExpression instanceExpression) {
     return new BindingExpression() {
       @Override
       Expression getDependencyExpression(ClassName requestingClass) {
-        return getProviderExpression(new SwitchCase(binding, requestingClass));
+        return getProviderExpression(
+            new SwitchCase(binding, instanceExpression, requestingClass));
       }
     };
   }
@@ -78,10 +102,15 @@ final class InnerSwitchingProviders extends SwitchingProviders {
 
   private final class SwitchCase implements SwitchingProviders.SwitchCase {
     private final ContributionBinding binding;
+    private final BindingExpression instanceExpression;
     private final ClassName requestingClass;
 
-    SwitchCase(ContributionBinding binding, ClassName requestingClass) {
+    SwitchCase(
+        ContributionBinding binding,
+        BindingExpression instanceExpression,
+        ClassName requestingClass) {
       this.binding = binding;
+      this.instanceExpression = instanceExpression;
       this.requestingClass = requestingClass;
     }
 
@@ -100,8 +129,7 @@ final class InnerSwitchingProviders extends SwitchingProviders {
 
     @Override
     public Expression getReturnExpression(ClassName switchingProviderClass) {
-      return componentBindingExpressions.getDependencyExpression(
-          bindingRequest(binding.key(), INSTANCE), switchingProviderClass);
+      return instanceExpression.getDependencyExpression(switchingProviderClass);
     }
   }
 }
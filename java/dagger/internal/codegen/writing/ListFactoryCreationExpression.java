@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal.codegen.writing;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static dagger.internal.codegen.binding.SourceFiles.listFactoryClassName;
+
+import com.squareup.javapoet.CodeBlock;
+import dagger.internal.codegen.base.ContributionType;
+import dagger.internal.codegen.base.ListType;
+import dagger.internal.codegen.binding.BindingGraph;
+import dagger.internal.codegen.binding.BindingType;
+import dagger.internal.codegen.binding.ContributionBinding;
+import dagger.model.DependencyRequest;
+
+/** A factory creation expression for a multibound list. */
+final class ListFactoryCreationExpression extends MultibindingFactoryCreationExpression {
+  private final BindingGraph graph;
+  private final ContributionBinding binding;
+
+  ListFactoryCreationExpression(
+      ContributionBinding binding,
+      ComponentImplementation componentImplementation,
+      ComponentBindingExpressions componentBindingExpressions,
+      BindingGraph graph) {
+    super(binding, componentImplementation, componentBindingExpressions);
+    this.binding = checkNotNull(binding);
+    this.graph = checkNotNull(graph);
+  }
+
+  @Override
+  public CodeBlock creationExpression() {
+    CodeBlock.Builder builder = CodeBlock.builder().add("$T.", listFactoryClassName(binding));
+    if (!useRawType()) {
+      builder.add("<$T>", ListType.from(binding.key()).elementType());
+    }
+    builder.add("builder($L)", binding.dependencies().size());
+
+    String methodNameSuffix =
+        binding.bindingType().equals(BindingType.PROVISION) ? "Provider" : "Producer";
+    // Unlike a SetFactory, a ListFactory keeps the order in which its contributions are added.
+    for (DependencyRequest dependency : binding.dependencies()) {
+      ContributionType contributionType =
+          graph.contributionBinding(dependency.key()).contributionType();
+      String methodNamePrefix;
+      switch (contributionType) {
+        case LIST:
+          methodNamePrefix = "add";
+          break;
+        case LIST_VALUES:
+          methodNamePrefix = "addCollection";
+          break;
+        default:
+          throw new AssertionError(dependency + " is not a list multibinding");
+      }
+
+      builder.add(
+          ".$N$N($L)",
+          methodNamePrefix,
+          methodNameSuffix,
+          multibindingDependencyExpression(dependency));
+    }
+
+    return builder.add(".build()").build();
+  }
+}
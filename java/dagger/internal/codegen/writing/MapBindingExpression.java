@@ -16,11 +16,17 @@
 
 package dagger.internal.codegen.writing;
 
+import static com.google.auto.common.MoreElements.isAnnotationPresent;
+import static com.google.auto.common.MoreTypes.isTypeOf;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static dagger.internal.codegen.binding.BindingRequest.bindingRequest;
 import static dagger.internal.codegen.binding.MapKeys.getMapKeyExpression;
+import static dagger.internal.codegen.extension.DaggerStreams.presentValues;
 import static dagger.internal.codegen.javapoet.CodeBlocks.toParametersCodeBlock;
+import static dagger.internal.codegen.javapoet.TypeNames.INT_KEY_MAP;
+import static dagger.internal.codegen.javapoet.TypeNames.LAZY_VALUES_MAP_FACTORY;
+import static dagger.internal.codegen.javapoet.TypeNames.LONG_KEY_MAP;
 import static dagger.internal.codegen.langmodel.Accessibility.isTypeAccessibleFrom;
 import static dagger.model.BindingKind.MULTIBOUND_MAP;
 import static javax.lang.model.util.ElementFilter.methodsIn;
@@ -32,14 +38,22 @@ import com.squareup.javapoet.CodeBlock;
 import dagger.internal.MapBuilder;
 import dagger.internal.codegen.base.MapType;
 import dagger.internal.codegen.binding.BindingGraph;
+import dagger.internal.codegen.binding.BindingType;
 import dagger.internal.codegen.binding.ContributionBinding;
+import dagger.internal.codegen.binding.MultibindingDeclaration;
 import dagger.internal.codegen.binding.ProvisionBinding;
+import dagger.internal.codegen.compileroption.CompilerOptions;
+import dagger.internal.codegen.javapoet.CodeBlocks;
 import dagger.internal.codegen.javapoet.Expression;
 import dagger.internal.codegen.langmodel.DaggerElements;
 import dagger.internal.codegen.langmodel.DaggerTypes;
 import dagger.model.BindingKind;
 import dagger.model.DependencyRequest;
+import dagger.model.RequestKind;
+import dagger.multibindings.LazyValues;
 import java.util.Collections;
+import java.util.Optional;
+import javax.inject.Provider;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeMirror;
 
@@ -50,7 +64,10 @@ final class MapBindingExpression extends SimpleInvocationBindingExpression {
 
   private final ProvisionBinding binding;
   private final ImmutableMap<DependencyRequest, ContributionBinding> dependencies;
+  private final boolean hasLazyValues;
   private final ComponentBindingExpressions componentBindingExpressions;
+  private final SwitchingMaps switchingMaps;
+  private final CompilerOptions compilerOptions;
   private final DaggerTypes types;
   private final DaggerElements elements;
 
@@ -58,6 +75,8 @@ final class MapBindingExpression extends SimpleInvocationBindingExpression {
       ProvisionBinding binding,
       BindingGraph graph,
       ComponentBindingExpressions componentBindingExpressions,
+      SwitchingMaps switchingMaps,
+      CompilerOptions compilerOptions,
       DaggerTypes types,
       DaggerElements elements) {
     super(binding);
@@ -65,14 +84,64 @@ final class MapBindingExpression extends SimpleInvocationBindingExpression {
     BindingKind bindingKind = this.binding.kind();
     checkArgument(bindingKind.equals(MULTIBOUND_MAP), bindingKind);
     this.componentBindingExpressions = componentBindingExpressions;
+    this.switchingMaps = switchingMaps;
+    this.compilerOptions = compilerOptions;
     this.types = types;
     this.elements = elements;
     this.dependencies =
         Maps.toMap(binding.dependencies(), dep -> graph.contributionBinding(dep.key()));
+    this.hasLazyValues = hasLazyValues(binding, graph);
+  }
+
+  /**
+   * Returns {@code true} if {@code binding} is a {@code Map<K, V>} provision multibinding with a
+   * {@link LazyValues @LazyValues} declaration.
+   */
+  static boolean hasLazyValues(ContributionBinding binding, BindingGraph graph) {
+    return binding.kind().equals(MULTIBOUND_MAP)
+        && binding.bindingType().equals(BindingType.PROVISION)
+        && !MapType.from(binding.key()).valuesAreFrameworkType()
+        && graph.bindingNodes(binding.key()).stream()
+            .flatMap(bindingNode -> bindingNode.multibindingDeclarations().stream())
+            .map(MultibindingDeclaration::bindingElement)
+            .flatMap(presentValues())
+            .anyMatch(element -> isAnnotationPresent(element, LazyValues.class));
+  }
+
+  /**
+   * Returns {@link dagger.internal.IntKeyMap} or {@link dagger.internal.LongKeyMap} if {@code
+   * -Adagger.primitiveKeyMaps} is enabled and {@code binding} is a nonempty {@code Map<Integer, V>}
+   * or {@code Map<Long, V>} provision multibinding, including when {@code V} is a {@code Provider}.
+   */
+  static Optional<ClassName> primitiveKeyMap(
+      ContributionBinding binding, CompilerOptions compilerOptions) {
+    if (!compilerOptions.primitiveKeyMaps()
+        || !binding.kind().equals(MULTIBOUND_MAP)
+        || !binding.bindingType().equals(BindingType.PROVISION)
+        || binding.dependencies().isEmpty()) {
+      return Optional.empty();
+    }
+    TypeMirror keyType = MapType.from(binding.key()).keyType();
+    if (isTypeOf(Integer.class, keyType)) {
+      return Optional.of(INT_KEY_MAP);
+    } else if (isTypeOf(Long.class, keyType)) {
+      return Optional.of(LONG_KEY_MAP);
+    }
+    return Optional.empty();
   }
 
   @Override
   Expression getDependencyExpression(ClassName requestingClass) {
+    if (hasLazyValues && !dependencies.isEmpty()) {
+      return lazyValuesMap(requestingClass);
+    }
+    if (switchingMaps.useSwitchingMap(binding)) {
+      return switchingMaps.newSwitchingMap(binding);
+    }
+    Optional<ClassName> primitiveKeyMap = primitiveKeyMap(binding, compilerOptions);
+    if (primitiveKeyMap.isPresent()) {
+      return primitiveKeyMapExpression(primitiveKeyMap.get(), requestingClass);
+    }
     // TODO(ronshapiro): We should also make an ImmutableMap version of MapFactory
     boolean isImmutableMapAvailable = isImmutableMapAvailable();
     // TODO(ronshapiro, gak): Use Maps.immutableEnumMap() if it's available?
@@ -121,6 +190,49 @@ final class MapBindingExpression extends SimpleInvocationBindingExpression {
     }
   }
 
+  /**
+   * Returns an expression for a map that calls each contribution's {@link Provider} the first time
+   * its value is read.
+   */
+  private Expression lazyValuesMap(ClassName requestingClass) {
+    boolean useRawType =
+        !isTypeAccessibleFrom(binding.key().type(), requestingClass.packageName());
+    CodeBlock.Builder instantiation =
+        CodeBlock.builder()
+            .add("$T.", LAZY_VALUES_MAP_FACTORY)
+            .add(maybeTypeParameters(requestingClass))
+            .add("builder($L)", dependencies.size());
+    for (DependencyRequest dependency : dependencies.keySet()) {
+      CodeBlock provider =
+          componentBindingExpressions
+              .getDependencyExpression(
+                  bindingRequest(dependency.key(), RequestKind.PROVIDER), requestingClass)
+              .codeBlock();
+      instantiation.add(
+          ".put($L, $L)",
+          getMapKeyExpression(dependencies.get(dependency), requestingClass, elements),
+          useRawType ? CodeBlocks.cast(provider, Provider.class) : provider);
+    }
+    return Expression.create(binding.key().type(), instantiation.add(".build().get()").build());
+  }
+
+  /**
+   * Returns an expression for a {@code primitiveKeyMap} that holds each contribution, built without
+   * boxing its keys.
+   */
+  private Expression primitiveKeyMapExpression(
+      ClassName primitiveKeyMap, ClassName requestingClass) {
+    CodeBlock.Builder instantiation = CodeBlock.builder().add("$T.", primitiveKeyMap);
+    if (isTypeAccessibleFrom(binding.key().type(), requestingClass.packageName())) {
+      instantiation.add("<$T>", MapType.from(binding.key()).valueType());
+    }
+    instantiation.add("builder($L)", dependencies.size());
+    for (DependencyRequest dependency : dependencies.keySet()) {
+      instantiation.add(".put($L)", keyAndValueExpression(dependency, requestingClass));
+    }
+    return Expression.create(binding.key().type(), instantiation.add(".build()").build());
+  }
+
   private DeclaredType immutableMapType() {
     MapType mapType = MapType.from(binding.key());
     return types.getDeclaredType(
@@ -19,16 +19,24 @@ package dagger.internal.codegen.writing;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static dagger.internal.codegen.binding.MapKeys.getMapKeyExpression;
 import static dagger.internal.codegen.binding.SourceFiles.mapFactoryClassName;
+import static dagger.internal.codegen.javapoet.TypeNames.INSTANCE_FACTORY;
+import static dagger.internal.codegen.javapoet.TypeNames.INT_KEY_MAP;
+import static dagger.internal.codegen.javapoet.TypeNames.INT_KEY_MAP_FACTORY;
+import static dagger.internal.codegen.javapoet.TypeNames.LAZY_VALUES_MAP_FACTORY;
+import static dagger.internal.codegen.javapoet.TypeNames.LONG_KEY_MAP_FACTORY;
 
 import com.google.common.collect.ImmutableSet;
+import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import dagger.internal.codegen.base.MapType;
 import dagger.internal.codegen.binding.BindingGraph;
 import dagger.internal.codegen.binding.ContributionBinding;
+import dagger.internal.codegen.compileroption.CompilerOptions;
 import dagger.internal.codegen.langmodel.DaggerElements;
 import dagger.model.DependencyRequest;
 import dagger.producers.Produced;
 import dagger.producers.Producer;
+import java.util.Optional;
 import javax.inject.Provider;
 import javax.lang.model.type.TypeMirror;
 
@@ -36,6 +44,8 @@ import javax.lang.model.type.TypeMirror;
 final class MapFactoryCreationExpression extends MultibindingFactoryCreationExpression {
 
   private final ComponentImplementation componentImplementation;
+  private final SwitchingMaps switchingMaps;
+  private final CompilerOptions compilerOptions;
   private final BindingGraph graph;
   private final ContributionBinding binding;
   private final DaggerElements elements;
@@ -44,18 +54,41 @@ final class MapFactoryCreationExpression extends MultibindingFactoryCreationExpr
       ContributionBinding binding,
       ComponentImplementation componentImplementation,
       ComponentBindingExpressions componentBindingExpressions,
+      SwitchingMaps switchingMaps,
+      CompilerOptions compilerOptions,
       BindingGraph graph,
       DaggerElements elements) {
     super(binding, componentImplementation, componentBindingExpressions);
     this.binding = checkNotNull(binding);
     this.componentImplementation = checkNotNull(componentImplementation);
+    this.switchingMaps = checkNotNull(switchingMaps);
+    this.compilerOptions = checkNotNull(compilerOptions);
     this.graph = checkNotNull(graph);
     this.elements = checkNotNull(elements);
   }
 
   @Override
   public CodeBlock creationExpression() {
-    CodeBlock.Builder builder = CodeBlock.builder().add("$T.", mapFactoryClassName(binding));
+    if (switchingMaps.useSwitchingMap(binding)) {
+      // The map has no state of its own, so a single instance can serve every request.
+      return CodeBlock.of(
+          "$T.create($L)",
+          INSTANCE_FACTORY,
+          switchingMaps.newSwitchingMap(binding).codeBlock());
+    }
+    boolean hasLazyValues = MapBindingExpression.hasLazyValues(binding, graph);
+    Optional<ClassName> primitiveKeyMap =
+        MapBindingExpression.primitiveKeyMap(binding, compilerOptions);
+    if (!hasLazyValues && primitiveKeyMap.isPresent()) {
+      return primitiveKeyMapCreationExpression(primitiveKeyMap.get());
+    }
+    CodeBlock.Builder builder =
+        CodeBlock.builder()
+            .add(
+                "$T.",
+                hasLazyValues
+                    ? LAZY_VALUES_MAP_FACTORY
+                    : mapFactoryClassName(binding));
     if (!useRawType()) {
       MapType mapType = MapType.from(binding.key().type());
       // TODO(ronshapiro): either inline this into mapFactoryClassName, or add a
@@ -84,4 +117,33 @@ final class MapFactoryCreationExpression extends MultibindingFactoryCreationExpr
 
     return builder.build();
   }
+
+  /**
+   * Returns an expression that creates a factory for a map whose keys are stored as primitives. A
+   * map of providers is built once and wrapped in an {@link dagger.internal.InstanceFactory}.
+   */
+  private CodeBlock primitiveKeyMapCreationExpression(ClassName primitiveKeyMap) {
+    MapType mapType = MapType.from(binding.key());
+    boolean providerValues = mapType.valuesAreTypeOf(Provider.class);
+    ClassName className =
+        providerValues
+            ? primitiveKeyMap
+            : primitiveKeyMap.equals(INT_KEY_MAP) ? INT_KEY_MAP_FACTORY : LONG_KEY_MAP_FACTORY;
+    CodeBlock.Builder builder = CodeBlock.builder().add("$T.", className);
+    if (!useRawType()) {
+      builder.add("<$T>", mapType.valueType());
+    }
+    builder.add("builder($L)", binding.dependencies().size());
+    for (DependencyRequest dependency : binding.dependencies()) {
+      ContributionBinding contributionBinding = graph.contributionBinding(dependency.key());
+      builder.add(
+          ".put($L, $L)",
+          getMapKeyExpression(contributionBinding, componentImplementation.name(), elements),
+          multibindingDependencyExpression(dependency));
+    }
+    builder.add(".build()");
+    return providerValues
+        ? CodeBlock.of("$T.create($L)", INSTANCE_FACTORY, builder.build())
+        : builder.build();
+  }
 }
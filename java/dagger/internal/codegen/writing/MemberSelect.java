@@ -20,6 +20,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static dagger.internal.codegen.binding.ContributionBinding.FactoryCreationStrategy.SINGLETON_INSTANCE;
 import static dagger.internal.codegen.binding.SourceFiles.bindingTypeElementTypeVariableNames;
 import static dagger.internal.codegen.binding.SourceFiles.generatedClassNameForBinding;
+import static dagger.internal.codegen.binding.SourceFiles.listFactoryClassName;
 import static dagger.internal.codegen.binding.SourceFiles.setFactoryClassName;
 import static dagger.internal.codegen.javapoet.CodeBlocks.toParametersCodeBlock;
 import static dagger.internal.codegen.javapoet.TypeNames.FACTORY;
@@ -35,6 +36,7 @@ import com.google.common.collect.ImmutableList;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.TypeVariableName;
+import dagger.internal.codegen.base.ListType;
 import dagger.internal.codegen.base.SetType;
 import dagger.internal.codegen.binding.BindingType;
 import dagger.internal.codegen.binding.ContributionBinding;
@@ -119,6 +121,9 @@ abstract class MemberSelect {
         case MULTIBOUND_SET:
           return Optional.of(emptySetFactory(contributionBinding));
 
+        case MULTIBOUND_LIST:
+          return Optional.of(emptyListFactory(contributionBinding));
+
         case INJECTION:
         case PROVISION:
           TypeMirror keyType = contributionBinding.key().type();
@@ -199,6 +204,19 @@ abstract class MemberSelect {
         FACTORY);
   }
 
+  /**
+   * A static member select for an empty list factory. Calls {@link
+   * dagger.internal.ListFactory#empty()} or {@link dagger.producers.internal.ListProducer#empty()},
+   * depending on the list binding.
+   */
+  private static MemberSelect emptyListFactory(ContributionBinding binding) {
+    return new ParameterizedStaticMethod(
+        listFactoryClassName(binding),
+        ImmutableList.of(ListType.from(binding.key()).elementType()),
+        CodeBlock.of("empty()"),
+        binding.bindingType().equals(BindingType.PRODUCTION) ? PRODUCER : FACTORY);
+  }
+
   private static final class ParameterizedStaticMethod extends MemberSelect {
     final ImmutableList<TypeMirror> typeParameters;
     final CodeBlock methodCodeBlock;
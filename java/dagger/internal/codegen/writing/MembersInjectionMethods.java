@@ -18,7 +18,10 @@ package dagger.internal.codegen.writing;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static dagger.internal.codegen.base.Util.reentrantComputeIfAbsent;
+import static dagger.internal.codegen.javapoet.CodeBlocks.toParametersCodeBlock;
+import static dagger.internal.codegen.langmodel.Accessibility.isElementAccessibleFrom;
 import static dagger.internal.codegen.langmodel.Accessibility.isTypeAccessibleFrom;
 import static dagger.internal.codegen.writing.ComponentImplementation.MethodSpecKind.MEMBERS_INJECTION_METHOD;
 import static javax.lang.model.element.Modifier.PRIVATE;
@@ -34,10 +37,12 @@ import dagger.internal.codegen.binding.BindingGraph;
 import dagger.internal.codegen.binding.MembersInjectionBinding;
 import dagger.internal.codegen.binding.MembersInjectionBinding.InjectionSite;
 import dagger.internal.codegen.binding.ProvisionBinding;
+import dagger.internal.codegen.compileroption.CompilerOptions;
 import dagger.internal.codegen.kotlin.KotlinMetadataUtil;
 import dagger.internal.codegen.langmodel.DaggerElements;
 import dagger.internal.codegen.langmodel.DaggerTypes;
 import dagger.internal.codegen.writing.InjectionMethods.InjectionSiteMethod;
+import dagger.model.DependencyRequest;
 import dagger.model.Key;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -54,6 +59,7 @@ final class MembersInjectionMethods {
   private final DaggerElements elements;
   private final DaggerTypes types;
   private final KotlinMetadataUtil metadataUtil;
+  private final CompilerOptions compilerOptions;
 
   MembersInjectionMethods(
       ComponentImplementation componentImplementation,
@@ -61,13 +67,15 @@ final class MembersInjectionMethods {
       BindingGraph graph,
       DaggerElements elements,
       DaggerTypes types,
-      KotlinMetadataUtil metadataUtil) {
+      KotlinMetadataUtil metadataUtil,
+      CompilerOptions compilerOptions) {
     this.componentImplementation = checkNotNull(componentImplementation);
     this.bindingExpressions = checkNotNull(bindingExpressions);
     this.graph = checkNotNull(graph);
     this.elements = checkNotNull(elements);
     this.types = checkNotNull(types);
     this.metadataUtil = metadataUtil;
+    this.compilerOptions = checkNotNull(compilerOptions);
   }
 
   /**
@@ -105,19 +113,19 @@ final class MembersInjectionMethods {
       methodBuilder.addAnnotation(ClassName.get(canIgnoreReturnValue));
     }
     CodeBlock instance = CodeBlock.of("$N", parameter);
+    ImmutableSet<InjectionSite> injectionSites = injectionSites(binding);
     methodBuilder.addCode(
-        InjectionSiteMethod.invokeAll(
-            injectionSites(binding),
-            componentImplementation.name(),
-            instance,
-            membersInjectedType,
-            types,
-            request ->
-                bindingExpressions
-                    .getDependencyArgumentExpression(request, componentImplementation.name())
-                    .codeBlock(),
-            elements,
-            metadataUtil));
+        compilerOptions.wholeProgram() && canInjectDirectly(injectionSites)
+            ? injectDirectly(injectionSites, instance, membersInjectedType)
+            : InjectionSiteMethod.invokeAll(
+                injectionSites,
+                componentImplementation.name(),
+                instance,
+                membersInjectedType,
+                types,
+                this::dependencyArgument,
+                elements,
+                metadataUtil));
     methodBuilder.addStatement("return $L", instance);
 
     MethodSpec method = methodBuilder.build();
@@ -125,6 +133,70 @@ final class MembersInjectionMethods {
     return method;
   }
 
+  /**
+   * Returns {@code true} if the component can inject each of {@code injectionSites} itself, without
+   * calling the static methods of a {@code MembersInjector}.
+   */
+  private boolean canInjectDirectly(ImmutableSet<InjectionSite> injectionSites) {
+    String packageName = componentImplementation.name().packageName();
+    return injectionSites.stream()
+        .allMatch(
+            injectionSite ->
+                isElementAccessibleFrom(injectionSite.element(), packageName)
+                    && isTypeAccessibleFrom(enclosingType(injectionSite), packageName)
+                    && injectionSite.dependencies().stream()
+                        .allMatch(
+                            dependency ->
+                                isTypeAccessibleFrom(dependency.key().type(), packageName)));
+  }
+
+  /** Returns the statements that inject each of {@code injectionSites} into {@code instance}. */
+  private CodeBlock injectDirectly(
+      ImmutableSet<InjectionSite> injectionSites,
+      CodeBlock instance,
+      TypeMirror membersInjectedType) {
+    CodeBlock.Builder statements = CodeBlock.builder();
+    for (InjectionSite injectionSite : injectionSites) {
+      TypeMirror enclosingType = enclosingType(injectionSite);
+      // Cast to the type that declares the member, since the instance may be declared as Object
+      // or a subtype may hide a field with the same name.
+      CodeBlock receiver =
+          types.isSameType(enclosingType, types.erasure(membersInjectedType))
+              ? instance
+              : CodeBlock.of("(($T) $L)", enclosingType, instance);
+      Name name = injectionSite.element().getSimpleName();
+      switch (injectionSite.kind()) {
+        case FIELD:
+          statements.addStatement(
+              "$L.$N = $L",
+              receiver,
+              name.toString(),
+              dependencyArgument(getOnlyElement(injectionSite.dependencies())));
+          break;
+        case METHOD:
+          statements.addStatement(
+              "$L.$N($L)",
+              receiver,
+              name.toString(),
+              injectionSite.dependencies().stream()
+                  .map(this::dependencyArgument)
+                  .collect(toParametersCodeBlock()));
+          break;
+      }
+    }
+    return statements.build();
+  }
+
+  private TypeMirror enclosingType(InjectionSite injectionSite) {
+    return types.erasure(injectionSite.element().getEnclosingElement().asType());
+  }
+
+  private CodeBlock dependencyArgument(DependencyRequest dependency) {
+    return bindingExpressions
+        .getDependencyArgumentExpression(dependency, componentImplementation.name())
+        .codeBlock();
+  }
+
   private static ImmutableSet<InjectionSite> injectionSites(Binding binding) {
     if (binding instanceof ProvisionBinding) {
       return ((ProvisionBinding) binding).injectionSites();
@@ -16,8 +16,13 @@
 
 package dagger.internal.codegen.writing;
 
+import static com.google.common.base.CaseFormat.LOWER_CAMEL;
+import static com.google.common.base.CaseFormat.UPPER_CAMEL;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static dagger.internal.codegen.javapoet.BytecodeSizeEstimator.FREQ_INLINE_SIZE;
 import static dagger.internal.codegen.writing.ComponentImplementation.FieldSpecKind.PRIVATE_METHOD_SCOPED_FIELD;
+import static dagger.internal.codegen.writing.ComponentImplementation.MethodSpecKind.PRIVATE_METHOD;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.VOLATILE;
 
@@ -28,16 +33,23 @@ import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.TypeName;
 import dagger.internal.DoubleCheck;
+import dagger.internal.LockingDoubleCheck;
+import dagger.internal.LockingMemoizedSentinel;
 import dagger.internal.MemoizedSentinel;
+import dagger.internal.ScopedInstances;
 import dagger.internal.codegen.binding.BindingRequest;
 import dagger.internal.codegen.binding.ComponentDescriptor.ComponentMethodDescriptor;
 import dagger.internal.codegen.binding.ContributionBinding;
 import dagger.internal.codegen.binding.FrameworkField;
 import dagger.internal.codegen.binding.KeyVariableNamer;
+import dagger.internal.codegen.javapoet.BytecodeSizeEstimator;
 import dagger.internal.codegen.javapoet.Expression;
 import dagger.internal.codegen.langmodel.DaggerTypes;
 import dagger.model.RequestKind;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.lang.model.type.TypeMirror;
 
 /** A binding expression that wraps another in a nullary method on the component. */
@@ -49,6 +61,11 @@ abstract class MethodBindingExpression extends BindingExpression {
   private final ProducerEntryPointView producerEntryPointView;
   private final BindingExpression wrappedBindingExpression;
   private final DaggerTypes types;
+  /**
+   * The names of the methods that create the instance, keyed by the creation expression that each
+   * one returns, for method bodies that are too large to be inlined.
+   */
+  private final Map<CodeBlock, String> creationMethodNames = new HashMap<>();
 
   protected MethodBindingExpression(
       BindingRequest request,
@@ -106,8 +123,7 @@ abstract class MethodBindingExpression extends BindingExpression {
   /** The method's body. */
   protected final CodeBlock methodBody() {
     return implementation(
-        wrappedBindingExpression.getDependencyExpression(componentImplementation.name())
-            ::codeBlock);
+        wrappedBindingExpression.getDependencyExpression(componentImplementation.name()));
   }
 
   /** The method's body if this method is a component method. */
@@ -115,12 +131,41 @@ abstract class MethodBindingExpression extends BindingExpression {
       ComponentMethodDescriptor componentMethod) {
     return implementation(
         wrappedBindingExpression.getDependencyExpressionForComponentMethod(
-                componentMethod, componentImplementation)
-            ::codeBlock);
+            componentMethod, componentImplementation));
   }
 
-  private CodeBlock implementation(Supplier<CodeBlock> simpleBindingExpression) {
-    return bindingMethodImplementation.implementation(simpleBindingExpression);
+  private CodeBlock implementation(Expression simpleBindingExpression) {
+    if (bindingMethodImplementation instanceof SimpleMethodImplementation) {
+      return bindingMethodImplementation.implementation(simpleBindingExpression::codeBlock);
+    }
+    CodeBlock creationExpression = simpleBindingExpression.codeBlock();
+    String creationMethodName = creationMethodNames.get(creationExpression);
+    if (creationMethodName == null) {
+      CodeBlock implementation =
+          bindingMethodImplementation.implementation(() -> creationExpression);
+      if (BytecodeSizeEstimator.estimate(implementation) <= FREQ_INLINE_SIZE) {
+        return implementation;
+      }
+      // The method is too large to be inlined into its callers, even though after the first call it
+      // only reads a field. Move the creation of the instance into a separate method so that the
+      // rest of the method is small enough.
+      creationMethodName =
+          componentImplementation.getUniqueMethodName(
+              "create" + LOWER_CAMEL.to(UPPER_CAMEL, KeyVariableNamer.name(binding.key())));
+      componentImplementation.addMethod(
+          PRIVATE_METHOD,
+          methodBuilder(creationMethodName)
+              .addModifiers(PRIVATE)
+              .returns(
+                  TypeName.get(
+                      types.accessibleType(
+                          simpleBindingExpression.type(), componentImplementation.name())))
+              .addStatement("return $L", creationExpression)
+              .build());
+      creationMethodNames.put(creationExpression, creationMethodName);
+    }
+    CodeBlock creationMethodCall = CodeBlock.of("$N()", creationMethodName);
+    return bindingMethodImplementation.implementation(() -> creationMethodCall);
   }
 
   private BindingMethodImplementation bindingMethodImplementation(
@@ -132,6 +177,12 @@ abstract class MethodBindingExpression extends BindingExpression {
         return new SingleCheckedMethodImplementation();
       case DOUBLE_CHECK:
         return new DoubleCheckedMethodImplementation();
+      case LOCKING_DOUBLE_CHECK:
+        return new LockingDoubleCheckedMethodImplementation();
+      case PACKED_DOUBLE_CHECK:
+        return new PackedDoubleCheckedMethodImplementation(false);
+      case PACKED_LOCKING_DOUBLE_CHECK:
+        return new PackedDoubleCheckedMethodImplementation(true);
     }
     throw new AssertionError(methodImplementationStrategy);
   }
@@ -162,6 +213,9 @@ abstract class MethodBindingExpression extends BindingExpression {
     SIMPLE,
     SINGLE_CHECK,
     DOUBLE_CHECK,
+    LOCKING_DOUBLE_CHECK,
+    PACKED_DOUBLE_CHECK,
+    PACKED_LOCKING_DOUBLE_CHECK,
     ;
   }
 
@@ -281,4 +335,101 @@ abstract class MethodBindingExpression extends BindingExpression {
     }
   }
 
+  /**
+   * Defines a method body for double checked caching of the given {@code wrappedBindingExpression}
+   * that locks a {@link LockingMemoizedSentinel} instead of synchronizing on a {@link
+   * MemoizedSentinel}.
+   */
+  private final class LockingDoubleCheckedMethodImplementation
+      extends BindingMethodImplementation {
+    private final Supplier<String> fieldName = Suppliers.memoize(this::createField);
+
+    @Override
+    CodeBlock implementation(Supplier<CodeBlock> simpleBindingExpression) {
+      String fieldExpression =
+          fieldName.get().equals("local") || fieldName.get().equals("lock")
+              ? "this." + fieldName.get()
+              : fieldName.get();
+      return CodeBlock.builder()
+          .addStatement("$T local = $L", TypeName.OBJECT, fieldExpression)
+          .beginControlFlow("if (local instanceof $T)", LockingMemoizedSentinel.class)
+          .addStatement("$1T lock = ($1T) local", LockingMemoizedSentinel.class)
+          .addStatement("lock.lock()")
+          .beginControlFlow("try")
+          .addStatement("local = $L", fieldExpression)
+          .beginControlFlow("if (local instanceof $T)", LockingMemoizedSentinel.class)
+          .addStatement("local = $L", simpleBindingExpression.get())
+          .addStatement(
+              "$1L = $2T.reentrantCheck($1L, local)", fieldExpression, LockingDoubleCheck.class)
+          .endControlFlow()
+          .nextControlFlow("finally")
+          .addStatement("lock.unlock()")
+          .endControlFlow()
+          .endControlFlow()
+          .addStatement("return ($T) local", returnType())
+          .build();
+    }
+
+    private String createField() {
+      String name =
+          componentImplementation.getUniqueFieldName(KeyVariableNamer.name(binding.key()));
+      componentImplementation.addField(
+          PRIVATE_METHOD_SCOPED_FIELD,
+          FieldSpec.builder(TypeName.OBJECT, name, PRIVATE, VOLATILE)
+              .initializer("new $T()", LockingMemoizedSentinel.class)
+              .build());
+      return name;
+    }
+  }
+
+  /**
+   * Defines a method body for double checked caching of the given {@code wrappedBindingExpression}
+   * in one index of the component's {@link ScopedInstances} instead of in a field of its own. The
+   * index's lock is either synchronized on or, if {@code usesReentrantLock}, locked as a {@link
+   * ReentrantLock}.
+   */
+  private final class PackedDoubleCheckedMethodImplementation extends BindingMethodImplementation {
+    private final Supplier<Integer> scopedInstanceIndex =
+        Suppliers.memoize(componentImplementation::addScopedInstance);
+    private final boolean usesReentrantLock;
+
+    PackedDoubleCheckedMethodImplementation(boolean usesReentrantLock) {
+      this.usesReentrantLock = usesReentrantLock;
+    }
+
+    @Override
+    CodeBlock implementation(Supplier<CodeBlock> simpleBindingExpression) {
+      int index = scopedInstanceIndex.get();
+      String field = componentImplementation.scopedInstancesFieldName();
+      CodeBlock.Builder builder =
+          CodeBlock.builder()
+              .addStatement("$T local = $N.get($L)", TypeName.OBJECT, field, index)
+              .beginControlFlow("if (local == null)");
+      if (usesReentrantLock) {
+        builder
+            .addStatement("$T lock = $N.reentrantLock($L)", ReentrantLock.class, field, index)
+            .addStatement("lock.lock()")
+            .beginControlFlow("try");
+      } else {
+        builder.beginControlFlow("synchronized ($N.lock($L))", field, index);
+      }
+      builder
+          .addStatement("local = $N.get($L)", field, index)
+          .beginControlFlow("if (local == null)")
+          .addStatement("local = $N.put($L, $L)", field, index, simpleBindingExpression.get())
+          .endControlFlow();
+      if (usesReentrantLock) {
+        builder.nextControlFlow("finally").addStatement("lock.unlock()");
+      }
+      builder.endControlFlow().endControlFlow();
+      if (binding.isNullable()) {
+        // A null instance is stored as ScopedInstances.NULL.
+        return builder
+            .addStatement(
+                "return local == $T.NULL ? null : ($T) local", ScopedInstances.class, returnType())
+            .build();
+      }
+      return builder.addStatement("return ($T) local", returnType()).build();
+    }
+  }
 }
@@ -140,7 +140,7 @@ final class SimpleMethodBindingExpression extends SimpleInvocationBindingExpress
         throw new IllegalStateException();
     }
 
-    return Expression.create(simpleMethodReturnType(), invocation);
+    return injectMembers(invocation);
   }
 
   private TypeName constructorTypeName(ClassName requestingClass) {
@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal.codegen.writing;
+
+import static com.google.auto.common.MoreElements.asExecutable;
+import static com.google.auto.common.MoreElements.asType;
+import static com.google.auto.common.MoreElements.isAnnotationPresent;
+import static com.google.common.base.CaseFormat.LOWER_CAMEL;
+import static com.google.common.base.CaseFormat.UPPER_CAMEL;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static com.squareup.javapoet.TypeSpec.classBuilder;
+import static dagger.internal.codegen.javapoet.CodeBlocks.toParametersCodeBlock;
+import static dagger.internal.codegen.javapoet.TypeNames.providerOf;
+import static dagger.internal.codegen.writing.ComponentBindingExpressions.isCachedByProvider;
+import static dagger.internal.codegen.writing.InjectionMethods.ProvisionMethod.requiresInjectionMethod;
+import static dagger.model.BindingKind.INJECTION;
+import static dagger.model.BindingKind.PROVISION;
+import static javax.lang.model.element.ElementKind.CONSTRUCTOR;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.TypeName;
+import dagger.StaticScopedBindings;
+import dagger.internal.codegen.base.UniqueNameSet;
+import dagger.internal.codegen.binding.BindingGraph;
+import dagger.internal.codegen.binding.ContributionBinding;
+import dagger.internal.codegen.binding.KeyVariableNamer;
+import dagger.internal.codegen.binding.ProvisionBinding;
+import dagger.internal.codegen.compileroption.CompilerOptions;
+import dagger.internal.codegen.javapoet.Expression;
+import dagger.internal.codegen.kotlin.KotlinMetadataUtil;
+import dagger.internal.codegen.langmodel.DaggerElements;
+import dagger.internal.codegen.langmodel.DaggerTypes;
+import dagger.internal.codegen.writing.ComponentImplementation.TypeSpecKind;
+import dagger.internal.codegen.writing.InjectionMethods.ProvisionMethod;
+import dagger.model.DependencyRequest;
+import dagger.model.Key;
+import dagger.model.RequestKind;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.inject.Provider;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Generates the static holder classes for the scoped bindings of a root component that is
+ * annotated with {@link StaticScopedBindings @StaticScopedBindings}.
+ *
+ * <p>A binding is held statically if it is scoped, if it is created by an {@code @Inject}
+ * constructor without injected members or by a {@code @Provides} method that doesn't need a module
+ * instance, and if each of its dependencies is an instance of a binding that is either held
+ * statically or unscoped and stateless in the same way. Its instance is stored in a {@code static
+ * final} field of a nested holder class:
+ *
+ * <pre><code>
+ *   private static final class FooHolder {
+ *     static final Foo INSTANCE = new Foo(BarHolder.INSTANCE, new Baz());
+ *   }
+ * </code></pre>
+ *
+ * <p>The JVM initializes the holder class, and so creates the instance, the first time {@code
+ * FooHolder.INSTANCE} is read, and every read after that is a plain static field read. {@code
+ * Provider} requests are satisfied by a static nested {@code Provider} class that reads the same
+ * field, so a binding never has a second instance. If creating the instance throws, the holder
+ * class is left in an erroneous state and every later read throws {@code NoClassDefFoundError}, as
+ * documented on {@link StaticScopedBindings}.
+ */
+final class StaticHolders {
+  private final Map<Key, Boolean> stateless = new HashMap<>();
+  private final Map<Key, ClassName> holderNames = new HashMap<>();
+  private final Map<Key, ClassName> providerNames = new HashMap<>();
+  private final UniqueNameSet holderSimpleNames = new UniqueNameSet();
+  private final ComponentImplementation componentImplementation;
+  private final BindingGraph graph;
+  private final CompilerOptions compilerOptions;
+  private final DaggerElements elements;
+  private final DaggerTypes types;
+  private final KotlinMetadataUtil metadataUtil;
+  private final boolean enabled;
+
+  StaticHolders(
+      ComponentImplementation componentImplementation,
+      BindingGraph graph,
+      CompilerOptions compilerOptions,
+      DaggerElements elements,
+      DaggerTypes types,
+      KotlinMetadataUtil metadataUtil) {
+    this.componentImplementation = checkNotNull(componentImplementation);
+    this.graph = checkNotNull(graph);
+    this.compilerOptions = checkNotNull(compilerOptions);
+    this.elements = checkNotNull(elements);
+    this.types = checkNotNull(types);
+    this.metadataUtil = checkNotNull(metadataUtil);
+    this.enabled =
+        !componentImplementation.isNested()
+            && !graph.componentDescriptor().isProduction()
+            && isAnnotationPresent(graph.componentTypeElement(), StaticScopedBindings.class);
+  }
+
+  /** Returns {@code true} if the instance of {@code binding} is held in a static holder class. */
+  boolean isHeld(ContributionBinding binding) {
+    return enabled && isHeldScope(binding) && isStateless(binding);
+  }
+
+  /**
+   * Returns the binding expression for a request of {@code requestKind} for a {@linkplain
+   * #isHeld(ContributionBinding) held} binding.
+   */
+  BindingExpression bindingExpression(ContributionBinding binding, RequestKind requestKind) {
+    checkArgument(isHeld(binding), "%s is not held statically", binding);
+    switch (requestKind) {
+      case INSTANCE:
+        return new BindingExpression() {
+          @Override
+          Expression getDependencyExpression(ClassName requestingClass) {
+            return Expression.create(
+                binding.key().type(), CodeBlock.of("$T.INSTANCE", holderName(binding)));
+          }
+        };
+      case PROVIDER:
+        return new BindingExpression() {
+          @Override
+          Expression getDependencyExpression(ClassName requestingClass) {
+            return Expression.create(
+                types.wrapType(binding.key().type(), Provider.class),
+                CodeBlock.of("new $T()", providerName(binding)));
+          }
+        };
+      default:
+        throw new IllegalArgumentException(requestKind.toString());
+    }
+  }
+
+  /**
+   * Returns {@code true} if the scope of {@code binding} is one whose single instance can be held
+   * statically, i.e. a scope other than {@link dagger.Reusable @Reusable} or one that is cached by
+   * a provider.
+   */
+  private static boolean isHeldScope(ContributionBinding binding) {
+    return binding.scope().isPresent()
+        && !binding.scope().get().isReusable()
+        && !isCachedByProvider(binding.scope().get());
+  }
+
+  /**
+   * Returns {@code true} if {@code binding} can be created without the component instance, either
+   * in its own holder class if it is {@linkplain #isHeldScope held} or inline if it is unscoped or
+   * {@code @Reusable}.
+   */
+  private boolean isStateless(ContributionBinding binding) {
+    Boolean cached = stateless.get(binding.key());
+    if (cached != null) {
+      return cached;
+    }
+    // Dependency cycles go through a Provider or Lazy request, which is never stateless.
+    stateless.put(binding.key(), false);
+    boolean result =
+        (binding.kind().equals(INJECTION) || binding.kind().equals(PROVISION))
+            && !binding.requiresModuleInstance()
+            && ((ProvisionBinding) binding).injectionSites().isEmpty()
+            && (!binding.scope().isPresent()
+                || binding.scope().get().isReusable()
+                || isHeldScope(binding))
+            && componentImplementation.isTypeAccessible(binding.key().type())
+            && binding.dependencies().stream()
+                .allMatch(
+                    dependency ->
+                        dependency.kind().equals(RequestKind.INSTANCE)
+                            && isStateless(graph.contributionBinding(dependency.key())));
+    stateless.put(binding.key(), result);
+    return result;
+  }
+
+  private ClassName holderName(ContributionBinding binding) {
+    ClassName holderName = holderNames.get(binding.key());
+    if (holderName == null) {
+      holderName = componentImplementation.name().nestedClass(uniqueName(binding, "Holder"));
+      holderNames.put(binding.key(), holderName);
+      componentImplementation.addType(
+          TypeSpecKind.STATIC_HOLDER,
+          classBuilder(holderName)
+              .addModifiers(PRIVATE, STATIC, FINAL)
+              .addField(
+                  FieldSpec.builder(TypeName.get(binding.key().type()), "INSTANCE", STATIC, FINAL)
+                      .initializer(creationExpression(binding, holderName))
+                      .build())
+              .build());
+    }
+    return holderName;
+  }
+
+  private ClassName providerName(ContributionBinding binding) {
+    ClassName providerName = providerNames.get(binding.key());
+    if (providerName == null) {
+      providerName =
+          componentImplementation.name().nestedClass(uniqueName(binding, "HolderProvider"));
+      providerNames.put(binding.key(), providerName);
+      TypeName type = TypeName.get(binding.key().type());
+      componentImplementation.addType(
+          TypeSpecKind.STATIC_HOLDER,
+          classBuilder(providerName)
+              .addModifiers(PRIVATE, STATIC, FINAL)
+              .addSuperinterface(providerOf(type))
+              .addMethod(
+                  methodBuilder("get")
+                      .addAnnotation(Override.class)
+                      .addModifiers(PUBLIC)
+                      .returns(type)
+                      .addStatement("return $T.INSTANCE", holderName(binding))
+                      .build())
+              .build());
+    }
+    return providerName;
+  }
+
+  private String uniqueName(ContributionBinding binding, String suffix) {
+    return holderSimpleNames.getUniqueName(
+        LOWER_CAMEL.to(UPPER_CAMEL, KeyVariableNamer.name(binding.key())) + suffix);
+  }
+
+  /**
+   * Returns an expression, evaluated in {@code requestingClass}, that creates a new instance of a
+   * {@linkplain #isStateless stateless} binding.
+   */
+  private CodeBlock creationExpression(ContributionBinding binding, ClassName requestingClass) {
+    ProvisionBinding provisionBinding = (ProvisionBinding) binding;
+    ImmutableMap<DependencyRequest, Expression> arguments =
+        Maps.toMap(
+            provisionBinding.provisionDependencies(),
+            request -> dependencyExpression(request, requestingClass));
+    if (requiresInjectionMethod(
+        provisionBinding,
+        arguments.values().asList(),
+        compilerOptions,
+        requestingClass.packageName(),
+        types)) {
+      return ProvisionMethod.invoke(
+          provisionBinding,
+          request -> arguments.get(request).codeBlock(),
+          requestingClass,
+          Optional.empty(),
+          compilerOptions,
+          elements,
+          metadataUtil);
+    }
+    CodeBlock argumentList =
+        arguments.values().stream().map(Expression::codeBlock).collect(toParametersCodeBlock());
+    ExecutableElement method = asExecutable(binding.bindingElement().get());
+    if (method.getKind().equals(CONSTRUCTOR)) {
+      return CodeBlock.of("new $T($L)", binding.key().type(), argumentList);
+    }
+    TypeElement module = asType(method.getEnclosingElement());
+    return metadataUtil.isObjectClass(module)
+        ? CodeBlock.of("$T.INSTANCE.$L($L)", module, method.getSimpleName(), argumentList)
+        : CodeBlock.of("$T.$L($L)", module, method.getSimpleName(), argumentList);
+  }
+
+  private Expression dependencyExpression(DependencyRequest request, ClassName requestingClass) {
+    ContributionBinding dependency = graph.contributionBinding(request.key());
+    return Expression.create(
+        dependency.key().type(),
+        isHeldScope(dependency)
+            ? CodeBlock.of("$T.INSTANCE", holderName(dependency))
+            : creationExpression(dependency, requestingClass));
+  }
+}
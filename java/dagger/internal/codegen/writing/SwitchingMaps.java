@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen.writing;
+
+import static com.google.common.base.CaseFormat.LOWER_CAMEL;
+import static com.google.common.base.CaseFormat.UPPER_CAMEL;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.squareup.javapoet.MethodSpec.constructorBuilder;
+import static com.squareup.javapoet.MethodSpec.methodBuilder;
+import static com.squareup.javapoet.TypeSpec.classBuilder;
+import static dagger.internal.codegen.binding.BindingRequest.bindingRequest;
+import static dagger.internal.codegen.binding.MapKeys.getMapKeyExpression;
+import static dagger.internal.codegen.binding.MapKeys.switchingMapKeyName;
+import static dagger.internal.codegen.javapoet.CodeBlocks.toParametersCodeBlock;
+import static dagger.internal.codegen.javapoet.TypeNames.SWITCHING_MAP;
+import static dagger.model.BindingKind.MULTIBOUND_MAP;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PROTECTED;
+
+import com.google.common.collect.ImmutableList;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import dagger.internal.codegen.base.MapType;
+import dagger.internal.codegen.base.UniqueNameSet;
+import dagger.internal.codegen.binding.BindingGraph;
+import dagger.internal.codegen.binding.BindingType;
+import dagger.internal.codegen.binding.ContributionBinding;
+import dagger.internal.codegen.binding.KeyVariableNamer;
+import dagger.internal.codegen.compileroption.CompilerOptions;
+import dagger.internal.codegen.javapoet.Expression;
+import dagger.internal.codegen.langmodel.DaggerElements;
+import dagger.internal.codegen.writing.ComponentImplementation.TypeSpecKind;
+import dagger.model.DependencyRequest;
+import dagger.model.Key;
+import java.util.HashMap;
+import java.util.Map;
+import javax.inject.Provider;
+
+/**
+ * Generates the {@link dagger.internal.SwitchingMap} subclasses that represent {@code Map<String,
+ * Provider<V>>} and {@code Map<Class<?>, Provider<V>>} multibindings when {@code
+ * -Adagger.switchingMaps=enabled}.
+ *
+ * <p>Each subclass is an inner class of the component. Creating one allocates only the map and the
+ * array of its keys, its {@code indexOf} method switches on the name of a key, and its {@code
+ * valueAt} method switches on the index of a key to return that key's {@code Provider}.
+ */
+final class SwitchingMaps {
+  private final Map<Key, ClassName> switchingMapNames = new HashMap<>();
+  private final UniqueNameSet switchingMapSimpleNames = new UniqueNameSet();
+  private final ComponentImplementation componentImplementation;
+  private final ComponentBindingExpressions componentBindingExpressions;
+  private final BindingGraph graph;
+  private final CompilerOptions compilerOptions;
+  private final DaggerElements elements;
+
+  SwitchingMaps(
+      ComponentImplementation componentImplementation,
+      ComponentBindingExpressions componentBindingExpressions,
+      BindingGraph graph,
+      CompilerOptions compilerOptions,
+      DaggerElements elements) {
+    this.componentImplementation = checkNotNull(componentImplementation);
+    this.componentBindingExpressions = checkNotNull(componentBindingExpressions);
+    this.graph = checkNotNull(graph);
+    this.compilerOptions = checkNotNull(compilerOptions);
+    this.elements = checkNotNull(elements);
+  }
+
+  /**
+   * Returns {@code true} if {@code binding} is represented by a generated {@code SwitchingMap}.
+   *
+   * <p>That is the case for a nonempty {@code Map<K, Provider<V>>} provision multibinding whose
+   * type is accessible from the component and whose keys are all {@code String}s or all {@code
+   * Class}es.
+   */
+  boolean useSwitchingMap(ContributionBinding binding) {
+    return compilerOptions.switchingMaps()
+        && binding.kind().equals(MULTIBOUND_MAP)
+        && binding.bindingType().equals(BindingType.PROVISION)
+        && MapType.from(binding.key()).valuesAreTypeOf(Provider.class)
+        && !binding.dependencies().isEmpty()
+        && componentImplementation.isTypeAccessible(binding.key().type())
+        && binding.dependencies().stream()
+            .allMatch(
+                dependency ->
+                    switchingMapKeyName(graph.contributionBinding(dependency.key()), elements)
+                        .isPresent());
+  }
+
+  /**
+   * Returns an expression that creates a new instance of the generated {@code SwitchingMap} for
+   * {@code binding}, generating it on the first call.
+   */
+  Expression newSwitchingMap(ContributionBinding binding) {
+    ClassName switchingMapName = switchingMapNames.get(binding.key());
+    if (switchingMapName == null) {
+      switchingMapName =
+          componentImplementation
+              .name()
+              .nestedClass(
+                  switchingMapSimpleNames.getUniqueName(
+                      LOWER_CAMEL.to(UPPER_CAMEL, KeyVariableNamer.name(binding.key()))
+                          + "SwitchingMap"));
+      // Claim the name before generating the class, since generating its values may request this
+      // map again through a Provider.
+      switchingMapNames.put(binding.key(), switchingMapName);
+      componentImplementation.addType(
+          TypeSpecKind.SWITCHING_MAP, createSwitchingMap(binding, switchingMapName));
+    }
+    return Expression.create(binding.key().type(), CodeBlock.of("new $T()", switchingMapName));
+  }
+
+  private TypeSpec createSwitchingMap(ContributionBinding binding, ClassName switchingMapName) {
+    MapType mapType = MapType.from(binding.key());
+    TypeName valueType = TypeName.get(mapType.valueType());
+    ImmutableList<DependencyRequest> dependencies = ImmutableList.copyOf(binding.dependencies());
+
+    CodeBlock.Builder indexOf = CodeBlock.builder().beginControlFlow("switch (name)");
+    CodeBlock.Builder valueAt = CodeBlock.builder().beginControlFlow("switch (index)");
+    ImmutableList.Builder<CodeBlock> keys = ImmutableList.builder();
+    for (int i = 0; i < dependencies.size(); i++) {
+      DependencyRequest dependency = dependencies.get(i);
+      ContributionBinding contribution = graph.contributionBinding(dependency.key());
+      keys.add(getMapKeyExpression(contribution, componentImplementation.name(), elements));
+      indexOf.addStatement(
+          "case $S: return $L", switchingMapKeyName(contribution, elements).get(), i);
+      valueAt.addStatement(
+          "case $L: return $L",
+          i,
+          componentBindingExpressions
+              .getDependencyExpression(bindingRequest(dependency), switchingMapName)
+              .codeBlock());
+    }
+    indexOf.addStatement("default: return -1").endControlFlow();
+    valueAt.addStatement("default: throw new $T(index)", AssertionError.class).endControlFlow();
+
+    return classBuilder(switchingMapName)
+        .addModifiers(PRIVATE, FINAL)
+        .superclass(
+            ParameterizedTypeName.get(SWITCHING_MAP, TypeName.get(mapType.keyType()), valueType))
+        .addMethod(
+            constructorBuilder()
+                .addStatement(
+                    "super(new $T[] {$L})",
+                    Object.class,
+                    keys.build().stream().collect(toParametersCodeBlock()))
+                .build())
+        .addMethod(
+            methodBuilder("indexOf")
+                .addAnnotation(Override.class)
+                .addModifiers(PROTECTED)
+                .returns(TypeName.INT)
+                .addParameter(String.class, "name")
+                .addCode(indexOf.build())
+                .build())
+        .addMethod(
+            methodBuilder("valueAt")
+                .addAnnotation(Override.class)
+                .addModifiers(PROTECTED)
+                .returns(valueType)
+                .addParameter(TypeName.INT, "index")
+                .addCode(valueAt.build())
+                .build())
+        .build();
+  }
+}
@@ -24,6 +24,7 @@ import static com.squareup.javapoet.TypeSpec.classBuilder;
 import static dagger.internal.codegen.extension.DaggerStreams.toImmutableList;
 import static dagger.internal.codegen.javapoet.AnnotationSpecs.Suppression.UNCHECKED;
 import static dagger.internal.codegen.javapoet.AnnotationSpecs.suppressWarnings;
+import static dagger.internal.codegen.javapoet.TypeNames.PROVIDER_PROFILE;
 import static dagger.internal.codegen.javapoet.TypeNames.providerOf;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
@@ -36,6 +37,7 @@ import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.TypeSpec;
 import com.squareup.javapoet.TypeVariableName;
 import dagger.internal.codegen.base.UniqueNameSet;
+import dagger.internal.codegen.compileroption.CompilerOptions;
 import dagger.internal.codegen.javapoet.CodeBlocks;
 import dagger.internal.codegen.javapoet.Expression;
 import dagger.internal.codegen.langmodel.DaggerTypes;
@@ -98,11 +100,16 @@ abstract class SwitchingProviders {
 
   private final ComponentImplementation componentImplementation;
   private final ClassName owningComponent;
+  private final CompilerOptions compilerOptions;
   private final DaggerTypes types;
   private final UniqueNameSet switchingProviderNames = new UniqueNameSet();
 
-  SwitchingProviders(ComponentImplementation componentImplementation, DaggerTypes types) {
+  SwitchingProviders(
+      ComponentImplementation componentImplementation,
+      CompilerOptions compilerOptions,
+      DaggerTypes types) {
     this.componentImplementation = checkNotNull(componentImplementation);
+    this.compilerOptions = checkNotNull(compilerOptions);
     this.types = checkNotNull(types);
     this.owningComponent = checkNotNull(componentImplementation).name();
   }
@@ -156,11 +163,15 @@ abstract class SwitchingProviders {
       CodeBlock instanceCodeBlock =
           switchCase.getReturnExpression(switchingProviderType).box(types).codeBlock();
 
-      return CodeBlock.builder()
-          // TODO(bcorso): Is there something else more useful than the key?
-          .add("case $L: // $L \n", switchIds.get(switchCase.key()), switchCase.key())
-          .addStatement("return ($T) $L", T, instanceCodeBlock)
-          .build();
+      CodeBlock.Builder switchCaseCodeBlock =
+          CodeBlock.builder()
+              // TODO(bcorso): Is there something else more useful than the key?
+              .add("case $L: // $L \n", switchIds.get(switchCase.key()), switchCase.key());
+      if (compilerOptions.recordProviderProfile()) {
+        switchCaseCodeBlock.addStatement(
+            "$T.record($S)", PROVIDER_PROFILE, switchCase.key().toString());
+      }
+      return switchCaseCodeBlock.addStatement("return ($T) $L", T, instanceCodeBlock).build();
     }
 
     private TypeSpec build() {
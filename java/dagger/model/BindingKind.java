@@ -98,6 +98,12 @@ public enum BindingKind {
 
   /** A binding for a members injection method on a component. */
   MEMBERS_INJECTION,
+
+  /**
+   * A synthetic binding for a multibound list that depends on the individual multibinding {@link
+   * #PROVISION} or {@link #PRODUCTION} contributions.
+   */
+  MULTIBOUND_LIST,
   ;
 
   /**
@@ -108,6 +114,7 @@ public enum BindingKind {
     switch (this) {
       case MULTIBOUND_MAP:
       case MULTIBOUND_SET:
+      case MULTIBOUND_LIST:
         return true;
 
       default:
@@ -24,7 +24,11 @@ import com.google.auto.common.MoreElements;
 import com.google.auto.common.MoreTypes;
 import com.google.auto.value.AutoValue;
 import com.google.common.base.Equivalence;
+import dagger.Expiring;
 import dagger.Reusable;
+import dagger.SoftReusable;
+import dagger.Striped;
+import dagger.ThreadConfined;
 import dagger.producers.ProductionScope;
 import java.lang.annotation.Annotation;
 import javax.inject.Singleton;
@@ -79,6 +83,26 @@ public abstract class Scope {
     return isScope(Reusable.class);
   }
 
+  /** Returns {@code true} if this scope is the {@link SoftReusable @SoftReusable} scope. */
+  public final boolean isSoftReusable() {
+    return isScope(SoftReusable.class);
+  }
+
+  /** Returns {@code true} if this scope is an {@link Expiring @Expiring} scope. */
+  public final boolean isExpiring() {
+    return isScope(Expiring.class);
+  }
+
+  /** Returns {@code true} if this scope is the {@link ThreadConfined @ThreadConfined} scope. */
+  public final boolean isThreadConfined() {
+    return isScope(ThreadConfined.class);
+  }
+
+  /** Returns {@code true} if this scope is a {@link Striped @Striped} scope. */
+  public final boolean isStriped() {
+    return isScope(Striped.class);
+  }
+
   /** Returns {@code true} if this scope is the {@link ProductionScope @ProductionScope} scope. */
   public final boolean isProductionScope() {
     return isScope(ProductionScope.class);
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.multibindings;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import dagger.internal.Beta;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * The method's return type forms the generic type argument of a {@code List<T>}, and the returned
+ * value is contributed to the list. The object graph will pass dependencies to the method as
+ * parameters. The {@code List<T>} produced from the accumulation of values will be immutable.
+ *
+ * <p>Unlike a {@link IntoSet Set} multibinding, a list multibinding keeps every contribution, so
+ * building it never hashes or compares its elements. Contributions appear in the order that their
+ * binding methods are declared within a module. Use a list multibinding for ordered pipelines, such
+ * as interceptors or filters, whose elements are distinct by construction.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+@Beta
+public @interface IntoList {}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.multibindings;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import dagger.internal.Beta;
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Annotates a {@link Multibinds @Multibinds} method that declares a {@code Map<K, V>} so that the
+ * injected map only instantiates the values that are actually read.
+ *
+ * <p>Injecting a {@code Map<K, V>} usually provides every value in the map before the map is
+ * injected, even if only one is ever looked up. A map whose declaration is annotated with
+ * {@code @LazyValues} instead provides each value the first time it is read, by {@link
+ * java.util.Map#get(Object)} or by iterating over the map, and returns the same value every time
+ * after that. Unlike injecting {@code Map<K, Provider<V>>}, consumers don't need to change.
+ *
+ * <pre><code>
+ *   {@literal @Module} abstract class CommandsModule {
+ *     {@literal @LazyValues @Multibinds abstract Map<String, Command> commands();}
+ *   }</code></pre>
+ *
+ * <p>Each injected map memoizes its own values, so two maps injected from an unscoped binding
+ * still see different instances of an unscoped value.
+ */
+@Documented
+@Target(METHOD)
+@Retention(RUNTIME)
+@Beta
+public @interface LazyValues {}
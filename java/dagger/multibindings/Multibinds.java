@@ -26,10 +26,10 @@ import java.lang.annotation.Target;
 /**
  * Annotates abstract module methods that declare multibindings.
  *
- * <p>You can declare that a multibound set or map is bound by annotating an abstract module method
- * that returns the set or map you want to declare with {@code @Multibinds}.
+ * <p>You can declare that a multibound set, map, or list is bound by annotating an abstract module
+ * method that returns the set, map, or list you want to declare with {@code @Multibinds}.
  *
- * <p>You do not have to use {@code @Multibinds} for sets or maps that have at least one
+ * <p>You do not have to use {@code @Multibinds} for sets, maps, or lists that have at least one
  * contribution, but you do have to declare them if they may be empty.
  *
  * <pre><code>
@@ -45,8 +45,8 @@ import java.lang.annotation.Target;
  *     }
  *   }</code></pre>
  *
- * <p>A given set or map multibinding can be declared any number of times without error. Dagger
- * never implements or calls any {@code @Multibinds} methods.
+ * <p>A given set, map, or list multibinding can be declared any number of times without error.
+ * Dagger never implements or calls any {@code @Multibinds} methods.
  *
  * @see <a href="https://dagger.dev/multibindings">Multibindings</a>
  */
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.multibindings;
+
+import dagger.internal.Beta;
+import dagger.internal.IntKeyMap;
+import dagger.internal.LongKeyMap;
+import java.util.Map;
+
+/**
+ * Lookups in {@code Map<Integer, V>} and {@code Map<Long, V>} multibindings, such as those
+ * contributed with {@link IntKey @IntKey} and {@link LongKey @LongKey}, that don't box the key.
+ *
+ * <p>When the component is compiled with {@code -Adagger.primitiveKeyMaps=enabled}, a nonempty map
+ * multibinding with {@code Integer} or {@code Long} keys stores its keys as primitives, and these
+ * methods look them up directly. Any other map is looked up with {@link Map#get(Object)}.
+ *
+ * <pre><code>
+ *   final class Dispatcher {
+ *     private final {@literal Map<Integer, Handler>} handlers;
+ *
+ *     {@literal @Inject} Dispatcher({@literal Map<Integer, Handler>} handlers) {
+ *       this.handlers = handlers;
+ *     }
+ *
+ *     void dispatch(int opcode, Message message) {
+ *       PrimitiveKeyMaps.get(handlers, opcode).handle(message);
+ *     }
+ *   }</code></pre>
+ */
+@Beta
+public final class PrimitiveKeyMaps {
+  /** Returns the value for {@code key} in {@code map}, or {@code null} if there is none. */
+  public static <V> V get(Map<Integer, V> map, int key) {
+    if (map instanceof IntKeyMap) {
+      return ((IntKeyMap<V>) map).get(key);
+    }
+    return map.get(key);
+  }
+
+  /** Returns the value for {@code key} in {@code map}, or {@code null} if there is none. */
+  public static <V> V get(Map<Long, V> map, long key) {
+    if (map instanceof LongKeyMap) {
+      return ((LongKeyMap<V>) map).get(key);
+    }
+    return map.get(key);
+  }
+
+  private PrimitiveKeyMaps() {}
+}
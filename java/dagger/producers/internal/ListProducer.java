@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.transform;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static dagger.internal.DaggerCollections.presizedList;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.Producer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link Producer} implementation used to implement {@link List} bindings. This producer returns
+ * a future {@link List} whose elements are populated by subsequent calls to the delegate {@link
+ * Producer#get} methods, in the order that the producers were added.
+ */
+public final class ListProducer<T> extends AbstractProducer<List<T>> {
+  private static final Producer<List<Object>> EMPTY_PRODUCER =
+      dagger.producers.Producers.<List<Object>>immediateProducer(ImmutableList.<Object>of());
+
+  @SuppressWarnings({"unchecked", "rawtypes"}) // safe covariant cast
+  public static <T> Producer<List<T>> empty() {
+    return (Producer) EMPTY_PRODUCER;
+  }
+
+  /**
+   * Constructs a new {@link Builder} for a {@link ListProducer} with {@code producerSize} {@code
+   * Producer<T>} and {@code Producer<Collection<T>>} instances.
+   */
+  public static <T> Builder<T> builder(int producerSize) {
+    return new Builder<T>(producerSize);
+  }
+
+  /**
+   * A builder to accumulate {@code Producer<T>} and {@code Producer<Collection<T>>} instances, in
+   * order. These are only intended to be single-use and from within generated code. Do
+   * <em>NOT</em> add producers after calling {@link #build()}.
+   */
+  public static final class Builder<T> {
+    private final List<Producer<?>> producers;
+    private final List<Boolean> isCollection;
+
+    private Builder(int producerSize) {
+      producers = presizedList(producerSize);
+      isCollection = presizedList(producerSize);
+    }
+
+    public Builder<T> addProducer(Producer<? extends T> individualProducer) {
+      assert individualProducer != null : "Codegen error? Null producer";
+      producers.add(individualProducer);
+      isCollection.add(false);
+      return this;
+    }
+
+    public Builder<T> addCollectionProducer(
+        Producer<? extends Collection<? extends T>> multipleProducer) {
+      assert multipleProducer != null : "Codegen error? Null producer";
+      producers.add(multipleProducer);
+      isCollection.add(true);
+      return this;
+    }
+
+    public ListProducer<T> build() {
+      boolean[] isCollectionArray = new boolean[isCollection.size()];
+      for (int i = 0; i < isCollectionArray.length; i++) {
+        isCollectionArray[i] = isCollection.get(i);
+      }
+      return new ListProducer<T>(
+          producers.toArray(new Producer<?>[producers.size()]), isCollectionArray);
+    }
+  }
+
+  private final Producer<?>[] producers;
+  private final boolean[] isCollection;
+
+  private ListProducer(Producer<?>[] producers, boolean[] isCollection) {
+    this.producers = producers;
+    this.isCollection = isCollection;
+  }
+
+  /**
+   * Returns a future {@link List} that contains the elements given by each of the producers, in
+   * order.
+   *
+   * <p>If any of the delegate collections, or any elements therein, are null, then this future will
+   * fail with a NullPointerException.
+   *
+   * <p>Canceling this future will attempt to cancel all of the component futures, and if any of the
+   * delegate futures fails or is canceled, this one is, too.
+   *
+   * @throws NullPointerException if any of the delegate producers return null
+   */
+  @Override
+  public ListenableFuture<List<T>> compute() {
+    List<ListenableFuture<?>> futures = new ArrayList<ListenableFuture<?>>(producers.length);
+    for (Producer<?> producer : producers) {
+      futures.add(checkNotNull(producer.get()));
+    }
+    return transform(
+        Futures.<Object>allAsList(futures),
+        new Function<List<Object>, List<T>>() {
+          @SuppressWarnings("unchecked") // each value is a T or a Collection<T>
+          @Override
+          public List<T> apply(List<Object> values) {
+            int size = 0;
+            for (int i = 0; i < isCollection.length; i++) {
+              Object value = checkNotNull(values.get(i));
+              size += isCollection[i] ? ((Collection<?>) value).size() : 1;
+            }
+            // size() is only a hint, so the list still grows if a collection holds more elements.
+            List<Object> elements = new ArrayList<Object>(size);
+            for (int i = 0; i < isCollection.length; i++) {
+              if (isCollection[i]) {
+                for (Object element : (Collection<?>) values.get(i)) {
+                  elements.add(checkNotNull(element));
+                }
+              } else {
+                elements.add(values.get(i));
+              }
+            }
+            return Collections.unmodifiableList((List<T>) elements);
+          }
+        },
+        directExecutor());
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.functional;
+
+import dagger.Component;
+import dagger.StaticScopedBindings;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/** A {@link StaticScopedBindings @StaticScopedBindings} component whose held binding throws. */
+class StaticScopedBindingsFailure {
+  @Singleton
+  static final class Failing {
+    @Inject
+    Failing() {
+      throw new IllegalStateException("failing");
+    }
+  }
+
+  @Singleton
+  static final class DependsOnFailing {
+    @Inject
+    DependsOnFailing(Failing failing) {}
+  }
+
+  @StaticScopedBindings
+  @Singleton
+  @Component
+  interface TestComponent {
+    Failing failing();
+
+    DependsOnFailing dependsOnFailing();
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.functional;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import dagger.functional.StaticScopedBindingsFailure.TestComponent;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link StaticScopedBindingsFailure}. */
+@RunWith(JUnit4.class)
+public final class StaticScopedBindingsFailureTest {
+  @Test
+  public void failedCreation_isNotRetried() {
+    TestComponent component = DaggerStaticScopedBindingsFailure_TestComponent.create();
+    try {
+      component.failing();
+      fail();
+    } catch (ExceptionInInitializerError expected) {
+      assertThat(expected).hasCauseThat().isInstanceOf(IllegalStateException.class);
+      assertThat(expected).hasCauseThat().hasMessageThat().isEqualTo("failing");
+    }
+
+    try {
+      component.failing();
+      fail();
+    } catch (NoClassDefFoundError expected) {
+    }
+
+    try {
+      DaggerStaticScopedBindingsFailure_TestComponent.create().failing();
+      fail();
+    } catch (NoClassDefFoundError expected) {
+    }
+
+    try {
+      component.dependsOnFailing();
+      fail();
+    } catch (NoClassDefFoundError expected) {
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.functional.multibindings;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import dagger.Component;
+import dagger.Module;
+import dagger.Provides;
+import dagger.multibindings.IntoMap;
+import dagger.multibindings.LazyValues;
+import dagger.multibindings.Multibinds;
+import dagger.multibindings.StringKey;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class LazyValuesMapTest {
+  private static final AtomicInteger oneCount = new AtomicInteger();
+  private static final AtomicInteger twoCount = new AtomicInteger();
+
+  @Module
+  abstract static class TestModule {
+    @LazyValues
+    @Multibinds
+    abstract Map<String, Integer> map();
+
+    @Provides
+    @IntoMap
+    @StringKey("one")
+    static Integer one() {
+      return oneCount.incrementAndGet();
+    }
+
+    @Provides
+    @IntoMap
+    @StringKey("two")
+    static Integer two() {
+      return twoCount.incrementAndGet();
+    }
+  }
+
+  @Component(modules = TestModule.class)
+  interface TestComponent {
+    Map<String, Integer> map();
+  }
+
+  @Test
+  public void onlyReadValuesAreProvided() {
+    oneCount.set(0);
+    twoCount.set(0);
+    Map<String, Integer> map = DaggerLazyValuesMapTest_TestComponent.create().map();
+    assertThat(map.keySet()).containsExactly("one", "two").inOrder();
+    assertThat(oneCount.get()).isEqualTo(0);
+    assertThat(twoCount.get()).isEqualTo(0);
+
+    assertThat(map.get("two")).isEqualTo(1);
+    assertThat(map.get("two")).isEqualTo(1);
+    assertThat(oneCount.get()).isEqualTo(0);
+    assertThat(twoCount.get()).isEqualTo(1);
+
+    assertThat(map).containsExactly("one", 1, "two", 1).inOrder();
+    assertThat(oneCount.get()).isEqualTo(1);
+    assertThat(twoCount.get()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests the compact collections in {@link DaggerCollections}. */
+@RunWith(JUnit4.class)
+public class DaggerCollectionsTest {
+  @Test
+  public void compactSet_empty() {
+    assertThat(DaggerCollections.<String>compactSetBuilder(0).build()).isEmpty();
+  }
+
+  @Test
+  public void compactSet_insertionOrderWithoutDuplicates() {
+    Set<String> set =
+        DaggerCollections.<String>compactSetBuilder(4)
+            .add("b")
+            .add("a")
+            .add("b")
+            .add("c")
+            .build();
+    assertThat(set).containsExactly("b", "a", "c").inOrder();
+    assertThat(set).contains("a");
+    assertThat(set.contains("d")).isFalse();
+    assertThat(set.contains(null)).isFalse();
+  }
+
+  @Test
+  public void compactSet_growsBeyondExpectedSize() {
+    DaggerCollections.CompactSetBuilder<Integer> builder = DaggerCollections.compactSetBuilder(1);
+    Set<Integer> expected = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      builder.add(i * 31);
+      expected.add(i * 31);
+    }
+    Set<Integer> set = builder.build();
+    assertThat(set).isEqualTo(expected);
+    assertThat(set.hashCode()).isEqualTo(expected.hashCode());
+    for (int i = 0; i < 100; i++) {
+      assertThat(set.contains(i * 31)).isTrue();
+      assertThat(set.contains(i * 31 + 1)).isFalse();
+    }
+  }
+
+  @Test
+  public void compactSet_collidingHashCodes() {
+    Set<CollidingKey> set =
+        DaggerCollections.<CollidingKey>compactSetBuilder(3)
+            .add(new CollidingKey("a"))
+            .add(new CollidingKey("b"))
+            .add(new CollidingKey("a"))
+            .add(new CollidingKey("c"))
+            .build();
+    assertThat(set)
+        .containsExactly(new CollidingKey("a"), new CollidingKey("b"), new CollidingKey("c"))
+        .inOrder();
+  }
+
+  @Test
+  public void compactSet_isImmutable() {
+    Set<String> set = DaggerCollections.<String>compactSetBuilder(2).add("a").add("b").build();
+    try {
+      set.add("c");
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+    Iterator<String> iterator = set.iterator();
+    iterator.next();
+    try {
+      iterator.remove();
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  @Test
+  public void compactMap_insertionOrder() {
+    Map<String, Integer> map =
+        DaggerCollections.<String, Integer>compactMapBuilder(3)
+            .put("two", 2)
+            .put("one", 1)
+            .put("three", 3)
+            .put("one", 11)
+            .build();
+    Map<String, Integer> expected = new LinkedHashMap<>();
+    expected.put("two", 2);
+    expected.put("one", 11);
+    expected.put("three", 3);
+    assertThat(map).containsExactlyEntriesIn(expected).inOrder();
+    assertThat(map).isEqualTo(expected);
+    assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+    assertThat(map.get("one")).isEqualTo(11);
+    assertThat(map.get("four")).isNull();
+    assertThat(map.get(null)).isNull();
+    assertThat(map.containsKey("three")).isTrue();
+    assertThat(map.containsKey("four")).isFalse();
+  }
+
+  @Test
+  public void compactMap_isImmutable() {
+    Map<String, Integer> map =
+        DaggerCollections.<String, Integer>compactMapBuilder(1).put("one", 1).build();
+    try {
+      map.put("two", 2);
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+    try {
+      map.clear();
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  @Test
+  public void provideValues() {
+    AtomicInteger counter = new AtomicInteger();
+    Provider<Integer> provider = counter::incrementAndGet;
+    Map<String, Provider<Integer>> providers =
+        DaggerCollections.compactCopyOf(
+            ImmutableMap.of("a", provider, "b", provider, "c", provider));
+
+    assertThat(DaggerCollections.provideValues(providers))
+        .containsExactly("a", 1, "b", 2, "c", 3)
+        .inOrder();
+    assertThat(DaggerCollections.provideValues(providers))
+        .containsExactly("a", 4, "b", 5, "c", 6)
+        .inOrder();
+  }
+
+  @Test
+  public void provideValues_notCompact() {
+    AtomicInteger counter = new AtomicInteger();
+    Provider<Integer> provider = counter::incrementAndGet;
+    assertThat(DaggerCollections.provideValues(ImmutableMap.of("a", provider, "b", provider)))
+        .containsExactly("a", 1, "b", 2)
+        .inOrder();
+  }
+
+  private static final class CollidingKey {
+    private final String value;
+
+    CollidingKey(String value) {
+      this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof CollidingKey && ((CollidingKey) o).value.equals(value);
+    }
+
+    @Override
+    public int hashCode() {
+      return 42;
+    }
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests {@link ExpiringCheck}. */
+@RunWith(JUnit4.class)
+public class ExpiringCheckTest {
+  @Test(expected = NullPointerException.class)
+  public void create_nullPointerException() {
+    ExpiringCheck.provider(null, 30);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void create_negativeTtl() {
+    ExpiringCheck.provider(Object::new, -1);
+  }
+
+  @Test
+  public void get_beforeExpiry() {
+    AtomicInteger integer = new AtomicInteger();
+    Provider<Integer> provider = ExpiringCheck.provider(integer::getAndIncrement, 3600);
+    assertThat(provider.get()).isEqualTo(0);
+    assertThat(provider.get()).isEqualTo(0);
+    assertThat(provider.get()).isEqualTo(0);
+  }
+
+  @Test
+  public void get_afterExpiry_returnsStaleValueWhileRefreshing() {
+    AtomicInteger integer = new AtomicInteger();
+    Queue<Runnable> refreshes = new ArrayDeque<>();
+    Provider<Integer> provider =
+        ExpiringCheck.provider(integer::getAndIncrement, 0, 0, refreshes::add);
+
+    assertThat(provider.get()).isEqualTo(0);
+    assertThat(refreshes).isEmpty();
+
+    // The value has expired, so this schedules a single refresh but doesn't wait for it.
+    assertThat(provider.get()).isEqualTo(0);
+    assertThat(provider.get()).isEqualTo(0);
+    assertThat(refreshes).hasSize(1);
+
+    refreshes.remove().run();
+    assertThat(provider.get()).isEqualTo(1);
+    assertThat(refreshes).hasSize(1);
+  }
+
+  @Test
+  public void get_refreshFails_keepsStaleValue() {
+    AtomicInteger provisions = new AtomicInteger();
+    Queue<Runnable> refreshes = new ArrayDeque<>();
+    Provider<Integer> provider =
+        ExpiringCheck.provider(
+            () -> {
+              if (provisions.incrementAndGet() == 2) {
+                throw new IllegalStateException("refresh failed");
+              }
+              return provisions.get();
+            },
+            0,
+            0,
+            refreshes::add);
+
+    assertThat(provider.get()).isEqualTo(1);
+    assertThat(provider.get()).isEqualTo(1);
+    try {
+      refreshes.remove().run();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+
+    // Without a retry delay, the failed refresh is retried by the next request, which still
+    // returns the stale value.
+    assertThat(provider.get()).isEqualTo(1);
+    refreshes.remove().run();
+    assertThat(provider.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void get_refreshFails_backsOff() {
+    AtomicInteger provisions = new AtomicInteger();
+    Queue<Runnable> refreshes = new ArrayDeque<>();
+    Provider<Integer> provider =
+        ExpiringCheck.provider(
+            () -> {
+              if (provisions.incrementAndGet() > 1) {
+                throw new IllegalStateException("refresh failed");
+              }
+              return provisions.get();
+            },
+            0,
+            TimeUnit.HOURS.toNanos(1),
+            refreshes::add);
+
+    assertThat(provider.get()).isEqualTo(1);
+    assertThat(provider.get()).isEqualTo(1);
+    try {
+      refreshes.remove().run();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+
+    // The failed refresh isn't retried until the retry delay has passed.
+    assertThat(provider.get()).isEqualTo(1);
+    assertThat(provider.get()).isEqualTo(1);
+    assertThat(refreshes).isEmpty();
+    assertThat(provisions.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void doubleWrapping() {
+    Provider<Object> expiringCheck = ExpiringCheck.provider(Object::new, 30);
+    assertThat(ExpiringCheck.provider(expiringCheck, 60)).isSameInstanceAs(expiringCheck);
+
+    Provider<Object> doubleCheck = DoubleCheck.provider(Object::new);
+    assertThat(ExpiringCheck.provider(doubleCheck, 30)).isSameInstanceAs(doubleCheck);
+  }
+}
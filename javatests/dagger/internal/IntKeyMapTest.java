@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class IntKeyMapTest {
+  @Test
+  public void get() {
+    IntKeyMap<String> map =
+        IntKeyMap.<String>builder(3)
+            .put(1, "one")
+            .put(-2, "minus two")
+            .put(64, "sixty-four")
+            .build();
+    assertThat(map.get(1)).isEqualTo("one");
+    assertThat(map.get(-2)).isEqualTo("minus two");
+    assertThat(map.get(64)).isEqualTo("sixty-four");
+    assertThat(map.get(0)).isNull();
+    assertThat(map.containsKey(64)).isTrue();
+    assertThat(map.containsKey(65)).isFalse();
+    assertThat(map.get((Object) 1)).isEqualTo("one");
+    assertThat(map.get((Object) 1L)).isNull();
+    assertThat(map.get(null)).isNull();
+  }
+
+  @Test
+  public void insertionOrder() {
+    IntKeyMap<String> map =
+        IntKeyMap.<String>builder(1).put(3, "c").put(1, "a").put(2, "b").build();
+    assertThat(map).containsExactly(3, "c", 1, "a", 2, "b").inOrder();
+  }
+
+  @Test
+  public void duplicateKey_replacesValue() {
+    IntKeyMap<String> map = IntKeyMap.<String>builder(2).put(1, "a").put(1, "b").build();
+    assertThat(map).containsExactly(1, "b");
+  }
+
+  @Test
+  public void equalsOtherMaps() {
+    Map<Integer, String> expected = new LinkedHashMap<>();
+    IntKeyMap.Builder<String> builder = IntKeyMap.builder(100);
+    for (int i = 0; i < 100; i++) {
+      expected.put(i * 31, "v" + i);
+      builder.put(i * 31, "v" + i);
+    }
+    IntKeyMap<String> map = builder.build();
+    assertThat(map).isEqualTo(expected);
+    assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+  }
+
+  @Test
+  public void nullValue_throws() {
+    try {
+      IntKeyMap.<String>builder(1).put(1, null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  @Test
+  public void isImmutable() {
+    Map<Integer, String> map = IntKeyMap.<String>builder(1).put(1, "one").build();
+    try {
+      map.put(2, "two");
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  @Test
+  public void factory() {
+    Provider<Map<Integer, String>> factory =
+        IntKeyMapFactory.<String>builder(2)
+            .put(1, InstanceFactory.create("one"))
+            .put(2, InstanceFactory.create("two"))
+            .build();
+    Map<Integer, String> map = factory.get();
+    assertThat(map).isInstanceOf(IntKeyMap.class);
+    assertThat(map).containsExactly(1, "one", 2, "two").inOrder();
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class LazyValuesMapFactoryTest {
+  @Test
+  public void get_doesNotCallProviders() {
+    CountingProvider one = new CountingProvider(1);
+    CountingProvider two = new CountingProvider(2);
+    Map<String, Integer> map =
+        LazyValuesMapFactory.<String, Integer>builder(2).put("one", one).put("two", two).build()
+            .get();
+
+    assertThat(map).hasSize(2);
+    assertThat(map.containsKey("two")).isTrue();
+    assertThat(map.keySet()).containsExactly("one", "two").inOrder();
+    assertThat(one.calls.get()).isEqualTo(0);
+    assertThat(two.calls.get()).isEqualTo(0);
+  }
+
+  @Test
+  public void mapGet_callsOnlyThatProviderOnce() {
+    CountingProvider one = new CountingProvider(1);
+    CountingProvider two = new CountingProvider(2);
+    Map<String, Integer> map =
+        LazyValuesMapFactory.<String, Integer>builder(2).put("one", one).put("two", two).build()
+            .get();
+
+    assertThat(map.get("two")).isEqualTo(2);
+    assertThat(map.get("two")).isEqualTo(2);
+    assertThat(map.get("three")).isNull();
+    assertThat(one.calls.get()).isEqualTo(0);
+    assertThat(two.calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void iteration_memoizesValues() {
+    CountingProvider one = new CountingProvider(1);
+    CountingProvider two = new CountingProvider(2);
+    Map<String, Integer> map =
+        LazyValuesMapFactory.<String, Integer>builder(2).put("two", two).put("one", one).build()
+            .get();
+
+    assertThat(map.get("one")).isEqualTo(1);
+    assertThat(map.entrySet()).hasSize(2);
+    assertThat(map).containsExactly("two", 2, "one", 1).inOrder();
+    assertThat(map).containsExactly("two", 2, "one", 1).inOrder();
+    assertThat(one.calls.get()).isEqualTo(1);
+    assertThat(two.calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void eachMapMemoizesItsOwnValues() {
+    CountingProvider one = new CountingProvider(1);
+    LazyValuesMapFactory<String, Integer> factory =
+        LazyValuesMapFactory.<String, Integer>builder(1).put("one", one).build();
+
+    assertThat(factory.get().get("one")).isEqualTo(1);
+    assertThat(factory.get().get("one")).isEqualTo(1);
+    assertThat(one.calls.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void putAll() {
+    CountingProvider one = new CountingProvider(1);
+    CountingProvider two = new CountingProvider(2);
+    LazyValuesMapFactory<String, Integer> parent =
+        LazyValuesMapFactory.<String, Integer>builder(1).put("one", one).build();
+    Map<String, Integer> map =
+        LazyValuesMapFactory.<String, Integer>builder(2).putAll(parent).put("two", two).build()
+            .get();
+
+    assertThat(map).containsExactly("one", 1, "two", 2).inOrder();
+  }
+
+  @Test(timeout = 10_000)
+  public void slowValue_doesNotBlockOtherValues() throws Exception {
+    CountDownLatch slowValueStarted = new CountDownLatch(1);
+    CountDownLatch releaseSlowValue = new CountDownLatch(1);
+    Provider<Integer> slow =
+        () -> {
+          slowValueStarted.countDown();
+          try {
+            releaseSlowValue.await();
+          } catch (InterruptedException e) {
+            throw new AssertionError(e);
+          }
+          return 0;
+        };
+    Map<String, Integer> map =
+        LazyValuesMapFactory.<String, Integer>builder(2)
+            .put("slow", slow)
+            .put("one", new CountingProvider(1))
+            .build()
+            .get();
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Integer> slowValue = executor.submit(() -> map.get("slow"));
+      slowValueStarted.await();
+      assertThat(map.get("one")).isEqualTo(1);
+      releaseSlowValue.countDown();
+      assertThat(slowValue.get()).isEqualTo(0);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void concurrentFirstReads_returnSameValue() throws Exception {
+    CountDownLatch bothReading = new CountDownLatch(2);
+    Provider<Object> value =
+        () -> {
+          bothReading.countDown();
+          try {
+            bothReading.await();
+          } catch (InterruptedException e) {
+            throw new AssertionError(e);
+          }
+          return new Object();
+        };
+    Map<String, Object> map =
+        LazyValuesMapFactory.<String, Object>builder(1).put("value", value).build().get();
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<Object> first = executor.submit(() -> map.get("value"));
+      Future<Object> second = executor.submit(() -> map.get("value"));
+      assertThat(first.get()).isSameInstanceAs(second.get());
+      assertThat(map.get("value")).isSameInstanceAs(first.get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static final class CountingProvider implements Provider<Integer> {
+    final AtomicInteger calls = new AtomicInteger();
+    final int value;
+
+    CountingProvider(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public Integer get() {
+      calls.incrementAndGet();
+      return value;
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Provider;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+@SuppressWarnings("unchecked")
+public class ListFactoryTest {
+  @Rule public ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void providerReturnsNull() {
+    Factory<List<Integer>> factory =
+        ListFactory.<Integer>builder(1).addCollectionProvider(() -> null).build();
+    thrown.expect(NullPointerException.class);
+    factory.get();
+  }
+
+  @Test
+  public void providerReturnsNullElement() {
+    Factory<List<Integer>> factory =
+        ListFactory.<Integer>builder(1).addProvider(() -> null).build();
+    thrown.expect(NullPointerException.class);
+    factory.get();
+  }
+
+  @Test
+  public void providerReturnsListWithNullElement() {
+    List<Integer> list = Arrays.asList(1, null, 3);
+    Factory<List<Integer>> factory =
+        ListFactory.<Integer>builder(1).addCollectionProvider(() -> list).build();
+    thrown.expect(NullPointerException.class);
+    factory.get();
+  }
+
+  @Test
+  public void keepsOrderAndDuplicates() {
+    Factory<List<Integer>> factory =
+        ListFactory.<Integer>builder(4)
+            .addProvider(() -> 3)
+            .addCollectionProvider(() -> ImmutableList.of(1, 3))
+            .addProvider(() -> 2)
+            .addCollectionProvider(() -> ImmutableList.<Integer>of())
+            .build();
+    assertThat(factory.get()).containsExactly(3, 1, 3, 2).inOrder();
+  }
+
+  @Test
+  public void invokesProvidersEveryTime() {
+    Factory<List<Integer>> factory =
+        ListFactory.<Integer>builder(4)
+            .addProvider(incrementingIntegerProvider(0))
+            .addProvider(incrementingIntegerProvider(10))
+            .addCollectionProvider(incrementingIntegerListProvider(20))
+            .addCollectionProvider(incrementingIntegerListProvider(30))
+            .build();
+    assertThat(factory.get()).containsExactly(0, 10, 20, 21, 30, 31).inOrder();
+    assertThat(factory.get()).containsExactly(1, 11, 22, 23, 32, 33).inOrder();
+    assertThat(factory.get()).containsExactly(2, 12, 24, 25, 34, 35).inOrder();
+  }
+
+  @Test
+  public void collectionWithMoreElementsThanItsSize() {
+    Collection<Integer> undersized =
+        new AbstractCollection<Integer>() {
+          @Override
+          public Iterator<Integer> iterator() {
+            return ImmutableList.of(1, 2, 3).iterator();
+          }
+
+          @Override
+          public int size() {
+            return 1;
+          }
+        };
+    Factory<List<Integer>> factory =
+        ListFactory.<Integer>builder(2)
+            .addCollectionProvider(() -> undersized)
+            .addProvider(() -> 4)
+            .build();
+    assertThat(factory.get()).containsExactly(1, 2, 3, 4).inOrder();
+  }
+
+  @Test
+  public void listIsUnmodifiable() {
+    Factory<List<Integer>> factory = ListFactory.<Integer>builder(1).addProvider(() -> 1).build();
+    thrown.expect(UnsupportedOperationException.class);
+    factory.get().add(2);
+  }
+
+  @Test
+  public void empty() {
+    assertThat(ListFactory.<Integer>empty().get()).isEmpty();
+  }
+
+  private static Provider<Integer> incrementingIntegerProvider(int seed) {
+    final AtomicInteger value = new AtomicInteger(seed);
+    return value::getAndIncrement;
+  }
+
+  private static Provider<List<Integer>> incrementingIntegerListProvider(int seed) {
+    final AtomicInteger value = new AtomicInteger(seed);
+    return () -> ImmutableList.of(value.getAndIncrement(), value.getAndIncrement());
+  }
+}
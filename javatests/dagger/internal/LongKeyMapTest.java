@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class LongKeyMapTest {
+  @Test
+  public void get() {
+    LongKeyMap<String> map =
+        LongKeyMap.<String>builder(2).put(1L, "one").put(1L << 40, "big").build();
+    assertThat(map.get(1L)).isEqualTo("one");
+    assertThat(map.get(1L << 40)).isEqualTo("big");
+    assertThat(map.get(0L)).isNull();
+    assertThat(map.containsKey(1L << 40)).isTrue();
+    assertThat(map.get((Object) 1L)).isEqualTo("one");
+    assertThat(map.get((Object) 1)).isNull();
+    assertThat(map).containsExactly(1L, "one", 1L << 40, "big").inOrder();
+  }
+
+  @Test
+  public void equalsOtherMaps() {
+    Map<Long, String> expected = new LinkedHashMap<>();
+    LongKeyMap.Builder<String> builder = LongKeyMap.builder(1);
+    for (long i = 0; i < 100; i++) {
+      expected.put(i << 32, "v" + i);
+      builder.put(i << 32, "v" + i);
+    }
+    LongKeyMap<String> map = builder.build();
+    assertThat(map).isEqualTo(expected);
+    assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+  }
+
+  @Test
+  public void factory() {
+    Provider<Map<Long, String>> factory =
+        LongKeyMapFactory.<String>builder(1).put(1L, InstanceFactory.create("one")).build();
+    assertThat(factory.get()).isInstanceOf(LongKeyMap.class);
+    assertThat(factory.get()).containsExactly(1L, "one");
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class ProviderProfileTest {
+  @Test
+  public void writeTo_sortsByCallCountThenKey() throws Exception {
+    ProviderProfile.record("ProviderProfileTest.a");
+    ProviderProfile.record("ProviderProfileTest.b");
+    ProviderProfile.record("ProviderProfileTest.b");
+    ProviderProfile.record("ProviderProfileTest.c");
+
+    StringWriter writer = new StringWriter();
+    ProviderProfile.writeTo(writer);
+    List<String> lines = Arrays.asList(writer.toString().split("\n"));
+    assertThat(lines)
+        .containsAtLeast(
+            "2\tProviderProfileTest.b", "1\tProviderProfileTest.a", "1\tProviderProfileTest.c")
+        .inOrder();
+  }
+}
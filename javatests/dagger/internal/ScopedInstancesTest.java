@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests {@link ScopedInstances}. */
+@RunWith(JUnit4.class)
+public class ScopedInstancesTest {
+  @Test
+  public void get_beforePut_returnsNull() {
+    ScopedInstances instances = new ScopedInstances(3);
+    assertThat(instances.size()).isEqualTo(3);
+    assertThat(instances.get(0)).isNull();
+    assertThat(instances.get(2)).isNull();
+  }
+
+  @Test
+  public void put_storesInstance() {
+    ScopedInstances instances = new ScopedInstances(2);
+    Object instance = new Object();
+    synchronized (instances.lock(1)) {
+      assertThat(instances.put(1, instance)).isSameInstanceAs(instance);
+    }
+    assertThat(instances.get(1)).isSameInstanceAs(instance);
+    assertThat(instances.get(0)).isNull();
+  }
+
+  @Test
+  public void put_null_storesSharedSentinel() {
+    ScopedInstances instances = new ScopedInstances(2);
+    synchronized (instances.lock(0)) {
+      assertThat(instances.put(0, null)).isSameInstanceAs(ScopedInstances.NULL);
+    }
+    assertThat(instances.get(0)).isSameInstanceAs(ScopedInstances.NULL);
+  }
+
+  @Test
+  public void reentrantLock_sameLockUntilPut() {
+    ScopedInstances instances = new ScopedInstances(1);
+    ReentrantLock lock = instances.reentrantLock(0);
+    assertThat(instances.reentrantLock(0)).isSameInstanceAs(lock);
+    assertThat(instances.lock(0)).isSameInstanceAs(lock);
+    lock.lock();
+    try {
+      instances.put(0, "instance");
+    } finally {
+      lock.unlock();
+    }
+    assertThat(instances.get(0)).isEqualTo("instance");
+    assertThat(instances.reentrantLock(0)).isNotSameInstanceAs(lock);
+  }
+
+  @Test
+  public void put_reentrantSameInstance() {
+    ScopedInstances instances = new ScopedInstances(1);
+    Object instance = new Object();
+    synchronized (instances.lock(0)) {
+      instances.put(0, instance);
+      assertThat(instances.put(0, instance)).isSameInstanceAs(instance);
+    }
+  }
+
+  @Test
+  public void put_reentrantDifferentInstance() {
+    ScopedInstances instances = new ScopedInstances(1);
+    synchronized (instances.lock(0)) {
+      instances.put(0, new Object());
+      try {
+        instances.put(0, new Object());
+        fail();
+      } catch (IllegalStateException expected) {
+      }
+    }
+  }
+
+  @Test
+  public void lock_sameLockUntilPut() {
+    ScopedInstances instances = new ScopedInstances(2);
+    Object lock = instances.lock(0);
+    assertThat(instances.lock(0)).isSameInstanceAs(lock);
+    assertThat(instances.lock(1)).isNotSameInstanceAs(lock);
+    assertThat(instances.get(0)).isNull();
+
+    Object instance = new Object();
+    synchronized (lock) {
+      instances.put(0, instance);
+    }
+    assertThat(instances.get(0)).isSameInstanceAs(instance);
+    assertThat(instances.lock(0)).isNotSameInstanceAs(lock);
+  }
+
+  @Test(timeout = 10_000)
+  public void lock_creatingOneInstanceDoesNotBlockAnother() throws Exception {
+    final ScopedInstances instances = new ScopedInstances(2);
+    final CountDownLatch creating = new CountDownLatch(1);
+    final CountDownLatch otherCreated = new CountDownLatch(1);
+    Thread thread =
+        new Thread() {
+          @Override
+          public void run() {
+            synchronized (instances.lock(0)) {
+              creating.countDown();
+              try {
+                otherCreated.await();
+              } catch (InterruptedException e) {
+                throw new AssertionError(e);
+              }
+              instances.put(0, "slow");
+            }
+          }
+        };
+    thread.start();
+    creating.await();
+
+    synchronized (instances.lock(1)) {
+      instances.put(1, "fast");
+    }
+    otherCreated.countDown();
+    thread.join();
+
+    assertThat(instances.get(0)).isEqualTo("slow");
+    assertThat(instances.get(1)).isEqualTo("fast");
+  }
+}
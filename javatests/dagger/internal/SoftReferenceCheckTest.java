@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Field;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests {@link SoftReferenceCheck}. */
+@RunWith(JUnit4.class)
+public class SoftReferenceCheckTest {
+  @Test(expected = NullPointerException.class)
+  public void create_nullPointerException() {
+    SoftReferenceCheck.provider(null);
+  }
+
+  @Test
+  public void get() {
+    AtomicInteger integer = new AtomicInteger();
+    Provider<Integer> provider = SoftReferenceCheck.provider(integer::getAndIncrement);
+    assertThat(provider.get()).isEqualTo(0);
+    assertThat(provider.get()).isEqualTo(0);
+    assertThat(provider.get()).isEqualTo(0);
+  }
+
+  @Test
+  public void get_null() {
+    AtomicInteger provisions = new AtomicInteger();
+    Provider<Object> provider =
+        SoftReferenceCheck.provider(
+            () -> {
+              provisions.incrementAndGet();
+              return null;
+            });
+    assertThat(provider.get()).isNull();
+    assertThat(provider.get()).isNull();
+    assertThat(provisions.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_recomputesAfterCollection() throws Exception {
+    AtomicInteger integer = new AtomicInteger();
+    Provider<Integer> provider = SoftReferenceCheck.provider(integer::getAndIncrement);
+    long totalRecomputations = SoftReferenceCheck.totalRecomputations();
+
+    assertThat(provider.get()).isEqualTo(0);
+    clearReference(provider);
+    assertThat(provider.get()).isEqualTo(1);
+    assertThat(provider.get()).isEqualTo(1);
+
+    assertThat(((SoftReferenceCheck<Integer>) provider).recomputations()).isEqualTo(1);
+    assertThat(SoftReferenceCheck.totalRecomputations()).isAtLeast(totalRecomputations + 1);
+  }
+
+  @Test
+  public void doubleWrapping() {
+    Provider<Object> softReferenceCheck = SoftReferenceCheck.provider(Object::new);
+    assertThat(SoftReferenceCheck.provider(softReferenceCheck))
+        .isSameInstanceAs(softReferenceCheck);
+
+    Provider<Object> singleCheck = SingleCheck.provider(Object::new);
+    assertThat(SoftReferenceCheck.provider(singleCheck)).isSameInstanceAs(singleCheck);
+
+    Provider<Object> doubleCheck = DoubleCheck.provider(Object::new);
+    assertThat(SoftReferenceCheck.provider(doubleCheck)).isSameInstanceAs(doubleCheck);
+  }
+
+  /** Simulates the garbage collector clearing the memoized value. */
+  private static void clearReference(Provider<?> provider) throws Exception {
+    Field reference = SoftReferenceCheck.class.getDeclaredField("reference");
+    reference.setAccessible(true);
+    ((SoftReference<?>) reference.get(provider)).clear();
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.Sets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests {@link StripedCheck}. */
+@RunWith(JUnit4.class)
+public class StripedCheckTest {
+  @Test(expected = NullPointerException.class)
+  public void create_nullPointerException() {
+    StripedCheck.provider(null, 4);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void create_negativeStripes() {
+    StripedCheck.provider(Object::new, -1);
+  }
+
+  @Test
+  public void stripeCount_roundedUpToPowerOfTwo() {
+    assertThat(stripeCount(StripedCheck.provider(Object::new, 1))).isEqualTo(1);
+    assertThat(stripeCount(StripedCheck.provider(Object::new, 3))).isEqualTo(4);
+    assertThat(stripeCount(StripedCheck.provider(Object::new, 8))).isEqualTo(8);
+    assertThat(stripeCount(StripedCheck.provider(Object::new, 0)))
+        .isAtLeast(Runtime.getRuntime().availableProcessors());
+  }
+
+  @Test
+  public void get_sameThread() {
+    AtomicInteger integer = new AtomicInteger();
+    Provider<Integer> provider = StripedCheck.provider(integer::getAndIncrement, 4);
+    assertThat(provider.get()).isEqualTo(0);
+    assertThat(provider.get()).isEqualTo(0);
+  }
+
+  @Test
+  public void get_manyThreads_createsAtMostOneInstancePerStripe() throws Exception {
+    int numThreads = 32;
+    int stripes = 4;
+    Provider<Object> provider = StripedCheck.provider(Object::new, stripes);
+
+    CountDownLatch latch = new CountDownLatch(numThreads);
+    List<Callable<Object>> tasks = new ArrayList<>();
+    for (int i = 0; i < numThreads; i++) {
+      tasks.add(
+          () -> {
+            latch.countDown();
+            latch.await();
+            return provider.get();
+          });
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    Set<Object> results = Sets.newIdentityHashSet();
+    try {
+      for (Future<Object> future : executor.invokeAll(tasks)) {
+        results.add(future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(results.size()).isAtMost(stripes);
+  }
+
+  @Test
+  public void doubleWrapping() {
+    Provider<Object> stripedCheck = StripedCheck.provider(Object::new, 4);
+    assertThat(StripedCheck.provider(stripedCheck, 8)).isSameInstanceAs(stripedCheck);
+
+    Provider<Object> doubleCheck = DoubleCheck.provider(Object::new);
+    assertThat(StripedCheck.provider(doubleCheck, 4)).isSameInstanceAs(doubleCheck);
+  }
+
+  private static int stripeCount(Provider<?> provider) {
+    return ((StripedCheck<?>) provider).stripeCount();
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class SwitchingMapTest {
+  /** A map like the one generated for {@code @StringKey("one")} and {@code @StringKey("two")}. */
+  private static final class StringKeyedMap extends SwitchingMap<String, Integer> {
+    StringKeyedMap() {
+      super(new Object[] {"one", "two"});
+    }
+
+    @Override
+    protected int indexOf(String name) {
+      switch (name) {
+        case "one": return 0;
+        case "two": return 1;
+        default: return -1;
+      }
+    }
+
+    @Override
+    protected Integer valueAt(int index) {
+      switch (index) {
+        case 0: return 1;
+        case 1: return 2;
+        default: throw new AssertionError(index);
+      }
+    }
+  }
+
+  /** A map like the one generated for {@code @ClassKey(String.class)}. */
+  private static final class ClassKeyedMap extends SwitchingMap<Class<?>, Integer> {
+    ClassKeyedMap() {
+      super(new Object[] {String.class});
+    }
+
+    @Override
+    protected int indexOf(String name) {
+      switch (name) {
+        case "java.lang.String": return 0;
+        default: return -1;
+      }
+    }
+
+    @Override
+    protected Integer valueAt(int index) {
+      switch (index) {
+        case 0: return 1;
+        default: throw new AssertionError(index);
+      }
+    }
+  }
+
+  @Test
+  public void stringKeys() {
+    Map<String, Integer> map = new StringKeyedMap();
+    assertThat(map.get("one")).isEqualTo(1);
+    assertThat(map.get("two")).isEqualTo(2);
+    assertThat(map.get("three")).isNull();
+    assertThat(map.get(null)).isNull();
+    assertThat(map.containsKey("two")).isTrue();
+    assertThat(map.containsKey(String.class)).isFalse();
+    assertThat(map).containsExactly("one", 1, "two", 2).inOrder();
+  }
+
+  @Test
+  public void classKeys() {
+    Map<Class<?>, Integer> map = new ClassKeyedMap();
+    assertThat(map.get(String.class)).isEqualTo(1);
+    assertThat(map.get(Integer.class)).isNull();
+    // A String key with the name of a Class key is a different key.
+    assertThat(map.get("java.lang.String")).isNull();
+    assertThat(map.containsKey("java.lang.String")).isFalse();
+    assertThat(map).containsExactly(String.class, 1);
+  }
+
+  @Test
+  public void equalsOtherMaps() {
+    Map<String, Integer> expected = new LinkedHashMap<>();
+    expected.put("one", 1);
+    expected.put("two", 2);
+    assertThat(new StringKeyedMap()).isEqualTo(expected);
+    assertThat(new StringKeyedMap().hashCode()).isEqualTo(expected.hashCode());
+  }
+
+  @Test
+  public void isImmutable() {
+    Map<String, Integer> map = new StringKeyedMap();
+    try {
+      map.put("three", 3);
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+    try {
+      map.entrySet().iterator().remove();
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+}
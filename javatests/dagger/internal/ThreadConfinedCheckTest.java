@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests {@link ThreadConfinedCheck}. */
+@RunWith(JUnit4.class)
+public class ThreadConfinedCheckTest {
+  @Test(expected = NullPointerException.class)
+  public void create_nullPointerException() {
+    ThreadConfinedCheck.provider(null);
+  }
+
+  @Test
+  public void get_sameThread() {
+    AtomicInteger integer = new AtomicInteger();
+    Provider<Integer> provider = ThreadConfinedCheck.provider(integer::getAndIncrement);
+    assertThat(provider.get()).isEqualTo(0);
+    assertThat(provider.get()).isEqualTo(0);
+  }
+
+  @Test
+  public void get_otherThread() throws Exception {
+    AtomicInteger integer = new AtomicInteger();
+    Provider<Integer> provider = ThreadConfinedCheck.provider(integer::getAndIncrement);
+    assertThat(provider.get()).isEqualTo(0);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertThat(executor.submit(provider::get).get()).isEqualTo(1);
+      assertThat(executor.submit(provider::get).get()).isEqualTo(1);
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(provider.get()).isEqualTo(0);
+  }
+
+  @Test
+  public void get_null() {
+    AtomicInteger provisions = new AtomicInteger();
+    Provider<Object> provider =
+        ThreadConfinedCheck.provider(
+            () -> {
+              provisions.incrementAndGet();
+              return null;
+            });
+    assertThat(provider.get()).isNull();
+    assertThat(provider.get()).isNull();
+    assertThat(provisions.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void doubleWrapping() {
+    Provider<Object> threadConfinedCheck = ThreadConfinedCheck.provider(Object::new);
+    assertThat(ThreadConfinedCheck.provider(threadConfinedCheck))
+        .isSameInstanceAs(threadConfinedCheck);
+
+    Provider<Object> doubleCheck = DoubleCheck.provider(Object::new);
+    assertThat(ThreadConfinedCheck.provider(doubleCheck)).isSameInstanceAs(doubleCheck);
+  }
+}
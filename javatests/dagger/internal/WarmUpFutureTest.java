@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class WarmUpFutureTest {
+  @Test
+  public void noWaves_isDone() throws Exception {
+    Future<Void> future = WarmUpFuture.start(MoreExecutors.directExecutor());
+    assertThat(future.isDone()).isTrue();
+    assertThat(future.get()).isNull();
+  }
+
+  @Test
+  public void wavesRunInOrder() throws Exception {
+    List<String> created = new ArrayList<>();
+    Future<Void> future =
+        WarmUpFuture.start(
+            MoreExecutors.directExecutor(),
+            new Provider<?>[] {recording(created, "a"), recording(created, "b")},
+            new Provider<?>[0],
+            new Provider<?>[] {recording(created, "c")});
+    assertThat(future.get()).isNull();
+    assertThat(created).containsExactly("a", "b", "c").inOrder();
+  }
+
+  @Test
+  public void providersInAWaveRunConcurrently() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      CountDownLatch bothStarted = new CountDownLatch(2);
+      Provider<Object> waitsForTheOther =
+          () -> {
+            bothStarted.countDown();
+            try {
+              return bothStarted.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+              throw new AssertionError(e);
+            }
+          };
+      AtomicInteger calls = new AtomicInteger();
+      Future<Void> future =
+          WarmUpFuture.start(
+              executor,
+              new Provider<?>[] {waitsForTheOther, waitsForTheOther},
+              new Provider<?>[] {calls::incrementAndGet});
+      future.get(10, TimeUnit.SECONDS);
+      assertThat(bothStarted.getCount()).isEqualTo(0);
+      assertThat(calls.get()).isEqualTo(1);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void failure_stopsLaterWaves() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    RuntimeException failure = new IllegalStateException("expected");
+    Future<Void> future =
+        WarmUpFuture.start(
+            MoreExecutors.directExecutor(),
+            new Provider<?>[] {
+              () -> {
+                throw failure;
+              },
+              calls::incrementAndGet
+            },
+            new Provider<?>[] {calls::incrementAndGet});
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e).hasCauseThat().isSameInstanceAs(failure);
+    }
+    assertThat(calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void rejectedExecution_fails() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.shutdown();
+    Future<Void> future = WarmUpFuture.start(executor, new Provider<?>[] {() -> "a"});
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e).hasCauseThat().isInstanceOf(RuntimeException.class);
+    }
+  }
+
+  @Test
+  public void cancel_stopsLaterWaves() throws Exception {
+    List<Runnable> pending = new ArrayList<>();
+    Executor queueing = pending::add;
+    AtomicInteger calls = new AtomicInteger();
+    Future<Void> future =
+        WarmUpFuture.start(
+            queueing,
+            new Provider<?>[] {calls::incrementAndGet},
+            new Provider<?>[] {calls::incrementAndGet});
+    assertThat(future.cancel(false)).isTrue();
+    assertThat(future.isCancelled()).isTrue();
+    pending.remove(0).run();
+    assertThat(pending).isEmpty();
+    assertThat(calls.get()).isEqualTo(1);
+    try {
+      future.get();
+      fail();
+    } catch (CancellationException expected) {
+    }
+  }
+
+  @Test
+  public void getWithTimeout_timesOut() throws Exception {
+    Future<Void> future =
+        WarmUpFuture.start(runnable -> {}, new Provider<?>[] {() -> "never called"});
+    try {
+      future.get(1, TimeUnit.MILLISECONDS);
+      fail();
+    } catch (TimeoutException expected) {
+    }
+  }
+
+  private static Provider<String> recording(List<String> created, String name) {
+    return () -> {
+      created.add(name);
+      return name;
+    };
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal.benchmarks;
+
+import java.util.Arrays;
+
+/**
+ * A minimal timing loop for the main methods in this package. The repository has no JMH
+ * dependency, so this only warms up, times a fixed number of rounds and prints the results; run
+ * each benchmark a few times before comparing numbers.
+ */
+final class Benchmarks {
+  private static final int WARM_UP_ROUNDS = 10;
+  private static final int MEASURED_ROUNDS = 10;
+
+  /** An operation to time. Its result is consumed so that the JIT can't remove the work. */
+  interface Operation {
+    int run();
+  }
+
+  private static volatile int sink;
+
+  /**
+   * Runs {@code operation} {@code operationsPerRound} times per round, and prints the fastest and
+   * the median time per operation of the measured rounds.
+   */
+  static void measure(String name, int operationsPerRound, Operation operation) {
+    measure(name, WARM_UP_ROUNDS, MEASURED_ROUNDS, operationsPerRound, operation);
+  }
+
+  /** Like {@link #measure(String, int, Operation)}, for operations too slow to run many rounds. */
+  static void measure(
+      String name,
+      int warmUpRounds,
+      int measuredRounds,
+      int operationsPerRound,
+      Operation operation) {
+    for (int round = 0; round < warmUpRounds; round++) {
+      runRound(operationsPerRound, operation);
+    }
+    long[] nanosPerRound = new long[measuredRounds];
+    for (int round = 0; round < measuredRounds; round++) {
+      nanosPerRound[round] = runRound(operationsPerRound, operation);
+    }
+    Arrays.sort(nanosPerRound);
+    System.out.printf(
+        "%-50s min %14.1f ns/op   median %14.1f ns/op%n",
+        name,
+        (double) nanosPerRound[0] / operationsPerRound,
+        (double) nanosPerRound[measuredRounds / 2] / operationsPerRound);
+  }
+
+  private static long runRound(int operations, Operation operation) {
+    int result = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < operations; i++) {
+      result += operation.run();
+    }
+    long nanos = System.nanoTime() - start;
+    sink += result;
+    return nanos;
+  }
+
+  private Benchmarks() {}
+}
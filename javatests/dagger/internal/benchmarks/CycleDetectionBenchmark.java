@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal.benchmarks;
+
+import static dagger.internal.codegen.extension.DaggerGraphs.shortestPath;
+import static dagger.internal.codegen.extension.DaggerGraphs.stronglyConnectedComponents;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.Graphs;
+import com.google.common.graph.ImmutableGraph;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares the two ways {@code DependencyCycleValidator} has found cycles, on synthetic dependency
+ * graphs: searching for a path back from the target to the source of each edge that isn't already
+ * on a found cycle, and computing the strongly connected components once and searching for one
+ * cycle inside each of them.
+ *
+ * <p>Node {@code i} of a graph depends on node {@code i + 1} and on a random node among the next
+ * 100, and every thousandth node also depends on the node ten before it, which closes a cycle. The
+ * path search is only run on the smaller graphs, since it takes quadratic time.
+ */
+public final class CycleDetectionBenchmark {
+  private static final int[] PATH_SEARCH_NODES = {1_000, 2_000, 4_000, 8_000};
+  private static final int[] STRONGLY_CONNECTED_COMPONENT_NODES = {
+    1_000, 2_000, 4_000, 8_000, 50_000, 100_000
+  };
+
+  public static void main(String[] args) {
+    for (int nodes : PATH_SEARCH_NODES) {
+      ImmutableGraph<Integer> graph = graph(nodes);
+      Benchmarks.measure(
+          "path search per edge: " + nodes + " nodes", 1, 3, 1, () -> cyclesByPathSearch(graph));
+    }
+    for (int nodes : STRONGLY_CONNECTED_COMPONENT_NODES) {
+      ImmutableGraph<Integer> graph = graph(nodes);
+      Benchmarks.measure(
+          "strongly connected components: " + nodes + " nodes",
+          3,
+          5,
+          1,
+          () -> cyclesByStronglyConnectedComponents(graph));
+    }
+  }
+
+  private static ImmutableGraph<Integer> graph(int nodes) {
+    Random random = new Random(nodes);
+    ImmutableGraph.Builder<Integer> graph = GraphBuilder.directed().immutable();
+    for (int node = 0; node < nodes; node++) {
+      graph.addNode(node);
+      if (node + 1 < nodes) {
+        graph.putEdge(node, node + 1);
+      }
+      int forward = node + 1 + random.nextInt(100);
+      if (forward < nodes) {
+        graph.putEdge(node, forward);
+      }
+      if (node % 1_000 == 999) {
+        graph.putEdge(node, node - 10);
+      }
+    }
+    return graph.build();
+  }
+
+  /** The search that {@code DependencyCycleValidator} did before it used components. */
+  private static int cyclesByPathSearch(ImmutableGraph<Integer> graph) {
+    if (!Graphs.hasCycle(graph)) {
+      return 0;
+    }
+    int cycles = 0;
+    Set<EndpointPair<Integer>> visited = new HashSet<>();
+    for (EndpointPair<Integer> endpoints : graph.edges()) {
+      if (!visited.add(endpoints)) {
+        continue;
+      }
+      ImmutableList<Integer> path = shortestPath(graph, endpoints.target(), endpoints.source());
+      if (!path.isEmpty()) {
+        cycles++;
+        for (int i = 0; i < path.size(); i++) {
+          visited.add(EndpointPair.ordered(path.get(i), path.get((i + 1) % path.size())));
+        }
+      }
+    }
+    return cycles;
+  }
+
+  /** The search that {@code DependencyCycleValidator} does now. */
+  private static int cyclesByStronglyConnectedComponents(ImmutableGraph<Integer> graph) {
+    if (!Graphs.hasCycle(graph)) {
+      return 0;
+    }
+    Map<Integer, ImmutableSet<Integer>> stronglyConnectedComponentOfNode = new HashMap<>();
+    for (ImmutableSet<Integer> stronglyConnectedNodes :
+        stronglyConnectedComponents(graph.nodes(), graph)) {
+      for (Integer node : stronglyConnectedNodes) {
+        stronglyConnectedComponentOfNode.put(node, stronglyConnectedNodes);
+      }
+    }
+    int cycles = 0;
+    Set<ImmutableSet<Integer>> reportedComponents = Sets.newIdentityHashSet();
+    for (EndpointPair<Integer> endpoints : graph.edges()) {
+      ImmutableSet<Integer> stronglyConnectedNodes =
+          stronglyConnectedComponentOfNode.get(endpoints.source());
+      if (stronglyConnectedNodes.contains(endpoints.target())
+          && reportedComponents.add(stronglyConnectedNodes)) {
+        ImmutableList<Integer> path =
+            shortestPath(
+                node -> Iterables.filter(graph.successors(node), stronglyConnectedNodes::contains),
+                endpoints.target(),
+                endpoints.source());
+        cycles += path.isEmpty() ? 0 : 1;
+      }
+    }
+    return cycles;
+  }
+
+  private CycleDetectionBenchmark() {}
+}
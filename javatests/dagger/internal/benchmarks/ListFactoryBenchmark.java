@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal.benchmarks;
+
+import dagger.internal.ListFactory;
+import dagger.internal.SetFactory;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.inject.Provider;
+
+/**
+ * Compares getting a multibound collection of 20 individual contributions and one collection of
+ * 10 contributions from a {@link SetFactory}, for {@code @IntoSet} and {@code @ElementsIntoSet},
+ * and from a {@link ListFactory}, for {@code @IntoList} and {@code @ElementsIntoList}.
+ */
+public final class ListFactoryBenchmark {
+  private static final int INDIVIDUAL_PROVIDERS = 20;
+  private static final int COLLECTION_SIZE = 10;
+
+  public static void main(String[] args) {
+    SetFactory.Builder<Object> setFactory = SetFactory.builder(INDIVIDUAL_PROVIDERS, 1);
+    ListFactory.Builder<Object> listFactory = ListFactory.builder(INDIVIDUAL_PROVIDERS + 1);
+    for (int i = 0; i < INDIVIDUAL_PROVIDERS; i++) {
+      Object element = new Object();
+      setFactory.addProvider(() -> element);
+      listFactory.addProvider(() -> element);
+    }
+    Object[] elements = new Object[COLLECTION_SIZE];
+    for (int i = 0; i < COLLECTION_SIZE; i++) {
+      elements[i] = new Object();
+    }
+    // The collections are created once, so that only the factories are measured.
+    Set<Object> setElements = new HashSet<>(Arrays.asList(elements));
+    List<Object> listElements = Arrays.asList(elements);
+    setFactory.addCollectionProvider(() -> setElements);
+    listFactory.addCollectionProvider(() -> listElements);
+    Provider<Set<Object>> set = setFactory.build();
+    Provider<List<Object>> list = listFactory.build();
+
+    Benchmarks.measure("get: SetFactory", 100_000, () -> set.get().size());
+    Benchmarks.measure("get: ListFactory", 100_000, () -> list.get().size());
+  }
+
+  private ListFactoryBenchmark() {}
+}
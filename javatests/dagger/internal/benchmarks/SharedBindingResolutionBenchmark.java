@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal.benchmarks;
+
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+
+import com.google.common.collect.ImmutableList;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.util.Arrays;
+import javax.tools.JavaFileObject;
+
+/**
+ * Times compiling 200 root components that install the same modules, with and without {@code
+ * -Adagger.sharedBindingResolution=enabled}.
+ *
+ * <p>Each of the {@value #MODULES} modules provides {@value #BINDINGS_PER_MODULE} {@code @Named}
+ * strings, and each string depends on the previous one and on the one with half its index, so
+ * every component resolves all of them. Compiling includes writing the components, so the
+ * difference between the two times is the part of resolution that the option saves.
+ */
+public final class SharedBindingResolutionBenchmark {
+  private static final int COMPONENTS = 200;
+  private static final int MODULES = 10;
+  private static final int BINDINGS_PER_MODULE = 50;
+  private static final int WARM_UP_ROUNDS = 2;
+  private static final int MEASURED_ROUNDS = 5;
+
+  public static void main(String[] args) {
+    ImmutableList<JavaFileObject> sources = sources();
+    for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+      compile(sources);
+      compile(sources, "-Adagger.sharedBindingResolution=enabled");
+    }
+    long[] unsharedMillis = new long[MEASURED_ROUNDS];
+    long[] sharedMillis = new long[MEASURED_ROUNDS];
+    for (int round = 0; round < MEASURED_ROUNDS; round++) {
+      unsharedMillis[round] = compile(sources);
+      sharedMillis[round] = compile(sources, "-Adagger.sharedBindingResolution=enabled");
+    }
+    print("compile: sharedBindingResolution disabled", unsharedMillis);
+    print("compile: sharedBindingResolution enabled", sharedMillis);
+  }
+
+  private static long compile(ImmutableList<JavaFileObject> sources, String... options) {
+    long start = System.nanoTime();
+    Compilation compilation = daggerCompiler().withOptions((Object[]) options).compile(sources);
+    long millis = (System.nanoTime() - start) / 1_000_000;
+    if (compilation.status() != Compilation.Status.SUCCESS) {
+      throw new AssertionError(compilation.diagnostics());
+    }
+    return millis;
+  }
+
+  private static void print(String name, long[] millis) {
+    Arrays.sort(millis);
+    System.out.printf(
+        "%-50s min %8d ms   median %8d ms%n", name, millis[0], millis[MEASURED_ROUNDS / 2]);
+  }
+
+  private static ImmutableList<JavaFileObject> sources() {
+    ImmutableList.Builder<JavaFileObject> sources = ImmutableList.builder();
+    StringBuilder modules = new StringBuilder();
+    for (int module = 0; module < MODULES; module++) {
+      StringBuilder source =
+          new StringBuilder()
+              .append("package test;\n")
+              .append("import dagger.Module;\n")
+              .append("import dagger.Provides;\n")
+              .append("import javax.inject.Named;\n")
+              .append("@Module\n")
+              .append("final class Module")
+              .append(module)
+              .append(" {\n");
+      for (int binding = module * BINDINGS_PER_MODULE;
+          binding < (module + 1) * BINDINGS_PER_MODULE;
+          binding++) {
+        source
+            .append("  @Provides @Named(\"")
+            .append(binding)
+            .append("\") static String provide")
+            .append(binding)
+            .append("(");
+        if (binding > 0) {
+          source
+              .append("@Named(\"")
+              .append(binding - 1)
+              .append("\") String previous, @Named(\"")
+              .append(binding / 2)
+              .append("\") String half");
+        }
+        source.append(") {\n    return \"").append(binding).append("\";\n  }\n");
+      }
+      source.append("}\n");
+      sources.add(JavaFileObjects.forSourceString("test.Module" + module, source));
+      modules.append(module == 0 ? "" : ", ").append("Module").append(module).append(".class");
+    }
+    int lastBinding = MODULES * BINDINGS_PER_MODULE - 1;
+    for (int component = 0; component < COMPONENTS; component++) {
+      sources.add(
+          JavaFileObjects.forSourceString(
+              "test.Component" + component,
+              new StringBuilder()
+                  .append("package test;\n")
+                  .append("import dagger.Component;\n")
+                  .append("import javax.inject.Named;\n")
+                  .append("@Component(modules = {")
+                  .append(modules)
+                  .append("})\n")
+                  .append("interface Component")
+                  .append(component)
+                  .append(" {\n  @Named(\"")
+                  .append(lastBinding)
+                  .append("\") String last();\n}\n")));
+    }
+    return sources.build();
+  }
+
+  private SharedBindingResolutionBenchmark() {}
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal.benchmarks;
+
+import dagger.internal.DoubleCheck;
+import dagger.internal.MemoizedSentinel;
+import javax.inject.Provider;
+
+/**
+ * Compares the steady-state cost of reading a root-scoped binding that has already been created,
+ * for each way Dagger can hold it: in a {@link DoubleCheck} provider by default, in a volatile
+ * field with a {@link MemoizedSentinel} in fastInit mode, and in a static holder class for a
+ * component annotated with {@code @StaticScopedBindings}.
+ *
+ * <p>{@link Component} is written the way the generated component is for each of the three.
+ */
+public final class StaticHolderBenchmark {
+  private static final int READS = 1_000;
+
+  public static void main(String[] args) {
+    Component component = new Component();
+    Benchmarks.measure(
+        "1000 reads: DoubleCheck",
+        10_000,
+        () -> {
+          int found = 0;
+          for (int i = 0; i < READS; i++) {
+            found += component.doubleCheck().value;
+          }
+          return found;
+        });
+    Benchmarks.measure(
+        "1000 reads: fastInit MemoizedSentinel",
+        10_000,
+        () -> {
+          int found = 0;
+          for (int i = 0; i < READS; i++) {
+            found += component.fastInit().value;
+          }
+          return found;
+        });
+    Benchmarks.measure(
+        "1000 reads: static holder",
+        10_000,
+        () -> {
+          int found = 0;
+          for (int i = 0; i < READS; i++) {
+            found += component.staticHolder().value;
+          }
+          return found;
+        });
+  }
+
+  private static final class Foo {
+    final int value;
+
+    Foo(int value) {
+      this.value = value;
+    }
+  }
+
+  private static final class Component {
+    private final Provider<Foo> fooProvider = DoubleCheck.provider(() -> new Foo(1));
+    private volatile Object foo = new MemoizedSentinel();
+
+    Foo doubleCheck() {
+      return fooProvider.get();
+    }
+
+    Foo fastInit() {
+      Object local = foo;
+      if (local instanceof MemoizedSentinel) {
+        synchronized (local) {
+          local = foo;
+          if (local instanceof MemoizedSentinel) {
+            local = new Foo(1);
+            foo = DoubleCheck.reentrantCheck(foo, local);
+          }
+        }
+      }
+      return (Foo) local;
+    }
+
+    Foo staticHolder() {
+      return FooHolder.INSTANCE;
+    }
+
+    private static final class FooHolder {
+      static final Foo INSTANCE = new Foo(1);
+    }
+  }
+
+  private StaticHolderBenchmark() {}
+}
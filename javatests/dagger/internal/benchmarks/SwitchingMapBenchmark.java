@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal.benchmarks;
+
+import dagger.internal.MapProviderFactory;
+import dagger.internal.SwitchingMap;
+import java.util.Map;
+import javax.inject.Provider;
+
+/**
+ * Compares a {@code Map<String, Provider<V>>} multibinding built by {@link MapProviderFactory},
+ * which is what Dagger generates by default, with the {@link SwitchingMap} subclass generated
+ * with {@code -Adagger.switchingMaps=enabled}.
+ *
+ * <p>{@link ThirtyTwoKeySwitchingMap} is written the way the generated class is. Its values come
+ * from an array rather than a switch over factory calls so that both maps share the same
+ * providers and only the map itself is measured.
+ */
+public final class SwitchingMapBenchmark {
+  private static final String[] KEYS = {
+    "key00",
+    "key01",
+    "key02",
+    "key03",
+    "key04",
+    "key05",
+    "key06",
+    "key07",
+    "key08",
+    "key09",
+    "key10",
+    "key11",
+    "key12",
+    "key13",
+    "key14",
+    "key15",
+    "key16",
+    "key17",
+    "key18",
+    "key19",
+    "key20",
+    "key21",
+    "key22",
+    "key23",
+    "key24",
+    "key25",
+    "key26",
+    "key27",
+    "key28",
+    "key29",
+    "key30",
+    "key31"
+  };
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static final Provider<Object>[] PROVIDERS = new Provider[KEYS.length];
+
+  static {
+    for (int i = 0; i < KEYS.length; i++) {
+      Object value = i;
+      PROVIDERS[i] = () -> value;
+    }
+  }
+
+  public static void main(String[] args) {
+    // Copies of the keys, so that looking one up compares the strings rather than the references.
+    String[] lookUps = new String[KEYS.length];
+    for (int i = 0; i < KEYS.length; i++) {
+      lookUps[i] = new String(KEYS[i]);
+    }
+    Map<String, Provider<Object>> mapProviderFactoryMap = mapProviderFactory().get();
+    Map<String, Provider<Object>> switchingMap = new ThirtyTwoKeySwitchingMap();
+
+    Benchmarks.measure(
+        "create: MapProviderFactory", 100_000, () -> mapProviderFactory().get().size());
+    Benchmarks.measure(
+        "create: SwitchingMap", 100_000, () -> new ThirtyTwoKeySwitchingMap().size());
+    Benchmarks.measure(
+        "get all 32 keys: MapProviderFactory",
+        100_000,
+        () -> getAll(mapProviderFactoryMap, lookUps));
+    Benchmarks.measure(
+        "get all 32 keys: SwitchingMap", 100_000, () -> getAll(switchingMap, lookUps));
+  }
+
+  private static MapProviderFactory<String, Object> mapProviderFactory() {
+    MapProviderFactory.Builder<String, Object> builder = MapProviderFactory.builder(KEYS.length);
+    for (int i = 0; i < KEYS.length; i++) {
+      builder.put(KEYS[i], PROVIDERS[i]);
+    }
+    return builder.build();
+  }
+
+  private static int getAll(Map<String, Provider<Object>> map, String[] keys) {
+    int found = 0;
+    for (String key : keys) {
+      if (map.get(key) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+  private static final class ThirtyTwoKeySwitchingMap
+      extends SwitchingMap<String, Provider<Object>> {
+    ThirtyTwoKeySwitchingMap() {
+      super(
+          new Object[] {
+            "key00",
+            "key01",
+            "key02",
+            "key03",
+            "key04",
+            "key05",
+            "key06",
+            "key07",
+            "key08",
+            "key09",
+            "key10",
+            "key11",
+            "key12",
+            "key13",
+            "key14",
+            "key15",
+            "key16",
+            "key17",
+            "key18",
+            "key19",
+            "key20",
+            "key21",
+            "key22",
+            "key23",
+            "key24",
+            "key25",
+            "key26",
+            "key27",
+            "key28",
+            "key29",
+            "key30",
+            "key31"
+          });
+    }
+
+    @Override
+    protected int indexOf(String name) {
+      switch (name) {
+        case "key00": return 0;
+        case "key01": return 1;
+        case "key02": return 2;
+        case "key03": return 3;
+        case "key04": return 4;
+        case "key05": return 5;
+        case "key06": return 6;
+        case "key07": return 7;
+        case "key08": return 8;
+        case "key09": return 9;
+        case "key10": return 10;
+        case "key11": return 11;
+        case "key12": return 12;
+        case "key13": return 13;
+        case "key14": return 14;
+        case "key15": return 15;
+        case "key16": return 16;
+        case "key17": return 17;
+        case "key18": return 18;
+        case "key19": return 19;
+        case "key20": return 20;
+        case "key21": return 21;
+        case "key22": return 22;
+        case "key23": return 23;
+        case "key24": return 24;
+        case "key25": return 25;
+        case "key26": return 26;
+        case "key27": return 27;
+        case "key28": return 28;
+        case "key29": return 29;
+        case "key30": return 30;
+        case "key31": return 31;
+        default: return -1;
+      }
+    }
+
+    @Override
+    protected Provider<Object> valueAt(int index) {
+      return PROVIDERS[index];
+    }
+  }
+
+  private SwitchingMapBenchmark() {}
+}
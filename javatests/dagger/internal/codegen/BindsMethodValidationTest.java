@@ -127,6 +127,21 @@ public class BindsMethodValidationTest {
         .hasError("cannot return a raw Set");
   }
 
+  @Test
+  public void listElementsNotAssignable() {
+    assertThatMethod(
+            "@Binds @ElementsIntoList "
+                + "abstract List<String> bindListOfIntegers(List<Integer> ints);")
+        .hasError("assignable");
+  }
+
+  @Test
+  public void elementsIntoList_notAList() {
+    assertThatMethod(
+            "@Binds @ElementsIntoList abstract Set<String> bindSet(Set<String> strings);")
+        .hasError("@Binds @ElementsIntoList methods must return a List and take a List parameter");
+  }
+
   @Test
   public void intoMap_noMapKey() {
     assertThatMethod("@Binds @IntoMap abstract Object bindNoMapKey(String string);")
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ComponentCodeBudgetTest {
+  private static final JavaFileObject[] SOURCES = {
+    JavaFileObjects.forSourceLines(
+        "test.Foo",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "import javax.inject.Singleton;",
+        "",
+        "@Singleton",
+        "final class Foo {",
+        "  @Inject Foo() {}",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.TestComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import javax.inject.Singleton;",
+        "",
+        "@Singleton",
+        "@Component",
+        "interface TestComponent {",
+        "  Foo foo();",
+        "}"),
+  };
+
+  @Test
+  public void budgetExceeded_error() {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-Adagger.componentCodeBudget=classes=10,methods=1")
+            .compile(SOURCES);
+    assertThat(compilation).failed();
+    assertThat(compilation)
+        .hadErrorContaining("test.DaggerTestComponent exceeds its code budget: methods is")
+        .inFile(SOURCES[1])
+        .onLineContaining("interface TestComponent");
+    assertThat(compilation).hadErrorCount(1);
+  }
+
+  @Test
+  public void budgetExceeded_warning() {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(
+                "-Adagger.componentCodeBudget=providerFields=0",
+                "-Adagger.componentCodeBudgetValidation=WARNING")
+            .compile(SOURCES);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .hadWarningContaining(
+            "test.DaggerTestComponent exceeds its code budget: providerFields is 1, but the budget"
+                + " is 0.");
+  }
+
+  @Test
+  public void withinBudget() {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-Adagger.componentCodeBudget=providerFields=1, shards=0")
+            .compile(SOURCES);
+    assertThat(compilation).succeeded();
+    assertThat(compilation).hadWarningCount(0);
+  }
+
+  @Test
+  public void unknownCount_reportedOnce() {
+    JavaFileObject otherComponent =
+        JavaFileObjects.forSourceLines(
+            "test.OtherComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Singleton",
+            "@Component",
+            "interface OtherComponent {",
+            "  Foo foo();",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-Adagger.componentCodeBudget=bindings=5,methods=1000")
+            .compile(SOURCES[0], SOURCES[1], otherComponent);
+    assertThat(compilation).failed();
+    assertThat(compilation)
+        .hadErrorContaining(
+            "Unknown count in -Adagger.componentCodeBudget: bindings. Valid counts are [classes,");
+    assertThat(compilation).hadErrorCount(1);
+  }
+
+  @Test
+  public void malformedBudget() {
+    Compilation compilation =
+        daggerCompiler().withOptions("-Adagger.componentCodeBudget=methods").compile(SOURCES);
+    assertThat(compilation).failed();
+    assertThat(compilation).hadErrorContaining("Could not parse dagger.componentCodeBudget");
+  }
+
+  @Test
+  public void report() {
+    Compilation compilation =
+        daggerCompiler().withOptions("-Adagger.componentCodeReport=enabled").compile(SOURCES);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedFile(
+            StandardLocation.CLASS_OUTPUT, "test", "DaggerTestComponent.codesize.properties")
+        .contentsAsUtf8String()
+        .containsMatch(
+            "^classes=2\n"
+                + "fields=\\d+\n"
+                + "methods=\\d+\n"
+                + "bytecodeSize=\\d+\n"
+                + "providerFields=1\n"
+                + "switchingProviderCases=0\n"
+                + "shards=0\n$");
+  }
+}
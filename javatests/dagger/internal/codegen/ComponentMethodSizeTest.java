@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_CODE_ANNOTATIONS;
+import static java.util.stream.Collectors.joining;
+
+import com.google.common.collect.ImmutableList;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.util.stream.IntStream;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ComponentMethodSizeTest {
+  private static final int DEPENDENCIES = 60;
+
+  @Test
+  public void largeCachedGetter_movesCreationToSeparateMethod() {
+    ImmutableList.Builder<JavaFileObject> sources = bigBindingSources();
+    sources.add(
+        JavaFileObjects.forSourceLines(
+            "test.Small",
+            "package test;",
+            "",
+            "import javax.inject.Inject;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Singleton",
+            "final class Small {",
+            "  @Inject Small(Dep0 dep0) {}",
+            "}"),
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Singleton",
+            "@Component",
+            "interface TestComponent {",
+            "  Big big();",
+            "  Small small();",
+            "}"));
+
+    Compilation compilation =
+        daggerCompiler().withOptions("-Adagger.fastInit=enabled").compile(sources.build());
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            JavaFileObjects.forSourceLines(
+                "test.DaggerTestComponent",
+                "package test;",
+                "",
+                GENERATED_CODE_ANNOTATIONS,
+                "final class DaggerTestComponent implements TestComponent {",
+                "  @Override",
+                "  public Big big() {",
+                "    Object local = big;",
+                "    if (local instanceof MemoizedSentinel) {",
+                "      synchronized (local) {",
+                "        local = big;",
+                "        if (local instanceof MemoizedSentinel) {",
+                "          local = createBig();",
+                "          big = DoubleCheck.reentrantCheck(big, local);",
+                "        }",
+                "      }",
+                "    }",
+                "    return (Big) local;",
+                "  }",
+                "",
+                "  @Override",
+                "  public Small small() {",
+                "    Object local = small;",
+                "    if (local instanceof MemoizedSentinel) {",
+                "      synchronized (local) {",
+                "        local = small;",
+                "        if (local instanceof MemoizedSentinel) {",
+                "          local = new Small(new Dep0());",
+                "          small = DoubleCheck.reentrantCheck(small, local);",
+                "        }",
+                "      }",
+                "    }",
+                "    return (Small) local;",
+                "  }",
+                "}"));
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains("private Big createBig() {");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("createSmall");
+  }
+
+  @Test
+  public void largeCachedGetter_requestedByComponentMethodAndDependency_sharesCreationMethod() {
+    ImmutableList.Builder<JavaFileObject> sources = bigBindingSources();
+    sources.add(
+        JavaFileObjects.forSourceLines(
+            "test.UsesBig",
+            "package test;",
+            "",
+            "import javax.inject.Inject;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Singleton",
+            "final class UsesBig {",
+            "  @Inject UsesBig(Big big) {}",
+            "}"),
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Singleton",
+            "@Component",
+            "interface TestComponent {",
+            "  Big big();",
+            "  UsesBig usesBig();",
+            "}"));
+
+    Compilation compilation =
+        daggerCompiler().withOptions("-Adagger.fastInit=enabled").compile(sources.build());
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            JavaFileObjects.forSourceLines(
+                "test.DaggerTestComponent",
+                "package test;",
+                "",
+                GENERATED_CODE_ANNOTATIONS,
+                "final class DaggerTestComponent implements TestComponent {",
+                "  private Big createBig() {",
+                "    return new Big("
+                    + IntStream.range(0, DEPENDENCIES)
+                        .mapToObj(i -> "new Dep" + i + "()")
+                        .collect(joining(", "))
+                    + ");",
+                "  }",
+                "",
+                "  @Override",
+                "  public Big big() {",
+                "    Object local = big;",
+                "    if (local instanceof MemoizedSentinel) {",
+                "      synchronized (local) {",
+                "        local = big;",
+                "        if (local instanceof MemoizedSentinel) {",
+                "          local = createBig();",
+                "          big = DoubleCheck.reentrantCheck(big, local);",
+                "        }",
+                "      }",
+                "    }",
+                "    return (Big) local;",
+                "  }",
+                "",
+                "  @Override",
+                "  public UsesBig usesBig() {",
+                "    Object local = usesBig;",
+                "    if (local instanceof MemoizedSentinel) {",
+                "      synchronized (local) {",
+                "        local = usesBig;",
+                "        if (local instanceof MemoizedSentinel) {",
+                "          local = new UsesBig(big());",
+                "          usesBig = DoubleCheck.reentrantCheck(usesBig, local);",
+                "        }",
+                "      }",
+                "    }",
+                "    return (UsesBig) local;",
+                "  }",
+                "}"));
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("createBig2");
+  }
+
+  /** Returns the sources of {@code Big}, a scoped binding whose creation is too large to inline. */
+  private static ImmutableList.Builder<JavaFileObject> bigBindingSources() {
+    ImmutableList.Builder<JavaFileObject> sources = ImmutableList.builder();
+    for (int i = 0; i < DEPENDENCIES; i++) {
+      sources.add(
+          JavaFileObjects.forSourceLines(
+              "test.Dep" + i,
+              "package test;",
+              "",
+              "import javax.inject.Inject;",
+              "",
+              "final class Dep" + i + " {",
+              "  @Inject Dep" + i + "() {}",
+              "}"));
+    }
+    return sources.add(
+        JavaFileObjects.forSourceLines(
+            "test.Big",
+            "package test;",
+            "",
+            "import javax.inject.Inject;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Singleton",
+            "final class Big {",
+            "  @Inject Big("
+                + IntStream.range(0, DEPENDENCIES)
+                    .mapToObj(i -> "Dep" + i + " dep" + i)
+                    .collect(joining(", "))
+                + ") {}",
+            "}"));
+  }
+}
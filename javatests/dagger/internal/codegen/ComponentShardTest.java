@@ -38,7 +38,7 @@ public class ComponentShardTest {
 
   @Test
   public void testNewShardCreated() {
-    // Create 2N + 1 bindings: N in DaggerTestComponent, N in Shard1, and 1 in Shard2
+    // Create 2N + 1 bindings, which need the component and two shards.
     int numBindings = 2 * BINDINGS_PER_SHARD + 1;
     ImmutableList.Builder<JavaFileObject> javaFileObjects = ImmutableList.builder();
     ImmutableList.Builder<String> entryPoints = ImmutableList.builder();
@@ -47,8 +47,8 @@ public class ComponentShardTest {
       entryPoints.add(String.format("%1$s get%1$s();", bindingName));
       entryPoints.add(String.format("Provider<%1$s> get%1$sProvider();", bindingName));
 
-      // Add dependencies between main component and shard1: 9 -> 10 -> Provider<9>
-      // Add dependencies between shard1 and shard2:        19 -> 20 -> Provider<19>
+      // Add dependency cycles that a discovery-order split would cut: 9 -> 10 -> Provider<9>
+      // and 19 -> 20 -> Provider<19>
       switch (i) {
         case 9:
           javaFileObjects.add(createBinding(bindingName, "Binding10 dep"));
@@ -70,171 +70,278 @@ public class ComponentShardTest {
 
     javaFileObjects.add(createComponent(entryPoints.build()));
 
-    // This generated component shows a couple things:
-    //   1. Binding locations:
-    //     * Binding #9 belongs to DaggerTestComponent
-    //     * Binding #10 belongs to Shard1
-    //     * Binding #20 belongs to Shard2
-    //   2. DaggerTestComponent entry point methods:
-    //     * Binding #9 implementation is inlined DaggerTestComponent.
-    //     * Binding #10 implementation is delegated to Shard1.
-    //     * Binding #20 implementation is delegated to Shard2.
-    //   3. Dependencies between component and shard:
-    //     * Binding #9 in DaggerTestComponent depends on #10 in Shard1.
-    //     * Binding #10 in Shard1 depends on Provider<#9> in DaggerTestComponent.
-    //   4. Dependencies between shard and shard:
-    //     * Binding #19 in Shard1 depends on #20 in Shard2.
-    //     * Binding #20 in Shard2 depends on Provider<#19> in Shard1.
+    // Bindings are packed into shards in dependency order, and a dependency cycle is never split:
+    //   * Binding0 through Binding8 belong to DaggerTestComponent.
+    //   * The cycle of Binding9 and Binding10 doesn't fit in the component, so both belong to
+    //     Shard1, followed by Binding11 through Binding18.
+    //   * The cycle of Binding19 and Binding20 doesn't fit in Shard1, so both belong to Shard2.
+    // The bindings in each cycle call each other directly, and the component's entry points call
+    // each shard through its accessor, which creates the shard on first use.
     JavaFileObject generatedComponent =
         JavaFileObjects.forSourceLines(
             "dagger.internal.codegen.DaggerTestComponent",
-                "package dagger.internal.codegen;",
+            "package dagger.internal.codegen;",
             GENERATED_CODE_ANNOTATIONS,
-                "final class DaggerTestComponent implements TestComponent {",
-                "  private final Shard1 shard1 = new Shard1();",
-                "",
-                "  private volatile Provider<Binding9> binding9Provider;",
+            "final class DaggerTestComponent implements TestComponent {",
+            "  private volatile Shard1 shard1;",
+            "",
+            "  private volatile Shard2 shard2;",
+            "",
+            "  private volatile Object binding8 = new MemoizedSentinel();",
+            "",
+            "  private Shard1 shard1() {",
+            "    Shard1 local = shard1;",
+            "    if (local == null) {",
+            "      synchronized (this) {",
+            "        local = shard1;",
+            "        if (local == null) {",
+            "          local = new Shard1();",
+            "          shard1 = local;",
+            "        }",
+            "      }",
+            "    }",
+            "    return local;",
+            "  }",
+            "",
+            "  private Shard2 shard2() {",
+            "    Shard2 local = shard2;",
+            "    if (local == null) {",
+            "      synchronized (this) {",
+            "        local = shard2;",
+            "        if (local == null) {",
+            "          local = new Shard2();",
+            "          shard2 = local;",
+            "        }",
+            "      }",
+            "    }",
+            "    return local;",
+            "  }",
+            "",
+            "  @Override",
+            "  public Binding8 getBinding8() {",
+            "    Object local = binding8;",
+            "    if (local instanceof MemoizedSentinel) {",
+            "      synchronized (local) {",
+            "        local = binding8;",
+            "        if (local instanceof MemoizedSentinel) {",
+            "          local = new Binding8();",
+            "          binding8 = DoubleCheck.reentrantCheck(binding8, local);",
+            "        }",
+            "      }",
+            "    }",
+            "    return (Binding8) local;",
+            "  }",
+            "",
+            "  @Override",
+            "  public Binding9 getBinding9() {",
+            "    return DaggerTestComponent.this.shard1().binding9();",
+            "  }",
+            "",
+            "  @Override",
+            "  public Provider<Binding9> getBinding9Provider() {",
+            "    return DaggerTestComponent.this.shard1().binding9Provider();",
+            "  }",
+            "",
+            "  @Override",
+            "  public Binding10 getBinding10() {",
+            "    return DaggerTestComponent.this.shard1().binding10();",
+            "  }",
+            "",
+            "  @Override",
+            "  public Provider<Binding10> getBinding10Provider() {",
+            "    return DaggerTestComponent.this.shard1().binding10Provider();",
+            "  }",
+            "",
+            "  @Override",
+            "  public Binding19 getBinding19() {",
+            "    return DaggerTestComponent.this.shard2().binding19();",
+            "  }",
+            "",
+            "  @Override",
+            "  public Provider<Binding19> getBinding19Provider() {",
+            "    return DaggerTestComponent.this.shard2().binding19Provider();",
+            "  }",
+            "",
+            "  @Override",
+            "  public Binding20 getBinding20() {",
+            "    return DaggerTestComponent.this.shard2().binding20();",
+            "  }",
+            "",
+            "  @Override",
+            "  public Provider<Binding20> getBinding20Provider() {",
+            "    return DaggerTestComponent.this.shard2().binding20Provider();",
+            "  }",
+            "",
+            "  private final class Shard1 {",
+            "    private volatile Provider<Binding9> binding9Provider;",
+            "",
+            "    private volatile Object binding10 = new MemoizedSentinel();",
+            "",
+            "    private volatile Object binding9 = new MemoizedSentinel();",
+            "",
+            "    private volatile Provider<Binding10> binding10Provider;",
+            "",
+            "    private Provider<Binding9> binding9Provider() {",
+            "      Object local = binding9Provider;",
+            "      if (local == null) {",
+            "        local = new SwitchingProvider<>(9);",
+            "        binding9Provider = (Provider<Binding9>) local;",
+            "      }",
+            "      return (Provider<Binding9>) local;",
+            "    }",
+            "",
+            "    private Binding10 binding10() {",
+            "      Object local = binding10;",
+            "      if (local instanceof MemoizedSentinel) {",
+            "        synchronized (local) {",
+            "          local = binding10;",
+            "          if (local instanceof MemoizedSentinel) {",
+            "            local = new Binding10(binding9Provider());",
+            "            binding10 = DoubleCheck.reentrantCheck(binding10, local);",
+            "          }",
+            "        }",
+            "      }",
+            "      return (Binding10) local;",
+            "    }",
+            "",
+            "    private Binding9 binding9() {",
+            "      Object local = binding9;",
+            "      if (local instanceof MemoizedSentinel) {",
+            "        synchronized (local) {",
+            "          local = binding9;",
+            "          if (local instanceof MemoizedSentinel) {",
+            "            local = new Binding9(binding10());",
+            "            binding9 = DoubleCheck.reentrantCheck(binding9, local);",
+            "          }",
+            "        }",
+            "      }",
+            "      return (Binding9) local;",
+            "    }",
+            "",
+            "    private Provider<Binding10> binding10Provider() {",
+            "      Object local = binding10Provider;",
+            "      if (local == null) {",
+            "        local = new SwitchingProvider<>(10);",
+            "        binding10Provider = (Provider<Binding10>) local;",
+            "      }",
+            "      return (Provider<Binding10>) local;",
+            "    }",
+            "  }",
+            "",
+            "  private final class Shard2 {",
+            "    private volatile Provider<Binding19> binding19Provider;",
+            "",
+            "    private volatile Object binding20 = new MemoizedSentinel();",
+            "",
+            "    private volatile Object binding19 = new MemoizedSentinel();",
+            "",
+            "    private volatile Provider<Binding20> binding20Provider;",
+            "",
+            "    private Provider<Binding19> binding19Provider() {",
+            "      Object local = binding19Provider;",
+            "      if (local == null) {",
+            "        local = new SwitchingProvider<>(19);",
+            "        binding19Provider = (Provider<Binding19>) local;",
+            "      }",
+            "      return (Provider<Binding19>) local;",
+            "    }",
+            "",
+            "    private Binding20 binding20() {",
+            "      Object local = binding20;",
+            "      if (local instanceof MemoizedSentinel) {",
+            "        synchronized (local) {",
+            "          local = binding20;",
+            "          if (local instanceof MemoizedSentinel) {",
+            "            local = new Binding20(binding19Provider());",
+            "            binding20 = DoubleCheck.reentrantCheck(binding20, local);",
+            "          }",
+            "        }",
+            "      }",
+            "      return (Binding20) local;",
+            "    }",
+            "",
+            "    private Binding19 binding19() {",
+            "      Object local = binding19;",
+            "      if (local instanceof MemoizedSentinel) {",
+            "        synchronized (local) {",
+            "          local = binding19;",
+            "          if (local instanceof MemoizedSentinel) {",
+            "            local = new Binding19(binding20());",
+            "            binding19 = DoubleCheck.reentrantCheck(binding19, local);",
+            "          }",
+            "        }",
+            "      }",
+            "      return (Binding19) local;",
+            "    }",
+            "",
+            "    private Provider<Binding20> binding20Provider() {",
+            "      Object local = binding20Provider;",
+            "      if (local == null) {",
+            "        local = new SwitchingProvider<>(20);",
+            "        binding20Provider = (Provider<Binding20>) local;",
+            "      }",
+            "      return (Provider<Binding20>) local;",
+            "    }",
+            "  }",
+            "}");
+
+    Compilation compilation = compilerWithAndroidMode().compile(javaFileObjects.build());
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+        .generatedSourceFile("dagger.internal.codegen.DaggerTestComponent")
+        .containsElementsIn(generatedComponent);
+    assertThat(compilation)
+        .generatedSourceFile("dagger.internal.codegen.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("Shard3");
+  }
+
+  @Test
+  public void testShardAccessorWithReentrantLockStrategy() {
+    int numBindings = BINDINGS_PER_SHARD + 1;
+    ImmutableList.Builder<JavaFileObject> javaFileObjects = ImmutableList.builder();
+    ImmutableList.Builder<String> entryPoints = ImmutableList.builder();
+    for (int i = 0; i < numBindings; i++) {
+      String bindingName = "Binding" + i;
+      entryPoints.add(String.format("%1$s get%1$s();", bindingName));
+      javaFileObjects.add(createBinding(bindingName));
+    }
+    javaFileObjects.add(createComponent(entryPoints.build()));
+
+    Compilation compilation =
+        compilerWithAndroidMode("-Adagger.scopedLockStrategy=reentrant")
+            .compile(javaFileObjects.build());
+    assertThat(compilation).succeededWithoutWarnings();
+    assertThat(compilation)
+        .generatedSourceFile("dagger.internal.codegen.DaggerTestComponent")
+        .containsElementsIn(
+            JavaFileObjects.forSourceLines(
+                "dagger.internal.codegen.DaggerTestComponent",
+                "package dagger.internal.codegen;",
                 "",
-                "  private volatile Object binding9 = new MemoizedSentinel();",
+                "import java.util.concurrent.locks.ReentrantLock;",
                 "",
-                "  @Override",
-                "  public Binding9 getBinding9() {",
-                "    Object local = binding9;",
-                "    if (local instanceof MemoizedSentinel) {",
-                "      synchronized (local) {",
-                "        local = binding9;",
-                "        if (local instanceof MemoizedSentinel) {",
-                "          local = new Binding9(DaggerTestComponent.this.shard1.binding10());",
-                "          binding9 = DoubleCheck.reentrantCheck(binding9, local);",
-                "        }",
-                "      }",
-                "    }",
-                "    return (Binding9) local;",
-                "  }",
+                GENERATED_CODE_ANNOTATIONS,
+                "final class DaggerTestComponent implements TestComponent {",
+                "  private final ReentrantLock lazyInitializationLock = new ReentrantLock();",
                 "",
-                "  @Override",
-                "  public Provider<Binding9> getBinding9Provider() {",
-                "    Object local = binding9Provider;",
+                "  private Shard1 shard1() {",
+                "    Shard1 local = shard1;",
                 "    if (local == null) {",
-                "      local = new SwitchingProvider<>(9);",
-                "      binding9Provider = (Provider<Binding9>) local;",
-                "    }",
-                "    return (Provider<Binding9>) local;",
-                "  }",
-                "",
-                "  @Override",
-                "  public Binding10 getBinding10() {",
-                "    return DaggerTestComponent.this.shard1.binding10();",
-                "  }",
-                "",
-                "  @Override",
-                "  public Provider<Binding10> getBinding10Provider() {",
-                "    return DaggerTestComponent.this.shard1.binding10Provider();",
-                "  }",
-                "",
-                "  @Override",
-                "  public Binding20 getBinding20() {",
-                "    return DaggerTestComponent.this.shard2.binding20();",
-                "  }",
-                "",
-                "  @Override",
-                "  public Provider<Binding20> getBinding20Provider() {",
-                "    return DaggerTestComponent.this.shard2.binding20Provider();",
-                "  }",
-                "",
-                "  private final class Shard1 {",
-                "    private volatile Object binding10 = new MemoizedSentinel();",
-                "",
-                "    private volatile Provider<Binding10> binding10Provider;",
-                "",
-                "    private volatile Provider<Binding19> binding19Provider;",
-                "",
-                "    private volatile Object binding19 = new MemoizedSentinel();",
-                "",
-                "    private Binding10 binding10() {",
-                "      Object local = binding10;",
-                "      if (local instanceof MemoizedSentinel) {",
-                "        synchronized (local) {",
-                "          local = binding10;",
-                "          if (local instanceof MemoizedSentinel) {",
-                "            local = new Binding10(",
-                "                DaggerTestComponent.this.getBinding9Provider());",
-                "            binding10 = DoubleCheck.reentrantCheck(binding10, local);",
-                "          }",
-                "        }",
-                "      }",
-                "      return (Binding10) local;",
-                "    }",
-                "",
-                "    private Provider<Binding10> binding10Provider() {",
-                "      Object local = binding10Provider;",
-                "      if (local == null) {",
-                "        local = new SwitchingProvider<>(10);",
-                "        binding10Provider = (Provider<Binding10>) local;",
-                "      }",
-                "      return (Provider<Binding10>) local;",
-                "    }",
-                "",
-                "    private Provider<Binding19> binding19Provider() {",
-                "      Object local = binding19Provider;",
-                "      if (local == null) {",
-                "        local = new SwitchingProvider<>(19);",
-                "        binding19Provider = (Provider<Binding19>) local;",
-                "      }",
-                "      return (Provider<Binding19>) local;",
-                "    }",
-                "",
-                "    private Binding19 binding19() {",
-                "      Object local = binding19;",
-                "      if (local instanceof MemoizedSentinel) {",
-                "        synchronized (local) {",
-                "          local = binding19;",
-                "          if (local instanceof MemoizedSentinel) {",
-                "            local = new Binding19(DaggerTestComponent.this.shard2.binding20());",
-                "            binding19 = DoubleCheck.reentrantCheck(binding19, local);",
-                "          }",
-                "        }",
-                "      }",
-                "      return (Binding19) local;",
-                "    }",
-                "  }",
-                "",
-                "  private final class Shard2 {",
-                "    private volatile Object binding20 = new MemoizedSentinel();",
-                "",
-                "    private volatile Provider<Binding20> binding20Provider;",
-                "",
-                "    private Binding20 binding20() {",
-                "      Object local = binding20;",
-                "      if (local instanceof MemoizedSentinel) {",
-                "        synchronized (local) {",
-                "          local = binding20;",
-                "          if (local instanceof MemoizedSentinel) {",
-                "            local = new Binding20(",
-                "                DaggerTestComponent.this.shard1.binding19Provider());",
-                "            binding20 = DoubleCheck.reentrantCheck(binding20, local);",
-                "          }",
+                "      lazyInitializationLock.lock();",
+                "      try {",
+                "        local = shard1;",
+                "        if (local == null) {",
+                "          local = new Shard1();",
+                "          shard1 = local;",
                 "        }",
+                "      } finally {",
+                "        lazyInitializationLock.unlock();",
                 "      }",
-                "      return (Binding20) local;",
-                "    }",
-                "",
-                "    private Provider<Binding20> binding20Provider() {",
-                "      Object local = binding20Provider;",
-                "      if (local == null) {",
-                "        local = new SwitchingProvider<>(20);",
-                "        binding20Provider = (Provider<Binding20>) local;",
-                "      }",
-                "      return (Provider<Binding20>) local;",
                 "    }",
+                "    return local;",
                 "  }",
-                "}");
-
-    Compilation compilation = compilerWithAndroidMode().compile(javaFileObjects.build());
-    assertThat(compilation).succeededWithoutWarnings();
-    assertThat(compilation)
-        .generatedSourceFile("dagger.internal.codegen.DaggerTestComponent")
-        .containsElementsIn(generatedComponent);
+                "}"));
   }
 
   private static JavaFileObject createBinding(String bindingName, String... deps) {
@@ -269,13 +376,14 @@ public class ComponentShardTest {
         "}");
   }
 
-  private static Compiler compilerWithAndroidMode() {
+  private static Compiler compilerWithAndroidMode(String... options) {
     return javac()
         .withProcessors(new ComponentProcessor())
         .withOptions(
             ImmutableSet.builder()
                 .add("-Adagger.keysPerComponentShard=" + BINDINGS_PER_SHARD)
                 .addAll(CompilerMode.FAST_INIT_MODE.javacopts())
+                .add((Object[]) options)
                 .build());
   }
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ComponentSourceCacheTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static final String MARKER = "// replayed from the component source cache";
+
+  private static final JavaFileObject FOO =
+      JavaFileObjects.forSourceLines(
+          "test.Foo",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "",
+          "final class Foo {",
+          "  @Inject Foo() {}",
+          "}");
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "",
+          "@Component",
+          "interface TestComponent {",
+          "  Foo foo();",
+          "}");
+
+  private static final JavaFileObject PROVIDER_COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "import javax.inject.Provider;",
+          "",
+          "@Component",
+          "interface TestComponent {",
+          "  Provider<Foo> fooProvider();",
+          "}");
+
+  @Test
+  public void unchangedGraph_replaysCachedSource() throws Exception {
+    Path cache = temporaryFolder.newFolder("cache").toPath();
+    Compilation first = compileWithCache(cache, FOO, COMPONENT);
+    assertThat(first).succeeded();
+    Path entry = cache.resolve("test.DaggerTestComponent.source");
+    assertThat(Files.exists(entry)).isTrue();
+    markEntry(entry);
+
+    Compilation second = compileWithCache(cache, FOO, COMPONENT);
+    assertThat(second).succeeded();
+    assertThat(second)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains(MARKER);
+  }
+
+  @Test
+  public void changedSource_regeneratesComponent() throws Exception {
+    Path cache = temporaryFolder.newFolder("cache").toPath();
+    assertThat(compileWithCache(cache, FOO, COMPONENT)).succeeded();
+    markEntry(cache.resolve("test.DaggerTestComponent.source"));
+
+    JavaFileObject changedFoo =
+        JavaFileObjects.forSourceLines(
+            "test.Foo",
+            "package test;",
+            "",
+            "import javax.inject.Inject;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Singleton",
+            "final class Foo {",
+            "  @Inject Foo() {}",
+            "}");
+    JavaFileObject scopedComponent =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Singleton",
+            "@Component",
+            "interface TestComponent {",
+            "  Foo foo();",
+            "}");
+    Compilation compilation = compileWithCache(cache, changedFoo, scopedComponent);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain(MARKER);
+  }
+
+  @Test
+  public void changedHotProviderProfile_regeneratesComponent() throws Exception {
+    Path cache = temporaryFolder.newFolder("cache").toPath();
+    Path profile = temporaryFolder.newFile("profile.txt").toPath();
+    Files.write(profile, "1000\ttest.Foo\n".getBytes(UTF_8));
+    assertThat(compileWithCache(cache, profile)).succeeded();
+    markEntry(cache.resolve("test.DaggerTestComponent.source"));
+
+    // The same path, so only the contents of the profile have changed.
+    Files.write(profile, "# no hot bindings\n".getBytes(UTF_8));
+    Compilation compilation = compileWithCache(cache, profile);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain(MARKER);
+  }
+
+  @Test
+  public void componentCodeReport_writtenForReplayedSource() throws Exception {
+    Path cache = temporaryFolder.newFolder("cache").toPath();
+    Compilation first = compileWithCacheAndReport(cache);
+    assertThat(first).succeeded();
+    String report = codeSizeReport(first);
+    markEntry(cache.resolve("test.DaggerTestComponent.source"));
+
+    Compilation second = compileWithCacheAndReport(cache);
+    assertThat(second).succeeded();
+    assertThat(second)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains(MARKER);
+    assertThat(codeSizeReport(second)).isEqualTo(report);
+  }
+
+  @Test
+  public void componentCodeBudget_reportedForReplayedSource() throws Exception {
+    Path cache = temporaryFolder.newFolder("cache").toPath();
+    assertThat(compileWithCacheAndBudget(cache)).hadErrorContaining("exceeds its code budget");
+    markEntry(cache.resolve("test.DaggerTestComponent.source"));
+
+    Compilation compilation = compileWithCacheAndBudget(cache);
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains(MARKER);
+    assertThat(compilation)
+        .hadErrorContaining("test.DaggerTestComponent exceeds its code budget: methods is");
+  }
+
+  private static Compilation compileWithCache(Path cache, JavaFileObject... sources) {
+    return daggerCompiler()
+        .withOptions("-Adagger.componentSourceCacheDirectory=" + cache)
+        .compile(sources);
+  }
+
+  private static Compilation compileWithCache(Path cache, Path hotProviderProfile) {
+    return daggerCompiler()
+        .withOptions(
+            "-Adagger.componentSourceCacheDirectory=" + cache,
+            "-Adagger.fastInit=enabled",
+            "-Adagger.hotProviderProfile=" + hotProviderProfile)
+        .compile(FOO, PROVIDER_COMPONENT);
+  }
+
+  private static Compilation compileWithCacheAndReport(Path cache) {
+    return daggerCompiler()
+        .withOptions(
+            "-Adagger.componentSourceCacheDirectory=" + cache,
+            "-Adagger.componentCodeReport=enabled")
+        .compile(FOO, COMPONENT);
+  }
+
+  private static Compilation compileWithCacheAndBudget(Path cache) {
+    return daggerCompiler()
+        .withOptions(
+            "-Adagger.componentSourceCacheDirectory=" + cache,
+            "-Adagger.componentCodeBudget=methods=1")
+        .compile(FOO, COMPONENT);
+  }
+
+  private static String codeSizeReport(Compilation compilation) throws Exception {
+    return compilation
+        .generatedFile(
+            StandardLocation.CLASS_OUTPUT, "test", "DaggerTestComponent.codesize.properties")
+        .get()
+        .getCharContent(true)
+        .toString();
+  }
+
+  /** Appends {@link #MARKER} to the cached source, to tell whether it is replayed. */
+  private static void markEntry(Path entry) throws Exception {
+    String contents = new String(Files.readAllBytes(entry), UTF_8);
+    Files.write(entry, (contents + MARKER + "\n").getBytes(UTF_8));
+  }
+}
@@ -177,6 +177,44 @@ public class DependencyCycleValidationTest {
         .onLineContaining("interface DComponent");
   }
 
+  @Test
+  public void cyclesThroughTheSameBindingsAreReportedOnce() {
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.Outer",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import javax.inject.Inject;",
+            "",
+            "final class Outer {",
+            "  static class A {",
+            "    @Inject A(B bParam, C cParam) {}",
+            "  }",
+            "",
+            "  static class B {",
+            "    @Inject B(A aParam) {}",
+            "  }",
+            "",
+            "  static class C {",
+            "    @Inject C(A aParam) {}",
+            "  }",
+            "",
+            "  @Component",
+            "  interface AComponent {",
+            "    A getA();",
+            "  }",
+            "}");
+
+    Compilation compilation = daggerCompiler().compile(component);
+    assertThat(compilation).failed();
+    assertThat(compilation)
+        .hadErrorContaining("Found a dependency cycle:")
+        .inFile(component)
+        .onLineContaining("interface AComponent");
+    assertThat(compilation).hadErrorCount(1);
+  }
+
   @Test
   public void cyclicDependencyNotBrokenByMapBinding() {
     JavaFileObject component =
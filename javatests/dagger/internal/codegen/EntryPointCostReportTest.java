@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class EntryPointCostReportTest {
+  private static final JavaFileObject[] SOURCES = {
+    JavaFileObjects.forSourceLines(
+        "test.Leaf",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class Leaf {",
+        "  @Inject Leaf() {}",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.Shared",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "import javax.inject.Singleton;",
+        "",
+        "@Singleton",
+        "final class Shared {",
+        "  @Inject Shared(Leaf leaf) {}",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.Middle",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class Middle {",
+        "  @Inject Middle(Shared shared) {}",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.Top",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "import javax.inject.Provider;",
+        "",
+        "final class Top {",
+        "  @Inject Top(Middle first, Middle second, Provider<Leaf> leafProvider) {}",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.TestComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import javax.inject.Provider;",
+        "import javax.inject.Singleton;",
+        "",
+        "@Singleton",
+        "@Component",
+        "interface TestComponent {",
+        "  Provider<Top> topProvider();",
+        "  Shared shared();",
+        "  Top top();",
+        "}"),
+  };
+
+  @Test
+  public void report() {
+    Compilation compilation =
+        daggerCompiler().withOptions("-Adagger.entryPointCostReport=enabled").compile(SOURCES);
+    assertThat(compilation).succeeded();
+    // Each call to top() constructs Top and two Middles. Only the first also initializes Shared,
+    // whose Leaf is the fourth object in the chain.
+    assertThat(compilation)
+        .generatedFile(StandardLocation.CLASS_OUTPUT, "test", "TestComponent.entrypointcosts.tsv")
+        .contentsAsUtf8String()
+        .isEqualTo(
+            "# unscoped\tscoped\tdepth\tentry point\n"
+                + "3\t1\t4\ttest.TestComponent#top()\n"
+                + "0\t1\t2\ttest.TestComponent#shared()\n"
+                + "0\t0\t0\ttest.TestComponent#topProvider()\n");
+  }
+
+  @Test
+  public void withoutOption_noReport() {
+    Compilation compilation = daggerCompiler().compile(SOURCES);
+    assertThat(compilation).succeeded();
+    assertThat(
+            compilation
+                .generatedFile(
+                    StandardLocation.CLASS_OUTPUT, "test", "TestComponent.entrypointcosts.tsv")
+                .isPresent())
+        .isFalse();
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.CompilerMode.DEFAULT_MODE;
+import static dagger.internal.codegen.CompilerMode.FAST_INIT_MODE;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_CODE_ANNOTATIONS;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.util.Collection;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class ExpiringScopeTest {
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> parameters() {
+    return CompilerMode.TEST_PARAMETERS;
+  }
+
+  private final CompilerMode compilerMode;
+
+  public ExpiringScopeTest(CompilerMode compilerMode) {
+    this.compilerMode = compilerMode;
+  }
+
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "import javax.inject.Provider;",
+          "",
+          "@Component(modules = TestModule.class)",
+          "interface TestComponent {",
+          "  RoutingTable routingTable();",
+          "  Provider<String> config();",
+          "}");
+
+  @Test
+  public void expiringScope() {
+    JavaFileObject routingTable =
+        JavaFileObjects.forSourceLines(
+            "test.RoutingTable",
+            "package test;",
+            "",
+            "import dagger.Expiring;",
+            "import javax.inject.Inject;",
+            "",
+            "@Expiring(seconds = 30)",
+            "class RoutingTable {",
+            "  @Inject RoutingTable(String config) {}",
+            "}");
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Expiring;",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "",
+            "@Module",
+            "final class TestModule {",
+            "  @Provides",
+            "  @Expiring(seconds = 5)",
+            "  static String config() {",
+            "    return \"config\";",
+            "  }",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(compilerMode.javacopts())
+            .compile(routingTable, module, COMPONENT);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            compilerMode
+                .javaFileBuilder("test.DaggerTestComponent")
+                .addLines(
+                    "package test;",
+                    "",
+                    GENERATED_CODE_ANNOTATIONS,
+                    "final class DaggerTestComponent implements TestComponent {")
+                .addLinesIn(
+                    DEFAULT_MODE,
+                    "  @SuppressWarnings(\"unchecked\")",
+                    "  private void initialize() {",
+                    "    this.configProvider =",
+                    "        ExpiringCheck.provider(TestModule_ConfigFactory.create(), 5L);",
+                    "    this.routingTableProvider =",
+                    "        ExpiringCheck.provider(RoutingTable_Factory.create(configProvider), 30L);",
+                    "  }",
+                    "",
+                    "  @Override",
+                    "  public RoutingTable routingTable() {",
+                    "    return routingTableProvider.get();",
+                    "  }",
+                    "",
+                    "  @Override",
+                    "  public Provider<String> config() {",
+                    "    return configProvider;",
+                    "  }")
+                .addLinesIn(
+                    FAST_INIT_MODE,
+                    "  private Provider<RoutingTable> routingTableProvider() {",
+                    "    Object local = routingTableProvider;",
+                    "    if (local == null) {",
+                    "      local = ExpiringCheck.provider(new SwitchingProvider<>(0), 30L);",
+                    "      routingTableProvider = (Provider<RoutingTable>) local;",
+                    "    }",
+                    "    return (Provider<RoutingTable>) local;",
+                    "  }",
+                    "",
+                    "  @Override",
+                    "  public RoutingTable routingTable() {",
+                    "    return routingTableProvider().get();",
+                    "  }",
+                    "",
+                    "  @Override",
+                    "  public Provider<String> config() {",
+                    "    Object local = configProvider;",
+                    "    if (local == null) {",
+                    "      local = ExpiringCheck.provider(new SwitchingProvider<>(1), 5L);",
+                    "      configProvider = (Provider<String>) local;",
+                    "    }",
+                    "    return (Provider<String>) local;",
+                    "  }",
+                    "",
+                    "  private final class SwitchingProvider<T> implements Provider<T> {",
+                    "    @SuppressWarnings(\"unchecked\")",
+                    "    @Override",
+                    "    public T get() {",
+                    "      switch (id) {",
+                    "        case 0: // test.RoutingTable ",
+                    "        return (T) new RoutingTable(DaggerTestComponent.this.config().get());",
+                    "        case 1: // java.lang.String ",
+                    "        return (T) TestModule_ConfigFactory.config();",
+                    "        default: throw new AssertionError(id);",
+                    "      }",
+                    "    }",
+                    "  }")
+                .addLines("}")
+                .build());
+  }
+
+  @Test
+  public void nonPositiveSeconds() {
+    JavaFileObject routingTable =
+        JavaFileObjects.forSourceLines(
+            "test.RoutingTable",
+            "package test;",
+            "",
+            "import dagger.Expiring;",
+            "import javax.inject.Inject;",
+            "",
+            "@Expiring(seconds = 0)",
+            "class RoutingTable {",
+            "  @Inject RoutingTable() {}",
+            "}");
+    Compilation compilation =
+        daggerCompiler().withOptions(compilerMode.javacopts()).compile(routingTable);
+    assertThat(compilation).failed();
+    assertThat(compilation)
+        .hadErrorContaining("@Expiring.seconds must be positive")
+        .inFile(routingTable)
+        .onLineContaining("@Expiring");
+  }
+
+  @Test
+  public void expiringComponent() {
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import dagger.Expiring;",
+            "",
+            "@Expiring(seconds = 30)",
+            "@Component",
+            "interface TestComponent {}");
+    Compilation compilation =
+        daggerCompiler().withOptions(compilerMode.javacopts()).compile(component);
+    assertThat(compilation).failed();
+    assertThat(compilation)
+        .hadErrorContaining("@Expiring cannot be applied to components or subcomponents");
+  }
+}
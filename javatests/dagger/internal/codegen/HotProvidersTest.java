@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_CODE_ANNOTATIONS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.io.File;
+import java.nio.file.Files;
+import javax.tools.JavaFileObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class HotProvidersTest {
+  @Rule public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private static final JavaFileObject HOT =
+      JavaFileObjects.forSourceLines(
+          "test.Hot",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "",
+          "final class Hot {",
+          "  @Inject Hot() {}",
+          "}");
+  private static final JavaFileObject COLD =
+      JavaFileObjects.forSourceLines(
+          "test.Cold",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "",
+          "final class Cold {",
+          "  @Inject Cold() {}",
+          "}");
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "import javax.inject.Provider;",
+          "",
+          "@Component",
+          "interface TestComponent {",
+          "  Provider<Hot> hotProvider();",
+          "  Provider<Cold> coldProvider();",
+          "}");
+
+  @Test
+  public void hotKeys_getTheirOwnProviderClass() throws Exception {
+    File profile = temporaryFolder.newFile("profile.txt");
+    Files.write(profile.toPath(), "# calls\tkey\n1000\ttest.Hot\n2\ttest.Cold\n".getBytes(UTF_8));
+
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(
+                "-Adagger.fastInit=enabled",
+                "-Adagger.hotProviderProfile=" + profile.getPath(),
+                "-Adagger.hotProviderLimit=1")
+            .compile(HOT, COLD, COMPONENT);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            JavaFileObjects.forSourceLines(
+                "test.DaggerTestComponent",
+                "package test;",
+                "",
+                GENERATED_CODE_ANNOTATIONS,
+                "final class DaggerTestComponent implements TestComponent {",
+                "  private volatile Provider<Hot> hotProvider;",
+                "  private volatile Provider<Cold> coldProvider;",
+                "",
+                "  @Override",
+                "  public Provider<Hot> hotProvider() {",
+                "    Object local = hotProvider;",
+                "    if (local == null) {",
+                "      local = new HotProvider();",
+                "      hotProvider = (Provider<Hot>) local;",
+                "    }",
+                "    return (Provider<Hot>) local;",
+                "  }",
+                "",
+                "  @Override",
+                "  public Provider<Cold> coldProvider() {",
+                "    Object local = coldProvider;",
+                "    if (local == null) {",
+                "      local = new SwitchingProvider<>(0);",
+                "      coldProvider = (Provider<Cold>) local;",
+                "    }",
+                "    return (Provider<Cold>) local;",
+                "  }",
+                "",
+                "  private final class HotProvider implements Provider<Hot> {",
+                "    @Override",
+                "    public Hot get() {",
+                "      return new Hot();",
+                "    }",
+                "  }",
+                "",
+                "  private final class SwitchingProvider<T> implements Provider<T> {",
+                "    @SuppressWarnings(\"unchecked\")",
+                "    @Override",
+                "    public T get() {",
+                "      switch (id) {",
+                "        case 0:",
+                "          return (T) new Cold();",
+                "        default:",
+                "          throw new AssertionError(id);",
+                "      }",
+                "    }",
+                "  }",
+                "}"));
+  }
+
+  @Test
+  public void recordProviderProfile_recordsEachCall() {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-Adagger.fastInit=enabled", "-Adagger.recordProviderProfile=enabled")
+            .compile(HOT, COLD, COMPONENT);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            JavaFileObjects.forSourceLines(
+                "test.DaggerTestComponent",
+                "package test;",
+                "",
+                "import dagger.internal.ProviderProfile;",
+                "",
+                GENERATED_CODE_ANNOTATIONS,
+                "final class DaggerTestComponent implements TestComponent {",
+                "  private final class SwitchingProvider<T> implements Provider<T> {",
+                "    @SuppressWarnings(\"unchecked\")",
+                "    @Override",
+                "    public T get() {",
+                "      switch (id) {",
+                "        case 0:",
+                "          ProviderProfile.record(\"test.Hot\");",
+                "          return (T) new Hot();",
+                "        case 1:",
+                "          ProviderProfile.record(\"test.Cold\");",
+                "          return (T) new Cold();",
+                "        default:",
+                "          throw new AssertionError(id);",
+                "      }",
+                "    }",
+                "  }",
+                "}"));
+  }
+
+  @Test
+  public void unreadableProfile_fails() {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(
+                "-Adagger.fastInit=enabled",
+                "-Adagger.hotProviderProfile="
+                    + new File(temporaryFolder.getRoot(), "missing.txt").getPath())
+            .compile(HOT, COLD, COMPONENT);
+    assertThat(compilation).failed();
+    assertThat(compilation).hadErrorContaining("Could not read dagger.hotProviderProfile");
+  }
+}
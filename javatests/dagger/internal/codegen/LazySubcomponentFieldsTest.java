@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class LazySubcomponentFieldsTest {
+  private static final JavaFileObject[] SOURCES = {
+    JavaFileObjects.forSourceLines(
+        "test.Dep",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class Dep {",
+        "  @Inject Dep() {}",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.Baz",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class Baz {",
+        "  @Inject Baz(Dep dep) {}",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.Foo",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class Foo {",
+        "  @Inject Foo(String string) {}",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.Bar",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "@ChildScope",
+        "final class Bar {",
+        "  @Inject Bar(Foo foo) {}",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.ChildScope",
+        "package test;",
+        "",
+        "import javax.inject.Scope;",
+        "",
+        "@Scope",
+        "@interface ChildScope {}"),
+    JavaFileObjects.forSourceLines(
+        "test.ChildModule",
+        "package test;",
+        "",
+        "import dagger.Module;",
+        "import dagger.Provides;",
+        "",
+        "@Module",
+        "interface ChildModule {",
+        "  @Provides",
+        "  static String string() {",
+        "    return \"\";",
+        "  }",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.Child",
+        "package test;",
+        "",
+        "import dagger.Subcomponent;",
+        "import javax.inject.Provider;",
+        "",
+        "@ChildScope",
+        "@Subcomponent(modules = ChildModule.class)",
+        "interface Child {",
+        "  Provider<Foo> foo();",
+        "  Bar bar();",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.Parent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import javax.inject.Provider;",
+        "",
+        "@Component",
+        "interface Parent {",
+        "  Provider<Baz> baz();",
+        "  Child child();",
+        "}"),
+  };
+
+  @Test
+  public void subcomponentProviderFields_createdOnFirstUse() {
+    Compilation compilation =
+        daggerCompiler().withOptions("-Adagger.lazySubcomponentFields=enabled").compile(SOURCES);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerParent")
+        .contentsAsUtf8String()
+        .contains("private volatile Provider<Foo> fooProvider;");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerParent")
+        .contentsAsUtf8String()
+        .contains("local = Foo_Factory.create(ChildModule_StringFactory.create());");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerParent")
+        .contentsAsUtf8String()
+        .contains("local = DoubleCheck.provider(Bar_Factory.create(fooProvider()));");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerParent")
+        .contentsAsUtf8String()
+        .contains("return fooProvider();");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerParent")
+        .contentsAsUtf8String()
+        .doesNotContain("this.fooProvider =");
+
+    // Root components are created once, so their fields are still created by the constructor.
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerParent")
+        .contentsAsUtf8String()
+        .contains("this.bazProvider = Baz_Factory.create(Dep_Factory.create());");
+  }
+
+  @Test
+  public void subcomponentProviderFields_withReentrantLockStrategy() {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(
+                "-Adagger.lazySubcomponentFields=enabled", "-Adagger.scopedLockStrategy=reentrant")
+            .compile(SOURCES);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerParent")
+        .contentsAsUtf8String()
+        .contains("private final ReentrantLock lazyInitializationLock = new ReentrantLock();");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerParent")
+        .contentsAsUtf8String()
+        .contains("lazyInitializationLock.lock();");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerParent")
+        .contentsAsUtf8String()
+        .doesNotContain("synchronized");
+  }
+
+  @Test
+  public void withoutOption_subcomponentProviderFieldsCreatedByConstructor() {
+    Compilation compilation = daggerCompiler().compile(SOURCES);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerParent")
+        .contentsAsUtf8String()
+        .contains("this.fooProvider = Foo_Factory.create(ChildModule_StringFactory.create());");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerParent")
+        .contentsAsUtf8String()
+        .doesNotContain("volatile");
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.CompilerMode.DEFAULT_MODE;
+import static dagger.internal.codegen.CompilerMode.FAST_INIT_MODE;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_CODE_ANNOTATIONS;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.util.Collection;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class LazyValuesMapTest {
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> parameters() {
+    return CompilerMode.TEST_PARAMETERS;
+  }
+
+  private final CompilerMode compilerMode;
+
+  public LazyValuesMapTest(CompilerMode compilerMode) {
+    this.compilerMode = compilerMode;
+  }
+
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "import java.util.Map;",
+          "import javax.inject.Provider;",
+          "",
+          "@Component(modules = TestModule.class)",
+          "interface TestComponent {",
+          "  Map<String, Object> map();",
+          "  Provider<Map<String, Object>> mapProvider();",
+          "}");
+
+  @Test
+  public void lazyValues() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.IntoMap;",
+            "import dagger.multibindings.LazyValues;",
+            "import dagger.multibindings.Multibinds;",
+            "import dagger.multibindings.StringKey;",
+            "import java.util.Map;",
+            "",
+            "@Module",
+            "abstract class TestModule {",
+            "  @LazyValues @Multibinds abstract Map<String, Object> map();",
+            "",
+            "  @Provides @IntoMap @StringKey(\"one\") static Object one() {",
+            "    return 1;",
+            "  }",
+            "",
+            "  @Provides @IntoMap @StringKey(\"two\") static Object two() {",
+            "    return 2;",
+            "  }",
+            "}");
+    Compilation compilation =
+        daggerCompiler().withOptions(compilerMode.javacopts()).compile(module, COMPONENT);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            compilerMode
+                .javaFileBuilder("test.DaggerTestComponent")
+                .addLines(
+                    "package test;",
+                    "",
+                    GENERATED_CODE_ANNOTATIONS,
+                    "final class DaggerTestComponent implements TestComponent {")
+                .addLinesIn(
+                    DEFAULT_MODE,
+                    "  @SuppressWarnings(\"unchecked\")",
+                    "  private void initialize() {",
+                    "    this.mapOfStringAndObjectProvider =",
+                    "        LazyValuesMapFactory.<String, Object>builder(2)",
+                    "            .put(\"one\", TestModule_OneFactory.create())",
+                    "            .put(\"two\", TestModule_TwoFactory.create())",
+                    "            .build();",
+                    "  }",
+                    "",
+                    "  @Override",
+                    "  public Map<String, Object> map() {",
+                    "    return LazyValuesMapFactory.<String, Object>builder(2)",
+                    "        .put(\"one\", TestModule_OneFactory.create())",
+                    "        .put(\"two\", TestModule_TwoFactory.create())",
+                    "        .build()",
+                    "        .get();",
+                    "  }")
+                .addLinesIn(
+                    FAST_INIT_MODE,
+                    "  @Override",
+                    "  public Map<String, Object> map() {",
+                    "    return LazyValuesMapFactory.<String, Object>builder(2)",
+                    "        .put(\"one\", oneProvider())",
+                    "        .put(\"two\", twoProvider())",
+                    "        .build()",
+                    "        .get();",
+                    "  }")
+                .addLines("}")
+                .build());
+  }
+
+  @Test
+  public void lazyValuesOnSet_fails() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.multibindings.LazyValues;",
+            "import dagger.multibindings.Multibinds;",
+            "import java.util.Set;",
+            "",
+            "@Module",
+            "abstract class TestModule {",
+            "  @LazyValues @Multibinds abstract Set<Object> set();",
+            "}");
+    Compilation compilation =
+        daggerCompiler().withOptions(compilerMode.javacopts()).compile(module);
+    assertThat(compilation).failed();
+    assertThat(compilation)
+        .hadErrorContaining("@Multibinds methods annotated with @LazyValues must return Map<K, V>")
+        .inFile(module)
+        .onLineContaining("@LazyValues");
+  }
+}
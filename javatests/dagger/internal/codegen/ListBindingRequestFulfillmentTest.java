@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_CODE_ANNOTATIONS;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.util.Collection;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class ListBindingRequestFulfillmentTest {
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> parameters() {
+    return CompilerMode.TEST_PARAMETERS;
+  }
+
+  private final CompilerMode compilerMode;
+
+  public ListBindingRequestFulfillmentTest(CompilerMode compilerMode) {
+    this.compilerMode = compilerMode;
+  }
+
+  @Test
+  public void listBindings() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.ListModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.ElementsIntoList;",
+            "import dagger.multibindings.IntoList;",
+            "import dagger.multibindings.Multibinds;",
+            "import java.util.Arrays;",
+            "import java.util.List;",
+            "",
+            "@Module",
+            "abstract class ListModule {",
+            "  @Multibinds abstract List<Object> objects();",
+            "",
+            "  @Provides @IntoList static String first() { return \"first\"; }",
+            "",
+            "  @Provides @ElementsIntoList",
+            "  static List<String> rest() {",
+            "    return Arrays.asList(\"second\", \"third\");",
+            "  }",
+            "",
+            "  @Provides @IntoList static Integer one() { return 1; }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import java.util.List;",
+            "",
+            "@Component(modules = ListModule.class)",
+            "interface TestComponent {",
+            "  List<String> strings();",
+            "  List<Integer> integers();",
+            "  List<Object> objects();",
+            "}");
+    JavaFileObject generatedComponent =
+        JavaFileObjects.forSourceLines(
+            "test.DaggerTestComponent",
+            "package test;",
+            "",
+            "import dagger.internal.ListBuilder;",
+            "import java.util.Collections;",
+            "import java.util.List;",
+            "",
+            GENERATED_CODE_ANNOTATIONS,
+            "final class DaggerTestComponent implements TestComponent {",
+            "  @Override",
+            "  public List<String> strings() {",
+            "    return ListBuilder.<String>newListBuilder(2)",
+            "        .add(ListModule_FirstFactory.first())",
+            "        .addAll(ListModule_RestFactory.rest())",
+            "        .build();",
+            "  }",
+            "",
+            "  @Override",
+            "  public List<Integer> integers() {",
+            "    return Collections.<Integer>singletonList(ListModule_OneFactory.one());",
+            "  }",
+            "",
+            "  @Override",
+            "  public List<Object> objects() {",
+            "    return Collections.<Object>emptyList();",
+            "  }",
+            "}");
+    Compilation compilation =
+        daggerCompiler().withOptions(compilerMode.javacopts()).compile(module, component);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(generatedComponent);
+  }
+
+  @Test
+  public void providerOfList() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.ListModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.ElementsIntoList;",
+            "import dagger.multibindings.IntoList;",
+            "import java.util.Arrays;",
+            "import java.util.List;",
+            "",
+            "@Module",
+            "abstract class ListModule {",
+            "  @Provides @IntoList static String first() { return \"first\"; }",
+            "",
+            "  @Provides @ElementsIntoList",
+            "  static List<String> rest() {",
+            "    return Arrays.asList(\"second\", \"third\");",
+            "  }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import java.util.List;",
+            "import javax.inject.Provider;",
+            "",
+            "@Component(modules = ListModule.class)",
+            "interface TestComponent {",
+            "  Provider<List<String>> strings();",
+            "}");
+    JavaFileObject generatedComponent =
+        compilerMode
+            .javaFileBuilder("test.DaggerTestComponent")
+            .addLines(
+                "package test;",
+                "",
+                "import dagger.internal.ListFactory;",
+                "",
+                GENERATED_CODE_ANNOTATIONS,
+                "final class DaggerTestComponent implements TestComponent {")
+            .addLinesIn(
+                CompilerMode.DEFAULT_MODE,
+                "  private Provider<List<String>> listOfStringProvider;",
+                "",
+                "  @SuppressWarnings(\"unchecked\")",
+                "  private void initialize() {",
+                "    this.listOfStringProvider =",
+                "        ListFactory.<String>builder(2)",
+                "            .addProvider(ListModule_FirstFactory.create())",
+                "            .addCollectionProvider(ListModule_RestFactory.create())",
+                "            .build();",
+                "  }",
+                "",
+                "  @Override",
+                "  public Provider<List<String>> strings() {",
+                "    return listOfStringProvider;",
+                "  }")
+            .addLines("}")
+            .build();
+    Compilation compilation =
+        daggerCompiler().withOptions(compilerMode.javacopts()).compile(module, component);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(generatedComponent);
+  }
+
+  @Test
+  public void producedList() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.ListModule",
+            "package test;",
+            "",
+            "import com.google.common.util.concurrent.MoreExecutors;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.ElementsIntoList;",
+            "import dagger.multibindings.IntoList;",
+            "import dagger.producers.ProducerModule;",
+            "import dagger.producers.Produces;",
+            "import dagger.producers.Production;",
+            "import java.util.Arrays;",
+            "import java.util.List;",
+            "import java.util.concurrent.Executor;",
+            "",
+            "@ProducerModule",
+            "final class ListModule {",
+            "  @Provides @Production static Executor executor() {",
+            "    return MoreExecutors.directExecutor();",
+            "  }",
+            "",
+            "  @Produces @IntoList static String first() { return \"first\"; }",
+            "",
+            "  @Produces @ElementsIntoList",
+            "  static List<String> rest() {",
+            "    return Arrays.asList(\"second\", \"third\");",
+            "  }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import com.google.common.util.concurrent.ListenableFuture;",
+            "import dagger.producers.ProductionComponent;",
+            "import java.util.List;",
+            "",
+            "@ProductionComponent(modules = ListModule.class)",
+            "interface TestComponent {",
+            "  ListenableFuture<List<String>> strings();",
+            "}");
+    Compilation compilation =
+        daggerCompiler().withOptions(compilerMode.javacopts()).compile(module, component);
+    assertThat(compilation).succeeded();
+    // The contributions are added to the ListProducer in the order in which they are declared.
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .containsMatch(
+            "ListProducer\\.<String>builder\\(2\\)\\s*"
+                + "\\.addProducer\\([^;]*\\)\\s*"
+                + "\\.addCollectionProducer\\([^;]*\\)\\s*"
+                + "\\.build\\(\\)");
+  }
+}
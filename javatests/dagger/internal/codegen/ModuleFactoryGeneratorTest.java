@@ -119,6 +119,17 @@ public class ModuleFactoryGeneratorTest {
         .hasError("@Provides methods annotated with @ElementsIntoSet must return a Set");
   }
 
+  @Test public void providesMethodListValuesRawList() {
+    assertThatModuleMethod("@Provides @ElementsIntoList List provideSomething() { return null; }")
+        .hasError("@Provides methods annotated with @ElementsIntoList cannot return a raw List");
+  }
+
+  @Test public void providesMethodListValuesNotAList() {
+    assertThatModuleMethod(
+            "@Provides @ElementsIntoList Set<String> provideStrings() { return null; }")
+        .hasError("@Provides methods annotated with @ElementsIntoList must return a List");
+  }
+
   @Test public void modulesWithTypeParamsMustBeAbstract() {
     JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
         "package test;",
@@ -54,84 +54,98 @@ public class MultibindsValidationTest {
   public void voidMethod() {
     assertThatModuleMethod("@Multibinds abstract void voidMethod();")
         .withDeclaration(moduleDeclaration)
-        .hasError("@Multibinds methods must return Map<K, V> or Set<T>");
+        .hasError("@Multibinds methods must return Map<K, V>, Set<T>, or List<T>");
   }
 
   @Test
   public void primitiveMethod() {
     assertThatModuleMethod("@Multibinds abstract int primitive();")
         .withDeclaration(moduleDeclaration)
-        .hasError("@Multibinds methods must return Map<K, V> or Set<T>");
+        .hasError("@Multibinds methods must return Map<K, V>, Set<T>, or List<T>");
   }
 
   @Test
   public void rawMap() {
     assertThatModuleMethod("@Multibinds abstract Map rawMap();")
         .withDeclaration(moduleDeclaration)
-        .hasError("@Multibinds methods must return Map<K, V> or Set<T>");
+        .hasError("@Multibinds methods must return Map<K, V>, Set<T>, or List<T>");
   }
 
   @Test
   public void wildcardMap() {
     assertThatModuleMethod("@Multibinds abstract Map<?, ?> wildcardMap();")
         .withDeclaration(moduleDeclaration)
-        .hasError("@Multibinds methods must return Map<K, V> or Set<T>");
+        .hasError("@Multibinds methods must return Map<K, V>, Set<T>, or List<T>");
   }
 
   @Test
   public void providerMap() {
     assertThatModuleMethod("@Multibinds abstract Map<String, Provider<Object>> providerMap();")
         .withDeclaration(moduleDeclaration)
-        .hasError("@Multibinds methods must return Map<K, V> or Set<T>");
+        .hasError("@Multibinds methods must return Map<K, V>, Set<T>, or List<T>");
   }
 
   @Test
   public void producerMap() {
     assertThatModuleMethod("@Multibinds abstract Map<String, Producer<Object>> producerMap();")
         .withDeclaration(moduleDeclaration)
-        .hasError("@Multibinds methods must return Map<K, V> or Set<T>");
+        .hasError("@Multibinds methods must return Map<K, V>, Set<T>, or List<T>");
   }
 
   @Test
   public void producedMap() {
     assertThatModuleMethod("@Multibinds abstract Map<String, Produced<Object>> producedMap();")
         .withDeclaration(moduleDeclaration)
-        .hasError("@Multibinds methods must return Map<K, V> or Set<T>");
+        .hasError("@Multibinds methods must return Map<K, V>, Set<T>, or List<T>");
   }
 
   @Test
   public void rawSet() {
     assertThatModuleMethod("@Multibinds abstract Set rawSet();")
         .withDeclaration(moduleDeclaration)
-        .hasError("@Multibinds methods must return Map<K, V> or Set<T>");
+        .hasError("@Multibinds methods must return Map<K, V>, Set<T>, or List<T>");
   }
 
   @Test
   public void wildcardSet() {
     assertThatModuleMethod("@Multibinds abstract Set<?> wildcardSet();")
         .withDeclaration(moduleDeclaration)
-        .hasError("@Multibinds methods must return Map<K, V> or Set<T>");
+        .hasError("@Multibinds methods must return Map<K, V>, Set<T>, or List<T>");
   }
 
   @Test
   public void providerSet() {
     assertThatModuleMethod("@Multibinds abstract Set<Provider<Object>> providerSet();")
         .withDeclaration(moduleDeclaration)
-        .hasError("@Multibinds methods must return Map<K, V> or Set<T>");
+        .hasError("@Multibinds methods must return Map<K, V>, Set<T>, or List<T>");
   }
 
   @Test
   public void producerSet() {
     assertThatModuleMethod("@Multibinds abstract Set<Producer<Object>> producerSet();")
         .withDeclaration(moduleDeclaration)
-        .hasError("@Multibinds methods must return Map<K, V> or Set<T>");
+        .hasError("@Multibinds methods must return Map<K, V>, Set<T>, or List<T>");
   }
 
   @Test
   public void producedSet() {
     assertThatModuleMethod("@Multibinds abstract Set<Produced<Object>> producedSet();")
         .withDeclaration(moduleDeclaration)
-        .hasError("@Multibinds methods must return Map<K, V> or Set<T>");
+        .hasError("@Multibinds methods must return Map<K, V>, Set<T>, or List<T>");
+  }
+
+  @Test
+  public void rawList() {
+    assertThatModuleMethod("@Multibinds abstract List rawList();")
+        .withDeclaration(moduleDeclaration)
+        .hasError("@Multibinds methods must return Map<K, V>, Set<T>, or List<T>");
+  }
+
+  @Test
+  public void providerList() {
+    assertThatModuleMethod("@Multibinds abstract List<Provider<Object>> providerList();")
+        .withDeclaration(moduleDeclaration)
+        .hasError("@Multibinds methods must return Map<K, V>, Set<T>, or List<T>");
   }
 
   @Test
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class PackedScopedInstancesTest {
+  private static final JavaFileObject[] SOURCES = {
+    JavaFileObjects.forSourceLines(
+        "test.Foo",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "import javax.inject.Singleton;",
+        "",
+        "@Singleton",
+        "final class Foo {",
+        "  @Inject Foo() {}",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.Bar",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "import javax.inject.Singleton;",
+        "",
+        "@Singleton",
+        "final class Bar {",
+        "  @Inject Bar(Foo foo) {}",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.Nullable", "package test;", "", "@interface Nullable {}"),
+    JavaFileObjects.forSourceLines(
+        "test.TestModule",
+        "package test;",
+        "",
+        "import dagger.Module;",
+        "import dagger.Provides;",
+        "import javax.inject.Singleton;",
+        "",
+        "@Module",
+        "interface TestModule {",
+        "  @Provides",
+        "  @Singleton",
+        "  @Nullable",
+        "  static String string() {",
+        "    return null;",
+        "  }",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.TestComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import javax.inject.Singleton;",
+        "",
+        "@Singleton",
+        "@Component(modules = TestModule.class)",
+        "interface TestComponent {",
+        "  Foo foo();",
+        "  Bar bar();",
+        "  @Nullable String string();",
+        "}"),
+  };
+
+  @Test
+  public void scopedInstances_packedIntoOneArray() {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-Adagger.fastInit=enabled", "-Adagger.packedScopedInstances=enabled")
+            .compile(SOURCES);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains("private final ScopedInstances scopedInstances = new ScopedInstances(3);");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .containsMatch(
+            "Object local = scopedInstances\\.get\\((\\d)\\);\\s*"
+                + "if \\(local == null\\) \\{\\s*"
+                + "synchronized \\(scopedInstances\\.lock\\(\\1\\)\\) \\{\\s*"
+                + "local = scopedInstances\\.get\\(\\1\\);\\s*"
+                + "if \\(local == null\\) \\{\\s*"
+                + "local = scopedInstances\\.put\\(\\1, new Bar\\(foo\\(\\)\\)\\);");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains("return local == ScopedInstances.NULL ? null : (String) local;");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("MemoizedSentinel");
+  }
+
+  @Test
+  public void reentrantLockStrategy_locksPackedScopedInstances() {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(
+                "-Adagger.fastInit=enabled",
+                "-Adagger.packedScopedInstances=enabled",
+                "-Adagger.scopedLockStrategy=reentrant")
+            .compile(SOURCES);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .containsMatch(
+            "Object local = scopedInstances\\.get\\((\\d)\\);\\s*"
+                + "if \\(local == null\\) \\{\\s*"
+                + "ReentrantLock lock = scopedInstances\\.reentrantLock\\(\\1\\);\\s*"
+                + "lock\\.lock\\(\\);\\s*"
+                + "try \\{\\s*"
+                + "local = scopedInstances\\.get\\(\\1\\);\\s*"
+                + "if \\(local == null\\) \\{\\s*"
+                + "local = scopedInstances\\.put\\(\\1, new Bar\\(foo\\(\\)\\)\\);\\s*"
+                + "\\}\\s*"
+                + "\\} finally \\{\\s*"
+                + "lock\\.unlock\\(\\);");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("synchronized");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("LockingMemoizedSentinel");
+  }
+
+  @Test
+  public void withoutOption_scopedInstancesInFieldsOfTheirOwn() {
+    Compilation compilation =
+        daggerCompiler().withOptions("-Adagger.fastInit=enabled").compile(SOURCES);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains("private volatile Object foo = new MemoizedSentinel();");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("ScopedInstances");
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.io.IOException;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ParallelSourceFormattingTest {
+  private static final JavaFileObject[] SOURCES = {
+    JavaFileObjects.forSourceLines(
+        "test.Foo",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class Foo {",
+        "  @Inject Foo(Bar bar) {}",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.Bar",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class Bar {",
+        "  @Inject Bar() {}",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.TestComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "",
+        "@Component",
+        "interface TestComponent {",
+        "  Foo foo();",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.OtherComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "",
+        "@Component",
+        "interface OtherComponent {",
+        "  Bar bar();",
+        "}"),
+  };
+
+  private static final String[] GENERATED_SOURCES = {
+    "test.DaggerTestComponent", "test.DaggerOtherComponent", "test.Foo_Factory", "test.Bar_Factory"
+  };
+
+  @Test
+  public void sameSourceAsSerialFormatting() throws IOException {
+    Compilation serial =
+        daggerCompiler().withOptions("-Adagger.formatGeneratedSource=enabled").compile(SOURCES);
+    Compilation parallel =
+        daggerCompiler()
+            .withOptions(
+                "-Adagger.formatGeneratedSource=enabled",
+                "-Adagger.parallelSourceFormatting=enabled")
+            .compile(SOURCES);
+    assertThat(serial).succeeded();
+    assertThat(parallel).succeeded();
+    for (String generatedSource : GENERATED_SOURCES) {
+      assertThat(parallel)
+          .generatedSourceFile(generatedSource)
+          .contentsAsUtf8String()
+          .isEqualTo(sourceContents(serial, generatedSource));
+    }
+  }
+
+  private static String sourceContents(Compilation compilation, String qualifiedName)
+      throws IOException {
+    String packageName = qualifiedName.substring(0, qualifiedName.lastIndexOf('.'));
+    String simpleName = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+    return compilation
+        .generatedFile(StandardLocation.SOURCE_OUTPUT, packageName, simpleName + ".java")
+        .get()
+        .getCharContent(false)
+        .toString();
+  }
+}
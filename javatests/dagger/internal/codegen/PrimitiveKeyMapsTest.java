@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.CompilerMode.DEFAULT_MODE;
+import static dagger.internal.codegen.CompilerMode.FAST_INIT_MODE;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_CODE_ANNOTATIONS;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.util.Collection;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class PrimitiveKeyMapsTest {
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> parameters() {
+    return CompilerMode.TEST_PARAMETERS;
+  }
+
+  private final CompilerMode compilerMode;
+
+  public PrimitiveKeyMapsTest(CompilerMode compilerMode) {
+    this.compilerMode = compilerMode;
+  }
+
+  @Test
+  public void intKeys() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.IntKey;",
+            "import dagger.multibindings.IntoMap;",
+            "",
+            "@Module",
+            "final class TestModule {",
+            "  @Provides @IntoMap @IntKey(1) static Object one() {",
+            "    return 1;",
+            "  }",
+            "",
+            "  @Provides @IntoMap @IntKey(2) static Object two() {",
+            "    return 2;",
+            "  }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import java.util.Map;",
+            "import javax.inject.Provider;",
+            "",
+            "@Component(modules = TestModule.class)",
+            "interface TestComponent {",
+            "  Map<Integer, Object> map();",
+            "  Provider<Map<Integer, Object>> mapProvider();",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(compilerMode.javacopts().append("-Adagger.primitiveKeyMaps=enabled"))
+            .compile(module, component);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            compilerMode
+                .javaFileBuilder("test.DaggerTestComponent")
+                .addLines(
+                    "package test;",
+                    "",
+                    "import dagger.internal.IntKeyMap;",
+                    "",
+                    GENERATED_CODE_ANNOTATIONS,
+                    "final class DaggerTestComponent implements TestComponent {")
+                .addLinesIn(
+                    DEFAULT_MODE,
+                    "  @SuppressWarnings(\"unchecked\")",
+                    "  private void initialize() {",
+                    "    this.mapOfIntegerAndObjectProvider =",
+                    "        IntKeyMapFactory.<Object>builder(2)",
+                    "            .put(1, TestModule_OneFactory.create())",
+                    "            .put(2, TestModule_TwoFactory.create())",
+                    "            .build();",
+                    "  }",
+                    "")
+                .addLines(
+                    "  @Override",
+                    "  public Map<Integer, Object> map() {",
+                    "    return IntKeyMap.<Object>builder(2)",
+                    "        .put(1, TestModule.one())",
+                    "        .put(2, TestModule.two())",
+                    "        .build();",
+                    "  }",
+                    "}")
+                .build());
+  }
+
+  @Test
+  public void longKeys_providerValues() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.IntoMap;",
+            "import dagger.multibindings.LongKey;",
+            "",
+            "@Module",
+            "final class TestModule {",
+            "  @Provides @IntoMap @LongKey(1) static Object one() {",
+            "    return 1;",
+            "  }",
+            "",
+            "  @Provides @IntoMap @LongKey(2) static Object two() {",
+            "    return 2;",
+            "  }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import java.util.Map;",
+            "import javax.inject.Provider;",
+            "",
+            "@Component(modules = TestModule.class)",
+            "interface TestComponent {",
+            "  Map<Long, Provider<Object>> map();",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(compilerMode.javacopts().append("-Adagger.primitiveKeyMaps=enabled"))
+            .compile(module, component);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            compilerMode
+                .javaFileBuilder("test.DaggerTestComponent")
+                .addLines(
+                    "package test;",
+                    "",
+                    "import dagger.internal.LongKeyMap;",
+                    "",
+                    GENERATED_CODE_ANNOTATIONS,
+                    "final class DaggerTestComponent implements TestComponent {",
+                    "  @Override",
+                    "  public Map<Long, Provider<Object>> map() {",
+                    "    return LongKeyMap.<Provider<Object>>builder(2)")
+                .addLinesIn(
+                    DEFAULT_MODE,
+                    "        .put(1L, TestModule_OneFactory.create())",
+                    "        .put(2L, TestModule_TwoFactory.create())")
+                .addLinesIn(
+                    FAST_INIT_MODE,
+                    "        .put(1L, oneProvider())",
+                    "        .put(2L, twoProvider())")
+                .addLines(
+                    "        .build();",
+                    "  }",
+                    "}")
+                .build());
+  }
+
+  @Test
+  public void disabled_usesMapBuilder() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.IntKey;",
+            "import dagger.multibindings.IntoMap;",
+            "",
+            "@Module",
+            "final class TestModule {",
+            "  @Provides @IntoMap @IntKey(1) static Object one() {",
+            "    return 1;",
+            "  }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import java.util.Map;",
+            "",
+            "@Component(modules = TestModule.class)",
+            "interface TestComponent {",
+            "  Map<Integer, Object> map();",
+            "}");
+    Compilation compilation =
+        daggerCompiler().withOptions(compilerMode.javacopts()).compile(module, component);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("IntKeyMap");
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.CompilerMode.DEFAULT_MODE;
+import static dagger.internal.codegen.CompilerMode.FAST_INIT_MODE;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_CODE_ANNOTATIONS;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.util.Collection;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class ScopedLockStrategyTest {
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> parameters() {
+    return CompilerMode.TEST_PARAMETERS;
+  }
+
+  private final CompilerMode compilerMode;
+
+  public ScopedLockStrategyTest(CompilerMode compilerMode) {
+    this.compilerMode = compilerMode;
+  }
+
+  private static final JavaFileObject SCOPED =
+      JavaFileObjects.forSourceLines(
+          "test.Scoped",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "import javax.inject.Singleton;",
+          "",
+          "@Singleton",
+          "class Scoped {",
+          "  @Inject Scoped() {}",
+          "}");
+
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "import javax.inject.Provider;",
+          "import javax.inject.Singleton;",
+          "",
+          "@Singleton",
+          "@Component",
+          "interface TestComponent {",
+          "  Scoped scoped();",
+          "  Provider<Scoped> scopedProvider();",
+          "}");
+
+  @Test
+  public void reentrantLockStrategy() {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(
+                compilerMode.javacopts().append("-Adagger.scopedLockStrategy=reentrant"))
+            .compile(SCOPED, COMPONENT);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            compilerMode
+                .javaFileBuilder("test.DaggerTestComponent")
+                .addLines(
+                    "package test;",
+                    "",
+                    GENERATED_CODE_ANNOTATIONS,
+                    "final class DaggerTestComponent implements TestComponent {")
+                .addLinesIn(
+                    DEFAULT_MODE,
+                    "  @SuppressWarnings(\"unchecked\")",
+                    "  private void initialize() {",
+                    "    this.scopedProvider = LockingDoubleCheck.provider(Scoped_Factory.create());",
+                    "  }")
+                .addLinesIn(
+                    FAST_INIT_MODE,
+                    "  private volatile Object scoped = new LockingMemoizedSentinel();",
+                    "",
+                    "  @Override",
+                    "  public Scoped scoped() {",
+                    "    Object local = scoped;",
+                    "    if (local instanceof LockingMemoizedSentinel) {",
+                    "      LockingMemoizedSentinel lock = (LockingMemoizedSentinel) local;",
+                    "      lock.lock();",
+                    "      try {",
+                    "        local = scoped;",
+                    "        if (local instanceof LockingMemoizedSentinel) {",
+                    "          local = new Scoped();",
+                    "          scoped = LockingDoubleCheck.reentrantCheck(scoped, local);",
+                    "        }",
+                    "      } finally {",
+                    "        lock.unlock();",
+                    "      }",
+                    "    }",
+                    "    return (Scoped) local;",
+                    "  }")
+                .addLines("}")
+                .build());
+  }
+
+  @Test
+  public void invalidLockStrategy() {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(compilerMode.javacopts().append("-Adagger.scopedLockStrategy=spin"))
+            .compile(SCOPED, COMPONENT);
+    assertThat(compilation).failed();
+    assertThat(compilation)
+        .hadErrorContaining(
+            "Processor option -Adagger.scopedLockStrategy may only have the values "
+                + "[SYNCHRONIZED, REENTRANT] (case insensitive), found: spin");
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.io.IOException;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class SharedBindingResolutionTest {
+  private static final JavaFileObject[] SOURCES = {
+    JavaFileObjects.forSourceLines(
+        "test.Foo",
+        "package test;",
+        "",
+        "interface Foo {}"),
+    JavaFileObjects.forSourceLines(
+        "test.FooImpl",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class FooImpl implements Foo {",
+        "  @Inject FooImpl(Bar bar) {}",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.Bar",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class Bar {",
+        "  @Inject Bar() {}",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.SharedModule",
+        "package test;",
+        "",
+        "import dagger.Binds;",
+        "import dagger.BindsOptionalOf;",
+        "import dagger.Module;",
+        "import dagger.multibindings.IntoSet;",
+        "",
+        "@Module",
+        "interface SharedModule {",
+        "  @Binds Foo foo(FooImpl impl);",
+        "  @Binds @IntoSet Object fooIntoSet(Foo foo);",
+        "  @BindsOptionalOf String optionalString();",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.FirstComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import java.util.Optional;",
+        "import java.util.Set;",
+        "",
+        "@Component(modules = SharedModule.class)",
+        "interface FirstComponent {",
+        "  Foo foo();",
+        "  Set<Object> objects();",
+        "  Optional<String> string();",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.SecondComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import java.util.Optional;",
+        "import java.util.Set;",
+        "",
+        "@Component(modules = SharedModule.class)",
+        "interface SecondComponent {",
+        "  Foo foo();",
+        "  Bar bar();",
+        "  Set<Object> objects();",
+        "  Optional<String> string();",
+        "}"),
+    JavaFileObjects.forSourceLines(
+        "test.BoundInstanceComponent",
+        "package test;",
+        "",
+        "import dagger.BindsInstance;",
+        "import dagger.Component;",
+        "import java.util.Optional;",
+        "",
+        "@Component(modules = SharedModule.class)",
+        "interface BoundInstanceComponent {",
+        "  Foo foo();",
+        "  Optional<String> string();",
+        "",
+        "  @Component.Factory",
+        "  interface Factory {",
+        "    BoundInstanceComponent create(@BindsInstance String string);",
+        "  }",
+        "}"),
+  };
+
+  private static final String[] GENERATED_SOURCES = {
+    "test.DaggerFirstComponent", "test.DaggerSecondComponent", "test.DaggerBoundInstanceComponent"
+  };
+
+  @Test
+  public void sameSourceAsUnsharedResolution() throws IOException {
+    Compilation unshared = daggerCompiler().compile(SOURCES);
+    Compilation shared =
+        daggerCompiler().withOptions("-Adagger.sharedBindingResolution=enabled").compile(SOURCES);
+    assertThat(unshared).succeeded();
+    assertThat(shared).succeeded();
+    for (String generatedSource : GENERATED_SOURCES) {
+      assertThat(shared)
+          .generatedSourceFile(generatedSource)
+          .contentsAsUtf8String()
+          .isEqualTo(sourceContents(unshared, generatedSource));
+    }
+  }
+
+  @Test
+  public void boundInstanceIsNotReplacedBySharedLookUp() {
+    Compilation compilation =
+        daggerCompiler().withOptions("-Adagger.sharedBindingResolution=enabled").compile(SOURCES);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerBoundInstanceComponent")
+        .contentsAsUtf8String()
+        .contains("Optional.of(");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerFirstComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("Optional.of(");
+  }
+
+  private static String sourceContents(Compilation compilation, String qualifiedName)
+      throws IOException {
+    String packageName = qualifiedName.substring(0, qualifiedName.lastIndexOf('.'));
+    String simpleName = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+    return compilation
+        .generatedFile(StandardLocation.SOURCE_OUTPUT, packageName, simpleName + ".java")
+        .get()
+        .getCharContent(false)
+        .toString();
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.CompilerMode.DEFAULT_MODE;
+import static dagger.internal.codegen.CompilerMode.FAST_INIT_MODE;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_CODE_ANNOTATIONS;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.util.Collection;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class SoftReusableScopeTest {
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> parameters() {
+    return CompilerMode.TEST_PARAMETERS;
+  }
+
+  private final CompilerMode compilerMode;
+
+  public SoftReusableScopeTest(CompilerMode compilerMode) {
+    this.compilerMode = compilerMode;
+  }
+
+  private static final JavaFileObject TABLE =
+      JavaFileObjects.forSourceLines(
+          "test.Table",
+          "package test;",
+          "",
+          "import dagger.SoftReusable;",
+          "import javax.inject.Inject;",
+          "",
+          "@SoftReusable",
+          "class Table {",
+          "  @Inject Table() {}",
+          "}");
+
+  @Test
+  public void softReusableScope() {
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import javax.inject.Provider;",
+            "",
+            "@Component",
+            "interface TestComponent {",
+            "  Table table();",
+            "  Provider<Table> tableProvider();",
+            "}");
+    Compilation compilation =
+        daggerCompiler().withOptions(compilerMode.javacopts()).compile(TABLE, component);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            compilerMode
+                .javaFileBuilder("test.DaggerTestComponent")
+                .addLines(
+                    "package test;",
+                    "",
+                    GENERATED_CODE_ANNOTATIONS,
+                    "final class DaggerTestComponent implements TestComponent {")
+                .addLinesIn(
+                    DEFAULT_MODE,
+                    "  @SuppressWarnings(\"unchecked\")",
+                    "  private void initialize() {",
+                    "    this.tableProvider = SoftReferenceCheck.provider(Table_Factory.create());",
+                    "  }",
+                    "",
+                    "  @Override",
+                    "  public Table table() {",
+                    "    return tableProvider.get();",
+                    "  }")
+                .addLinesIn(
+                    FAST_INIT_MODE,
+                    "  private volatile Provider<Table> tableProvider;",
+                    "",
+                    "  @Override",
+                    "  public Table table() {",
+                    "    return tableProvider().get();",
+                    "  }",
+                    "",
+                    "  @Override",
+                    "  public Provider<Table> tableProvider() {",
+                    "    Object local = tableProvider;",
+                    "    if (local == null) {",
+                    "      local = SoftReferenceCheck.provider(new SwitchingProvider<>(0));",
+                    "      tableProvider = (Provider<Table>) local;",
+                    "    }",
+                    "    return (Provider<Table>) local;",
+                    "  }",
+                    "",
+                    "  private final class SwitchingProvider<T> implements Provider<T> {",
+                    "    @SuppressWarnings(\"unchecked\")",
+                    "    @Override",
+                    "    public T get() {",
+                    "      switch (id) {",
+                    "        case 0: // test.Table ",
+                    "        return (T) new Table();",
+                    "        default: throw new AssertionError(id);",
+                    "      }",
+                    "    }",
+                    "  }")
+                .addLines("}")
+                .build());
+  }
+
+  @Test
+  public void softReusableComponent() {
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import dagger.SoftReusable;",
+            "",
+            "@SoftReusable",
+            "@Component",
+            "interface TestComponent {",
+            "  Table table();",
+            "}");
+    Compilation compilation =
+        daggerCompiler().withOptions(compilerMode.javacopts()).compile(TABLE, component);
+    assertThat(compilation).failed();
+    assertThat(compilation)
+        .hadErrorContaining("@SoftReusable cannot be applied to components or subcomponents");
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.CompilerMode.DEFAULT_MODE;
+import static dagger.internal.codegen.CompilerMode.FAST_INIT_MODE;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_CODE_ANNOTATIONS;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.util.Collection;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class StableMultibindingTest {
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> parameters() {
+    return CompilerMode.TEST_PARAMETERS;
+  }
+
+  private final CompilerMode compilerMode;
+
+  public StableMultibindingTest(CompilerMode compilerMode) {
+    this.compilerMode = compilerMode;
+  }
+
+  @Test
+  public void stableSetMultibinding_isCached() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Binds;",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.IntoSet;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Module",
+            "abstract class TestModule {",
+            "  @Provides",
+            "  @IntoSet",
+            "  @Singleton",
+            "  static CharSequence singleton() {",
+            "    return new StringBuilder();",
+            "  }",
+            "",
+            "  @Binds @IntoSet abstract CharSequence bound(String instance);",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.BindsInstance;",
+            "import dagger.Component;",
+            "import java.util.Set;",
+            "import javax.inject.Provider;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Singleton",
+            "@Component(modules = TestModule.class)",
+            "interface TestComponent {",
+            "  Set<CharSequence> charSequences();",
+            "  Provider<Set<CharSequence>> charSequencesProvider();",
+            "",
+            "  @Component.Factory",
+            "  interface Factory {",
+            "    TestComponent create(@BindsInstance String instance);",
+            "  }",
+            "}");
+    Compilation compilation =
+        daggerCompiler().withOptions(compilerMode.javacopts()).compile(module, component);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            compilerMode
+                .javaFileBuilder("test.DaggerTestComponent")
+                .addLines(
+                    "package test;",
+                    "",
+                    GENERATED_CODE_ANNOTATIONS,
+                    "final class DaggerTestComponent implements TestComponent {")
+                .addLinesIn(
+                    DEFAULT_MODE,
+                    "  @SuppressWarnings(\"unchecked\")",
+                    "  private void initialize(final String instanceParam) {",
+                    "    this.singletonProvider =",
+                    "        DoubleCheck.provider(TestModule_SingletonFactory.create());",
+                    "    this.instanceProvider = InstanceFactory.create(instanceParam);",
+                    "    this.setOfCharSequenceProvider =",
+                    "        SingleCheck.provider(",
+                    "            SetFactory.<CharSequence>builder(2, 0)",
+                    "                .addProvider(singletonProvider)",
+                    "                .addProvider((Provider) instanceProvider)",
+                    "                .build());",
+                    "  }",
+                    "",
+                    "  @Override",
+                    "  public Set<CharSequence> charSequences() {",
+                    "    return setOfCharSequenceProvider.get();",
+                    "  }")
+                .addLinesIn(
+                    FAST_INIT_MODE,
+                    "  private volatile Set<CharSequence> setOfCharSequence;",
+                    "",
+                    "  @Override",
+                    "  public Set<CharSequence> charSequences() {",
+                    "    Object local = setOfCharSequence;",
+                    "    if (local == null) {",
+                    "      local = ImmutableSet.<CharSequence>of(singleton(), instance);",
+                    "      setOfCharSequence = (Set<CharSequence>) local;",
+                    "    }",
+                    "    return (Set<CharSequence>) local;",
+                    "  }")
+                .addLines("}")
+                .build());
+  }
+
+  @Test
+  public void unscopedContribution_isNotCached() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.IntoSet;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Module",
+            "abstract class TestModule {",
+            "  @Provides",
+            "  @IntoSet",
+            "  @Singleton",
+            "  static CharSequence singleton() {",
+            "    return new StringBuilder();",
+            "  }",
+            "",
+            "  @Provides",
+            "  @IntoSet",
+            "  static CharSequence unscoped() {",
+            "    return new StringBuilder();",
+            "  }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import java.util.Set;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Singleton",
+            "@Component(modules = TestModule.class)",
+            "interface TestComponent {",
+            "  Set<CharSequence> charSequences();",
+            "}");
+    Compilation compilation =
+        daggerCompiler().withOptions(compilerMode.javacopts()).compile(module, component);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            compilerMode
+                .javaFileBuilder("test.DaggerTestComponent")
+                .addLines(
+                    "package test;",
+                    "",
+                    GENERATED_CODE_ANNOTATIONS,
+                    "final class DaggerTestComponent implements TestComponent {")
+                .addLinesIn(
+                    DEFAULT_MODE,
+                    "  @Override",
+                    "  public Set<CharSequence> charSequences() {",
+                    "    return ImmutableSet.<CharSequence>of(",
+                    "        singletonProvider.get(), TestModule_UnscopedFactory.unscoped());",
+                    "  }")
+                .addLinesIn(
+                    FAST_INIT_MODE,
+                    "  @Override",
+                    "  public Set<CharSequence> charSequences() {",
+                    "    return ImmutableSet.<CharSequence>of(",
+                    "        singleton(), TestModule_UnscopedFactory.unscoped());",
+                    "  }")
+                .addLines("}")
+                .build());
+  }
+}
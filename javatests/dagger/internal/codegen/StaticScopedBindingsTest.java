@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_CODE_ANNOTATIONS;
+
+import com.google.common.collect.ImmutableList;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class StaticScopedBindingsTest {
+  private static final ImmutableList<JavaFileObject> BINDINGS =
+      ImmutableList.of(
+          JavaFileObjects.forSourceLines(
+              "test.Dep",
+              "package test;",
+              "",
+              "import javax.inject.Inject;",
+              "",
+              "final class Dep {",
+              "  @Inject Dep() {}",
+              "}"),
+          JavaFileObjects.forSourceLines(
+              "test.Foo",
+              "package test;",
+              "",
+              "import javax.inject.Inject;",
+              "import javax.inject.Singleton;",
+              "",
+              "@Singleton",
+              "final class Foo {",
+              "  @Inject Foo(Dep dep) {}",
+              "}"),
+          JavaFileObjects.forSourceLines(
+              "test.Bar",
+              "package test;",
+              "",
+              "import javax.inject.Inject;",
+              "import javax.inject.Singleton;",
+              "",
+              "@Singleton",
+              "final class Bar {",
+              "  @Inject Bar(Foo foo) {}",
+              "}"),
+          JavaFileObjects.forSourceLines(
+              "test.Stateful",
+              "package test;",
+              "",
+              "final class Stateful {}"),
+          JavaFileObjects.forSourceLines(
+              "test.StatefulModule",
+              "package test;",
+              "",
+              "import dagger.Module;",
+              "import dagger.Provides;",
+              "import javax.inject.Singleton;",
+              "",
+              "@Module",
+              "final class StatefulModule {",
+              "  @Provides @Singleton Stateful stateful() {",
+              "    return new Stateful();",
+              "  }",
+              "}"));
+
+  @Test
+  public void statelessScopedBindings_heldInStaticHolders() {
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import dagger.StaticScopedBindings;",
+            "import javax.inject.Provider;",
+            "import javax.inject.Singleton;",
+            "",
+            "@StaticScopedBindings",
+            "@Singleton",
+            "@Component(modules = StatefulModule.class)",
+            "interface TestComponent {",
+            "  Bar bar();",
+            "  Provider<Foo> fooProvider();",
+            "  Stateful stateful();",
+            "}");
+
+    Compilation compilation =
+        daggerCompiler()
+            .compile(
+                ImmutableList.<JavaFileObject>builder().addAll(BINDINGS).add(component).build());
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            JavaFileObjects.forSourceLines(
+                "test.DaggerTestComponent",
+                "package test;",
+                "",
+                GENERATED_CODE_ANNOTATIONS,
+                "final class DaggerTestComponent implements TestComponent {",
+                "  @Override",
+                "  public Bar bar() {",
+                "    return BarHolder.INSTANCE;",
+                "  }",
+                "",
+                "  @Override",
+                "  public Provider<Foo> fooProvider() {",
+                "    return new FooHolderProvider();",
+                "  }",
+                "",
+                "  private static final class BarHolder {",
+                "    static final Bar INSTANCE = new Bar(FooHolder.INSTANCE);",
+                "  }",
+                "",
+                "  private static final class FooHolder {",
+                "    static final Foo INSTANCE = new Foo(new Dep());",
+                "  }",
+                "",
+                "  private static final class FooHolderProvider implements Provider<Foo> {",
+                "    @Override",
+                "    public Foo get() {",
+                "      return FooHolder.INSTANCE;",
+                "    }",
+                "  }",
+                "}"));
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("StatefulHolder");
+  }
+
+  @Test
+  public void withoutAnnotation_noStaticHolders() {
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Singleton",
+            "@Component(modules = StatefulModule.class)",
+            "interface TestComponent {",
+            "  Bar bar();",
+            "}");
+
+    Compilation compilation =
+        daggerCompiler()
+            .compile(
+                ImmutableList.<JavaFileObject>builder().addAll(BINDINGS).add(component).build());
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("Holder");
+  }
+}
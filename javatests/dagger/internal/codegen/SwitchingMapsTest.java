@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.CompilerMode.DEFAULT_MODE;
+import static dagger.internal.codegen.CompilerMode.FAST_INIT_MODE;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_CODE_ANNOTATIONS;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.util.Collection;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class SwitchingMapsTest {
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> parameters() {
+    return CompilerMode.TEST_PARAMETERS;
+  }
+
+  private final CompilerMode compilerMode;
+
+  public SwitchingMapsTest(CompilerMode compilerMode) {
+    this.compilerMode = compilerMode;
+  }
+
+  @Test
+  public void stringKeys() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.IntoMap;",
+            "import dagger.multibindings.StringKey;",
+            "",
+            "@Module",
+            "final class TestModule {",
+            "  @Provides @IntoMap @StringKey(\"one\") static Object one() {",
+            "    return 1;",
+            "  }",
+            "",
+            "  @Provides @IntoMap @StringKey(\"two\") static Object two() {",
+            "    return 2;",
+            "  }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import java.util.Map;",
+            "import javax.inject.Provider;",
+            "",
+            "@Component(modules = TestModule.class)",
+            "interface TestComponent {",
+            "  Map<String, Provider<Object>> map();",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(compilerMode.javacopts().append("-Adagger.switchingMaps=enabled"))
+            .compile(module, component);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            compilerMode
+                .javaFileBuilder("test.DaggerTestComponent")
+                .addLines(
+                    "package test;",
+                    "",
+                    "import dagger.internal.SwitchingMap;",
+                    "",
+                    GENERATED_CODE_ANNOTATIONS,
+                    "final class DaggerTestComponent implements TestComponent {",
+                    "  @Override",
+                    "  public Map<String, Provider<Object>> map() {",
+                    "    return new MapOfStringAndProviderOfObjectSwitchingMap();",
+                    "  }",
+                    "",
+                    "  private final class MapOfStringAndProviderOfObjectSwitchingMap",
+                    "      extends SwitchingMap<String, Provider<Object>> {",
+                    "    MapOfStringAndProviderOfObjectSwitchingMap() {",
+                    "      super(new Object[] {\"one\", \"two\"});",
+                    "    }",
+                    "",
+                    "    @Override",
+                    "    protected int indexOf(String name) {",
+                    "      switch (name) {",
+                    "        case \"one\": return 0;",
+                    "        case \"two\": return 1;",
+                    "        default: return -1;",
+                    "      }",
+                    "    }",
+                    "",
+                    "    @Override",
+                    "    protected Provider<Object> valueAt(int index) {",
+                    "      switch (index) {")
+                .addLinesIn(
+                    DEFAULT_MODE,
+                    "        case 0: return TestModule_OneFactory.create();",
+                    "        case 1: return TestModule_TwoFactory.create();")
+                .addLinesIn(
+                    FAST_INIT_MODE,
+                    "        case 0: return oneProvider();",
+                    "        case 1: return twoProvider();")
+                .addLines(
+                    "        default: throw new AssertionError(index);",
+                    "      }",
+                    "    }",
+                    "  }",
+                    "}")
+                .build());
+  }
+
+  @Test
+  public void classKeys_providerOfMap() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.ClassKey;",
+            "import dagger.multibindings.IntoMap;",
+            "",
+            "@Module",
+            "final class TestModule {",
+            "  static final class Inner {}",
+            "",
+            "  @Provides @IntoMap @ClassKey(Inner.class) static Object inner() {",
+            "    return 1;",
+            "  }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import java.util.Map;",
+            "import javax.inject.Provider;",
+            "",
+            "@Component(modules = TestModule.class)",
+            "interface TestComponent {",
+            "  Provider<Map<Class<?>, Provider<Object>>> mapProvider();",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(compilerMode.javacopts().append("-Adagger.switchingMaps=enabled"))
+            .compile(module, component);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            compilerMode
+                .javaFileBuilder("test.DaggerTestComponent")
+                .addLines(
+                    "package test;",
+                    "",
+                    GENERATED_CODE_ANNOTATIONS,
+                    "final class DaggerTestComponent implements TestComponent {")
+                .addLinesIn(
+                    DEFAULT_MODE,
+                    "  @SuppressWarnings(\"unchecked\")",
+                    "  private void initialize() {",
+                    "    this.mapOfClassAndProviderOfObjectProvider =",
+                    "        InstanceFactory.create(new MapOfClassAndProviderOfObjectSwitchingMap());",
+                    "  }")
+                .addLines(
+                    "  private final class MapOfClassAndProviderOfObjectSwitchingMap",
+                    "      extends SwitchingMap<Class<?>, Provider<Object>> {",
+                    "    MapOfClassAndProviderOfObjectSwitchingMap() {",
+                    "      super(new Object[] {TestModule.Inner.class});",
+                    "    }",
+                    "",
+                    "    @Override",
+                    "    protected int indexOf(String name) {",
+                    "      switch (name) {",
+                    "        case \"test.TestModule$Inner\": return 0;",
+                    "        default: return -1;",
+                    "      }",
+                    "    }",
+                    "  }",
+                    "}")
+                .build());
+  }
+
+  @Test
+  public void unsupportedKeys_useMapProviderFactory() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.multibindings.IntKey;",
+            "import dagger.multibindings.IntoMap;",
+            "",
+            "@Module",
+            "final class TestModule {",
+            "  @Provides @IntoMap @IntKey(1) static Object one() {",
+            "    return 1;",
+            "  }",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import java.util.Map;",
+            "import javax.inject.Provider;",
+            "",
+            "@Component(modules = TestModule.class)",
+            "interface TestComponent {",
+            "  Provider<Map<Integer, Provider<Object>>> mapProvider();",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(compilerMode.javacopts().append("-Adagger.switchingMaps=enabled"))
+            .compile(module, component);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("SwitchingMap");
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.CompilerMode.DEFAULT_MODE;
+import static dagger.internal.codegen.CompilerMode.FAST_INIT_MODE;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_CODE_ANNOTATIONS;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.util.Collection;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/** Tests for the {@link dagger.ThreadConfined} and {@link dagger.Striped} scopes. */
+@RunWith(Parameterized.class)
+public class ThreadScopesTest {
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> parameters() {
+    return CompilerMode.TEST_PARAMETERS;
+  }
+
+  private final CompilerMode compilerMode;
+
+  public ThreadScopesTest(CompilerMode compilerMode) {
+    this.compilerMode = compilerMode;
+  }
+
+  @Test
+  public void threadConfinedAndStripedScopes() {
+    JavaFileObject formatter =
+        JavaFileObjects.forSourceLines(
+            "test.Formatter",
+            "package test;",
+            "",
+            "import dagger.ThreadConfined;",
+            "import javax.inject.Inject;",
+            "",
+            "@ThreadConfined",
+            "class Formatter {",
+            "  @Inject Formatter() {}",
+            "}");
+    JavaFileObject counter =
+        JavaFileObjects.forSourceLines(
+            "test.Counter",
+            "package test;",
+            "",
+            "import dagger.Striped;",
+            "import javax.inject.Inject;",
+            "",
+            "@Striped(stripes = 8)",
+            "class Counter {",
+            "  @Inject Counter() {}",
+            "}");
+    JavaFileObject component =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import javax.inject.Provider;",
+            "",
+            "@Component",
+            "interface TestComponent {",
+            "  Provider<Formatter> formatter();",
+            "  Provider<Counter> counter();",
+            "}");
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(compilerMode.javacopts())
+            .compile(formatter, counter, component);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            compilerMode
+                .javaFileBuilder("test.DaggerTestComponent")
+                .addLines(
+                    "package test;",
+                    "",
+                    GENERATED_CODE_ANNOTATIONS,
+                    "final class DaggerTestComponent implements TestComponent {")
+                .addLinesIn(
+                    DEFAULT_MODE,
+                    "  @SuppressWarnings(\"unchecked\")",
+                    "  private void initialize() {",
+                    "    this.formatterProvider =",
+                    "        ThreadConfinedCheck.provider(Formatter_Factory.create());",
+                    "    this.counterProvider = StripedCheck.provider(Counter_Factory.create(), 8);",
+                    "  }")
+                .addLinesIn(
+                    FAST_INIT_MODE,
+                    "  @Override",
+                    "  public Provider<Formatter> formatter() {",
+                    "    Object local = formatterProvider;",
+                    "    if (local == null) {",
+                    "      local = ThreadConfinedCheck.provider(new SwitchingProvider<>(0));",
+                    "      formatterProvider = (Provider<Formatter>) local;",
+                    "    }",
+                    "    return (Provider<Formatter>) local;",
+                    "  }",
+                    "",
+                    "  @Override",
+                    "  public Provider<Counter> counter() {",
+                    "    Object local = counterProvider;",
+                    "    if (local == null) {",
+                    "      local = StripedCheck.provider(new SwitchingProvider<>(1), 8);",
+                    "      counterProvider = (Provider<Counter>) local;",
+                    "    }",
+                    "    return (Provider<Counter>) local;",
+                    "  }")
+                .addLines("}")
+                .build());
+  }
+
+  @Test
+  public void negativeStripes() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.TestModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.Striped;",
+            "",
+            "@Module",
+            "final class TestModule {",
+            "  @Provides",
+            "  @Striped(stripes = -1)",
+            "  static Object counter() {",
+            "    return new Object();",
+            "  }",
+            "}");
+    Compilation compilation =
+        daggerCompiler().withOptions(compilerMode.javacopts()).compile(module);
+    assertThat(compilation).failed();
+    assertThat(compilation)
+        .hadErrorContaining("@Striped.stripes must not be negative")
+        .inFile(module)
+        .onLineContaining("@Striped");
+  }
+
+  @Test
+  public void threadConfinedSubcomponent() {
+    JavaFileObject subcomponent =
+        JavaFileObjects.forSourceLines(
+            "test.TestSubcomponent",
+            "package test;",
+            "",
+            "import dagger.Subcomponent;",
+            "import dagger.ThreadConfined;",
+            "",
+            "@ThreadConfined",
+            "@Subcomponent",
+            "interface TestSubcomponent {}");
+    Compilation compilation =
+        daggerCompiler().withOptions(compilerMode.javacopts()).compile(subcomponent);
+    assertThat(compilation).failed();
+    assertThat(compilation)
+        .hadErrorContaining("@ThreadConfined cannot be applied to components or subcomponents");
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.CompilerMode.DEFAULT_MODE;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+import static dagger.internal.codegen.GeneratedLines.GENERATED_CODE_ANNOTATIONS;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import java.util.Collection;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class WarmUpTest {
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> parameters() {
+    return CompilerMode.TEST_PARAMETERS;
+  }
+
+  private final CompilerMode compilerMode;
+
+  public WarmUpTest(CompilerMode compilerMode) {
+    this.compilerMode = compilerMode;
+  }
+
+  private static final JavaFileObject A =
+      JavaFileObjects.forSourceLines(
+          "test.A",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "import javax.inject.Singleton;",
+          "",
+          "@Singleton",
+          "final class A {",
+          "  @Inject A() {}",
+          "}");
+  private static final JavaFileObject B =
+      JavaFileObjects.forSourceLines(
+          "test.B",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "import javax.inject.Singleton;",
+          "",
+          "@Singleton",
+          "final class B {",
+          "  @Inject B(A a) {}",
+          "}");
+  private static final JavaFileObject C =
+      JavaFileObjects.forSourceLines(
+          "test.C",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "",
+          "final class C {",
+          "  @Inject C(A a) {}",
+          "}");
+  private static final JavaFileObject D =
+      JavaFileObjects.forSourceLines(
+          "test.D",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "import javax.inject.Provider;",
+          "import javax.inject.Singleton;",
+          "",
+          "@Singleton",
+          "final class D {",
+          "  @Inject D(C c, Provider<B> b) {}",
+          "}");
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "import javax.inject.Singleton;",
+          "",
+          "@Singleton",
+          "@Component",
+          "interface TestComponent {",
+          "  B b();",
+          "  D d();",
+          "}");
+
+  @Test
+  public void warmUp_createsScopedBindingsInWaves() {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(compilerMode.javacopts().append("-Adagger.warmUp=enabled"))
+            .compile(A, B, C, D, COMPONENT);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .containsElementsIn(
+            compilerMode
+                .javaFileBuilder("test.DaggerTestComponent")
+                .addLines(
+                    "package test;",
+                    "",
+                    "import dagger.internal.WarmUpFuture;",
+                    "import java.util.concurrent.Executor;",
+                    "import java.util.concurrent.Future;",
+                    "import javax.inject.Provider;",
+                    "",
+                    GENERATED_CODE_ANNOTATIONS,
+                    "final class DaggerTestComponent implements TestComponent {")
+                // A is in the first wave. B depends on A directly and D depends on A through the
+                // unscoped C, so both are in the second wave. D's Provider<B> doesn't order them.
+                .addLinesIn(
+                    DEFAULT_MODE,
+                    "  public Future<Void> warmUp(Executor executor) {",
+                    "    return WarmUpFuture.start(",
+                    "        executor,",
+                    "        new Provider<?>[] {aProvider},",
+                    "        new Provider<?>[] {bProvider, dProvider});",
+                    "  }")
+                .addLines("}")
+                .build());
+  }
+
+  @Test
+  public void warmUpDisabled_noWarmUpMethod() {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions(compilerMode.javacopts())
+            .compile(A, B, C, D, COMPONENT);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .doesNotContain("warmUp");
+  }
+}
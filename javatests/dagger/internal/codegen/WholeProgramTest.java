@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package dagger.internal.codegen;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static dagger.internal.codegen.Compilers.daggerCompiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import javax.tools.JavaFileObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class WholeProgramTest {
+  private static final JavaFileObject DEP =
+      JavaFileObjects.forSourceLines(
+          "test.Dep",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "",
+          "final class Dep {",
+          "  @Inject Dep() {}",
+          "}");
+  private static final JavaFileObject FOO =
+      JavaFileObjects.forSourceLines(
+          "test.Foo",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "",
+          "final class Foo {",
+          "  @Inject Foo(Dep dep) {}",
+          "}");
+  private static final JavaFileObject BAR =
+      JavaFileObjects.forSourceLines(
+          "test.Bar",
+          "package test;",
+          "",
+          "import javax.inject.Inject;",
+          "",
+          "final class Bar {",
+          "  @Inject Dep dep;",
+          "",
+          "  @Inject Bar() {}",
+          "}");
+  private static final JavaFileObject INTERNAL =
+      JavaFileObjects.forSourceLines(
+          "other.Internal",
+          "package other;",
+          "",
+          "import javax.inject.Inject;",
+          "",
+          "public final class Internal {",
+          "  @Inject Internal() {}",
+          "}");
+  private static final JavaFileObject COMPONENT =
+      JavaFileObjects.forSourceLines(
+          "test.TestComponent",
+          "package test;",
+          "",
+          "import dagger.Component;",
+          "import other.Internal;",
+          "",
+          "@Component",
+          "interface TestComponent {",
+          "  Foo foo();",
+          "  Bar bar();",
+          "  Internal internal();",
+          "}");
+
+  @Test
+  public void wholeProgram_onlyGeneratesReferencedFactories() {
+    Compilation compilation =
+        daggerCompiler()
+            .withOptions("-Adagger.wholeProgram=enabled")
+            .compile(DEP, FOO, BAR, INTERNAL, COMPONENT);
+    assertThat(compilation).succeeded();
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains("return new Foo(new Dep());");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains("return injectBar(new Bar());");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains("instance.dep = new Dep();");
+    assertThat(compilation)
+        .generatedSourceFile("test.DaggerTestComponent")
+        .contentsAsUtf8String()
+        .contains("Internal_Factory.newInstance()");
+
+    // Internal's constructor isn't visible to the component, so its factory is still needed.
+    assertThat(compilation).generatedSourceFile("other.Internal_Factory");
+    assertThat(compilation.generatedSourceFile("test.Dep_Factory").isPresent()).isFalse();
+    assertThat(compilation.generatedSourceFile("test.Foo_Factory").isPresent()).isFalse();
+    assertThat(compilation.generatedSourceFile("test.Bar_Factory").isPresent()).isFalse();
+    assertThat(compilation.generatedSourceFile("test.Bar_MembersInjector").isPresent()).isFalse();
+  }
+
+  @Test
+  public void withoutWholeProgram_generatesAllFactories() {
+    Compilation compilation = daggerCompiler().compile(DEP, FOO, BAR, INTERNAL, COMPONENT);
+    assertThat(compilation).succeeded();
+    assertThat(compilation).generatedSourceFile("test.Dep_Factory");
+    assertThat(compilation).generatedSourceFile("test.Foo_Factory");
+    assertThat(compilation).generatedSourceFile("test.Bar_Factory");
+    assertThat(compilation).generatedSourceFile("test.Bar_MembersInjector");
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.internal.codegen.javapoet;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link BytecodeSizeEstimator}. */
+@RunWith(JUnit4.class)
+public final class BytecodeSizeEstimatorTest {
+  private static final ClassName FOO = ClassName.get("test", "Foo");
+  private static final ClassName DOUBLE_CHECK = ClassName.get("dagger.internal", "DoubleCheck");
+
+  @Test
+  public void constructorCall() {
+    // new, dup, invokespecial, areturn
+    assertThat(BytecodeSizeEstimator.estimate(CodeBlock.of("return new $T();", FOO))).isEqualTo(8);
+  }
+
+  @Test
+  public void packageNamesAreFree() {
+    assertThat(BytecodeSizeEstimator.estimate(CodeBlock.of("return new $T();", FOO)))
+        .isEqualTo(BytecodeSizeEstimator.estimate("return new Foo();"));
+  }
+
+  @Test
+  public void fieldAssignment() {
+    // aload_0, invokestatic, invokestatic, putfield
+    assertThat(
+            BytecodeSizeEstimator.estimate(
+                CodeBlock.of(
+                    "this.fooProvider = $T.provider($T.create());",
+                    DOUBLE_CHECK,
+                    FOO.peerClass("Foo_Factory"))))
+        .isEqualTo(11);
+  }
+
+  @Test
+  public void declarationsAreFree() {
+    assertThat(BytecodeSizeEstimator.estimate("int x = y;"))
+        .isEqualTo(BytecodeSizeEstimator.estimate("x = y;"));
+  }
+
+  @Test
+  public void castsAreCounted() {
+    assertThat(BytecodeSizeEstimator.estimate("return (Foo) local;"))
+        .isEqualTo(BytecodeSizeEstimator.estimate("return local;") + 3);
+    assertThat(BytecodeSizeEstimator.estimate("synchronized (local) {}"))
+        .isEqualTo(BytecodeSizeEstimator.estimate("synchronized local {}"));
+  }
+
+  @Test
+  public void commentsAreFree() {
+    assertThat(BytecodeSizeEstimator.estimate("// new Foo();\n/* new Bar(); */ return;"))
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void doubleCheckedGetter_isNotUnderestimated() {
+    // javac compiles this body to 70 bytes.
+    CodeBlock body =
+        CodeBlock.builder()
+            .addStatement("Object local = binding9")
+            .beginControlFlow("if (local instanceof $T)", FOO)
+            .beginControlFlow("synchronized (local)")
+            .addStatement("local = binding9")
+            .beginControlFlow("if (local instanceof $T)", FOO)
+            .addStatement("local = new $T(Outer.this.shard1().binding10())", FOO)
+            .addStatement("binding9 = $T.reentrantCheck(binding9, local)", DOUBLE_CHECK)
+            .endControlFlow()
+            .endControlFlow()
+            .endControlFlow()
+            .addStatement("return ($T) local", FOO)
+            .build();
+    assertThat(BytecodeSizeEstimator.estimate(body)).isAtLeast(70);
+    assertThat(BytecodeSizeEstimator.estimate(body)).isLessThan(100);
+  }
+
+  @Test
+  public void partition() {
+    CodeBlock small = CodeBlock.of("a = b;"); // 6 bytes
+    CodeBlock large = CodeBlock.of("a = b + c + d + e;"); // 15 bytes
+    assertThat(BytecodeSizeEstimator.partition(ImmutableList.of(small, small, small, large), 12))
+        .containsExactly(
+            ImmutableList.of(small, small), ImmutableList.of(small), ImmutableList.of(large))
+        .inOrder();
+    assertThat(BytecodeSizeEstimator.partition(ImmutableList.of(), 12)).isEmpty();
+  }
+
+  @Test
+  public void method_countsImplicitReturn() {
+    assertThat(BytecodeSizeEstimator.estimate(MethodSpec.methodBuilder("m").build())).isEqualTo(1);
+  }
+}
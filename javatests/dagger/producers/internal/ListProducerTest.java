@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2020 The Dagger Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package dagger.producers.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import dagger.producers.Producer;
+import dagger.producers.Producers;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests {@link ListProducer}.
+ */
+@RunWith(JUnit4.class)
+public class ListProducerTest {
+  @Test
+  public void success() throws Exception {
+    Producer<List<Integer>> producer =
+        ListProducer.<Integer>builder(3)
+            .addProducer(Producers.immediateProducer(7))
+            .addCollectionProducer(
+                Producers.<List<Integer>>immediateProducer(ImmutableList.of(5, 7)))
+            .addProducer(Producers.immediateProducer(1))
+            .build();
+    assertThat(producer.get().get()).containsExactly(7, 5, 7, 1).inOrder();
+  }
+
+  @Test
+  public void delegateNpe() throws Exception {
+    Producer<List<Integer>> producer =
+        ListProducer.<Integer>builder(1)
+            .addProducer(Producers.<Integer>immediateProducer(null))
+            .build();
+    ListenableFuture<List<Integer>> future = producer.get();
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e).hasCauseThat().isInstanceOf(NullPointerException.class);
+    }
+  }
+
+  @Test
+  public void delegateListNpe() throws Exception {
+    Producer<List<Integer>> producer =
+        ListProducer.<Integer>builder(1)
+            .addCollectionProducer(Producers.<List<Integer>>immediateProducer(null))
+            .build();
+    ListenableFuture<List<Integer>> future = producer.get();
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e).hasCauseThat().isInstanceOf(NullPointerException.class);
+    }
+  }
+
+  @Test
+  public void delegateElementNpe() throws Exception {
+    Producer<List<Integer>> producer =
+        ListProducer.<Integer>builder(2)
+            .addCollectionProducer(
+                Producers.<List<Integer>>immediateProducer(ImmutableList.of(1, 2)))
+            .addCollectionProducer(
+                Producers.<List<Integer>>immediateProducer(
+                    Collections.<Integer>singletonList(null)))
+            .build();
+    ListenableFuture<List<Integer>> future = producer.get();
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e).hasCauseThat().isInstanceOf(NullPointerException.class);
+    }
+  }
+}